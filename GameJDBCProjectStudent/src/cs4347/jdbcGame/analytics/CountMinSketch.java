@@ -0,0 +1,102 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.analytics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch of event counts per long key: depth rows of width
+ * counters, each key adding to one counter per row. The estimate is the
+ * smallest of its counters, never below the true count and, with
+ * probability 1 - e^-depth, at most e / width of the total count above it.
+ * Counters are atomic, so any number of threads can add without locking.
+ */
+public final class CountMinSketch
+{
+    private final int width;
+    private final int depth;
+    private final AtomicLongArray counters;
+
+    public CountMinSketch(int width, int depth)
+    {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Width and depth must be positive: " + width + " x " + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new AtomicLongArray(width * depth);
+    }
+
+    public void add(long key, long count)
+    {
+        long hash = mix(key);
+        for (int row = 0; row < depth; row++) {
+            counters.getAndAdd(slot(row, hash), count);
+        }
+    }
+
+    public long estimate(long key)
+    {
+        long hash = mix(key);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(slot(row, hash)));
+        }
+        return min;
+    }
+
+    /**
+     * Zeroes every counter. Adds that race with it may survive.
+     */
+    public void clear()
+    {
+        for (int idx = 0; idx < counters.length(); idx++) {
+            counters.set(idx, 0);
+        }
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * The key's counter in one row, for combining sketches row by row.
+     */
+    long counter(int row, long hash)
+    {
+        return counters.get(slot(row, hash));
+    }
+
+    // Row i uses h1 + i * h2 of one 64-bit hash.
+    private int slot(int row, long hash)
+    {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return row * width + (int) (((h1 + (long) row * h2) & Long.MAX_VALUE) % width);
+    }
+
+    // The 64-bit finalizer of MurmurHash3.
+    static long mix(long h)
+    {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,291 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.analytics;
+
+import java.util.Arrays;
+
+import cs4347.jdbcGame.dao.RowVisitor;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedRow;
+
+/**
+ * Column-oriented batch of GAMES_PLAYED rows. Each attribute is held in its own
+ * primitive array, so a row costs 36 bytes instead of a GamesPlayed entity with
+ * boxed IDs and a Date. Fill it from a GamesPlayedDAO scan, e.g.
+ * <code>gamesPlayedDAO.scanAll(connection, columns)</code>.
+ * 
+ * The operations below are plain counted loops over the arrays with no
+ * per-row calls or allocation, which keeps them eligible for JIT
+ * auto-vectorization.
+ */
+public class GamesPlayedColumns implements RowVisitor<GamesPlayedRow>
+{
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private long[] ids;
+    private long[] playerIDs;
+    private long[] gameIDs;
+    private long[] finishedEpochMillis;
+    private int[] scores;
+    private int size;
+
+    public GamesPlayedColumns()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public GamesPlayedColumns(int capacity)
+    {
+        capacity = Math.max(capacity, 1);
+        ids = new long[capacity];
+        playerIDs = new long[capacity];
+        gameIDs = new long[capacity];
+        finishedEpochMillis = new long[capacity];
+        scores = new int[capacity];
+    }
+
+    /**
+     * Appends the current scan row.
+     */
+    @Override
+    public void visit(GamesPlayedRow row)
+    {
+        add(row.getId(), row.getPlayerID(), row.getGameID(), row.getTimeFinished(), row.getScore());
+    }
+
+    public void add(long id, long playerID, long gameID, long timeFinished, int score)
+    {
+        if (size == ids.length) {
+            grow(size + (size >> 1) + 1);
+        }
+        ids[size] = id;
+        playerIDs[size] = playerID;
+        gameIDs[size] = gameID;
+        finishedEpochMillis[size] = timeFinished;
+        scores[size] = score;
+        size++;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public long getId(int row)
+    {
+        return ids[checkRow(row)];
+    }
+
+    public long getPlayerID(int row)
+    {
+        return playerIDs[checkRow(row)];
+    }
+
+    public long getGameID(int row)
+    {
+        return gameIDs[checkRow(row)];
+    }
+
+    public long getTimeFinished(int row)
+    {
+        return finishedEpochMillis[checkRow(row)];
+    }
+
+    public int getScore(int row)
+    {
+        return scores[checkRow(row)];
+    }
+
+    /**
+     * Copies one row into a new GamesPlayed entity.
+     */
+    public GamesPlayed toGamesPlayed(int row)
+    {
+        GamesPlayedRow view = new GamesPlayedRow();
+        checkRow(row);
+        view.setId(ids[row]);
+        view.setPlayerID(playerIDs[row]);
+        view.setGameID(gameIDs[row]);
+        view.setTimeFinished(finishedEpochMillis[row]);
+        view.setScore(scores[row]);
+        return view.toGamesPlayed();
+    }
+
+    /**
+     * The score column, trimmed to size. The returned array is a copy.
+     */
+    public int[] scores()
+    {
+        return Arrays.copyOf(scores, size);
+    }
+
+    /**
+     * The timeFinished column in epoch milliseconds, trimmed to size. The
+     * returned array is a copy.
+     */
+    public long[] finishedEpochMillis()
+    {
+        return Arrays.copyOf(finishedEpochMillis, size);
+    }
+
+    /**
+     * Returns the rows played for the given game.
+     */
+    public GamesPlayedColumns filterByGame(long gameID)
+    {
+        int[] selection = new int[size];
+        int count = 0;
+        for (int idx = 0; idx < size; idx++) {
+            selection[count] = idx;
+            count += gameIDs[idx] == gameID ? 1 : 0;
+        }
+        return gather(selection, count);
+    }
+
+    /**
+     * Returns the rows played by the given player.
+     */
+    public GamesPlayedColumns filterByPlayer(long playerID)
+    {
+        int[] selection = new int[size];
+        int count = 0;
+        for (int idx = 0; idx < size; idx++) {
+            selection[count] = idx;
+            count += playerIDs[idx] == playerID ? 1 : 0;
+        }
+        return gather(selection, count);
+    }
+
+    /**
+     * Returns the rows with minScore <= score <= maxScore.
+     */
+    public GamesPlayedColumns filterByScore(int minScore, int maxScore)
+    {
+        int[] selection = new int[size];
+        int count = 0;
+        for (int idx = 0; idx < size; idx++) {
+            int score = scores[idx];
+            selection[count] = idx;
+            count += (score >= minScore & score <= maxScore) ? 1 : 0;
+        }
+        return gather(selection, count);
+    }
+
+    /**
+     * Returns the rows finished in [start, end], both in epoch milliseconds.
+     */
+    public GamesPlayedColumns filterByTimeFinished(long start, long end)
+    {
+        int[] selection = new int[size];
+        int count = 0;
+        for (int idx = 0; idx < size; idx++) {
+            long time = finishedEpochMillis[idx];
+            selection[count] = idx;
+            count += (time >= start & time <= end) ? 1 : 0;
+        }
+        return gather(selection, count);
+    }
+
+    /**
+     * Number of plays per game. The result is ordered by game ID.
+     */
+    public GroupCounts countByGame()
+    {
+        return GroupCounts.of(Arrays.copyOf(gameIDs, size));
+    }
+
+    /**
+     * Number of plays per player. The result is ordered by player ID.
+     */
+    public GroupCounts countByPlayer()
+    {
+        return GroupCounts.of(Arrays.copyOf(playerIDs, size));
+    }
+
+    /**
+     * Histogram of scores in buckets of the given width starting at minScore.
+     * Scores below minScore go to the first bucket and scores past the last
+     * bucket go to the last one.
+     */
+    public int[] scoreHistogram(int minScore, int bucketWidth, int bucketCount)
+    {
+        return ScoreKernels.histogram(scores, 0, size, minScore, bucketWidth, bucketCount);
+    }
+
+    public long scoreSum()
+    {
+        return ScoreKernels.sum(scores, 0, size);
+    }
+
+    /**
+     * Lowest score, or Integer.MAX_VALUE if there are no rows.
+     */
+    public int minScore()
+    {
+        return ScoreKernels.min(scores, 0, size);
+    }
+
+    /**
+     * Highest score, or Integer.MIN_VALUE if there are no rows.
+     */
+    public int maxScore()
+    {
+        return ScoreKernels.max(scores, 0, size);
+    }
+
+    /**
+     * Number of rows with score >= threshold.
+     */
+    public int countScoresAtLeast(int threshold)
+    {
+        return ScoreKernels.countAtLeast(scores, 0, size, threshold);
+    }
+
+    /**
+     * Number of rows finished in [start, end], both in epoch milliseconds.
+     */
+    public int countFinishedBetween(long start, long end)
+    {
+        return ScoreKernels.countBetween(finishedEpochMillis, 0, size, start, end);
+    }
+
+    private GamesPlayedColumns gather(int[] selection, int count)
+    {
+        GamesPlayedColumns result = new GamesPlayedColumns(count);
+        for (int idx = 0; idx < count; idx++) {
+            int row = selection[idx];
+            result.ids[idx] = ids[row];
+            result.playerIDs[idx] = playerIDs[row];
+            result.gameIDs[idx] = gameIDs[row];
+            result.finishedEpochMillis[idx] = finishedEpochMillis[row];
+            result.scores[idx] = scores[row];
+        }
+        result.size = count;
+        return result;
+    }
+
+    private void grow(int capacity)
+    {
+        ids = Arrays.copyOf(ids, capacity);
+        playerIDs = Arrays.copyOf(playerIDs, capacity);
+        gameIDs = Arrays.copyOf(gameIDs, capacity);
+        finishedEpochMillis = Arrays.copyOf(finishedEpochMillis, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+    }
+
+    private int checkRow(int row)
+    {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        }
+        return row;
+    }
+}
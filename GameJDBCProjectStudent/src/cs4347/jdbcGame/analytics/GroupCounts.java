@@ -0,0 +1,77 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Result of a group-by count over a long key column: parallel arrays of
+ * distinct keys, in ascending order, and the number of rows per key.
+ */
+public class GroupCounts
+{
+    private final long[] keys;
+    private final int[] counts;
+
+    GroupCounts(long[] keys, int[] counts)
+    {
+        this.keys = keys;
+        this.counts = counts;
+    }
+
+    /**
+     * Groups the given key column. The array is sorted in place.
+     */
+    static GroupCounts of(long[] column)
+    {
+        Arrays.sort(column);
+        int groups = 0;
+        for (int idx = 0; idx < column.length; idx++) {
+            groups += (idx == 0 || column[idx] != column[idx - 1]) ? 1 : 0;
+        }
+
+        long[] keys = new long[groups];
+        int[] counts = new int[groups];
+        int group = -1;
+        for (int idx = 0; idx < column.length; idx++) {
+            if (idx == 0 || column[idx] != column[idx - 1]) {
+                group++;
+                keys[group] = column[idx];
+            }
+            counts[group]++;
+        }
+        return new GroupCounts(keys, counts);
+    }
+
+    public int size()
+    {
+        return keys.length;
+    }
+
+    public long getKey(int group)
+    {
+        return keys[group];
+    }
+
+    public int getCount(int group)
+    {
+        return counts[group];
+    }
+
+    /**
+     * Returns the count for the given key, or 0 if the key does not occur.
+     */
+    public int countFor(long key)
+    {
+        int group = Arrays.binarySearch(keys, key);
+        return group < 0 ? 0 : counts[group];
+    }
+}
@@ -0,0 +1,155 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.analytics;
+
+/**
+ * Aggregation kernels over primitive score and timestamp columns such as those
+ * held by GamesPlayedColumns. Every method takes a [from, to) range so callers
+ * can aggregate a slice without copying it.
+ * 
+ * Each kernel is a single counted loop with no calls, which HotSpot's C2
+ * compiler unrolls and, where it can, turns into SIMD code. The threshold and
+ * range counts use an overflow-safe sign-bit comparison instead of an if or a
+ * ternary, because C2 does not vectorize conditional moves. The project targets
+ * Java 10, so the incubating jdk.incubator.vector API is not used.
+ * ScoreKernelsBenchmark in the testing project compares each kernel with a
+ * plain loop.
+ */
+public final class ScoreKernels
+{
+    private ScoreKernels()
+    {
+    }
+
+    /**
+     * Sum of values[from, to) widened to long.
+     */
+    public static long sum(int[] values, int from, int to)
+    {
+        checkRange(values.length, from, to);
+        long sum = 0;
+        for (int idx = from; idx < to; idx++) {
+            sum += values[idx];
+        }
+        return sum;
+    }
+
+    /**
+     * Minimum of values[from, to), or Integer.MAX_VALUE for an empty range.
+     */
+    public static int min(int[] values, int from, int to)
+    {
+        checkRange(values.length, from, to);
+        int min = Integer.MAX_VALUE;
+        for (int idx = from; idx < to; idx++) {
+            // A running minimum is updated rarely, so this branch predicts
+            // well and beats Math.min() on real score data.
+            if (values[idx] < min) {
+                min = values[idx];
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Maximum of values[from, to), or Integer.MIN_VALUE for an empty range.
+     */
+    public static int max(int[] values, int from, int to)
+    {
+        checkRange(values.length, from, to);
+        int max = Integer.MIN_VALUE;
+        for (int idx = from; idx < to; idx++) {
+            if (values[idx] > max) {
+                max = values[idx];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Number of values[from, to) that are >= threshold.
+     */
+    public static int countAtLeast(int[] values, int from, int to, int threshold)
+    {
+        checkRange(values.length, from, to);
+        int below = 0;
+        for (int idx = from; idx < to; idx++) {
+            int value = values[idx];
+            int diff = value - threshold;
+            // Sign bit of (value - threshold), corrected for overflow
+            // (Hacker's Delight 2-12): 1 exactly when value < threshold.
+            below += (diff ^ ((value ^ threshold) & (diff ^ value))) >>> 31;
+        }
+        return (to - from) - below;
+    }
+
+    /**
+     * Number of timestamps[from, to) in [start, end].
+     */
+    public static int countBetween(long[] timestamps, int from, int to, long start, long end)
+    {
+        checkRange(timestamps.length, from, to);
+        long outside = 0;
+        for (int idx = from; idx < to; idx++) {
+            long value = timestamps[idx];
+            long belowStart = value - start;
+            belowStart ^= (value ^ start) & (belowStart ^ value);
+            long afterEnd = end - value;
+            afterEnd ^= (end ^ value) & (afterEnd ^ end);
+            outside += (belowStart | afterEnd) >>> 63;
+        }
+        return (int) ((to - from) - outside);
+    }
+
+    /**
+     * Histogram of values[from, to) in buckets of bucketWidth starting at
+     * minValue. Out-of-range values are clamped into the first or last bucket.
+     */
+    public static int[] histogram(int[] values, int from, int to, int minValue, int bucketWidth, int bucketCount)
+    {
+        checkRange(values.length, from, to);
+        if (bucketWidth <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("bucketWidth and bucketCount must be positive");
+        }
+        int[] histogram = new int[bucketCount];
+        if (minValue >= 0) {
+            // Clamping first keeps (value - minValue) in int range, so the
+            // bucket is a single int division. Out-of-range values are rare,
+            // so the clamps are branches that predict well.
+            int maxValue = (int) Math.min((long) minValue + (long) bucketWidth * bucketCount - 1, Integer.MAX_VALUE);
+            for (int idx = from; idx < to; idx++) {
+                int value = values[idx];
+                if (value < minValue) {
+                    value = minValue;
+                }
+                if (value > maxValue) {
+                    value = maxValue;
+                }
+                histogram[(value - minValue) / bucketWidth]++;
+            }
+        }
+        else {
+            int last = bucketCount - 1;
+            for (int idx = from; idx < to; idx++) {
+                long bucket = ((long) values[idx] - minValue) / bucketWidth;
+                histogram[(int) Math.min(Math.max(bucket, 0), last)]++;
+            }
+        }
+        return histogram;
+    }
+
+    private static void checkRange(int length, int from, int to)
+    {
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException("[" + from + ", " + to + ") of " + length);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.analytics;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Date;
+
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedRow;
+import cs4347.jdbcGame.index.DailySketches;
+import cs4347.jdbcGame.services.WriteListener;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Score percentiles per game from TDigest sketches: one for all plays and
+ * one per day of timeFinished, kept for retentionDays after the latest day
+ * seen. Memory per game is bounded by the compression and the retention,
+ * not by the number of plays, and a percentile costs one pass over at most
+ * a few hundred centroids. Ranges of days merge the daily digests.
+ * 
+ * The listener counts created plays; updates and deletes are not taken out
+ * until rebuild(). writeTo() and readFrom() persist the digests.
+ */
+public class ScorePercentiles extends DailySketches<TDigest>
+{
+    public static final int DEFAULT_RETENTION_DAYS = 28;
+
+    private static final int FORMAT_MAGIC = 0x4A475450;
+
+    private final double compression;
+
+    public ScorePercentiles()
+    {
+        this(TDigest.DEFAULT_COMPRESSION, DEFAULT_RETENTION_DAYS);
+    }
+
+    public ScorePercentiles(double compression, int retentionDays)
+    {
+        super(retentionDays, false);
+        this.compression = compression;
+        // Rejects a bad compression now rather than on the first play.
+        new TDigest(compression);
+    }
+
+    /**
+     * Counts a score. A NULL timeFinished counts toward the all-time digest
+     * only.
+     */
+    public void add(long gameID, int score, Date timeFinished)
+    {
+        record(NO_ROW, gameID, score, timeFinished);
+    }
+
+    /**
+     * The given quantiles, e.g. 0.5, 0.9 and 0.99, of all the game's scores;
+     * NaN for a game without plays.
+     */
+    public double[] quantiles(long gameID, double... qs)
+    {
+        double[] result = readAll(gameID, all -> quantilesOf(all, qs), null);
+        if (result == null) {
+            result = new double[qs.length];
+            Arrays.fill(result, Double.NaN);
+        }
+        return result;
+    }
+
+    /**
+     * The quantiles of the scores finished from one day to another,
+     * inclusive. Days older than the retention are not counted.
+     */
+    public double[] quantiles(long gameID, Date from, Date to, double... qs)
+    {
+        return quantilesOf(mergeDays(gameID, from, to), qs);
+    }
+
+    /**
+     * A copy of the game's all-time digest, or null.
+     */
+    public TDigest getDigest(long gameID)
+    {
+        return readAll(gameID, TDigest::copy, null);
+    }
+
+    /**
+     * Exact quantiles of one game's scores, interpolated the same way, from
+     * a scan of its plays.
+     */
+    public static double[] exactQuantiles(Connection connection, GamesPlayedDAO gamesPlayedDAO, long gameID,
+            double... qs) throws SQLException, DAOException
+    {
+        GamesPlayedColumns columns = new GamesPlayedColumns();
+        gamesPlayedDAO.scanByGame(connection, gameID, columns);
+        int[] scores = columns.scores();
+        Arrays.sort(scores);
+        double[] result = new double[qs.length];
+        for (int idx = 0; idx < qs.length; idx++) {
+            if (scores.length == 0) {
+                result[idx] = Double.NaN;
+                continue;
+            }
+            double rank = Math.max(0, Math.min(1, qs[idx])) * (scores.length - 1);
+            int below = (int) rank;
+            int above = Math.min(below + 1, scores.length - 1);
+            result[idx] = scores[below] + (scores[above] - scores[below]) * (rank - below);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the scores of created GAMES_PLAYED rows.
+     */
+    public WriteListener<GamesPlayed> listener()
+    {
+        return new WriteListener<GamesPlayed>()
+        {
+            @Override
+            public void created(GamesPlayed entity)
+            {
+                record(entity.getId() == null ? NO_ROW : entity.getId(), entity.getGameID(), entity.getScore(),
+                        entity.getTimeFinished());
+            }
+
+            @Override
+            public void updated(GamesPlayed before, GamesPlayed after)
+            {
+            }
+
+            @Override
+            public void deleted(GamesPlayed entity)
+            {
+            }
+        };
+    }
+
+    /**
+     * Writes every digest, for readFrom().
+     */
+    public void writeTo(DataOutputStream out) throws IOException
+    {
+        out.writeInt(FORMAT_MAGIC);
+        writeSketches(out, TDigest::toBytes);
+    }
+
+    /**
+     * Replaces every digest with those written by writeTo().
+     */
+    public void readFrom(DataInputStream in) throws IOException
+    {
+        if (in.readInt() != FORMAT_MAGIC) {
+            throw new IOException("Not a score percentile file");
+        }
+        readSketches(in, TDigest::fromBytes);
+    }
+
+    @Override
+    protected TDigest newSketch()
+    {
+        return new TDigest(compression);
+    }
+
+    @Override
+    protected void addTo(TDigest sketch, long score)
+    {
+        sketch.add(score);
+    }
+
+    @Override
+    protected void mergeInto(TDigest target, TDigest source)
+    {
+        target.merge(source);
+    }
+
+    @Override
+    protected long valueOf(GamesPlayedRow row)
+    {
+        return row.getScore();
+    }
+
+    private static double[] quantilesOf(TDigest digest, double... qs)
+    {
+        double[] result = new double[qs.length];
+        for (int idx = 0; idx < qs.length; idx++) {
+            result[idx] = digest.quantile(qs[idx]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,306 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.analytics;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Merging t-digest: a mergeable quantile sketch that keeps a bounded number
+ * of weighted centroids, small ones near the tails and large ones near the
+ * median, so p99 is about as accurate as p50. With compression delta the
+ * scale function spans delta / 2 units, so it holds about delta / 2
+ * centroids plus a buffer of 5 * delta new values, whatever the number of
+ * values added. At the default of 100 that is some 60 centroids: about
+ * 9 KB of arrays, 8 KB of them the buffer, and 1 KB from toBytes().
+ * Quantiles interpolate between centroid means and are exact at q = 0 and
+ * q = 1. Not thread-safe.
+ */
+public final class TDigest
+{
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+    // Grown on demand up to bufferCapacity, so a digest of a few values
+    // stays small.
+    private final int bufferCapacity;
+    private double[] bufferValues = new double[16];
+    private double[] bufferWeights = new double[16];
+    private int buffered;
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest()
+    {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(double compression)
+    {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compression must be at least 10: " + compression);
+        }
+        this.compression = compression;
+        means = new double[16];
+        weights = new double[16];
+        bufferCapacity = (int) (5 * compression);
+    }
+
+    public void add(double value)
+    {
+        add(value, 1);
+    }
+
+    public void add(double value, double weight)
+    {
+        if (buffered == bufferValues.length) {
+            if (buffered < bufferCapacity) {
+                int capacity = Math.min(bufferCapacity, buffered * 2);
+                bufferValues = Arrays.copyOf(bufferValues, capacity);
+                bufferWeights = Arrays.copyOf(bufferWeights, capacity);
+            }
+            else {
+                compress();
+            }
+        }
+        bufferValues[buffered] = value;
+        bufferWeights[buffered++] = weight;
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds everything the other digest has seen.
+     */
+    public void merge(TDigest other)
+    {
+        other.compress();
+        for (int idx = 0; idx < other.centroids; idx++) {
+            add(other.means[idx], other.weights[idx]);
+        }
+        if (other.totalWeight > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    /**
+     * The value below which a fraction q of the values lie, or NaN if
+     * nothing was added.
+     */
+    public double quantile(double q)
+    {
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (q <= 0) {
+            return min;
+        }
+        if (q >= 1) {
+            return max;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+        double index = q * totalWeight;
+        // Half of the first centroid lies between min and its mean.
+        if (index < weights[0] / 2) {
+            return min + (means[0] - min) * index / (weights[0] / 2);
+        }
+        double cumulative = weights[0] / 2;
+        for (int idx = 0; idx < centroids - 1; idx++) {
+            double step = (weights[idx] + weights[idx + 1]) / 2;
+            if (cumulative + step > index) {
+                double fraction = (index - cumulative) / step;
+                return means[idx] + (means[idx + 1] - means[idx]) * fraction;
+            }
+            cumulative += step;
+        }
+        double last = weights[centroids - 1] / 2;
+        double fraction = Math.min(1, (index - cumulative) / last);
+        return means[centroids - 1] + (max - means[centroids - 1]) * fraction;
+    }
+
+    public double getTotalWeight()
+    {
+        return totalWeight;
+    }
+
+    public double getCompression()
+    {
+        return compression;
+    }
+
+    /**
+     * Number of centroids once the buffer is merged in.
+     */
+    public int getCentroidCount()
+    {
+        compress();
+        return centroids;
+    }
+
+    public TDigest copy()
+    {
+        TDigest copy = new TDigest(compression);
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Compression, min, max and the count, followed by each centroid's
+     * mean and weight.
+     */
+    public byte[] toBytes()
+    {
+        compress();
+        ByteBuffer out = ByteBuffer.allocate(28 + 16 * centroids);
+        out.putDouble(compression);
+        out.putDouble(min);
+        out.putDouble(max);
+        out.putInt(centroids);
+        for (int idx = 0; idx < centroids; idx++) {
+            out.putDouble(means[idx]);
+            out.putDouble(weights[idx]);
+        }
+        return out.array();
+    }
+
+    public static TDigest fromBytes(byte[] bytes)
+    {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        TDigest digest = new TDigest(in.getDouble());
+        double min = in.getDouble();
+        double max = in.getDouble();
+        int count = in.getInt();
+        for (int idx = 0; idx < count; idx++) {
+            digest.add(in.getDouble(), in.getDouble());
+        }
+        if (count > 0) {
+            digest.min = min;
+            digest.max = max;
+        }
+        return digest;
+    }
+
+    /**
+     * Sorts the buffer into the centroids and merges neighbours while the
+     * merged centroid spans at most one unit of the scale function
+     * k(q) = delta / (2 pi) * asin(2q - 1).
+     */
+    private void compress()
+    {
+        if (buffered == 0) {
+            return;
+        }
+        int count = centroids + buffered;
+        double[] values = Arrays.copyOf(means, count);
+        double[] counts = Arrays.copyOf(weights, count);
+        System.arraycopy(bufferValues, 0, values, centroids, buffered);
+        System.arraycopy(bufferWeights, 0, counts, centroids, buffered);
+        sort(values, counts, 0, count - 1);
+
+        int out = 0;
+        double mean = values[0];
+        double weight = counts[0];
+        double before = 0;
+        double limit = totalWeight * nextQuantileLimit(0);
+        for (int idx = 1; idx < count; idx++) {
+            if (before + weight + counts[idx] <= limit) {
+                weight += counts[idx];
+                mean += (values[idx] - mean) * counts[idx] / weight;
+            }
+            else {
+                out = emit(out, mean, weight);
+                before += weight;
+                limit = totalWeight * nextQuantileLimit(before / totalWeight);
+                mean = values[idx];
+                weight = counts[idx];
+            }
+        }
+        centroids = emit(out, mean, weight);
+        buffered = 0;
+    }
+
+    private int emit(int out, double mean, double weight)
+    {
+        if (out == means.length) {
+            means = Arrays.copyOf(means, out * 2);
+            weights = Arrays.copyOf(weights, out * 2);
+        }
+        means[out] = mean;
+        weights[out] = weight;
+        return out + 1;
+    }
+
+    /**
+     * The quantile one unit of k above q.
+     */
+    private double nextQuantileLimit(double q)
+    {
+        double k = Math.asin(2 * Math.min(1, q) - 1) + 2 * Math.PI / compression;
+        return (Math.sin(Math.min(k, Math.PI / 2)) + 1) / 2;
+    }
+
+    // Quicksort of the values, moving the weights along.
+    private static void sort(double[] values, double[] counts, int lo, int hi)
+    {
+        while (lo < hi) {
+            if (hi - lo < 16) {
+                for (int i = lo + 1; i <= hi; i++) {
+                    for (int j = i; j > lo && values[j - 1] > values[j]; j--) {
+                        swap(values, counts, j - 1, j);
+                    }
+                }
+                return;
+            }
+            double pivot = values[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, counts, i++, j--);
+                }
+            }
+            // Recurse into the smaller half to bound the stack.
+            if (j - lo < hi - i) {
+                sort(values, counts, lo, j);
+                lo = i;
+            }
+            else {
+                sort(values, counts, i, hi);
+                hi = j;
+            }
+        }
+    }
+
+    private static void swap(double[] values, double[] counts, int i, int j)
+    {
+        double value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+        double count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+    }
+}
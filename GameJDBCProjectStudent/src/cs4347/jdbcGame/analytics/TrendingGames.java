@@ -0,0 +1,280 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.analytics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.services.WriteListener;
+
+/**
+ * "Trending now": the games with the most plays and purchases over a
+ * sliding window, e.g. the last hour or day. The window is a ring of slots,
+ * each a CountMinSketch of the events in its slice of time, and a game's
+ * score is the weighted event count summed over the live slots. Recording
+ * an event is a handful of atomic adds and never blocks.
+ * 
+ * Heavy hitters are tracked in a bounded candidate set: a game joins once
+ * its score reaches that of the weakest candidate kept at the last prune,
+ * and when the set reaches twice its capacity, or a slot expires, it is
+ * pruned back to the best candidates by a writer that finds the prune lock
+ * free. top() scores the candidates and keeps the best k in a heap.
+ * 
+ * <pre>
+ * TrendingGames lastHour = new TrendingGames(3600000L, 12);
+ * gamesPlayedService.addListener(lastHour.playsListener());
+ * gamesOwnedService.addListener(lastHour.purchasesListener());
+ * </pre>
+ */
+public class TrendingGames
+{
+    public static final int DEFAULT_WIDTH = 1024;
+    public static final int DEFAULT_DEPTH = 4;
+    public static final int DEFAULT_CANDIDATES = 1000;
+
+    private final long slotMillis;
+    private final Slot[] slots;
+    private final int depth;
+    private final int capacity;
+    private final long playWeight;
+    private final long purchaseWeight;
+    private final LongSupplier clock;
+    private final Set<Long> candidates = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock pruneLock = new ReentrantLock();
+    private volatile long admission;
+
+    /**
+     * A window of windowMillis in the given number of slots, counting a
+     * play as 1 and a purchase as 5.
+     */
+    public TrendingGames(long windowMillis, int slotCount)
+    {
+        this(windowMillis, slotCount, DEFAULT_WIDTH, DEFAULT_DEPTH, DEFAULT_CANDIDATES, 1, 5,
+                System::currentTimeMillis);
+    }
+
+    /**
+     * The window slides a slot at a time, so more slots make it smoother.
+     * Each slot is a width by depth sketch of longs.
+     */
+    public TrendingGames(long windowMillis, int slotCount, int width, int depth, int candidates, long playWeight,
+            long purchaseWeight, LongSupplier clock)
+    {
+        this.slotMillis = Math.max(1, windowMillis / slotCount);
+        this.slots = new Slot[slotCount];
+        for (int idx = 0; idx < slotCount; idx++) {
+            slots[idx] = new Slot(new CountMinSketch(width, depth));
+        }
+        this.depth = depth;
+        this.capacity = candidates;
+        this.playWeight = playWeight;
+        this.purchaseWeight = purchaseWeight;
+        this.clock = clock;
+    }
+
+    /**
+     * Adds weight to the game's score in the current slot.
+     */
+    public void record(long gameID, long weight)
+    {
+        long slotNumber = clock.getAsLong() / slotMillis;
+        Slot slot = slots[(int) Math.floorMod(slotNumber, (long) slots.length)];
+        boolean expired = false;
+        if (slot.number != slotNumber) {
+            synchronized (slot) {
+                if (slot.number < slotNumber) {
+                    slot.sketch.clear();
+                    slot.number = slotNumber;
+                    expired = true;
+                }
+            }
+        }
+        slot.sketch.add(gameID, weight);
+
+        if (!candidates.contains(gameID) && (candidates.size() < capacity || score(gameID) >= admission)) {
+            candidates.add(gameID);
+        }
+        if (expired || candidates.size() >= 2 * capacity) {
+            prune();
+        }
+    }
+
+    /**
+     * The game's weighted event count over the window. Like any count-min
+     * estimate it may be high, never low.
+     */
+    public long score(long gameID)
+    {
+        long hash = CountMinSketch.mix(gameID);
+        long oldest = clock.getAsLong() / slotMillis - slots.length + 1;
+        long min = Long.MAX_VALUE;
+        // Each row summed over the slots overestimates, so the smallest sum
+        // is the estimate.
+        for (int row = 0; row < depth; row++) {
+            long sum = 0;
+            for (Slot slot : slots) {
+                if (slot.number >= oldest) {
+                    sum += slot.sketch.counter(row, hash);
+                }
+            }
+            min = Math.min(min, sum);
+        }
+        return min;
+    }
+
+    /**
+     * The k highest scoring games, best first.
+     */
+    public List<Trend> top(int k)
+    {
+        PriorityQueue<Trend> heap = new PriorityQueue<Trend>(Math.max(1, k + 1),
+                (a, b) -> Long.compare(a.score, b.score));
+        for (Long gameID : candidates) {
+            long score = score(gameID);
+            if (score <= 0) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(new Trend(gameID, score));
+            }
+            else if (k > 0 && score > heap.peek().score) {
+                heap.poll();
+                heap.add(new Trend(gameID, score));
+            }
+        }
+        List<Trend> result = new ArrayList<Trend>(heap);
+        result.sort((a, b) -> a.score != b.score ? Long.compare(b.score, a.score) : Long.compare(a.gameID, b.gameID));
+        return result;
+    }
+
+    public WriteListener<GamesPlayed> playsListener()
+    {
+        return new WriteListener<GamesPlayed>()
+        {
+            @Override
+            public void created(GamesPlayed entity)
+            {
+                record(entity.getGameID(), playWeight);
+            }
+
+            @Override
+            public void updated(GamesPlayed before, GamesPlayed after)
+            {
+            }
+
+            @Override
+            public void deleted(GamesPlayed entity)
+            {
+            }
+        };
+    }
+
+    public WriteListener<GamesOwned> purchasesListener()
+    {
+        return new WriteListener<GamesOwned>()
+        {
+            @Override
+            public void created(GamesOwned entity)
+            {
+                record(entity.getGameID(), purchaseWeight);
+            }
+
+            @Override
+            public void updated(GamesOwned before, GamesOwned after)
+            {
+            }
+
+            @Override
+            public void deleted(GamesOwned entity)
+            {
+            }
+        };
+    }
+
+    public int getCandidateCount()
+    {
+        return candidates.size();
+    }
+
+    /**
+     * Keeps the best capacity candidates and raises the admission score to
+     * the weakest of them. Skipped if another thread is pruning.
+     */
+    private void prune()
+    {
+        if (!pruneLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Trend> kept = top(capacity);
+            Set<Long> keep = ConcurrentHashMap.newKeySet();
+            for (Trend trend : kept) {
+                keep.add(trend.gameID);
+            }
+            candidates.retainAll(keep);
+            admission = kept.size() < capacity ? 0 : kept.get(kept.size() - 1).score;
+        }
+        finally {
+            pruneLock.unlock();
+        }
+    }
+
+    /**
+     * A game and its score over the window.
+     */
+    public static final class Trend
+    {
+        private final long gameID;
+        private final long score;
+
+        Trend(long gameID, long score)
+        {
+            this.gameID = gameID;
+            this.score = score;
+        }
+
+        public long getGameID()
+        {
+            return gameID;
+        }
+
+        public long getScore()
+        {
+            return score;
+        }
+
+        @Override
+        public String toString()
+        {
+            return gameID + "=" + score;
+        }
+    }
+
+    private static final class Slot
+    {
+        final CountMinSketch sketch;
+        // The slot's number in time, clock / slotMillis, or -1 before use.
+        volatile long number = -1;
+
+        Slot(CountMinSketch sketch)
+        {
+            this.sketch = sketch;
+        }
+    }
+}
@@ -64,4 +64,20 @@ public interface GameDAO
      */
     List<Game> retrieveByReleaseDate(Connection connection, Date start, Date end) throws SQLException, DAOException;
 
+    /**
+     * Retrieve at most limit games with an ID above afterID, lowest ID first,
+     * whose title or description contains every given word, ignoring case.
+     * Words are matched as substrings, so callers wanting whole words must
+     * check the results and page on with the last ID returned.
+     */
+    List<Game> retrieveByWords(Connection connection, List<String> words, long afterID, int limit)
+            throws SQLException, DAOException;
+
+    /**
+     * Passes every Game in the table to the visitor, including those with a
+     * NULL title or release date, and returns the number of games visited.
+     * Each call gets a new Game, which the visitor may keep.
+     */
+    int scanAll(Connection connection, RowVisitor<Game> visitor) throws SQLException, DAOException;
+
 }
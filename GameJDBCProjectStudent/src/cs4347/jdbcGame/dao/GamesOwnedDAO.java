@@ -15,6 +15,7 @@ import java.sql.SQLException;
 import java.util.List;
 
 import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesOwnedRow;
 import cs4347.jdbcGame.util.DAOException;
 
 /**
@@ -62,6 +63,28 @@ public interface GamesOwnedDAO
      */
     int delete(Connection connection, Long gameOwnedID) throws SQLException, DAOException;
 
+    /**
+     * Passes every GamesOwned row for the given Game ID to the visitor, one row at a
+     * time, and returns the number of rows visited. The same row instance is
+     * reused for every call to the visitor.
+     */
+    int scanByGame(Connection connection, Long gameID, RowVisitor<GamesOwnedRow> visitor)
+            throws SQLException, DAOException;
+
+    /**
+     * Passes every GamesOwned row for the given Player ID to the visitor, one row at a
+     * time, and returns the number of rows visited. The same row instance is
+     * reused for every call to the visitor.
+     */
+    int scanByPlayer(Connection connection, Long playerID, RowVisitor<GamesOwnedRow> visitor)
+            throws SQLException, DAOException;
+
+    /**
+     * Passes every GamesOwned row in the table to the visitor. Same contract as
+     * scanByGame().
+     */
+    int scanAll(Connection connection, RowVisitor<GamesOwnedRow> visitor) throws SQLException, DAOException;
+
     /**
      * Returns the number of gamesOwned i.e. the number of rows
      */
@@ -15,6 +15,7 @@ import java.sql.SQLException;
 import java.util.List;
 
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedRow;
 import cs4347.jdbcGame.util.DAOException;
 
 /**
@@ -60,6 +61,28 @@ public interface GamesPlayedDAO
      */
     int delete(Connection connection, Long gamePlayedID) throws SQLException, DAOException;
 
+    /**
+     * Passes every GamesPlayed row for the given Game ID to the visitor, one row at a
+     * time, and returns the number of rows visited. The same row instance is
+     * reused for every call to the visitor.
+     */
+    int scanByGame(Connection connection, Long gameID, RowVisitor<GamesPlayedRow> visitor)
+            throws SQLException, DAOException;
+
+    /**
+     * Passes every GamesPlayed row for the given Player ID to the visitor, one row at a
+     * time, and returns the number of rows visited. The same row instance is
+     * reused for every call to the visitor.
+     */
+    int scanByPlayer(Connection connection, Long playerID, RowVisitor<GamesPlayedRow> visitor)
+            throws SQLException, DAOException;
+
+    /**
+     * Passes every GamesPlayed row in the table to the visitor. Same contract as
+     * scanByGame().
+     */
+    int scanAll(Connection connection, RowVisitor<GamesPlayedRow> visitor) throws SQLException, DAOException;
+
     /**
      * Returns the number of GamesPlayed i.e. the number of rows
      */
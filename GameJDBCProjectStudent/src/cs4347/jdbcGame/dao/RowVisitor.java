@@ -0,0 +1,26 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao;
+
+import java.sql.SQLException;
+
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Callback for the DAO scan methods. The row passed to visit() is a single
+ * mutable instance that the DAO refills for every row; a visitor that needs to
+ * keep a row must copy it. Rows are streamed from the server while the scan
+ * runs, so the visitor must not issue other statements on the same connection.
+ */
+public interface RowVisitor<R>
+{
+    void visit(R row) throws SQLException, DAOException;
+}
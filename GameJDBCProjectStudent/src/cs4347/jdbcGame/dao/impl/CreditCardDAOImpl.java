@@ -75,11 +75,12 @@ public class CreditCardDAOImpl implements CreditCardDAO
             ps = connection.prepareStatement(selectSQL);
             ps.setLong(1, ccID);
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
             if (!rs.next()) {
                 return null;
             }
 
-            CreditCard creditCard = extractFromRS(rs);
+            CreditCard creditCard = extractFromRS(rs, columns);
             return creditCard;
         }
         finally {
@@ -101,8 +102,9 @@ public class CreditCardDAOImpl implements CreditCardDAO
             ps = connection.prepareStatement(selectByPlayerID);
             ps.setLong(1, playerID);
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
             while (rs.next()) {
-                CreditCard creditCard = extractFromRS(rs);
+                CreditCard creditCard = extractFromRS(rs, columns);
                 result.add(creditCard);
             }
             return result;
@@ -213,15 +215,24 @@ public class CreditCardDAOImpl implements CreditCardDAO
         }
     }
     
-    private CreditCard extractFromRS(ResultSet rs) throws SQLException
+    // Columns read by extractFromRS, in select-list order.
+    private static final String[] columnNames = { "id", "playerID", "ccName", "ccNumber", "securityCode", "expDate" };
+    private static final int ID = 0;
+    private static final int PLAYER_ID = 1;
+    private static final int CC_NAME = 2;
+    private static final int CC_NUMBER = 3;
+    private static final int SECURITY_CODE = 4;
+    private static final int EXP_DATE = 5;
+
+    private CreditCard extractFromRS(ResultSet rs, int[] columns) throws SQLException
     {
         CreditCard creditCard = new CreditCard();
-        creditCard.setId(rs.getLong("id"));
-        creditCard.setPlayerID(rs.getLong("playerID"));
-        creditCard.setCcName(rs.getString("ccName"));
-        creditCard.setCcNumber(rs.getString("ccNumber"));
-        creditCard.setSecurityCode(rs.getInt("securityCode"));
-        creditCard.setExpDate(rs.getString("expDate"));
+        creditCard.setId(ResultSetColumns.getLong(rs, columns[ID]));
+        creditCard.setPlayerID(ResultSetColumns.getLong(rs, columns[PLAYER_ID]));
+        creditCard.setCcName(rs.getString(columns[CC_NAME]));
+        creditCard.setCcNumber(rs.getString(columns[CC_NUMBER]));
+        creditCard.setSecurityCode(rs.getInt(columns[SECURITY_CODE]));
+        creditCard.setExpDate(rs.getString(columns[EXP_DATE]));
         return creditCard;
     }
 
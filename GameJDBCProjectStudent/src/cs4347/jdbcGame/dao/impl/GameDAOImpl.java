@@ -20,6 +20,8 @@ import java.util.Date;
 import java.util.List;
 
 import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.RowVisitor;
+import cs4347.jdbcGame.dao.memory.SqlLike;
 import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.util.DAOException;
 
@@ -40,7 +42,7 @@ public class GameDAOImpl implements GameDAO
             ps = connection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
             ps.setString(1, game.getTitle());
             ps.setString(2, game.getDescription());
-            ps.setDate(3, new java.sql.Date(game.getReleaseDate().getTime()));
+            ps.setDate(3, ResultSetColumns.toSQLDate(game.getReleaseDate()));
             ps.setString(4, game.getVersion());
             ps.executeUpdate();
 
@@ -72,11 +74,12 @@ public class GameDAOImpl implements GameDAO
             ps = connection.prepareStatement(selectSQL);
             ps.setLong(1, gameID);
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
             if (!rs.next()) {
                 return null;
             }
 
-            Game game = extractFromRS(rs);
+            Game game = extractFromRS(rs, columns);
             return game;
         }
         finally {
@@ -101,7 +104,7 @@ public class GameDAOImpl implements GameDAO
             ps = connection.prepareStatement(updateSQL);
             ps.setString(1, game.getTitle());
             ps.setString(2, game.getDescription());
-            ps.setDate(3, new java.sql.Date(game.getReleaseDate().getTime()));
+            ps.setDate(3, ResultSetColumns.toSQLDate(game.getReleaseDate()));
             ps.setString(4, game.getVersion());
             ps.setLong(5, id);
 
@@ -172,9 +175,10 @@ public class GameDAOImpl implements GameDAO
             ps = connection.prepareStatement(retrieveByTitleSQL);
             ps.setString(1, title);
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
 
             while (rs.next()) {
-                Game game = extractFromRS(rs);
+                Game game = extractFromRS(rs, columns);
                 result.add(game);
             }
             return result;
@@ -186,6 +190,49 @@ public class GameDAOImpl implements GameDAO
         }
     }
 
+    final static String retrieveByWordsSQL = "select id,title,description,releaseDate,version from game where id > ?";
+    final static String wordCondition = "(title like ? or description like ?)";
+
+    @Override
+    public List<Game> retrieveByWords(Connection connection, List<String> words, long afterID, int limit)
+            throws SQLException, DAOException
+    {
+        if (words.isEmpty()) {
+            throw new DAOException("Trying to retrieve games with no words");
+        }
+        StringBuilder sql = new StringBuilder(retrieveByWordsSQL);
+        for (int idx = 0; idx < words.size(); idx++) {
+            sql.append(" and ").append(wordCondition);
+        }
+        sql.append(" order by id limit ?");
+
+        List<Game> result = new ArrayList<Game>();
+        PreparedStatement ps = null;
+        try {
+            ps = connection.prepareStatement(sql.toString());
+            ps.setLong(1, afterID);
+            int param = 2;
+            for (String word : words) {
+                String pattern = "%" + SqlLike.escape(word) + "%";
+                ps.setString(param++, pattern);
+                ps.setString(param++, pattern);
+            }
+            ps.setInt(param, limit);
+            ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
+
+            while (rs.next()) {
+                result.add(extractFromRS(rs, columns));
+            }
+            return result;
+        }
+        finally {
+            if (ps != null && !ps.isClosed()) {
+                ps.close();
+            }
+        }
+    }
+
     final static String retrieveByRelDate = "select id,title,description,releaseDate,version from game where releaseDate between ? and ?";
 
     @Override
@@ -196,11 +243,12 @@ public class GameDAOImpl implements GameDAO
         PreparedStatement ps = null;
         try {
             ps = connection.prepareStatement(retrieveByRelDate);
-            ps.setDate(1, new java.sql.Date(start.getTime()));
-            ps.setDate(2, new java.sql.Date(end.getTime()));
+            ps.setDate(1, ResultSetColumns.toSQLDate(start));
+            ps.setDate(2, ResultSetColumns.toSQLDate(end));
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
             while (rs.next()) {
-                Game game = extractFromRS(rs);
+                Game game = extractFromRS(rs, columns);
                 result.add(game);
             }
             return result;
@@ -212,14 +260,47 @@ public class GameDAOImpl implements GameDAO
         }
     }
 
-    private Game extractFromRS(ResultSet rs) throws SQLException
+    final static String scanAllSQL = "select id,title,description,releaseDate,version from game";
+
+    @Override
+    public int scanAll(Connection connection, RowVisitor<Game> visitor) throws SQLException, DAOException
+    {
+        PreparedStatement ps = null;
+        try {
+            ps = connection.prepareStatement(scanAllSQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ResultSetColumns.setStreaming(connection, ps);
+            ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
+            int rows = 0;
+            while (rs.next()) {
+                visitor.visit(extractFromRS(rs, columns));
+                rows++;
+            }
+            return rows;
+        }
+        finally {
+            if (ps != null && !ps.isClosed()) {
+                ps.close();
+            }
+        }
+    }
+
+    // Columns read by extractFromRS, in select-list order.
+    private static final String[] columnNames = { "id", "title", "description", "releaseDate", "version" };
+    private static final int ID = 0;
+    private static final int TITLE = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int RELEASE_DATE = 3;
+    private static final int VERSION = 4;
+
+    private Game extractFromRS(ResultSet rs, int[] columns) throws SQLException
     {
         Game game = new Game();
-        game.setId(rs.getLong("id"));
-        game.setTitle(rs.getString("title"));
-        game.setDescription(rs.getString("description"));
-        game.setReleaseDate(rs.getDate("releaseDate"));
-        game.setVersion(rs.getString("version"));
+        game.setId(ResultSetColumns.getLong(rs, columns[ID]));
+        game.setTitle(rs.getString(columns[TITLE]));
+        game.setDescription(rs.getString(columns[DESCRIPTION]));
+        game.setReleaseDate(rs.getDate(columns[RELEASE_DATE]));
+        game.setVersion(rs.getString(columns[VERSION]));
         return game;
     }
 }
@@ -19,7 +19,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.RowVisitor;
 import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesOwnedRow;
 import cs4347.jdbcGame.util.DAOException;
 
 public class GamesOwnedDAOImpl implements GamesOwnedDAO
@@ -38,7 +40,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 			ps = connection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
 			ps.setLong(1, gamesOwned.getPlayerID());
 			ps.setLong(2, gamesOwned.getGameID());
-			ps.setDate(3, new java.sql.Date(gamesOwned.getPurchaseDate().getTime()));
+			ps.setDate(3, ResultSetColumns.toSQLDate(gamesOwned.getPurchaseDate()));
 			ps.setFloat(4, gamesOwned.getPurchasePrice());
 			ps.executeUpdate();
 
@@ -68,11 +70,12 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
             ps = connection.prepareStatement(selectIDSQL);
             ps.setLong(1, gamesOwnedID);
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
             if (!rs.next()) {
                 return null;
             }
 
-            GamesOwned gamesOwned = extractFromRS(rs);
+            GamesOwned gamesOwned = extractFromRS(rs, columns);
             return gamesOwned;
         }
         finally {
@@ -100,11 +103,12 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
             ps.setLong(1, playerID);
             ps.setLong(2, gameID);
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
             if (!rs.next()) {
                 return null;
             }
 
-            GamesOwned gamesOwned = extractFromRS(rs);
+            GamesOwned gamesOwned = extractFromRS(rs, columns);
             return gamesOwned;
         }
         finally {
@@ -124,9 +128,10 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
             ps = connection.prepareStatement(retrieveByGameSQL);
             ps.setLong(1, gameID);
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
 
             while (rs.next()) {
-                GamesOwned gamesOwned = extractFromRS(rs);
+                GamesOwned gamesOwned = extractFromRS(rs, columns);
                 result.add(gamesOwned);
             }
             return result;
@@ -148,9 +153,10 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
             ps = connection.prepareStatement(retrieveByPlayerSQL);
             ps.setLong(1, playerID);
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
 
             while (rs.next()) {
-                GamesOwned gamesOwned = extractFromRS(rs);
+                GamesOwned gamesOwned = extractFromRS(rs, columns);
                 result.add(gamesOwned);
             }
             return result;
@@ -176,7 +182,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
             ps = connection.prepareStatement(updateSQL);
             ps.setLong(1, gamesOwned.getPlayerID());
 			ps.setLong(2, gamesOwned.getGameID());
-			ps.setDate(3, new java.sql.Date(gamesOwned.getPurchaseDate().getTime()));
+			ps.setDate(3, ResultSetColumns.toSQLDate(gamesOwned.getPurchaseDate()));
 			ps.setFloat(4, gamesOwned.getPurchasePrice());
 			ps.setLong(5, id);
             int rows = ps.executeUpdate();
@@ -212,6 +218,68 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
         }
     }
 
+    final static String scanByGameSQL = "SELECT id, playerID, gameID, purchaseDate, purchasePrice FROM gamesOwned where gameID = ?;";
+    @Override
+    public int scanByGame(Connection connection, Long gameID, RowVisitor<GamesOwnedRow> visitor)
+            throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to scan GamesOwned with NULL GAMEID");
+        }
+        return scan(connection, scanByGameSQL, gameID, visitor);
+    }
+
+    final static String scanByPlayerSQL = "SELECT id, playerID, gameID, purchaseDate, purchasePrice FROM gamesOwned where playerID = ?;";
+    @Override
+    public int scanByPlayer(Connection connection, Long playerID, RowVisitor<GamesOwnedRow> visitor)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to scan GamesOwned with NULL PLAYERID");
+        }
+        return scan(connection, scanByPlayerSQL, playerID, visitor);
+    }
+
+    final static String scanAllSQL = "SELECT id, playerID, gameID, purchaseDate, purchasePrice FROM gamesOwned;";
+    @Override
+    public int scanAll(Connection connection, RowVisitor<GamesOwnedRow> visitor) throws SQLException, DAOException
+    {
+        return scan(connection, scanAllSQL, null, visitor);
+    }
+
+    private int scan(Connection connection, String sql, Long key, RowVisitor<GamesOwnedRow> visitor)
+            throws SQLException, DAOException
+    {
+        PreparedStatement ps = null;
+        try {
+            ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ResultSetColumns.setStreaming(connection, ps);
+            if (key != null) {
+                ps.setLong(1, key);
+            }
+            ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
+
+            GamesOwnedRow row = new GamesOwnedRow();
+            int rows = 0;
+            while (rs.next()) {
+                row.setId(rs.getLong(columns[ID]));
+                row.setPlayerID(rs.getLong(columns[PLAYER_ID]));
+                row.setGameID(rs.getLong(columns[GAME_ID]));
+                row.setPurchaseDate(ResultSetColumns.getEpochMillis(rs, columns[PURCHASE_DATE]));
+                row.setPurchasePrice(rs.getFloat(columns[PURCHASE_PRICE]));
+                visitor.visit(row);
+                rows++;
+            }
+            return rows;
+        }
+        finally {
+            if (ps != null && !ps.isClosed()) {
+                ps.close();
+            }
+        }
+    }
+
     final static String countSQL = "SELECT count(*) from gamesOwned;";
     @Override
     public int count(Connection connection) throws SQLException, DAOException
@@ -233,14 +301,22 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
         }
     }
     
-    private GamesOwned extractFromRS(ResultSet rs) throws SQLException
+    // Columns read by extractFromRS, in select-list order.
+    private static final String[] columnNames = { "id", "playerID", "gameID", "purchaseDate", "purchasePrice" };
+    private static final int ID = 0;
+    private static final int PLAYER_ID = 1;
+    private static final int GAME_ID = 2;
+    private static final int PURCHASE_DATE = 3;
+    private static final int PURCHASE_PRICE = 4;
+
+    private GamesOwned extractFromRS(ResultSet rs, int[] columns) throws SQLException
     {
         GamesOwned gamesOwned = new GamesOwned();
-        gamesOwned.setId(rs.getLong("id"));
-        gamesOwned.setPlayerID(rs.getLong("playerID"));
-        gamesOwned.setGameID(rs.getLong("gameID"));
-        gamesOwned.setPurchaseDate(rs.getDate("purchaseDate"));
-        gamesOwned.setPurchasePrice(rs.getFloat("purchasePrice"));
+        gamesOwned.setId(ResultSetColumns.getLong(rs, columns[ID]));
+        gamesOwned.setPlayerID(ResultSetColumns.getLong(rs, columns[PLAYER_ID]));
+        gamesOwned.setGameID(ResultSetColumns.getLong(rs, columns[GAME_ID]));
+        gamesOwned.setPurchaseDate(rs.getDate(columns[PURCHASE_DATE]));
+        gamesOwned.setPurchasePrice(rs.getFloat(columns[PURCHASE_PRICE]));
         return gamesOwned;
     }
 
@@ -19,7 +19,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.RowVisitor;
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedRow;
 import cs4347.jdbcGame.util.DAOException;
 
 public class GamesPlayedDAOImpl implements GamesPlayedDAO
@@ -45,7 +47,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
             ps = connection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
             ps.setLong(1, gamesPlayed.getPlayerID());
             ps.setLong(2, gamesPlayed.getGameID());
-            ps.setDate(3, new java.sql.Date(gamesPlayed.getTimeFinished().getTime()));
+            ps.setDate(3, ResultSetColumns.toSQLDate(gamesPlayed.getTimeFinished()));
             ps.setInt(4, gamesPlayed.getScore());
             ps.executeUpdate();
 
@@ -77,11 +79,12 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
             ps = connection.prepareStatement(selectSQL);
             ps.setLong(1, gamePlayedID);
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
             if (!rs.next()) {
                 return null;
             }
 
-            GamesPlayed gamesPlayed = extractFromRS(rs);
+            GamesPlayed gamesPlayed = extractFromRS(rs, columns);
             return gamesPlayed;
         }
         finally {
@@ -111,9 +114,10 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
             ps.setLong(1, playerID);
             ps.setLong(2, gameID);
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
 
             while (rs.next()) {
-                GamesPlayed gamesPlayed = extractFromRS(rs);
+                GamesPlayed gamesPlayed = extractFromRS(rs, columns);
                 result.add(gamesPlayed);
             }
             return result;
@@ -140,9 +144,10 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
             ps = connection.prepareStatement(retrieveByPlayerSQL);
             ps.setLong(1, playerID);
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
 
             while (rs.next()) {
-                GamesPlayed gamesPlayed = extractFromRS(rs);
+                GamesPlayed gamesPlayed = extractFromRS(rs, columns);
                 result.add(gamesPlayed);
             }
             return result;
@@ -169,9 +174,10 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
             ps = connection.prepareStatement(retrieveByGameSQL);
             ps.setLong(1, gameID);
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
 
             while (rs.next()) {
-                GamesPlayed gamesPlayed = extractFromRS(rs);
+                GamesPlayed gamesPlayed = extractFromRS(rs, columns);
                 result.add(gamesPlayed);
             }
             return result;
@@ -199,7 +205,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
             ps = connection.prepareStatement(updateSQL);
             ps.setLong(1, gamesPlayed.getPlayerID());
             ps.setLong(2, gamesPlayed.getGameID());
-            ps.setDate(3, new java.sql.Date(gamesPlayed.getTimeFinished().getTime()));
+            ps.setDate(3, ResultSetColumns.toSQLDate(gamesPlayed.getTimeFinished()));
             ps.setInt(4, gamesPlayed.getScore());
             ps.setLong(5, id);
 
@@ -237,6 +243,71 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
         }
     }
     
+    final static String scanByGameSQL = "SELECT id, playerID, gameID, timeFinished, score FROM GamesPlayed WHERE gameID = ?";
+
+    @Override
+    public int scanByGame(Connection connection, Long gameID, RowVisitor<GamesPlayedRow> visitor)
+            throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to scan GamesPlayed with NULL Game ID");
+        }
+        return scan(connection, scanByGameSQL, gameID, visitor);
+    }
+
+    final static String scanByPlayerSQL = "SELECT id, playerID, gameID, timeFinished, score FROM GamesPlayed WHERE playerID = ?";
+
+    @Override
+    public int scanByPlayer(Connection connection, Long playerID, RowVisitor<GamesPlayedRow> visitor)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to scan GamesPlayed with NULL Player ID");
+        }
+        return scan(connection, scanByPlayerSQL, playerID, visitor);
+    }
+
+    final static String scanAllSQL = "SELECT id, playerID, gameID, timeFinished, score FROM GamesPlayed";
+
+    @Override
+    public int scanAll(Connection connection, RowVisitor<GamesPlayedRow> visitor) throws SQLException, DAOException
+    {
+        return scan(connection, scanAllSQL, null, visitor);
+    }
+
+    private int scan(Connection connection, String sql, Long key, RowVisitor<GamesPlayedRow> visitor)
+            throws SQLException, DAOException
+    {
+        PreparedStatement ps = null;
+        try {
+            ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ResultSetColumns.setStreaming(connection, ps);
+            if (key != null) {
+                ps.setLong(1, key);
+            }
+            ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
+
+            GamesPlayedRow row = new GamesPlayedRow();
+            int rows = 0;
+            while (rs.next()) {
+                row.setId(rs.getLong(columns[ID]));
+                row.setPlayerID(rs.getLong(columns[PLAYER_ID]));
+                row.setGameID(rs.getLong(columns[GAME_ID]));
+                row.setTimeFinished(ResultSetColumns.getEpochMillis(rs, columns[TIME_FINISHED]));
+                row.setScore(rs.getInt(columns[SCORE]));
+                visitor.visit(row);
+                rows++;
+            }
+            return rows;
+        }
+        finally {
+            if (ps != null && !ps.isClosed()) {
+                ps.close();
+            }
+        }
+    }
+
     final static String countSQL = "select count(*) from GamesPlayed";
 
     @Override
@@ -259,14 +330,22 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
         }
     }
     
-    private GamesPlayed extractFromRS(ResultSet rs) throws SQLException
+    // Columns read by extractFromRS, in select-list order.
+    private static final String[] columnNames = { "id", "playerID", "gameID", "timeFinished", "score" };
+    private static final int ID = 0;
+    private static final int PLAYER_ID = 1;
+    private static final int GAME_ID = 2;
+    private static final int TIME_FINISHED = 3;
+    private static final int SCORE = 4;
+
+    private GamesPlayed extractFromRS(ResultSet rs, int[] columns) throws SQLException
     {
         GamesPlayed gamesPlayed = new GamesPlayed();
-        gamesPlayed.setId(rs.getLong("id"));
-        gamesPlayed.setPlayerID(rs.getLong("playerID"));
-        gamesPlayed.setGameID(rs.getLong("gameID"));
-        gamesPlayed.setTimeFinished(rs.getDate("timeFinished"));
-        gamesPlayed.setScore(rs.getInt("score"));
+        gamesPlayed.setId(ResultSetColumns.getLong(rs, columns[ID]));
+        gamesPlayed.setPlayerID(ResultSetColumns.getLong(rs, columns[PLAYER_ID]));
+        gamesPlayed.setGameID(ResultSetColumns.getLong(rs, columns[GAME_ID]));
+        gamesPlayed.setTimeFinished(rs.getDate(columns[TIME_FINISHED]));
+        gamesPlayed.setScore(rs.getInt(columns[SCORE]));
         return gamesPlayed;
     }
 }
@@ -40,7 +40,7 @@ public class PlayerDAOImpl implements PlayerDAO
             ps = connection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
             ps.setString(1, player.getFirstName());
             ps.setString(2, player.getLastName());
-            ps.setDate(3, new java.sql.Date(player.getJoinDate().getTime()));
+            ps.setDate(3, ResultSetColumns.toSQLDate(player.getJoinDate()));
             ps.setString(4, player.getEmail());
             ps.executeUpdate();
 
@@ -71,11 +71,12 @@ public class PlayerDAOImpl implements PlayerDAO
             ps = connection.prepareStatement(selectSQL);
             ps.setLong(1, playerID);
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
             if (!rs.next()) {
                 return null;
             }
 
-            Player player = extractFromRS(rs);
+            Player player = extractFromRS(rs, columns);
             return player;
         }
         finally {
@@ -100,7 +101,7 @@ public class PlayerDAOImpl implements PlayerDAO
             ps = connection.prepareStatement(updateSQL);
             ps.setString(1, player.getFirstName());
             ps.setString(2, player.getLastName());
-            ps.setDate(3, new java.sql.Date(player.getJoinDate().getTime()));
+            ps.setDate(3, ResultSetColumns.toSQLDate(player.getJoinDate()));
             ps.setString(4, player.getEmail());
             ps.setLong(5, id);
 
@@ -171,11 +172,12 @@ public class PlayerDAOImpl implements PlayerDAO
         PreparedStatement ps = null;
         try {
             ps = connection.prepareStatement(retrieveByJoinDateSQL);
-            ps.setDate(1, new java.sql.Date(start.getTime()));
-            ps.setDate(2, new java.sql.Date(end.getTime()));
+            ps.setDate(1, ResultSetColumns.toSQLDate(start));
+            ps.setDate(2, ResultSetColumns.toSQLDate(end));
             ResultSet rs = ps.executeQuery();
+            int[] columns = ResultSetColumns.resolve(rs, columnNames);
             while (rs.next()) {
-                Player player = extractFromRS(rs);
+                Player player = extractFromRS(rs, columns);
                 result.add(player);
             }
             return result;
@@ -187,14 +189,22 @@ public class PlayerDAOImpl implements PlayerDAO
         }
     }
     
-    private Player extractFromRS(ResultSet rs) throws SQLException
+    // Columns read by extractFromRS, in select-list order.
+    private static final String[] columnNames = { "id", "firstName", "lastName", "join_date", "email" };
+    private static final int ID = 0;
+    private static final int FIRST_NAME = 1;
+    private static final int LAST_NAME = 2;
+    private static final int JOIN_DATE = 3;
+    private static final int EMAIL = 4;
+
+    private Player extractFromRS(ResultSet rs, int[] columns) throws SQLException
     {
-        Player player = new Player(); 
-        player.setId(rs.getLong("id"));
-        player.setFirstName(rs.getString("firstName"));
-        player.setLastName(rs.getString("lastName"));
-        player.setJoinDate(rs.getDate("join_date"));
-        player.setEmail(rs.getString("email"));
+        Player player = new Player();
+        player.setId(ResultSetColumns.getLong(rs, columns[ID]));
+        player.setFirstName(rs.getString(columns[FIRST_NAME]));
+        player.setLastName(rs.getString(columns[LAST_NAME]));
+        player.setJoinDate(rs.getDate(columns[JOIN_DATE]));
+        player.setEmail(rs.getString(columns[EMAIL]));
         return player;
     }
 }
@@ -0,0 +1,101 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.impl;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Date;
+
+/**
+ * Positional column access used by the extractFromRS methods. Column indexes
+ * are resolved by name once per ResultSet and every row is then read by index.
+ */
+public final class ResultSetColumns
+{
+    private ResultSetColumns()
+    {
+    }
+
+    /**
+     * Returns the 1-based index of each named column in the given ResultSet.
+     */
+    public static int[] resolve(ResultSet rs, String[] columnNames) throws SQLException
+    {
+        int[] columns = new int[columnNames.length];
+        for (int idx = 0; idx < columnNames.length; idx++) {
+            columns[idx] = rs.findColumn(columnNames[idx]);
+        }
+        return columns;
+    }
+
+    /**
+     * Reads a BIGINT/INT column as a primitive and only boxes it when the column
+     * is not NULL.
+     */
+    public static Long getLong(ResultSet rs, int columnIndex) throws SQLException
+    {
+        long value = rs.getLong(columnIndex);
+        if (rs.wasNull()) {
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * Rows fetched per round trip by a scan on drivers that cannot stream.
+     */
+    public static final int SCAN_FETCH_SIZE = 1000;
+
+    /**
+     * Asks the driver not to buffer a forward-only scan. Connector/J streams rows
+     * one at a time only for a fetch size of Integer.MIN_VALUE, which other
+     * drivers reject, so they get SCAN_FETCH_SIZE instead.
+     */
+    public static void setStreaming(Connection connection, Statement stmt) throws SQLException
+    {
+        String driverName = connection.getMetaData().getDriverName();
+        if (driverName != null && driverName.startsWith("MySQL")) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+        }
+        else {
+            stmt.setFetchSize(SCAN_FETCH_SIZE);
+        }
+    }
+
+    /**
+     * Reads a DATE/DATETIME column as epoch milliseconds, or 0 when the column is
+     * NULL. JDBC has no primitive getter for temporal columns, so this costs one
+     * short-lived Timestamp per call; it is the only allocation left in a scan
+     * row.
+     */
+    public static long getEpochMillis(ResultSet rs, int columnIndex) throws SQLException
+    {
+        java.sql.Timestamp value = rs.getTimestamp(columnIndex);
+        if (value == null) {
+            return 0L;
+        }
+        return value.getTime();
+    }
+
+    /**
+     * Converts an entity date to a JDBC date parameter. Dates read back from the
+     * database are already java.sql.Date and are passed through without a copy.
+     */
+    public static java.sql.Date toSQLDate(Date date)
+    {
+        if (date == null || date instanceof java.sql.Date) {
+            return (java.sql.Date) date;
+        }
+        return new java.sql.Date(date.getTime());
+    }
+}
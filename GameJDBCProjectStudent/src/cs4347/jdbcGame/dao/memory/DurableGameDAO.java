@@ -0,0 +1,561 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.memory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.RowVisitor;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * In-process Game catalog: a MemoryGameDAO made durable by a write-ahead log
+ * and periodic snapshots in one directory, so a restart rebuilds the catalog
+ * from local files without querying the database.
+ * 
+ * <pre>
+ * DurableGameDAO games = new DurableGameDAO(new File("catalog"));
+ * if (games.count(null) == 0) {
+ *     games.importFrom(connection, new GameDAOImpl());
+ * }
+ * GameService gameService = new GameServiceImpl(new MemoryStore().getDataSource(), games);
+ * </pre>
+ * 
+ * Each create, update and delete is appended to games-N.wal as a CRC-checked
+ * frame before it is applied; with syncEachWrite the log is also forced to
+ * disk. After every snapshotInterval writes, the writer that reaches it
+ * also writes games-N.snapshot. Stored rows are never modified, so the lock
+ * is only held to copy references and start log generation N; the file is
+ * written outside it. Older files are deleted once the snapshot is on disk.
+ * On open the newest snapshot is loaded and the logs from its generation on
+ * are replayed; a torn frame at the end of the last log is cut off, and any
+ * other damage or gap fails the open with an IOException. Writes are
+ * logged as they happen, so a rollback of the caller's connection does not
+ * undo them.
+ */
+public class DurableGameDAO implements GameDAO, Closeable
+{
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 100000;
+
+    private static final int SNAPSHOT_MAGIC = 0x4A47534E; // "JGSN"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+    private static final Pattern FILE_NAME = Pattern.compile("games-(\\d+)\\.(wal|snapshot)");
+
+    private final MemoryGameDAO games = new MemoryGameDAO();
+    private final File directory;
+    private final int snapshotInterval;
+    private final boolean syncEachWrite;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final long recoveryNanos;
+    private long replayedRecords;
+
+    // Guarded by this.
+    private final ByteArrayOutputStream frame = new ByteArrayOutputStream(256);
+    private final DataOutputStream frameOut = new DataOutputStream(frame);
+    private final CRC32 crc = new CRC32();
+    private FileOutputStream wal;
+    private int generation;
+    private long walRecords;
+
+    public DurableGameDAO(File directory) throws IOException
+    {
+        this(directory, DEFAULT_SNAPSHOT_INTERVAL, false);
+    }
+
+    public DurableGameDAO(File directory, int snapshotInterval, boolean syncEachWrite) throws IOException
+    {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+        this.syncEachWrite = syncEachWrite;
+        long start = System.nanoTime();
+        recover();
+        recoveryNanos = System.nanoTime() - start;
+    }
+
+    @Override
+    public Game create(Connection connection, Game game) throws SQLException, DAOException
+    {
+        if (game.getId() != null) {
+            throw new DAOException("Trying to insert Game with NON-NULL ID");
+        }
+        synchronized (this) {
+            long id = games.lastID() + 1;
+            log(PUT, id, game);
+            game.setId(id);
+            games.restore(game);
+        }
+        snapshotIfDue();
+        return game;
+    }
+
+    @Override
+    public Game retrieve(Connection connection, Long gameID) throws SQLException, DAOException
+    {
+        return games.retrieve(connection, gameID);
+    }
+
+    @Override
+    public int update(Connection connection, Game game) throws SQLException, DAOException
+    {
+        Long id = game.getId();
+        if (id == null) {
+            throw new DAOException("Trying to update Game with NULL ID");
+        }
+        synchronized (this) {
+            if (!games.exists(id)) {
+                return 0;
+            }
+            log(PUT, id, game);
+            games.restore(game);
+        }
+        snapshotIfDue();
+        return 1;
+    }
+
+    @Override
+    public int delete(Connection connection, Long gameID) throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to delete Game with NULL ID");
+        }
+        synchronized (this) {
+            if (!games.exists(gameID)) {
+                return 0;
+            }
+            log(DELETE, gameID, null);
+            // Logged already, so not for a rollback to undo.
+            games.delete(null, gameID);
+        }
+        snapshotIfDue();
+        return 1;
+    }
+
+    @Override
+    public int count(Connection connection) throws SQLException, DAOException
+    {
+        return games.count(connection);
+    }
+
+    @Override
+    public List<Game> retrieveByTitle(Connection connection, String title) throws SQLException, DAOException
+    {
+        return games.retrieveByTitle(connection, title);
+    }
+
+    @Override
+    public List<Game> retrieveByReleaseDate(Connection connection, Date start, Date end)
+            throws SQLException, DAOException
+    {
+        return games.retrieveByReleaseDate(connection, start, end);
+    }
+
+    @Override
+    public List<Game> retrieveByWords(Connection connection, List<String> words, long afterID, int limit)
+            throws SQLException, DAOException
+    {
+        return games.retrieveByWords(connection, words, afterID, limit);
+    }
+
+    @Override
+    public int scanAll(Connection connection, RowVisitor<Game> visitor) throws SQLException, DAOException
+    {
+        return games.scanAll(connection, visitor);
+    }
+
+    /**
+     * Loads every game from another GameDAO, keeping their IDs, and writes a
+     * snapshot.
+     */
+    public void importFrom(Connection connection, GameDAO source) throws SQLException, DAOException, IOException
+    {
+        List<Game> all = new ArrayList<Game>();
+        source.scanAll(connection, all::add);
+        synchronized (this) {
+            for (Game game : all) {
+                games.restore(game);
+            }
+        }
+        snapshot();
+    }
+
+    /**
+     * Writes a snapshot now and deletes the files it makes obsolete. Writes
+     * continue while the file is written.
+     */
+    public void snapshot() throws IOException
+    {
+        snapshotLock.lock();
+        try {
+            writeSnapshot();
+        }
+        finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Log records written since the last snapshot started.
+     */
+    public synchronized long getWalRecords()
+    {
+        return walRecords;
+    }
+
+    public long getRecoveryMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(recoveryNanos);
+    }
+
+    /**
+     * Log records replayed on top of the snapshot when the store was opened.
+     */
+    public long getReplayedRecords()
+    {
+        return replayedRecords;
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (wal != null) {
+            wal.getFD().sync();
+            wal.close();
+            wal = null;
+        }
+    }
+
+    private void log(byte op, long id, Game game) throws SQLException
+    {
+        try {
+            frame.reset();
+            frameOut.writeByte(op);
+            frameOut.writeLong(id);
+            if (op == PUT) {
+                writeGameBody(frameOut, game);
+            }
+            byte[] payload = frame.toByteArray();
+            crc.reset();
+            crc.update(payload, 0, payload.length);
+            byte[] record = ByteBuffer.allocate(payload.length + 8).putInt(payload.length).put(payload)
+                    .putInt((int) crc.getValue()).array();
+            wal.write(record);
+            if (syncEachWrite) {
+                wal.getChannel().force(false);
+            }
+            walRecords++;
+        }
+        catch (IOException ex) {
+            throw new SQLException("Cannot write the Game log in " + directory, ex);
+        }
+    }
+
+    private void snapshotIfDue()
+    {
+        boolean due;
+        synchronized (this) {
+            due = walRecords >= snapshotInterval;
+        }
+        if (!due || !snapshotLock.tryLock()) {
+            return;
+        }
+        try {
+            writeSnapshot();
+        }
+        catch (IOException ex) {
+            // The log still has every write; the next write tries again.
+        }
+        finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void writeSnapshot() throws IOException
+    {
+        List<Game> rows;
+        long lastID;
+        int snapshotGeneration;
+        synchronized (this) {
+            rows = new ArrayList<Game>(games.storedGames());
+            lastID = games.lastID();
+            snapshotGeneration = generation + 1;
+            FileOutputStream next = new FileOutputStream(file(snapshotGeneration, "wal"), true);
+            wal.getFD().sync();
+            wal.close();
+            wal = next;
+            generation = snapshotGeneration;
+            walRecords = 0;
+        }
+
+        File target = file(snapshotGeneration, "snapshot");
+        File temp = new File(directory, target.getName() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temp)) {
+            // Checksum below the buffer so it is updated a block at a time.
+            CheckedOutputStream checked = new CheckedOutputStream(fileOut, new CRC32());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, 1 << 16));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(lastID);
+            out.writeInt(rows.size());
+            for (Game game : rows) {
+                out.writeLong(game.getId());
+                writeGameBody(out, game);
+            }
+            out.flush();
+            new DataOutputStream(fileOut).writeLong(checked.getChecksum().getValue());
+            fileOut.getFD().sync();
+        }
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+        for (File file : directory.listFiles()) {
+            Matcher m = FILE_NAME.matcher(file.getName());
+            if (m.matches() && Integer.parseInt(m.group(1)) < snapshotGeneration) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Loads the newest snapshot and replays the logs from its generation on.
+     * Every older file is deleted once a snapshot is written, so there is
+     * nothing to fall back to: an unreadable snapshot or a missing log
+     * generation fails the open rather than starting from fewer rows.
+     */
+    private void recover() throws IOException
+    {
+        TreeMap<Integer, File> snapshots = listFiles("snapshot");
+        TreeMap<Integer, File> logs = listFiles("wal");
+        int base = 0;
+        if (!snapshots.isEmpty()) {
+            base = snapshots.lastKey();
+            readSnapshot(snapshots.get(base));
+        }
+        generation = base;
+        int expected = base;
+        for (Integer gen : logs.tailMap(base, true).keySet()) {
+            if (gen != expected) {
+                throw new IOException("Missing Game log " + file(expected, "wal") + " before " + logs.get(gen));
+            }
+            replay(logs.get(gen), gen.equals(logs.lastKey()));
+            generation = gen;
+            expected++;
+        }
+        wal = new FileOutputStream(file(generation, "wal"), true);
+    }
+
+    /**
+     * Loads a snapshot into the store. Throws an IOException, leaving the
+     * store empty, if the file is incomplete or fails its checksum. The file
+     * is mapped and checked in one pass before any row is decoded.
+     */
+    private void readSnapshot(File file) throws IOException
+    {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < 28 || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Unreadable Game snapshot " + file + " of " + channel.size() + " bytes");
+            }
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int bodyLength = in.limit() - 8;
+        CRC32 check = new CRC32();
+        ByteBuffer body = in.duplicate();
+        body.limit(bodyLength);
+        check.update(body);
+        if (in.getLong(bodyLength) != check.getValue()) {
+            throw new IOException("Corrupt Game snapshot " + file);
+        }
+        in.limit(bodyLength);
+        if (in.getInt() != SNAPSHOT_MAGIC || in.getInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Unknown Game snapshot format in " + file);
+        }
+        long lastID = in.getLong();
+        int count = in.getInt();
+        for (int idx = 0; idx < count; idx++) {
+            long id = in.getLong();
+            Game game = readGameBody(in);
+            game.setId(id);
+            games.restore(game);
+        }
+        games.advanceID(lastID);
+    }
+
+    /**
+     * Applies every complete frame of a log. A bad frame at the end of the
+     * last log is an interrupted write and is cut off; anywhere else it is
+     * corruption.
+     */
+    private void replay(File file, boolean last) throws IOException
+    {
+        long good = 0;
+        CRC32 check = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                }
+                catch (EOFException ex) {
+                    return;
+                }
+                byte[] body = new byte[Math.max(0, Math.min(length, 1 << 24))];
+                int crcValue;
+                try {
+                    in.readFully(body);
+                    crcValue = in.readInt();
+                }
+                catch (EOFException ex) {
+                    break;
+                }
+                check.reset();
+                check.update(body, 0, body.length);
+                if (length != body.length || (int) check.getValue() != crcValue) {
+                    break;
+                }
+                apply(ByteBuffer.wrap(body));
+                replayedRecords++;
+                good += 4 + body.length + 4;
+            }
+        }
+        if (!last) {
+            throw new IOException("Corrupt Game log " + file + " at offset " + good);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(good);
+        }
+    }
+
+    private void apply(ByteBuffer in) throws IOException
+    {
+        byte op = in.get();
+        long id = in.getLong();
+        if (op == PUT) {
+            Game game = readGameBody(in);
+            game.setId(id);
+            games.restore(game);
+        }
+        else if (op == DELETE) {
+            try {
+                games.delete(null, id);
+            }
+            catch (SQLException | DAOException ex) {
+                throw new IOException(ex);
+            }
+            games.advanceID(id);
+        }
+        else {
+            throw new IOException("Unknown Game log record type " + op);
+        }
+    }
+
+    private static void writeGameBody(DataOutput out, Game game) throws IOException
+    {
+        writeString(out, game.getTitle());
+        writeString(out, game.getDescription());
+        Date releaseDate = MemoryTable.day(game.getReleaseDate());
+        out.writeLong(releaseDate == null ? NULL_DATE : releaseDate.getTime());
+        writeString(out, game.getVersion());
+    }
+
+    private static Game readGameBody(ByteBuffer in)
+    {
+        Game game = new Game();
+        game.setTitle(readString(in));
+        game.setDescription(readString(in));
+        long releaseDate = in.getLong();
+        game.setReleaseDate(releaseDate == NULL_DATE ? null : new java.sql.Date(releaseDate));
+        game.setVersion(readString(in));
+        return game;
+    }
+
+    // Length-prefixed UTF-8; writeUTF() is limited to 64K, which a description can exceed.
+    private static void writeString(DataOutput out, String value) throws IOException
+    {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in)
+    {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private File file(int gen, String kind)
+    {
+        return new File(directory, String.format("games-%06d.%s", gen, kind));
+    }
+
+    /**
+     * Files of the given kind ("wal" or "snapshot") by generation.
+     */
+    private TreeMap<Integer, File> listFiles(String kind)
+    {
+        TreeMap<Integer, File> result = new TreeMap<Integer, File>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return result;
+        }
+        for (File file : files) {
+            Matcher m = FILE_NAME.matcher(file.getName());
+            if (m.matches() && m.group(2).equals(kind)) {
+                result.put(Integer.parseInt(m.group(1)), file);
+            }
+        }
+        return result;
+    }
+}
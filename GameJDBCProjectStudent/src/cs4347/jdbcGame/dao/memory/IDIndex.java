@@ -0,0 +1,111 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Secondary index from a key to the IDs of the rows that have it. Hashed for
+ * foreign keys, sorted for dates and titles so range queries can walk a
+ * submap. IDs per key are kept in ID order.
+ */
+final class IDIndex<K extends Comparable<K>>
+{
+    private final ConcurrentMap<K, Set<Long>> map;
+
+    private IDIndex(ConcurrentMap<K, Set<Long>> map)
+    {
+        this.map = map;
+    }
+
+    static <K extends Comparable<K>> IDIndex<K> hashed()
+    {
+        return new IDIndex<K>(new ConcurrentHashMap<K, Set<Long>>());
+    }
+
+    static <K extends Comparable<K>> IDIndex<K> sorted()
+    {
+        return new IDIndex<K>(new ConcurrentSkipListMap<K, Set<Long>>());
+    }
+
+    void add(K key, long id)
+    {
+        if (key != null) {
+            map.computeIfAbsent(key, k -> new ConcurrentSkipListSet<Long>()).add(id);
+        }
+    }
+
+    void remove(K key, long id)
+    {
+        if (key == null) {
+            return;
+        }
+        map.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    List<Long> get(K key)
+    {
+        Set<Long> ids = map.get(key);
+        return ids == null ? new ArrayList<Long>() : new ArrayList<Long>(ids);
+    }
+
+    /**
+     * IDs of all keys in [from, to], in key order. Sorted indexes only.
+     */
+    List<Long> range(K from, K to)
+    {
+        List<Long> result = new ArrayList<Long>();
+        if (from.compareTo(to) > 0) {
+            return result;
+        }
+        for (Set<Long> ids : navigable().subMap(from, true, to, true).values()) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+
+    /**
+     * Keys in [from, to) with their IDs. Sorted indexes only.
+     */
+    ConcurrentNavigableMap<K, Set<Long>> subMap(K from, K to)
+    {
+        return navigable().subMap(from, true, to, false);
+    }
+
+    Collection<Set<Long>> allIDs()
+    {
+        return map.values();
+    }
+
+    ConcurrentMap<K, Set<Long>> entries()
+    {
+        return map;
+    }
+
+    private ConcurrentNavigableMap<K, Set<Long>> navigable()
+    {
+        if (!(map instanceof ConcurrentNavigableMap)) {
+            throw new IllegalStateException("Range query on a hashed index");
+        }
+        return (ConcurrentNavigableMap<K, Set<Long>>) map;
+    }
+}
@@ -0,0 +1,133 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.memory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import cs4347.jdbcGame.dao.CreditCardDAO;
+import cs4347.jdbcGame.entity.CreditCard;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * CreditCardDAO held in memory, with a playerID index.
+ */
+public class MemoryCreditCardDAO implements CreditCardDAO
+{
+    private final IDIndex<Long> byPlayer = IDIndex.hashed();
+
+    private final MemoryTable<CreditCard> cards = new MemoryTable<CreditCard>()
+    {
+        @Override
+        CreditCard copy(CreditCard row)
+        {
+            CreditCard card = new CreditCard();
+            card.setId(row.getId());
+            card.setPlayerID(row.getPlayerID());
+            card.setCcName(row.getCcName());
+            card.setCcNumber(row.getCcNumber());
+            card.setSecurityCode(row.getSecurityCode());
+            card.setExpDate(row.getExpDate());
+            return card;
+        }
+
+        @Override
+        void index(long id, CreditCard row)
+        {
+            byPlayer.add(row.getPlayerID(), id);
+        }
+
+        @Override
+        void unindex(long id, CreditCard row)
+        {
+            byPlayer.remove(row.getPlayerID(), id);
+        }
+    };
+
+    @Override
+    public CreditCard create(Connection connection, CreditCard creditCard, Long playerID)
+            throws SQLException, DAOException
+    {
+        if (creditCard.getId() != null) {
+            throw new DAOException("Trying to insert CreditCard with NON-NULL ID");
+        }
+        long id = cards.insert(connection, creditCard, (newID, row) -> {
+            row.setId(newID);
+            row.setPlayerID(playerID);
+        });
+        creditCard.setId(id);
+        creditCard.setPlayerID(playerID);
+        return creditCard;
+    }
+
+    @Override
+    public CreditCard retrieve(Connection connection, Long ccID) throws SQLException, DAOException
+    {
+        if (ccID == null) {
+            throw new DAOException("Trying to retrieve CreditCard with NULL ID");
+        }
+        return cards.get(ccID);
+    }
+
+    @Override
+    public List<CreditCard> retrieveCreditCardsForPlayer(Connection connection, Long playerID)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            return new ArrayList<CreditCard>();
+        }
+        return cards.select(byPlayer.get(playerID), row -> playerID.equals(row.getPlayerID()));
+    }
+
+    @Override
+    public int update(Connection connection, CreditCard creditCard) throws SQLException, DAOException
+    {
+        Long id = creditCard.getId();
+        if (id == null) {
+            throw new DAOException("Trying to update CreditCard with NULL ID");
+        }
+        return cards.replace(connection, id, creditCard, (sameID, row) -> row.setId(sameID)) ? 1 : 0;
+    }
+
+    @Override
+    public int delete(Connection connection, Long creditCardID) throws SQLException, DAOException
+    {
+        if (creditCardID == null) {
+            throw new DAOException("Trying to delete CreditCard with NULL ID");
+        }
+        return cards.remove(connection, creditCardID) ? 1 : 0;
+    }
+
+    @Override
+    public int deleteForPlayer(Connection connection, Long playerID) throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to delete CreditCard with NULL ID");
+        }
+        int rows = 0;
+        for (Long id : byPlayer.get(playerID)) {
+            CreditCard row = cards.peek(id);
+            if (row != null && playerID.equals(row.getPlayerID()) && cards.remove(connection, id)) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public int count(Connection connection) throws SQLException, DAOException
+    {
+        return cards.size();
+    }
+
+}
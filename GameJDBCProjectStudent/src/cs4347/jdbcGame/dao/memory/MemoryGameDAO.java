@@ -0,0 +1,240 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.memory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.RowVisitor;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * GameDAO held in memory, with a sorted releaseDate index and a sorted
+ * lower-case title index. retrieveByTitle() follows SQL LIKE: a pattern with
+ * a literal prefix only walks the titles starting with it.
+ */
+public class MemoryGameDAO implements GameDAO
+{
+    private final IDIndex<Long> byReleaseDate = IDIndex.sorted();
+    private final IDIndex<String> byTitle = IDIndex.sorted();
+
+    private final MemoryTable<Game> games = new MemoryTable<Game>()
+    {
+        @Override
+        Game copy(Game row)
+        {
+            Game game = new Game();
+            game.setId(row.getId());
+            game.setTitle(row.getTitle());
+            game.setDescription(row.getDescription());
+            game.setReleaseDate(copyOf(row.getReleaseDate()));
+            game.setVersion(row.getVersion());
+            return game;
+        }
+
+        @Override
+        void index(long id, Game row)
+        {
+            byReleaseDate.add(dayKey(row.getReleaseDate()), id);
+            byTitle.add(titleKey(row.getTitle()), id);
+        }
+
+        @Override
+        void unindex(long id, Game row)
+        {
+            byReleaseDate.remove(dayKey(row.getReleaseDate()), id);
+            byTitle.remove(titleKey(row.getTitle()), id);
+        }
+    };
+
+    private static String titleKey(String title)
+    {
+        return title == null ? null : title.toLowerCase(Locale.ROOT);
+    }
+
+    private static void init(long id, Game row)
+    {
+        row.setId(id);
+        row.setReleaseDate(MemoryTable.day(row.getReleaseDate()));
+    }
+
+    /**
+     * Loads a game that already has an ID, replacing any game with that ID.
+     */
+    void restore(Game game)
+    {
+        games.put(game.getId(), game, MemoryGameDAO::init);
+    }
+
+    boolean exists(long gameID)
+    {
+        return games.peek(gameID) != null;
+    }
+
+    long lastID()
+    {
+        return games.lastID();
+    }
+
+    void advanceID(long gameID)
+    {
+        games.advanceID(gameID);
+    }
+
+    /**
+     * The stored games themselves. They are never modified, so the collection
+     * can be copied and written out without a lock.
+     */
+    Collection<Game> storedGames()
+    {
+        return games.storedRows();
+    }
+
+    @Override
+    public Game create(Connection connection, Game game) throws SQLException, DAOException
+    {
+        if (game.getId() != null) {
+            throw new DAOException("Trying to insert Game with NON-NULL ID");
+        }
+        game.setId(games.insert(connection, game, MemoryGameDAO::init));
+        return game;
+    }
+
+    @Override
+    public Game retrieve(Connection connection, Long gameID) throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to retrieve Game with NULL ID");
+        }
+        return games.get(gameID);
+    }
+
+    @Override
+    public int update(Connection connection, Game game) throws SQLException, DAOException
+    {
+        Long id = game.getId();
+        if (id == null) {
+            throw new DAOException("Trying to update Game with NULL ID");
+        }
+        return games.replace(connection, id, game, MemoryGameDAO::init) ? 1 : 0;
+    }
+
+    @Override
+    public int delete(Connection connection, Long gameID) throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to delete Game with NULL ID");
+        }
+        return games.remove(connection, gameID) ? 1 : 0;
+    }
+
+    @Override
+    public int count(Connection connection) throws SQLException, DAOException
+    {
+        return games.size();
+    }
+
+    @Override
+    public List<Game> retrieveByTitle(Connection connection, String title) throws SQLException, DAOException
+    {
+        if (title == null) {
+            // title LIKE NULL matches nothing.
+            return new ArrayList<Game>();
+        }
+        List<Long> ids;
+        if (SqlLike.isLiteral(title)) {
+            ids = byTitle.get(SqlLike.literalPrefix(title));
+        }
+        else {
+            String prefix = SqlLike.literalPrefix(title);
+            Map<String, Set<Long>> candidates = prefix.isEmpty() ? byTitle.entries()
+                    : byTitle.subMap(prefix, prefix + Character.MAX_VALUE);
+            ids = new ArrayList<Long>();
+            for (Map.Entry<String, Set<Long>> entry : candidates.entrySet()) {
+                if (SqlLike.matches(entry.getKey(), title)) {
+                    ids.addAll(entry.getValue());
+                }
+            }
+        }
+        return games.select(ids, row -> SqlLike.matches(row.getTitle(), title));
+    }
+
+    @Override
+    public List<Game> retrieveByReleaseDate(Connection connection, Date start, Date end)
+            throws SQLException, DAOException
+    {
+        if (start == null || end == null) {
+            // BETWEEN with a NULL bound matches nothing.
+            return new ArrayList<Game>();
+        }
+        long from = MemoryTable.dayKey(start);
+        long to = MemoryTable.dayKey(end);
+        return games.select(byReleaseDate.range(from, to), row -> {
+            Long day = MemoryTable.dayKey(row.getReleaseDate());
+            return day != null && day >= from && day <= to;
+        });
+    }
+
+    @Override
+    public List<Game> retrieveByWords(Connection connection, List<String> words, long afterID, int limit)
+            throws SQLException, DAOException
+    {
+        if (words.isEmpty()) {
+            throw new DAOException("Trying to retrieve games with no words");
+        }
+        List<String> patterns = new ArrayList<String>();
+        for (String word : words) {
+            patterns.add("%" + SqlLike.escape(word) + "%");
+        }
+        Predicate<Game> condition = row -> {
+            if (row.getId() <= afterID) {
+                return false;
+            }
+            for (String pattern : patterns) {
+                if (!SqlLike.matches(row.getTitle(), pattern) && !SqlLike.matches(row.getDescription(), pattern)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+        List<Long> ids = new ArrayList<Long>();
+        for (Game row : games.storedRows()) {
+            if (condition.test(row)) {
+                ids.add(row.getId());
+            }
+        }
+        Collections.sort(ids);
+        return games.select(ids.subList(0, Math.min(limit, ids.size())), condition);
+    }
+
+    @Override
+    public int scanAll(Connection connection, RowVisitor<Game> visitor) throws SQLException, DAOException
+    {
+        int count = 0;
+        for (Game stored : games.storedRows()) {
+            visitor.visit(games.copy(stored));
+            count++;
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,203 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.memory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.RowVisitor;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesOwnedRow;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * GamesOwnedDAO held in memory, with playerID and gameID indexes.
+ */
+public class MemoryGamesOwnedDAO implements GamesOwnedDAO
+{
+    private final IDIndex<Long> byPlayer = IDIndex.hashed();
+    private final IDIndex<Long> byGame = IDIndex.hashed();
+
+    private final MemoryTable<GamesOwned> owned = new MemoryTable<GamesOwned>()
+    {
+        @Override
+        GamesOwned copy(GamesOwned row)
+        {
+            GamesOwned gamesOwned = new GamesOwned();
+            gamesOwned.setId(row.getId());
+            gamesOwned.setPlayerID(row.getPlayerID());
+            gamesOwned.setGameID(row.getGameID());
+            gamesOwned.setPurchaseDate(copyOf(row.getPurchaseDate()));
+            gamesOwned.setPurchasePrice(row.getPurchasePrice());
+            return gamesOwned;
+        }
+
+        @Override
+        void index(long id, GamesOwned row)
+        {
+            byPlayer.add(row.getPlayerID(), id);
+            byGame.add(row.getGameID(), id);
+        }
+
+        @Override
+        void unindex(long id, GamesOwned row)
+        {
+            byPlayer.remove(row.getPlayerID(), id);
+            byGame.remove(row.getGameID(), id);
+        }
+    };
+
+    private static void init(long id, GamesOwned row)
+    {
+        row.setId(id);
+        row.setPurchaseDate(MemoryTable.day(row.getPurchaseDate()));
+    }
+
+    @Override
+    public GamesOwned create(Connection connection, GamesOwned gamesOwned) throws SQLException, DAOException
+    {
+        if (gamesOwned.getId() != null) {
+            throw new DAOException("Trying to insert GamesOwned with NON-NULL ID");
+        }
+        gamesOwned.setId(owned.insert(connection, gamesOwned, MemoryGamesOwnedDAO::init));
+        return gamesOwned;
+    }
+
+    @Override
+    public GamesOwned retrieveID(Connection connection, Long gamesOwnedID) throws SQLException, DAOException
+    {
+        if (gamesOwnedID == null) {
+            throw new DAOException("Trying to retrieve GamesOwned with NULL ID");
+        }
+        return owned.get(gamesOwnedID);
+    }
+
+    @Override
+    public GamesOwned retrievePlayerGameID(Connection connection, Long playerID, Long gameID)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to retrieve GamesOwned with NULL PLAYERID");
+        }
+        if (gameID == null) {
+            throw new DAOException("Trying to retrieve GamesOwned with NULL GAMEID");
+        }
+        List<GamesOwned> matches = owned.select(byPlayer.get(playerID),
+                row -> playerID.equals(row.getPlayerID()) && gameID.equals(row.getGameID()));
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    @Override
+    public List<GamesOwned> retrieveByGame(Connection connection, Long gameID) throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            return new ArrayList<GamesOwned>();
+        }
+        return owned.select(byGame.get(gameID), row -> gameID.equals(row.getGameID()));
+    }
+
+    @Override
+    public List<GamesOwned> retrieveByPlayer(Connection connection, Long playerID)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            return new ArrayList<GamesOwned>();
+        }
+        return owned.select(byPlayer.get(playerID), row -> playerID.equals(row.getPlayerID()));
+    }
+
+    @Override
+    public int update(Connection connection, GamesOwned gamesOwned) throws SQLException, DAOException
+    {
+        Long id = gamesOwned.getId();
+        if (id == null) {
+            throw new DAOException("Trying to update GamesOwned with NULL ID");
+        }
+        return owned.replace(connection, id, gamesOwned, MemoryGamesOwnedDAO::init) ? 1 : 0;
+    }
+
+    @Override
+    public int delete(Connection connection, Long gameOwnedID) throws SQLException, DAOException
+    {
+        if (gameOwnedID == null) {
+            throw new DAOException("Trying to delete GamesOwned with NULL ID");
+        }
+        return owned.remove(connection, gameOwnedID) ? 1 : 0;
+    }
+
+    @Override
+    public int scanByGame(Connection connection, Long gameID, RowVisitor<GamesOwnedRow> visitor)
+            throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to scan GamesOwned with NULL GAMEID");
+        }
+        return scan(byGame.get(gameID), gameID, false, visitor);
+    }
+
+    @Override
+    public int scanByPlayer(Connection connection, Long playerID, RowVisitor<GamesOwnedRow> visitor)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to scan GamesOwned with NULL PLAYERID");
+        }
+        return scan(byPlayer.get(playerID), playerID, true, visitor);
+    }
+
+    @Override
+    public int scanAll(Connection connection, RowVisitor<GamesOwnedRow> visitor) throws SQLException, DAOException
+    {
+        GamesOwnedRow row = new GamesOwnedRow();
+        int count = 0;
+        for (GamesOwned stored : owned.storedRows()) {
+            visitor.visit(toRow(stored.getId(), stored, row));
+            count++;
+        }
+        return count;
+    }
+
+    private int scan(List<Long> ids, Long key, boolean byPlayerID, RowVisitor<GamesOwnedRow> visitor)
+            throws SQLException, DAOException
+    {
+        GamesOwnedRow row = new GamesOwnedRow();
+        int count = 0;
+        for (Long id : ids) {
+            GamesOwned stored = owned.peek(id);
+            if (stored == null || !key.equals(byPlayerID ? stored.getPlayerID() : stored.getGameID())) {
+                continue;
+            }
+            visitor.visit(toRow(id, stored, row));
+            count++;
+        }
+        return count;
+    }
+
+    private static GamesOwnedRow toRow(long id, GamesOwned stored, GamesOwnedRow row)
+    {
+        row.setId(id);
+        row.setPlayerID(stored.getPlayerID() == null ? 0L : stored.getPlayerID());
+        row.setGameID(stored.getGameID() == null ? 0L : stored.getGameID());
+        row.setPurchaseDate(stored.getPurchaseDate() == null ? 0L : stored.getPurchaseDate().getTime());
+        row.setPurchasePrice(stored.getPurchasePrice());
+        return row;
+    }
+
+    @Override
+    public int count(Connection connection) throws SQLException, DAOException
+    {
+        return owned.size();
+    }
+
+}
@@ -0,0 +1,206 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.memory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.RowVisitor;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedRow;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * GamesPlayedDAO held in memory, with playerID and gameID indexes.
+ */
+public class MemoryGamesPlayedDAO implements GamesPlayedDAO
+{
+    private final IDIndex<Long> byPlayer = IDIndex.hashed();
+    private final IDIndex<Long> byGame = IDIndex.hashed();
+
+    private final MemoryTable<GamesPlayed> played = new MemoryTable<GamesPlayed>()
+    {
+        @Override
+        GamesPlayed copy(GamesPlayed row)
+        {
+            GamesPlayed gamesPlayed = new GamesPlayed();
+            gamesPlayed.setId(row.getId());
+            gamesPlayed.setPlayerID(row.getPlayerID());
+            gamesPlayed.setGameID(row.getGameID());
+            gamesPlayed.setTimeFinished(copyOf(row.getTimeFinished()));
+            gamesPlayed.setScore(row.getScore());
+            return gamesPlayed;
+        }
+
+        @Override
+        void index(long id, GamesPlayed row)
+        {
+            byPlayer.add(row.getPlayerID(), id);
+            byGame.add(row.getGameID(), id);
+        }
+
+        @Override
+        void unindex(long id, GamesPlayed row)
+        {
+            byPlayer.remove(row.getPlayerID(), id);
+            byGame.remove(row.getGameID(), id);
+        }
+    };
+
+    private static void init(long id, GamesPlayed row)
+    {
+        row.setId(id);
+        // GamesPlayedDAOImpl binds timeFinished with setDate(), which drops the time of day.
+        row.setTimeFinished(MemoryTable.day(row.getTimeFinished()));
+    }
+
+    @Override
+    public GamesPlayed create(Connection connection, GamesPlayed gamesPlayed) throws SQLException, DAOException
+    {
+        if (gamesPlayed.getId() != null) {
+            throw new DAOException("Trying to insert GamesPlayed with NON-NULL ID");
+        }
+        if (gamesPlayed.getPlayerID() == null || gamesPlayed.getGameID() == null) {
+            throw new DAOException("Trying to insert GamesPlayed with NULL Player ID");
+        }
+        gamesPlayed.setId(played.insert(connection, gamesPlayed, MemoryGamesPlayedDAO::init));
+        return gamesPlayed;
+    }
+
+    @Override
+    public GamesPlayed retrieveID(Connection connection, Long gamePlayedID) throws SQLException, DAOException
+    {
+        if (gamePlayedID == null) {
+            throw new DAOException("Trying to retrieve GamePlayed with NULL ID");
+        }
+        return played.get(gamePlayedID);
+    }
+
+    @Override
+    public List<GamesPlayed> retrieveByPlayerGameID(Connection connection, Long playerID, Long gameID)
+            throws SQLException, DAOException
+    {
+        if (playerID == null || gameID == null) {
+            throw new DAOException("Trying to insert GamesPlayed with NULL Player ID");
+        }
+        List<Long> forPlayer = byPlayer.get(playerID);
+        List<Long> forGame = byGame.get(gameID);
+        return played.select(forPlayer.size() <= forGame.size() ? forPlayer : forGame,
+                row -> playerID.equals(row.getPlayerID()) && gameID.equals(row.getGameID()));
+    }
+
+    @Override
+    public List<GamesPlayed> retrieveByGame(Connection connection, Long gameID) throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to insert GamesPlayed with NULL Player ID");
+        }
+        return played.select(byGame.get(gameID), row -> gameID.equals(row.getGameID()));
+    }
+
+    @Override
+    public List<GamesPlayed> retrieveByPlayer(Connection connection, Long playerID)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to insert GamesPlayed with NULL Player ID");
+        }
+        return played.select(byPlayer.get(playerID), row -> playerID.equals(row.getPlayerID()));
+    }
+
+    @Override
+    public int update(Connection connection, GamesPlayed gamesPlayed) throws SQLException, DAOException
+    {
+        Long id = gamesPlayed.getId();
+        if (id == null) {
+            throw new DAOException("Trying to update GamesPlayed with NULL ID");
+        }
+        return played.replace(connection, id, gamesPlayed, MemoryGamesPlayedDAO::init) ? 1 : 0;
+    }
+
+    @Override
+    public int delete(Connection connection, Long gamePlayedID) throws SQLException, DAOException
+    {
+        if (gamePlayedID == null) {
+            throw new DAOException("Trying to delete GamesPlayed with NULL ID");
+        }
+        return played.remove(connection, gamePlayedID) ? 1 : 0;
+    }
+
+    @Override
+    public int scanByGame(Connection connection, Long gameID, RowVisitor<GamesPlayedRow> visitor)
+            throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to scan GamesPlayed with NULL Game ID");
+        }
+        GamesPlayedRow row = new GamesPlayedRow();
+        int count = 0;
+        for (Long id : byGame.get(gameID)) {
+            GamesPlayed stored = played.peek(id);
+            if (stored != null && gameID.equals(stored.getGameID())) {
+                visitor.visit(toRow(id, stored, row));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int scanByPlayer(Connection connection, Long playerID, RowVisitor<GamesPlayedRow> visitor)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to scan GamesPlayed with NULL Player ID");
+        }
+        GamesPlayedRow row = new GamesPlayedRow();
+        int count = 0;
+        for (Long id : byPlayer.get(playerID)) {
+            GamesPlayed stored = played.peek(id);
+            if (stored != null && playerID.equals(stored.getPlayerID())) {
+                visitor.visit(toRow(id, stored, row));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int scanAll(Connection connection, RowVisitor<GamesPlayedRow> visitor) throws SQLException, DAOException
+    {
+        GamesPlayedRow row = new GamesPlayedRow();
+        int count = 0;
+        for (GamesPlayed stored : played.storedRows()) {
+            visitor.visit(toRow(stored.getId(), stored, row));
+            count++;
+        }
+        return count;
+    }
+
+    private static GamesPlayedRow toRow(long id, GamesPlayed stored, GamesPlayedRow row)
+    {
+        row.setId(id);
+        row.setPlayerID(stored.getPlayerID() == null ? 0L : stored.getPlayerID());
+        row.setGameID(stored.getGameID() == null ? 0L : stored.getGameID());
+        row.setTimeFinished(stored.getTimeFinished() == null ? 0L : stored.getTimeFinished().getTime());
+        row.setScore(stored.getScore());
+        return row;
+    }
+
+    @Override
+    public int count(Connection connection) throws SQLException, DAOException
+    {
+        return played.size();
+    }
+
+}
@@ -0,0 +1,122 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.memory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.List;
+
+import cs4347.jdbcGame.dao.PlayerDAO;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * PlayerDAO held in memory, with a sorted join_date index. The connection
+ * argument is ignored. Credit cards are not stored, as with PlayerDAOImpl.
+ */
+public class MemoryPlayerDAO implements PlayerDAO
+{
+    private final IDIndex<Long> byJoinDate = IDIndex.sorted();
+
+    private final MemoryTable<Player> players = new MemoryTable<Player>()
+    {
+        @Override
+        Player copy(Player row)
+        {
+            Player player = new Player();
+            player.setId(row.getId());
+            player.setFirstName(row.getFirstName());
+            player.setLastName(row.getLastName());
+            player.setJoinDate(copyOf(row.getJoinDate()));
+            player.setEmail(row.getEmail());
+            return player;
+        }
+
+        @Override
+        void index(long id, Player row)
+        {
+            byJoinDate.add(dayKey(row.getJoinDate()), id);
+        }
+
+        @Override
+        void unindex(long id, Player row)
+        {
+            byJoinDate.remove(dayKey(row.getJoinDate()), id);
+        }
+    };
+
+    private static void init(long id, Player row)
+    {
+        row.setId(id);
+        row.setJoinDate(MemoryTable.day(row.getJoinDate()));
+    }
+
+    @Override
+    public Player create(Connection connection, Player player) throws SQLException, DAOException
+    {
+        if (player.getId() != null) {
+            throw new DAOException("Trying to insert Player with NON-NULL ID");
+        }
+        player.setId(players.insert(connection, player, MemoryPlayerDAO::init));
+        return player;
+    }
+
+    @Override
+    public Player retrieve(Connection connection, Long playerID) throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to retrieve Player with NULL ID");
+        }
+        return players.get(playerID);
+    }
+
+    @Override
+    public int update(Connection connection, Player player) throws SQLException, DAOException
+    {
+        Long id = player.getId();
+        if (id == null) {
+            throw new DAOException("Trying to update Player with NULL ID");
+        }
+        return players.replace(connection, id, player, MemoryPlayerDAO::init) ? 1 : 0;
+    }
+
+    @Override
+    public int delete(Connection connection, Long playerID) throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to delete Player with NULL ID");
+        }
+        return players.remove(connection, playerID) ? 1 : 0;
+    }
+
+    @Override
+    public int count(Connection connection) throws SQLException, DAOException
+    {
+        return players.size();
+    }
+
+    @Override
+    public List<Player> retrieveByJoinDate(Connection connection, Date start, Date end)
+            throws SQLException, DAOException
+    {
+        if (start == null || end == null) {
+            throw new DAOException("Trying to retrieve players with NULL dob");
+        }
+        long from = MemoryTable.dayKey(start);
+        long to = MemoryTable.dayKey(end);
+        return players.select(byJoinDate.range(from, to), row -> {
+            Long day = MemoryTable.dayKey(row.getJoinDate());
+            return day != null && day >= from && day <= to;
+        });
+    }
+
+}
@@ -0,0 +1,183 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.memory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.PlayerService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+import cs4347.jdbcGame.services.impl.PlayerServiceImpl;
+
+/**
+ * One in-memory database: a DAO per table and services wired to them.
+ * 
+ * <pre>
+ * MemoryStore store = new MemoryStore();
+ * GameService gameService = store.gameService();
+ * </pre>
+ * 
+ * The services still open a connection per call, so the store supplies a
+ * DataSource for them. Its connections keep the JDBC transaction contract of
+ * the services: with autocommit off, each write is recorded in an UndoLog
+ * that rollback() replays and commit() drops. Writes are visible to other
+ * connections at once, as with READ UNCOMMITTED, and every other call is
+ * accepted and ignored.
+ */
+public class MemoryStore
+{
+    private final MemoryPlayerDAO playerDAO = new MemoryPlayerDAO();
+    private final MemoryCreditCardDAO creditCardDAO = new MemoryCreditCardDAO();
+    private final MemoryGameDAO gameDAO = new MemoryGameDAO();
+    private final MemoryGamesOwnedDAO gamesOwnedDAO = new MemoryGamesOwnedDAO();
+    private final MemoryGamesPlayedDAO gamesPlayedDAO = new MemoryGamesPlayedDAO();
+    private final DataSource dataSource = (DataSource) Proxy.newProxyInstance(MemoryStore.class.getClassLoader(),
+            new Class<?>[] { DataSource.class }, (proxy, method, args) -> {
+                if (method.getName().equals("getConnection")) {
+                    return newConnection();
+                }
+                return objectMethod(proxy, method, args);
+            });
+
+    public MemoryPlayerDAO getPlayerDAO()
+    {
+        return playerDAO;
+    }
+
+    public MemoryCreditCardDAO getCreditCardDAO()
+    {
+        return creditCardDAO;
+    }
+
+    public MemoryGameDAO getGameDAO()
+    {
+        return gameDAO;
+    }
+
+    public MemoryGamesOwnedDAO getGamesOwnedDAO()
+    {
+        return gamesOwnedDAO;
+    }
+
+    public MemoryGamesPlayedDAO getGamesPlayedDAO()
+    {
+        return gamesPlayedDAO;
+    }
+
+    public DataSource getDataSource()
+    {
+        return dataSource;
+    }
+
+    public PlayerService playerService()
+    {
+        return new PlayerServiceImpl(dataSource, playerDAO, creditCardDAO);
+    }
+
+    public GameService gameService()
+    {
+        return new GameServiceImpl(dataSource, gameDAO);
+    }
+
+    public GamesOwnedService gamesOwnedService()
+    {
+        return new GamesOwnedServiceImpl(dataSource, gamesOwnedDAO);
+    }
+
+    public GamesPlayedService gamesPlayedService()
+    {
+        return new GamesPlayedServiceImpl(dataSource, gamesPlayedDAO);
+    }
+
+    private static Connection newConnection()
+    {
+        boolean[] state = { true, false }; // autoCommit, closed
+        UndoLog undo = new UndoLog();
+        return (Connection) Proxy.newProxyInstance(MemoryStore.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "setAutoCommit":
+                        if (!state[0] && (Boolean) args[0]) {
+                            undo.commit();
+                        }
+                        state[0] = (Boolean) args[0];
+                        return null;
+                    case "getAutoCommit":
+                        return state[0];
+                    case "commit":
+                        undo.commit();
+                        return null;
+                    case "rollback":
+                        if (args == null) {
+                            undo.rollback();
+                            return null;
+                        }
+                        return objectMethod(proxy, method, args);
+                    case "isWrapperFor":
+                        return args[0] == UndoLog.class && !state[0];
+                    case "unwrap":
+                        if (args[0] == UndoLog.class && !state[0]) {
+                            return undo;
+                        }
+                        throw new SQLException("Not a wrapper for " + args[0]);
+                    case "close":
+                        // A transaction left open is dropped, as by most drivers.
+                        if (!state[0]) {
+                            undo.rollback();
+                        }
+                        state[1] = true;
+                        return null;
+                    case "isClosed":
+                        return state[1];
+                    default:
+                        return objectMethod(proxy, method, args);
+                    }
+                });
+    }
+
+    /**
+     * Object methods by identity; every other call returns the zero value of
+     * its return type.
+     */
+    private static Object objectMethod(Object proxy, Method method, Object[] args)
+    {
+        switch (method.getName()) {
+        case "equals":
+            return proxy == args[0];
+        case "hashCode":
+            return System.identityHashCode(proxy);
+        case "toString":
+            return "MemoryStore@" + Integer.toHexString(System.identityHashCode(proxy));
+        default:
+            break;
+        }
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,215 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.memory;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Primary storage for one in-memory table: rows by ID plus an ID sequence.
+ * Stored rows are private copies that are never modified, so readers work
+ * without locks. Writers are serialized and keep the subclass's secondary
+ * indexes in step through index() and unindex(). A reader can see an index
+ * entry a moment before or after the row changes, so lookups through an index
+ * re-check their condition against the stored row. A write made through a
+ * MemoryStore connection in a transaction is recorded in its UndoLog, and a
+ * rollback puts the rows it touched back as they were.
+ */
+abstract class MemoryTable<E>
+{
+    private final ConcurrentHashMap<Long, E> rows = new ConcurrentHashMap<Long, E>();
+    private final AtomicLong lastID = new AtomicLong();
+
+    /**
+     * Returns a copy of the row that shares no mutable state with it.
+     */
+    abstract E copy(E row);
+
+    abstract void index(long id, E row);
+
+    abstract void unindex(long id, E row);
+
+    /**
+     * Stores a copy of the row under a new ID and returns the ID. The stored
+     * copy is passed to init() first so it can take the ID and normalized
+     * values.
+     */
+    synchronized long insert(Connection connection, E row, Initializer<E> init)
+    {
+        long id = lastID.incrementAndGet();
+        E stored = copy(row);
+        init.apply(id, stored);
+        rows.put(id, stored);
+        index(id, stored);
+        recordUndo(connection, id, null);
+        return id;
+    }
+
+    /**
+     * Replaces the row with a copy of the given one. Returns false if there
+     * is no row with that ID.
+     */
+    synchronized boolean replace(Connection connection, long id, E row, Initializer<E> init)
+    {
+        E old = rows.get(id);
+        if (old == null) {
+            return false;
+        }
+        E stored = copy(row);
+        init.apply(id, stored);
+        unindex(id, old);
+        rows.put(id, stored);
+        index(id, stored);
+        recordUndo(connection, id, old);
+        return true;
+    }
+
+    /**
+     * Stores a copy of the row under the ID it already has, replacing any row
+     * with that ID. Used to load rows from a log or snapshot.
+     */
+    synchronized void put(long id, E row, Initializer<E> init)
+    {
+        advanceID(id);
+        E stored = copy(row);
+        init.apply(id, stored);
+        E old = rows.put(id, stored);
+        if (old != null) {
+            unindex(id, old);
+        }
+        index(id, stored);
+    }
+
+    /**
+     * Makes sure insert() never hands out the given ID or any lower one.
+     */
+    void advanceID(long id)
+    {
+        lastID.accumulateAndGet(id, Math::max);
+    }
+
+    long lastID()
+    {
+        return lastID.get();
+    }
+
+    synchronized boolean remove(Connection connection, long id)
+    {
+        E old = rows.remove(id);
+        if (old == null) {
+            return false;
+        }
+        unindex(id, old);
+        recordUndo(connection, id, old);
+        return true;
+    }
+
+    /**
+     * Has the connection's transaction, if any, put the stored row back to
+     * old, or remove it if old is null, on rollback.
+     */
+    private void recordUndo(Connection connection, long id, E old)
+    {
+        UndoLog undo = UndoLog.of(connection);
+        if (undo != null) {
+            undo.add(() -> restore(id, old));
+        }
+    }
+
+    private synchronized void restore(long id, E old)
+    {
+        E current = old == null ? rows.remove(id) : rows.put(id, old);
+        if (current != null) {
+            unindex(id, current);
+        }
+        if (old != null) {
+            index(id, old);
+        }
+    }
+
+    /**
+     * Returns a copy of the row, or null.
+     */
+    E get(long id)
+    {
+        E row = rows.get(id);
+        return row == null ? null : copy(row);
+    }
+
+    /**
+     * Returns the stored row itself, or null. Callers must not modify it.
+     */
+    E peek(long id)
+    {
+        return rows.get(id);
+    }
+
+    /**
+     * Copies of the rows with the given IDs that still satisfy the condition.
+     */
+    List<E> select(Collection<Long> ids, Predicate<E> condition)
+    {
+        List<E> result = new ArrayList<E>(ids.size());
+        for (Long id : ids) {
+            E row = rows.get(id);
+            if (row != null && condition.test(row)) {
+                result.add(copy(row));
+            }
+        }
+        return result;
+    }
+
+    Collection<E> storedRows()
+    {
+        return rows.values();
+    }
+
+    int size()
+    {
+        return rows.size();
+    }
+
+    interface Initializer<E>
+    {
+        void apply(long id, E row);
+    }
+
+    /**
+     * Truncates a date to the day, as a DATE column does, and returns it as
+     * the java.sql.Date that JDBC would read back.
+     */
+    static java.sql.Date day(Date date)
+    {
+        if (date == null) {
+            return null;
+        }
+        return java.sql.Date.valueOf(new java.sql.Date(date.getTime()).toLocalDate());
+    }
+
+    static Long dayKey(Date date)
+    {
+        return date == null ? null : day(date).getTime();
+    }
+
+    /**
+     * Copies a date so that callers cannot change a stored row through it.
+     */
+    static Date copyOf(Date date)
+    {
+        return date == null ? null : new java.sql.Date(date.getTime());
+    }
+}
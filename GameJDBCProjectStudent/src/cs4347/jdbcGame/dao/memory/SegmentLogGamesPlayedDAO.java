@@ -0,0 +1,592 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.memory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.RowVisitor;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedRow;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * GamesPlayedDAO stored in an append-only log of fixed-width records in
+ * memory-mapped segment files (segment-NNNNNN.log) in one directory. Create
+ * and update append a record, delete appends a tombstone, and nothing is ever
+ * written in place. The locations of live records and the playerID/gameID
+ * indexes are kept in memory and rebuilt by replaying the segments on open.
+ * 
+ * Records are 40 bytes: id, playerID, gameID, timeFinished (epoch millis,
+ * truncated to the day as GamesPlayedDAOImpl stores it), score, and the
+ * record type, which is written last so that a torn append is not replayed.
+ * Appends reach the OS page cache on return; call sync() or close() to force
+ * them to disk.
+ * 
+ * Superseded records and tombstones are dropped by compact(), which copies
+ * the live records to new segments and deletes the old ones oldest first, so
+ * a crash part way through still replays to the same rows. It also runs on
+ * its own once dead records outnumber live ones by a segment or more.
+ * The connection argument is ignored.
+ */
+public class SegmentLogGamesPlayedDAO implements GamesPlayedDAO, Closeable
+{
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 16;
+
+    static final int RECORD_BYTES = 40;
+    private static final int EMPTY = 0;
+    private static final int PUT = 1;
+    private static final int TOMBSTONE = 2;
+    // Carries the last assigned ID across a compaction that dropped it.
+    private static final int ID_MARK = 3;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.log");
+
+    private final File directory;
+    private final int recordsPerSegment;
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<Integer, Segment>();
+    // Live ID to (segment number << 32 | slot).
+    private final ConcurrentHashMap<Long, Long> locations = new ConcurrentHashMap<Long, Long>();
+    private final IDIndex<Long> byPlayer = IDIndex.hashed();
+    private final IDIndex<Long> byGame = IDIndex.hashed();
+    // scanAll() holds the read lock so compaction cannot move rows under it.
+    private final ReentrantReadWriteLock compactionLock = new ReentrantReadWriteLock();
+
+    // Guarded by this.
+    private Segment active;
+    private long lastID;
+    private long deadRecords;
+
+    public SegmentLogGamesPlayedDAO(File directory) throws IOException
+    {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    public SegmentLogGamesPlayedDAO(File directory, int recordsPerSegment) throws IOException
+    {
+        if (recordsPerSegment < 2) {
+            throw new IllegalArgumentException("recordsPerSegment must be at least 2");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        recover();
+    }
+
+    @Override
+    public GamesPlayed create(Connection connection, GamesPlayed gamesPlayed) throws SQLException, DAOException
+    {
+        if (gamesPlayed.getId() != null) {
+            throw new DAOException("Trying to insert GamesPlayed with NON-NULL ID");
+        }
+        if (gamesPlayed.getPlayerID() == null || gamesPlayed.getGameID() == null) {
+            throw new DAOException("Trying to insert GamesPlayed with NULL Player ID");
+        }
+        long id;
+        synchronized (this) {
+            id = ++lastID;
+            put(id, gamesPlayed);
+        }
+        compactIfWasteful();
+        gamesPlayed.setId(id);
+        return gamesPlayed;
+    }
+
+    @Override
+    public GamesPlayed retrieveID(Connection connection, Long gamePlayedID) throws SQLException, DAOException
+    {
+        if (gamePlayedID == null) {
+            throw new DAOException("Trying to retrieve GamePlayed with NULL ID");
+        }
+        GamesPlayedRow row = new GamesPlayedRow();
+        return read(gamePlayedID, row) ? toGamesPlayed(row) : null;
+    }
+
+    @Override
+    public List<GamesPlayed> retrieveByPlayerGameID(Connection connection, Long playerID, Long gameID)
+            throws SQLException, DAOException
+    {
+        if (playerID == null || gameID == null) {
+            throw new DAOException("Trying to insert GamesPlayed with NULL Player ID");
+        }
+        List<GamesPlayed> result = new ArrayList<GamesPlayed>();
+        List<Long> forPlayer = byPlayer.get(playerID);
+        List<Long> forGame = byGame.get(gameID);
+        GamesPlayedRow row = new GamesPlayedRow();
+        for (Long id : forPlayer.size() <= forGame.size() ? forPlayer : forGame) {
+            if (read(id, row) && row.getPlayerID() == playerID && row.getGameID() == gameID) {
+                result.add(toGamesPlayed(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<GamesPlayed> retrieveByGame(Connection connection, Long gameID) throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to insert GamesPlayed with NULL Player ID");
+        }
+        List<GamesPlayed> result = new ArrayList<GamesPlayed>();
+        scan(byGame.get(gameID), gameID, false, row -> result.add(toGamesPlayed(row)));
+        return result;
+    }
+
+    @Override
+    public List<GamesPlayed> retrieveByPlayer(Connection connection, Long playerID)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to insert GamesPlayed with NULL Player ID");
+        }
+        List<GamesPlayed> result = new ArrayList<GamesPlayed>();
+        scan(byPlayer.get(playerID), playerID, true, row -> result.add(toGamesPlayed(row)));
+        return result;
+    }
+
+    @Override
+    public int update(Connection connection, GamesPlayed gamesPlayed) throws SQLException, DAOException
+    {
+        Long id = gamesPlayed.getId();
+        if (id == null) {
+            throw new DAOException("Trying to update GamesPlayed with NULL ID");
+        }
+        if (gamesPlayed.getPlayerID() == null || gamesPlayed.getGameID() == null) {
+            throw new DAOException("Trying to update GamesPlayed with NULL Player ID");
+        }
+        synchronized (this) {
+            if (!locations.containsKey(id)) {
+                return 0;
+            }
+            put(id, gamesPlayed);
+        }
+        compactIfWasteful();
+        return 1;
+    }
+
+    @Override
+    public int delete(Connection connection, Long gamePlayedID) throws SQLException, DAOException
+    {
+        if (gamePlayedID == null) {
+            throw new DAOException("Trying to delete GamesPlayed with NULL ID");
+        }
+        synchronized (this) {
+            Long location = locations.get(gamePlayedID);
+            if (location == null) {
+                return 0;
+            }
+            append(TOMBSTONE, gamePlayedID, 0, 0, NULL_TIME, 0);
+            locations.remove(gamePlayedID);
+            unindex(gamePlayedID, location);
+            // The superseded record and the tombstone itself.
+            deadRecords += 2;
+        }
+        compactIfWasteful();
+        return 1;
+    }
+
+    @Override
+    public int scanByGame(Connection connection, Long gameID, RowVisitor<GamesPlayedRow> visitor)
+            throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to scan GamesPlayed with NULL Game ID");
+        }
+        return scan(byGame.get(gameID), gameID, false, visitor);
+    }
+
+    @Override
+    public int scanByPlayer(Connection connection, Long playerID, RowVisitor<GamesPlayedRow> visitor)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to scan GamesPlayed with NULL Player ID");
+        }
+        return scan(byPlayer.get(playerID), playerID, true, visitor);
+    }
+
+    /**
+     * Reads the segments sequentially and visits every record that is still
+     * the live version of its row.
+     */
+    @Override
+    public int scanAll(Connection connection, RowVisitor<GamesPlayedRow> visitor) throws SQLException, DAOException
+    {
+        GamesPlayedRow row = new GamesPlayedRow();
+        int count = 0;
+        compactionLock.readLock().lock();
+        try {
+            for (Segment segment : segments.values()) {
+                int written = segment.count;
+                for (int slot = 0; slot < written; slot++) {
+                    int offset = slot * RECORD_BYTES;
+                    if (segment.buffer.getInt(offset + 36) != PUT) {
+                        continue;
+                    }
+                    long id = segment.buffer.getLong(offset);
+                    Long location = locations.get(id);
+                    if (location != null && location == location(segment.number, slot)) {
+                        readRecord(segment, slot, row);
+                        visitor.visit(row);
+                        count++;
+                    }
+                }
+            }
+        }
+        finally {
+            compactionLock.readLock().unlock();
+        }
+        return count;
+    }
+
+    @Override
+    public int count(Connection connection) throws SQLException, DAOException
+    {
+        return locations.size();
+    }
+
+    /**
+     * Rewrites the live records into new segments and deletes the old ones.
+     * Blocks writers and scanAll() while it runs; point reads continue.
+     */
+    public void compact() throws IOException
+    {
+        compactionLock.writeLock().lock();
+        try {
+            synchronized (this) {
+                compactLocked();
+            }
+        }
+        finally {
+            compactionLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forces every segment to disk.
+     */
+    public synchronized void sync()
+    {
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        sync();
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+    }
+
+    public synchronized long getDeadRecords()
+    {
+        return deadRecords;
+    }
+
+    public int getSegmentCount()
+    {
+        return segments.size();
+    }
+
+    private void put(long id, GamesPlayed gamesPlayed) throws SQLException
+    {
+        Date timeFinished = MemoryTable.day(gamesPlayed.getTimeFinished());
+        long playerID = gamesPlayed.getPlayerID();
+        long gameID = gamesPlayed.getGameID();
+        long location = append(PUT, id, playerID, gameID,
+                timeFinished == null ? NULL_TIME : timeFinished.getTime(), gamesPlayed.getScore());
+        Long old = locations.put(id, location);
+        if (old != null) {
+            unindex(id, old);
+            deadRecords++;
+        }
+        byPlayer.add(playerID, id);
+        byGame.add(gameID, id);
+    }
+
+    private void unindex(long id, long location)
+    {
+        Segment segment = segments.get(segmentOf(location));
+        int offset = slotOf(location) * RECORD_BYTES;
+        byPlayer.remove(segment.buffer.getLong(offset + 8), id);
+        byGame.remove(segment.buffer.getLong(offset + 16), id);
+    }
+
+    /**
+     * Writes one record to the active segment, starting a new segment when it
+     * is full, and returns its location. Caller holds the monitor.
+     */
+    private long append(int type, long id, long playerID, long gameID, long timeFinished, int score)
+            throws SQLException
+    {
+        if (active.count == active.capacity) {
+            try {
+                active = openSegment(segments.isEmpty() ? 1 : segments.lastKey() + 1, recordsPerSegment);
+            }
+            catch (IOException ex) {
+                throw new SQLException("Cannot start a new GamesPlayed segment in " + directory, ex);
+            }
+        }
+        int slot = active.count;
+        MappedByteBuffer buffer = active.buffer;
+        int offset = slot * RECORD_BYTES;
+        buffer.putLong(offset, id);
+        buffer.putLong(offset + 8, playerID);
+        buffer.putLong(offset + 16, gameID);
+        buffer.putLong(offset + 24, timeFinished);
+        buffer.putInt(offset + 32, score);
+        buffer.putInt(offset + 36, type);
+        active.count = slot + 1;
+        return location(active.number, slot);
+    }
+
+    /**
+     * Reads the live record for the ID into the row. Retries if a compaction
+     * moved it between the location lookup and the read.
+     */
+    private boolean read(long id, GamesPlayedRow row)
+    {
+        while (true) {
+            Long location = locations.get(id);
+            if (location == null) {
+                return false;
+            }
+            Segment segment = segments.get(segmentOf(location));
+            if (segment != null) {
+                readRecord(segment, slotOf(location), row);
+                if (row.getId() == id) {
+                    return true;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private int scan(List<Long> ids, long key, boolean byPlayerID, RowVisitor<GamesPlayedRow> visitor)
+            throws SQLException, DAOException
+    {
+        GamesPlayedRow row = new GamesPlayedRow();
+        int count = 0;
+        for (Long id : ids) {
+            if (read(id, row) && (byPlayerID ? row.getPlayerID() : row.getGameID()) == key) {
+                visitor.visit(row);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void readRecord(Segment segment, int slot, GamesPlayedRow row)
+    {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = slot * RECORD_BYTES;
+        row.setId(buffer.getLong(offset));
+        row.setPlayerID(buffer.getLong(offset + 8));
+        row.setGameID(buffer.getLong(offset + 16));
+        long timeFinished = buffer.getLong(offset + 24);
+        row.setTimeFinished(timeFinished == NULL_TIME ? 0L : timeFinished);
+        row.setScore(buffer.getInt(offset + 32));
+    }
+
+    private static GamesPlayed toGamesPlayed(GamesPlayedRow row)
+    {
+        GamesPlayed gamesPlayed = row.toGamesPlayed();
+        // Rows carry a NULL timeFinished as 0.
+        gamesPlayed.setTimeFinished(row.getTimeFinished() == 0L ? null : new java.sql.Date(row.getTimeFinished()));
+        return gamesPlayed;
+    }
+
+    private void compactIfWasteful()
+    {
+        if (!compactionLock.writeLock().tryLock()) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                if (deadRecords >= recordsPerSegment && deadRecords > locations.size()) {
+                    compactLocked();
+                }
+            }
+        }
+        catch (IOException ex) {
+            // The log is still consistent; the next write tries again.
+        }
+        finally {
+            compactionLock.writeLock().unlock();
+        }
+    }
+
+    private void compactLocked() throws IOException
+    {
+        List<Segment> old = new ArrayList<Segment>(segments.values());
+        active = openSegment(segments.isEmpty() ? 1 : segments.lastKey() + 1, recordsPerSegment);
+        try {
+            if (lastID > 0) {
+                append(ID_MARK, lastID, 0, 0, NULL_TIME, 0);
+            }
+            for (Segment segment : old) {
+                MappedByteBuffer buffer = segment.buffer;
+                for (int slot = 0; slot < segment.count; slot++) {
+                    int offset = slot * RECORD_BYTES;
+                    long id = buffer.getLong(offset);
+                    if (buffer.getInt(offset + 36) != PUT || !Long.valueOf(location(segment.number, slot))
+                            .equals(locations.get(id))) {
+                        continue;
+                    }
+                    long location = append(PUT, id, buffer.getLong(offset + 8), buffer.getLong(offset + 16),
+                            buffer.getLong(offset + 24), buffer.getInt(offset + 32));
+                    locations.put(id, location);
+                }
+            }
+        }
+        catch (SQLException ex) {
+            throw new IOException(ex.getMessage(), ex.getCause());
+        }
+        sync();
+        for (Segment segment : old) {
+            segments.remove(segment.number);
+            segment.channel.close();
+            if (!segment.file.delete()) {
+                throw new IOException("Cannot delete " + segment.file);
+            }
+        }
+        deadRecords = 0;
+    }
+
+    private void recover() throws IOException
+    {
+        File[] files = directory.listFiles();
+        List<Integer> numbers = new ArrayList<Integer>();
+        if (files != null) {
+            for (File file : files) {
+                Matcher m = SEGMENT_NAME.matcher(file.getName());
+                if (m.matches()) {
+                    numbers.add(Integer.parseInt(m.group(1)));
+                }
+            }
+        }
+        numbers.sort(null);
+        for (Integer number : numbers) {
+            Segment segment = openSegment(number, 0);
+            MappedByteBuffer buffer = segment.buffer;
+            int slot = 0;
+            while (slot < segment.capacity) {
+                int offset = slot * RECORD_BYTES;
+                int type = buffer.getInt(offset + 36);
+                if (type == EMPTY) {
+                    break;
+                }
+                long id = buffer.getLong(offset);
+                lastID = Math.max(lastID, id);
+                if (type == PUT) {
+                    Long old = locations.put(id, location(number, slot));
+                    if (old != null) {
+                        unindex(id, old);
+                        deadRecords++;
+                    }
+                    byPlayer.add(buffer.getLong(offset + 8), id);
+                    byGame.add(buffer.getLong(offset + 16), id);
+                }
+                else if (type == TOMBSTONE) {
+                    Long old = locations.remove(id);
+                    if (old != null) {
+                        unindex(id, old);
+                    }
+                    deadRecords += 2;
+                }
+                slot++;
+            }
+            segment.count = slot;
+            active = segment;
+        }
+        if (active == null) {
+            active = openSegment(1, recordsPerSegment);
+        }
+    }
+
+    /**
+     * Maps a segment file, creating it with room for the given number of
+     * records, or at its existing size when capacity is 0.
+     */
+    @SuppressWarnings("resource")
+    private Segment openSegment(int number, int capacity) throws IOException
+    {
+        File file = new File(directory, String.format("segment-%06d.log", number));
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        try {
+            int records = capacity > 0 ? capacity : (int) (channel.size() / RECORD_BYTES);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    (long) records * RECORD_BYTES);
+            Segment segment = new Segment(number, file, channel, buffer, records);
+            segments.put(number, segment);
+            return segment;
+        }
+        catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    private static long location(int segment, int slot)
+    {
+        return ((long) segment << 32) | slot;
+    }
+
+    private static int segmentOf(long location)
+    {
+        return (int) (location >>> 32);
+    }
+
+    private static int slotOf(long location)
+    {
+        return (int) location;
+    }
+
+    private static final class Segment
+    {
+        final int number;
+        final File file;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final int capacity;
+        // Written slots; published after the record so readers see it whole.
+        volatile int count;
+
+        Segment(int number, File file, FileChannel channel, MappedByteBuffer buffer, int capacity)
+        {
+            this.number = number;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+    }
+}
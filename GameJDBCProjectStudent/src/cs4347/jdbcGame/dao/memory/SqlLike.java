@@ -0,0 +1,131 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.memory;
+
+import java.util.Locale;
+
+/**
+ * SQL LIKE matching as MySQL does it with the default case-insensitive
+ * collation: % matches any run of characters, _ exactly one, and a backslash
+ * makes the next character literal.
+ */
+public final class SqlLike
+{
+    private SqlLike()
+    {
+    }
+
+    public static boolean matches(String value, String pattern)
+    {
+        if (value == null || pattern == null) {
+            return false;
+        }
+        String v = value.toLowerCase(Locale.ROOT);
+        String p = pattern.toLowerCase(Locale.ROOT);
+        int vi = 0;
+        int pi = 0;
+        // Position after the last % seen, and the value position it is matched up to.
+        int starPi = -1;
+        int starVi = 0;
+        while (vi < v.length()) {
+            if (pi < p.length()) {
+                char pc = p.charAt(pi);
+                if (pc == '%') {
+                    starPi = ++pi;
+                    starVi = vi;
+                    continue;
+                }
+                if (pc == '_') {
+                    pi++;
+                    vi++;
+                    continue;
+                }
+                if (pc == '\\' && pi + 1 < p.length()) {
+                    pc = p.charAt(pi + 1);
+                    if (pc == v.charAt(vi)) {
+                        pi += 2;
+                        vi++;
+                        continue;
+                    }
+                }
+                else if (pc == v.charAt(vi)) {
+                    pi++;
+                    vi++;
+                    continue;
+                }
+            }
+            if (starPi < 0) {
+                return false;
+            }
+            // Let the last % absorb one more character and retry.
+            pi = starPi;
+            vi = ++starVi;
+        }
+        while (pi < p.length() && p.charAt(pi) == '%') {
+            pi++;
+        }
+        return pi == p.length();
+    }
+
+    /**
+     * The lower-case literal text before the first wildcard, e.g. "ali" for
+     * "Ali%n". Every match starts with it.
+     */
+    public static String literalPrefix(String pattern)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int idx = 0; idx < pattern.length(); idx++) {
+            char ch = pattern.charAt(idx);
+            if (ch == '%' || ch == '_') {
+                break;
+            }
+            if (ch == '\\' && idx + 1 < pattern.length()) {
+                ch = pattern.charAt(++idx);
+            }
+            sb.append(ch);
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Escapes %, _ and backslash so that the text matches only itself, e.g.
+     * to build a prefix pattern: escape(prefix) + "%".
+     */
+    public static String escape(String text)
+    {
+        StringBuilder sb = new StringBuilder(text.length() + 4);
+        for (int idx = 0; idx < text.length(); idx++) {
+            char ch = text.charAt(idx);
+            if (ch == '%' || ch == '_' || ch == '\\') {
+                sb.append('\\');
+            }
+            sb.append(ch);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * True if the pattern has no unescaped wildcard.
+     */
+    public static boolean isLiteral(String pattern)
+    {
+        for (int idx = 0; idx < pattern.length(); idx++) {
+            char ch = pattern.charAt(idx);
+            if (ch == '%' || ch == '_') {
+                return false;
+            }
+            if (ch == '\\') {
+                idx++;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.memory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The writes of one MemoryStore transaction, undone newest first by
+ * rollback(). MemoryTable records each write against the log of the
+ * connection it is given; with no connection, or one that is not a
+ * MemoryStore connection in a transaction, writes are final at once.
+ */
+final class UndoLog
+{
+    private final List<Runnable> steps = new ArrayList<Runnable>();
+
+    /**
+     * The log of the connection's open transaction, or null.
+     */
+    static UndoLog of(Connection connection)
+    {
+        if (connection == null) {
+            return null;
+        }
+        try {
+            return connection.isWrapperFor(UndoLog.class) ? connection.unwrap(UndoLog.class) : null;
+        }
+        catch (SQLException ex) {
+            return null;
+        }
+    }
+
+    void add(Runnable step)
+    {
+        steps.add(step);
+    }
+
+    void commit()
+    {
+        steps.clear();
+    }
+
+    void rollback()
+    {
+        for (int idx = steps.size() - 1; idx >= 0; idx--) {
+            steps.get(idx).run();
+        }
+        steps.clear();
+    }
+}
@@ -0,0 +1,94 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.entity;
+
+import java.util.Date;
+
+/**
+ * Mutable, primitive view of one GAMES_OWNED row. Used by the GamesOwnedDAO
+ * scan methods, which reuse a single instance for every row.
+ */
+public class GamesOwnedRow
+{
+    private long id;
+    private long playerID;
+    private long gameID;
+    private long purchaseDate;
+    private float purchasePrice;
+
+    public long getId()
+    {
+        return id;
+    }
+
+    public void setId(long id)
+    {
+        this.id = id;
+    }
+
+    public long getPlayerID()
+    {
+        return playerID;
+    }
+
+    public void setPlayerID(long playerID)
+    {
+        this.playerID = playerID;
+    }
+
+    public long getGameID()
+    {
+        return gameID;
+    }
+
+    public void setGameID(long gameID)
+    {
+        this.gameID = gameID;
+    }
+
+    /**
+     * Purchase date in epoch milliseconds.
+     */
+    public long getPurchaseDate()
+    {
+        return purchaseDate;
+    }
+
+    public void setPurchaseDate(long purchaseDate)
+    {
+        this.purchaseDate = purchaseDate;
+    }
+
+    public float getPurchasePrice()
+    {
+        return purchasePrice;
+    }
+
+    public void setPurchasePrice(float purchasePrice)
+    {
+        this.purchasePrice = purchasePrice;
+    }
+
+    /**
+     * Copies the current row into a new GamesOwned entity.
+     */
+    public GamesOwned toGamesOwned()
+    {
+        GamesOwned gamesOwned = new GamesOwned();
+        gamesOwned.setId(id);
+        gamesOwned.setPlayerID(playerID);
+        gamesOwned.setGameID(gameID);
+        gamesOwned.setPurchaseDate(new Date(purchaseDate));
+        gamesOwned.setPurchasePrice(purchasePrice);
+        return gamesOwned;
+    }
+
+}
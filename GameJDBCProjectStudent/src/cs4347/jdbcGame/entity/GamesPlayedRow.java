@@ -0,0 +1,94 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.entity;
+
+import java.util.Date;
+
+/**
+ * Mutable, primitive view of one GAMES_PLAYED row. Used by the
+ * GamesPlayedDAO scan methods, which reuse a single instance for every row.
+ */
+public class GamesPlayedRow
+{
+    private long id;
+    private long playerID;
+    private long gameID;
+    private long timeFinished;
+    private int score;
+
+    public long getId()
+    {
+        return id;
+    }
+
+    public void setId(long id)
+    {
+        this.id = id;
+    }
+
+    public long getPlayerID()
+    {
+        return playerID;
+    }
+
+    public void setPlayerID(long playerID)
+    {
+        this.playerID = playerID;
+    }
+
+    public long getGameID()
+    {
+        return gameID;
+    }
+
+    public void setGameID(long gameID)
+    {
+        this.gameID = gameID;
+    }
+
+    /**
+     * Time finished in epoch milliseconds.
+     */
+    public long getTimeFinished()
+    {
+        return timeFinished;
+    }
+
+    public void setTimeFinished(long timeFinished)
+    {
+        this.timeFinished = timeFinished;
+    }
+
+    public int getScore()
+    {
+        return score;
+    }
+
+    public void setScore(int score)
+    {
+        this.score = score;
+    }
+
+    /**
+     * Copies the current row into a new GamesPlayed entity.
+     */
+    public GamesPlayed toGamesPlayed()
+    {
+        GamesPlayed gamesPlayed = new GamesPlayed();
+        gamesPlayed.setId(id);
+        gamesPlayed.setPlayerID(playerID);
+        gamesPlayed.setGameID(gameID);
+        gamesPlayed.setTimeFinished(new Date(timeFinished));
+        gamesPlayed.setScore(score);
+        return gamesPlayed;
+    }
+
+}
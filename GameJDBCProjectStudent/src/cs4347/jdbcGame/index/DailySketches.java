@@ -0,0 +1,308 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.index;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.entity.GamesPlayedRow;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Mergeable sketches of GAMES_PLAYED per game: one for all plays and one per
+ * day of timeFinished, and optionally per week (Monday to Sunday), kept for
+ * retentionDays after the latest day seen. A play with a NULL timeFinished
+ * only reaches the all-time sketch. The subclass chooses the sketch and the
+ * value of a play that goes into it through newSketch(), addTo(), mergeInto()
+ * and valueOf().
+ * 
+ * Sketches only grow; rebuild() recomputes every one from a single scan.
+ * Plays recorded during the scan are journaled and, unless the scan read
+ * their row, added to the new sketches at the swap, so none is counted twice.
+ */
+public abstract class DailySketches<S>
+{
+    protected static final long NO_ROW = Long.MIN_VALUE;
+
+    private final int retentionDays;
+    private final boolean weekly;
+    private volatile ConcurrentHashMap<Long, GameSketches<S>> games = new ConcurrentHashMap<Long, GameSketches<S>>();
+    // Shared by record(), held exclusively to start a journal and to swap.
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // Plays recorded while rebuild() scans, as { row ID, game, value, time }.
+    private Queue<long[]> journal;
+
+    protected DailySketches(int retentionDays, boolean weekly)
+    {
+        this.retentionDays = retentionDays;
+        this.weekly = weekly;
+    }
+
+    protected abstract S newSketch();
+
+    protected abstract void addTo(S sketch, long value);
+
+    protected abstract void mergeInto(S target, S source);
+
+    /**
+     * The value a scanned play adds, e.g. its player ID or score.
+     */
+    protected abstract long valueOf(GamesPlayedRow row);
+
+    /**
+     * Replaces every sketch with one computed from a scan of GAMES_PLAYED,
+     * dropping the plays that were deleted or moved since. A play recorded
+     * during the scan is added at the swap unless the scan read its row.
+     */
+    public synchronized void rebuild(Connection connection, GamesPlayedDAO gamesPlayedDAO)
+            throws SQLException, DAOException
+    {
+        ConcurrentHashMap<Long, GameSketches<S>> rebuilt = new ConcurrentHashMap<Long, GameSketches<S>>();
+        RoaringBitmap scanned = new RoaringBitmap();
+        Queue<long[]> plays = new ConcurrentLinkedQueue<long[]>();
+        swapLock.writeLock().lock();
+        journal = plays;
+        swapLock.writeLock().unlock();
+        try {
+            gamesPlayedDAO.scanAll(connection, row -> {
+                add(rebuilt, row.getGameID(), valueOf(row), row.getTimeFinished());
+                scanned.add(row.getId());
+            });
+            swapLock.writeLock().lock();
+            try {
+                for (long[] play : plays) {
+                    if (play[0] == NO_ROW || !scanned.contains(play[0])) {
+                        add(rebuilt, play[1], play[2], play[3]);
+                    }
+                }
+                games = rebuilt;
+            }
+            finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+        finally {
+            swapLock.writeLock().lock();
+            journal = null;
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the value of a play to the game's sketches. The row ID is that of
+     * the created GAMES_PLAYED row, which a rebuild that read the row does
+     * not add again, or NO_ROW for a play a rebuild always adds.
+     */
+    protected void record(long rowID, long gameID, long value, Date timeFinished)
+    {
+        long time = timeFinished == null ? 0L : timeFinished.getTime();
+        swapLock.readLock().lock();
+        try {
+            add(games, gameID, value, time);
+            if (journal != null) {
+                journal.add(new long[] { rowID, gameID, value, time });
+            }
+        }
+        finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies read to the game's all-time sketch while holding its lock, or
+     * returns missing for a game without plays.
+     */
+    protected <R> R readAll(long gameID, Function<S, R> read, R missing)
+    {
+        GameSketches<S> sketches = games.get(gameID);
+        if (sketches == null) {
+            return missing;
+        }
+        synchronized (sketches) {
+            return read.apply(sketches.all);
+        }
+    }
+
+    /**
+     * Applies read to the sketch of the given day, or of the week holding it,
+     * or returns missing if there is none.
+     */
+    protected <R> R readBucket(long gameID, Date day, boolean week, Function<S, R> read, R missing)
+    {
+        GameSketches<S> sketches = games.get(gameID);
+        if (sketches == null) {
+            return missing;
+        }
+        long key = day(day.getTime());
+        synchronized (sketches) {
+            S sketch = week ? sketches.weeks.get(weekOf(key)) : sketches.days.get(key);
+            return sketch == null ? missing : read.apply(sketch);
+        }
+    }
+
+    /**
+     * A new sketch merging the daily sketches from one day to another,
+     * inclusive. Days older than the retention are not counted.
+     */
+    protected S mergeDays(long gameID, Date from, Date to)
+    {
+        S range = newSketch();
+        GameSketches<S> sketches = games.get(gameID);
+        if (sketches != null) {
+            synchronized (sketches) {
+                for (S day : sketches.days.subMap(day(from.getTime()), true, day(to.getTime()), true).values()) {
+                    mergeInto(range, day);
+                }
+            }
+        }
+        return range;
+    }
+
+    /**
+     * Writes every sketch, each encoded by the given function, for
+     * readSketches().
+     */
+    protected void writeSketches(DataOutputStream out, Function<S, byte[]> encoder) throws IOException
+    {
+        Map<Long, GameSketches<S>> snapshot = games;
+        out.writeInt(snapshot.size());
+        for (Map.Entry<Long, GameSketches<S>> entry : snapshot.entrySet()) {
+            GameSketches<S> sketches = entry.getValue();
+            synchronized (sketches) {
+                out.writeLong(entry.getKey());
+                out.writeLong(sketches.latestDay);
+                writeSketch(out, encoder.apply(sketches.all));
+                writeBuckets(out, sketches.days, encoder);
+                if (weekly) {
+                    writeBuckets(out, sketches.weeks, encoder);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces every sketch with those written by writeSketches().
+     */
+    protected void readSketches(DataInputStream in, Function<byte[], S> decoder) throws IOException
+    {
+        ConcurrentHashMap<Long, GameSketches<S>> loaded = new ConcurrentHashMap<Long, GameSketches<S>>();
+        int gameCount = in.readInt();
+        for (int idx = 0; idx < gameCount; idx++) {
+            long gameID = in.readLong();
+            long latestDay = in.readLong();
+            GameSketches<S> sketches = new GameSketches<S>(decoder.apply(readSketch(in)));
+            sketches.latestDay = latestDay;
+            readBuckets(in, sketches.days, decoder);
+            if (weekly) {
+                readBuckets(in, sketches.weeks, decoder);
+            }
+            loaded.put(gameID, sketches);
+        }
+        games = loaded;
+    }
+
+    private void add(Map<Long, GameSketches<S>> target, long gameID, long value, long timeFinished)
+    {
+        GameSketches<S> sketches = target.computeIfAbsent(gameID, id -> new GameSketches<S>(newSketch()));
+        synchronized (sketches) {
+            addTo(sketches.all, value);
+            if (timeFinished == 0) {
+                return;
+            }
+            long day = day(timeFinished);
+            addTo(bucket(sketches.days, day), value);
+            if (weekly) {
+                addTo(bucket(sketches.weeks, weekOf(day)), value);
+            }
+            if (day > sketches.latestDay) {
+                sketches.latestDay = day;
+                long oldest = day - retentionDays;
+                sketches.days.headMap(oldest).clear();
+                sketches.weeks.headMap(weekOf(oldest)).clear();
+            }
+        }
+    }
+
+    private S bucket(TreeMap<Long, S> buckets, long key)
+    {
+        return buckets.computeIfAbsent(key, k -> newSketch());
+    }
+
+    private static <S> void writeBuckets(DataOutputStream out, TreeMap<Long, S> buckets, Function<S, byte[]> encoder)
+            throws IOException
+    {
+        out.writeInt(buckets.size());
+        for (Map.Entry<Long, S> bucket : buckets.entrySet()) {
+            out.writeLong(bucket.getKey());
+            writeSketch(out, encoder.apply(bucket.getValue()));
+        }
+    }
+
+    private static <S> void readBuckets(DataInputStream in, TreeMap<Long, S> buckets, Function<byte[], S> decoder)
+            throws IOException
+    {
+        int count = in.readInt();
+        for (int idx = 0; idx < count; idx++) {
+            long key = in.readLong();
+            buckets.put(key, decoder.apply(readSketch(in)));
+        }
+    }
+
+    private static void writeSketch(DataOutputStream out, byte[] bytes) throws IOException
+    {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readSketch(DataInputStream in) throws IOException
+    {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static long day(long epochMillis)
+    {
+        return new java.sql.Date(epochMillis).toLocalDate().toEpochDay();
+    }
+
+    private static long weekOf(long epochDay)
+    {
+        return epochDay - (LocalDate.ofEpochDay(epochDay).getDayOfWeek().getValue() - 1);
+    }
+
+    private static final class GameSketches<S>
+    {
+        final S all;
+        // By epoch day, and by the epoch day of the week's Monday.
+        final TreeMap<Long, S> days = new TreeMap<Long, S>();
+        final TreeMap<Long, S> weeks = new TreeMap<Long, S>();
+        long latestDay = Long.MIN_VALUE;
+
+        GameSketches(S all)
+        {
+            this.all = all;
+        }
+    }
+}
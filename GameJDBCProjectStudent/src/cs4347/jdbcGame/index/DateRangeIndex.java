@@ -0,0 +1,380 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Date-range index answering BETWEEN on a DATE column. Entries are (day, ID)
+ * pairs, with the day counted from the epoch in the default time zone the
+ * way JDBC binds a DATE. Most entries live in two parallel sorted long[]
+ * arrays, so a range is two binary searches and a copy, and each entry's
+ * day is also kept by ID in a primitive LongLongMap for updates. Writes go to a small
+ * delta of added entries and of removed base entries, and once the delta
+ * reaches mergeThreshold it is merged into new arrays on the executor.
+ * Writes made while a merge runs are recorded and replayed onto its result.
+ */
+public class DateRangeIndex
+{
+    public static final int DEFAULT_MERGE_THRESHOLD = 1024;
+
+    private static final long NONE = Long.MIN_VALUE;
+    private static final long[] EMPTY = new long[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int mergeThreshold;
+    private final Executor executor;
+    // The base run, sorted by day and then ID.
+    private long[] days = EMPTY;
+    private long[] ids = EMPTY;
+    // The delta: ID to day of entries not in the base run, and of base
+    // entries that no longer hold.
+    private final Map<Long, Long> added = new HashMap<Long, Long>();
+    private final Map<Long, Long> removed = new HashMap<Long, Long>();
+    // Every live entry's day by ID. The delta is bounded by mergeThreshold,
+    // so only this map grows with the index and it is kept primitive.
+    private final LongLongMap current = new LongLongMap();
+    // Non-null while a merge builds: {id, old day, new day} of each write.
+    private List<long[]> journal;
+    private long merges;
+
+    public DateRangeIndex()
+    {
+        this(DEFAULT_MERGE_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Merges on the given executor; Runnable::run merges on the writing
+     * thread.
+     */
+    public DateRangeIndex(int mergeThreshold, Executor executor)
+    {
+        this.mergeThreshold = mergeThreshold;
+        this.executor = executor;
+    }
+
+    /**
+     * Adds or moves the entry for an ID. A NULL date removes it, as BETWEEN
+     * never matches NULL.
+     */
+    public void put(long id, Date date)
+    {
+        if (date == null) {
+            remove(id);
+            return;
+        }
+        long day = day(date);
+        Runnable merge;
+        lock.writeLock().lock();
+        try {
+            long old = current.put(id, day, NONE);
+            if (old == day) {
+                return;
+            }
+            write(id, old, day);
+            merge = mergeIfDue();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        if (merge != null) {
+            executor.execute(merge);
+        }
+    }
+
+    public void remove(long id)
+    {
+        Runnable merge;
+        lock.writeLock().lock();
+        try {
+            long old = current.remove(id, NONE);
+            if (old == NONE) {
+                return;
+            }
+            write(id, old, NONE);
+            merge = mergeIfDue();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        if (merge != null) {
+            executor.execute(merge);
+        }
+    }
+
+    /**
+     * IDs dated from start to end inclusive, by date and then ID. A NULL
+     * bound matches nothing.
+     */
+    public long[] range(Date start, Date end)
+    {
+        if (start == null || end == null) {
+            return EMPTY;
+        }
+        long from = day(start);
+        long to = day(end);
+        if (from > to) {
+            return EMPTY;
+        }
+        lock.readLock().lock();
+        try {
+            int lo = lowerBound(days, from);
+            int hi = lowerBound(days, to + 1);
+            List<long[]> extra = new ArrayList<long[]>();
+            for (Map.Entry<Long, Long> entry : added.entrySet()) {
+                long day = entry.getValue();
+                if (day >= from && day <= to) {
+                    extra.add(new long[] { day, entry.getKey() });
+                }
+            }
+            if (extra.isEmpty() && removed.isEmpty()) {
+                return Arrays.copyOfRange(ids, lo, hi);
+            }
+            extra.sort(DateRangeIndex::compare);
+            long[] result = new long[hi - lo + extra.size()];
+            int out = 0;
+            int next = 0;
+            for (int idx = lo; idx < hi; idx++) {
+                if (isRemoved(removed, days[idx], ids[idx])) {
+                    continue;
+                }
+                while (next < extra.size() && compare(extra.get(next), days[idx], ids[idx]) < 0) {
+                    result[out++] = extra.get(next++)[1];
+                }
+                result[out++] = ids[idx];
+            }
+            while (next < extra.size()) {
+                result[out++] = extra.get(next++)[1];
+            }
+            return out == result.length ? result : Arrays.copyOf(result, out);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merges the delta now, on the calling thread, unless a merge is
+     * already running.
+     */
+    public void merge()
+    {
+        Runnable merge;
+        lock.writeLock().lock();
+        try {
+            merge = journal == null ? startMerge() : null;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        if (merge != null) {
+            merge.run();
+        }
+    }
+
+    public int size()
+    {
+        lock.readLock().lock();
+        try {
+            return current.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Entries waiting to be merged into the base run.
+     */
+    public int getDeltaSize()
+    {
+        lock.readLock().lock();
+        try {
+            return added.size() + removed.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getMergeCount()
+    {
+        lock.readLock().lock();
+        try {
+            return merges;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static long day(Date date)
+    {
+        return new java.sql.Date(date.getTime()).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Moves an ID from its old day to its new one in the delta. A live
+     * entry is either in added or in the base run, and a removed entry
+     * always names a base entry.
+     */
+    private void write(long id, long oldDay, long newDay)
+    {
+        applyDelta(id, oldDay, newDay);
+        if (journal != null) {
+            journal.add(new long[] { id, oldDay, newDay });
+        }
+    }
+
+    private void applyDelta(long id, long oldDay, long newDay)
+    {
+        if (oldDay != NONE) {
+            Long day = added.get(id);
+            if (day != null && day == oldDay) {
+                added.remove(id);
+            }
+            else {
+                removed.put(id, oldDay);
+            }
+        }
+        if (newDay != NONE) {
+            Long day = removed.get(id);
+            if (day != null && day == newDay) {
+                removed.remove(id);
+            }
+            else {
+                added.put(id, newDay);
+            }
+        }
+    }
+
+    private Runnable mergeIfDue()
+    {
+        if (journal != null || added.size() + removed.size() < mergeThreshold) {
+            return null;
+        }
+        return startMerge();
+    }
+
+    /**
+     * Captures the base run and the delta under the write lock and returns
+     * the task that builds the new run from them.
+     */
+    private Runnable startMerge()
+    {
+        long[] baseDays = days;
+        long[] baseIDs = ids;
+        Map<Long, Long> mergeRemoved = new HashMap<Long, Long>(removed);
+        List<long[]> mergeAdded = new ArrayList<long[]>(added.size());
+        for (Map.Entry<Long, Long> entry : added.entrySet()) {
+            mergeAdded.add(new long[] { entry.getValue(), entry.getKey() });
+        }
+        journal = new ArrayList<long[]>();
+        return () -> build(baseDays, baseIDs, mergeAdded, mergeRemoved);
+    }
+
+    private void build(long[] baseDays, long[] baseIDs, List<long[]> mergeAdded, Map<Long, Long> mergeRemoved)
+    {
+        boolean installed = false;
+        try {
+            mergeAdded.sort(DateRangeIndex::compare);
+            int length = baseIDs.length - mergeRemoved.size() + mergeAdded.size();
+            long[] newDays = new long[length];
+            long[] newIDs = new long[length];
+            int out = 0;
+            int next = 0;
+            for (int idx = 0; idx < baseIDs.length; idx++) {
+                if (isRemoved(mergeRemoved, baseDays[idx], baseIDs[idx])) {
+                    continue;
+                }
+                while (next < mergeAdded.size() && compare(mergeAdded.get(next), baseDays[idx], baseIDs[idx]) < 0) {
+                    newDays[out] = mergeAdded.get(next)[0];
+                    newIDs[out++] = mergeAdded.get(next++)[1];
+                }
+                newDays[out] = baseDays[idx];
+                newIDs[out++] = baseIDs[idx];
+            }
+            while (next < mergeAdded.size()) {
+                newDays[out] = mergeAdded.get(next)[0];
+                newIDs[out++] = mergeAdded.get(next++)[1];
+            }
+
+            lock.writeLock().lock();
+            try {
+                days = newDays;
+                ids = newIDs;
+                added.clear();
+                removed.clear();
+                for (long[] op : journal) {
+                    applyDelta(op[0], op[1], op[2]);
+                }
+                journal = null;
+                merges++;
+                installed = true;
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+        }
+        finally {
+            if (!installed) {
+                // The delta still describes the old run, so it stays in use.
+                lock.writeLock().lock();
+                journal = null;
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static boolean isRemoved(Map<Long, Long> removed, long day, long id)
+    {
+        if (removed.isEmpty()) {
+            return false;
+        }
+        Long removedDay = removed.get(id);
+        return removedDay != null && removedDay == day;
+    }
+
+    private static int lowerBound(long[] sorted, long key)
+    {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int compare(long[] a, long[] b)
+    {
+        return compare(a, b[0], b[1]);
+    }
+
+    private static int compare(long[] entry, long day, long id)
+    {
+        int c = Long.compare(entry[0], day);
+        return c != 0 ? c : Long.compare(entry[1], id);
+    }
+}
@@ -0,0 +1,199 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.memory.SqlLike;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * In-memory copy of the Game catalog with a TitleIndex, kept current by a
+ * GameServiceImpl that was given it, so that retrieveByTitle() no longer
+ * reaches the database.
+ * 
+ * <pre>
+ * GameCatalog catalog = new GameCatalog();
+ * catalog.load(connection, new GameDAOImpl());
+ * GameService gameService = new GameServiceImpl(dataSource, new GameDAOImpl(), catalog);
+ * </pre>
+ * 
+ * Only writes made through that service are seen. load() reads every game
+ * with one scan, including those with a NULL title, so release date and
+ * keyword queries see the same games as the database.
+ */
+public class GameCatalog
+{
+    private final ConcurrentHashMap<Long, Game> games = new ConcurrentHashMap<Long, Game>();
+    private final TitleIndex titles = new TitleIndex();
+    private final TitleAutocomplete autocomplete = new TitleAutocomplete();
+    private volatile TextIndex text = new TextIndex();
+    private final DateRangeIndex releaseDates = new DateRangeIndex();
+
+    /**
+     * Loads every game from the DAO.
+     */
+    public void load(Connection connection, GameDAO gameDAO) throws SQLException, DAOException
+    {
+        gameDAO.scanAll(connection, this::saved);
+    }
+
+    /**
+     * Like load(), but starts the keyword index from the file written by
+     * saveTextIndex(), so only games whose text changed since are re-indexed.
+     * A missing or damaged file is ignored.
+     */
+    public void load(Connection connection, GameDAO gameDAO, File textIndexFile)
+            throws SQLException, DAOException, IOException
+    {
+        TextIndex saved = TextIndex.read(textIndexFile);
+        if (saved != null) {
+            text = saved;
+        }
+        Set<Long> ids = new HashSet<Long>();
+        gameDAO.scanAll(connection, game -> {
+            saved(game);
+            ids.add(game.getId());
+        });
+        text.retainAll(ids);
+    }
+
+    /**
+     * Writes the keyword index for the next load().
+     */
+    public void saveTextIndex(File textIndexFile) throws IOException
+    {
+        text.save(textIndexFile);
+    }
+
+    /**
+     * Called after a game was created or updated.
+     */
+    public void saved(Game game)
+    {
+        Game copy = copy(game);
+        games.put(copy.getId(), copy);
+        titles.put(copy.getId(), copy.getTitle());
+        autocomplete.putTitle(copy.getId(), copy.getTitle());
+        text.put(copy.getId(), copy.getTitle(), copy.getDescription());
+        releaseDates.put(copy.getId(), copy.getReleaseDate());
+    }
+
+    /**
+     * Called after a game was deleted.
+     */
+    public void deleted(long gameID)
+    {
+        titles.remove(gameID);
+        autocomplete.removeTitle(gameID);
+        text.remove(gameID);
+        releaseDates.remove(gameID);
+        games.remove(gameID);
+    }
+
+    /**
+     * A copy of the game, or null.
+     */
+    public Game get(long gameID)
+    {
+        Game game = games.get(gameID);
+        return game == null ? null : copy(game);
+    }
+
+    /**
+     * Title suggestions for the catalog's games. Its popularity counts are
+     * loaded and kept current separately, see TitleAutocomplete.
+     */
+    public TitleAutocomplete getAutocomplete()
+    {
+        return autocomplete;
+    }
+
+    public int size()
+    {
+        return games.size();
+    }
+
+    /**
+     * Same result as GameDAO.retrieveByTitle(), in ID order.
+     */
+    public List<Game> retrieveByTitle(String titlePattern)
+    {
+        List<Game> result = new ArrayList<Game>();
+        for (Long id : titles.match(titlePattern)) {
+            Game game = games.get(id);
+            // The index and the map are updated one after the other.
+            if (game != null && SqlLike.matches(game.getTitle(), titlePattern)) {
+                result.add(copy(game));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Same result as GameDAO.retrieveByReleaseDate(), by release date and
+     * then ID.
+     */
+    public List<Game> retrieveByReleaseDate(Date start, Date end)
+    {
+        List<Game> result = new ArrayList<Game>();
+        for (long id : releaseDates.range(start, end)) {
+            Game game = games.get(id);
+            if (game != null) {
+                result.add(copy(game));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Games matching a keyword query, in ID order, see TextIndex.
+     */
+    public List<Game> search(String query)
+    {
+        List<Game> result = new ArrayList<Game>();
+        for (Long id : text.search(query)) {
+            Game game = games.get(id);
+            if (game != null) {
+                result.add(copy(game));
+            }
+        }
+        return result;
+    }
+
+    public TextIndex getTextIndex()
+    {
+        return text;
+    }
+
+    static Game copy(Game game)
+    {
+        Game copy = new Game();
+        copy.setId(game.getId());
+        copy.setTitle(game.getTitle());
+        copy.setDescription(game.getDescription());
+        Date releaseDate = game.getReleaseDate();
+        copy.setReleaseDate(releaseDate == null ? null : new java.sql.Date(releaseDate.getTime()));
+        copy.setVersion(game.getVersion());
+        return copy;
+    }
+}
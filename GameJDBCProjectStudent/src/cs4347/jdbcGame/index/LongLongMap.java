@@ -0,0 +1,165 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.index;
+
+import java.util.Arrays;
+
+/**
+ * Map from long to long in two parallel arrays with linear probing. The table
+ * is kept between 3/8 and 3/4 full, so an entry takes 21 to 43 bytes instead
+ * of the 80 or more of a HashMap<Long, Long> entry. Not thread-safe.
+ * Long.MIN_VALUE marks a free slot, so that key is kept in a field of its
+ * own.
+ */
+final class LongLongMap
+{
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private boolean hasFreeKey;
+    private long freeKeyValue;
+
+    LongLongMap()
+    {
+        allocate(16);
+    }
+
+    int size()
+    {
+        return size + (hasFreeKey ? 1 : 0);
+    }
+
+    /**
+     * The value for the key, or missing if there is none.
+     */
+    long get(long key, long missing)
+    {
+        if (key == FREE) {
+            return hasFreeKey ? freeKeyValue : missing;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask);; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            if (keys[slot] == FREE) {
+                return missing;
+            }
+        }
+    }
+
+    /**
+     * Maps the key to the value and returns the previous value, or missing.
+     */
+    long put(long key, long value, long missing)
+    {
+        if (key == FREE) {
+            long old = hasFreeKey ? freeKeyValue : missing;
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return old;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                long old = values[slot];
+                values[slot] = value;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length - (keys.length >>> 2)) {
+            rehash(keys.length << 1);
+        }
+        return missing;
+    }
+
+    /**
+     * Removes the key and returns its value, or missing.
+     */
+    long remove(long key, long missing)
+    {
+        if (key == FREE) {
+            long old = hasFreeKey ? freeKeyValue : missing;
+            hasFreeKey = false;
+            return old;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != key) {
+            if (keys[slot] == FREE) {
+                return missing;
+            }
+            slot = (slot + 1) & mask;
+        }
+        long old = values[slot];
+        // Shift later entries of the probe run back into the gap, so lookups
+        // never need tombstones.
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = FREE;
+        size--;
+        return old;
+    }
+
+    private void rehash(int capacity)
+    {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int idx = 0; idx < oldKeys.length; idx++) {
+            if (oldKeys[idx] != FREE) {
+                int slot = slot(oldKeys[idx], mask);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[idx];
+                values[slot] = oldValues[idx];
+            }
+        }
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        values = new long[capacity];
+    }
+
+    private static int slot(long key, int mask)
+    {
+        return (int) mix(key) & mask;
+    }
+
+    // The 64-bit finalizer of MurmurHash3.
+    private static long mix(long h)
+    {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,400 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.index;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.services.WriteListener;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * The owners of each game as a RoaringBitmap of player IDs, answering
+ * ownership checks, owner counts and "owns all of these games" queries
+ * without the database. Dense player IDs cost about two bytes per
+ * ownership, against some 80 for a map of boxed IDs.
+ * 
+ * Load it with load() and keep it current with listener(), which
+ * GamesOwnedServiceImpl registers when it is given the index. A player can
+ * own a game through more than one GAMES_OWNED row; the extra rows are
+ * counted separately so that deleting one of them keeps the ownership.
+ */
+public class OwnershipIndex
+{
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, RoaringBitmap> owners = new HashMap<Long, RoaringBitmap>();
+    // Rows beyond the first for the same player and game, by game and player.
+    private Map<Long, Map<Long, Integer>> duplicates = new HashMap<Long, Map<Long, Integer>>();
+    private long ownerships;
+    // Writes made while load() scans, as { row ID, old player, old game, new
+    // player, new game }, and the row IDs among them for the scan to check.
+    private List<long[]> journal;
+    private Set<Long> journaled;
+
+    /**
+     * Replaces the index with the contents of GAMES_OWNED, read with one
+     * streaming scan. Writes committed during the scan are journaled by row
+     * and replayed on the loaded maps at the swap, starting from what the
+     * scan read for that row, so each is applied once whether or not the
+     * scan saw it.
+     */
+    public synchronized void load(Connection connection, GamesOwnedDAO gamesOwnedDAO)
+            throws SQLException, DAOException
+    {
+        OwnershipIndex loaded = new OwnershipIndex();
+        RoaringBitmap scanned = new RoaringBitmap();
+        // The pair read for each row that was journaled before the scan got to it.
+        Map<Long, long[]> read = new HashMap<Long, long[]>();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        lock.writeLock().lock();
+        journal = new ArrayList<long[]>();
+        journaled = ids;
+        lock.writeLock().unlock();
+        boolean installed = false;
+        try {
+            gamesOwnedDAO.scanAll(connection, row -> {
+                loaded.add(row.getPlayerID(), row.getGameID());
+                scanned.add(row.getId());
+                if (ids.contains(row.getId())) {
+                    read.put(row.getId(), new long[] { row.getPlayerID(), row.getGameID() });
+                }
+            });
+            lock.writeLock().lock();
+            try {
+                replay(loaded, scanned, read);
+                owners = loaded.owners;
+                duplicates = loaded.duplicates;
+                ownerships = loaded.ownerships;
+                journal = null;
+                journaled = null;
+                installed = true;
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+        }
+        finally {
+            if (!installed) {
+                // The scan failed and the old maps, which got every write, stay in use.
+                lock.writeLock().lock();
+                journal = null;
+                journaled = null;
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void add(long playerID, long gameID)
+    {
+        write(NONE, NONE, NONE, playerID, gameID);
+    }
+
+    public void remove(long playerID, long gameID)
+    {
+        write(NONE, playerID, gameID, NONE, NONE);
+    }
+
+    public boolean owns(long playerID, long gameID)
+    {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap players = owners.get(gameID);
+            return players != null && players.contains(playerID);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * True if the player owns every one of the games.
+     */
+    public boolean ownsAll(long playerID, long... gameIDs)
+    {
+        lock.readLock().lock();
+        try {
+            for (long gameID : gameIDs) {
+                RoaringBitmap players = owners.get(gameID);
+                if (players == null || !players.contains(playerID)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of distinct players owning the game.
+     */
+    public int countOwners(long gameID)
+    {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap players = owners.get(gameID);
+            return players == null ? 0 : (int) players.cardinality();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The players owning every one of the games, in ascending order.
+     */
+    public long[] ownersOfAll(long... gameIDs)
+    {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap[] sets = sortedSets(gameIDs);
+            if (sets == null) {
+                return new long[0];
+            }
+            RoaringBitmap result = sets[0];
+            for (int idx = 1; idx < sets.length && !result.isEmpty(); idx++) {
+                result = result.and(sets[idx]);
+            }
+            return result.toArray();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The length of ownersOfAll(), computed without materializing a
+     * two-game intersection.
+     */
+    public int countOwnersOfAll(long... gameIDs)
+    {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap[] sets = sortedSets(gameIDs);
+            if (sets == null) {
+                return 0;
+            }
+            if (sets.length == 1) {
+                return (int) sets[0].cardinality();
+            }
+            RoaringBitmap result = sets[0];
+            for (int idx = 1; idx < sets.length - 1 && !result.isEmpty(); idx++) {
+                result = result.and(sets[idx]);
+            }
+            return (int) result.andCardinality(sets[sets.length - 1]);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Distinct (player, game) ownerships held.
+     */
+    public long getOwnershipCount()
+    {
+        lock.readLock().lock();
+        try {
+            return ownerships;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap size of the bitmaps, in bytes.
+     */
+    public long getMemoryBytes()
+    {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (RoaringBitmap players : owners.values()) {
+                // The map entry and the boxed game ID key.
+                bytes += players.sizeInBytes() + 48;
+            }
+            return bytes;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the index in step with committed GAMES_OWNED writes.
+     */
+    public WriteListener<GamesOwned> listener()
+    {
+        return new WriteListener<GamesOwned>()
+        {
+            @Override
+            public void created(GamesOwned entity)
+            {
+                write(rowID(entity), NONE, NONE, entity.getPlayerID(), entity.getGameID());
+            }
+
+            @Override
+            public void updated(GamesOwned before, GamesOwned after)
+            {
+                if (!before.getPlayerID().equals(after.getPlayerID())
+                        || !before.getGameID().equals(after.getGameID())) {
+                    write(rowID(after), before.getPlayerID(), before.getGameID(), after.getPlayerID(),
+                            after.getGameID());
+                }
+            }
+
+            @Override
+            public void deleted(GamesOwned entity)
+            {
+                write(rowID(entity), entity.getPlayerID(), entity.getGameID(), NONE, NONE);
+            }
+        };
+    }
+
+    /**
+     * Moves one GAMES_OWNED row from its old pair to its new one, either of
+     * which may be NONE, and journals the move while a load runs. A row ID
+     * of NONE journals a plain add or remove.
+     */
+    private void write(long rowID, long oldPlayerID, long oldGameID, long newPlayerID, long newGameID)
+    {
+        lock.writeLock().lock();
+        try {
+            if (oldPlayerID != NONE) {
+                removeLocked(oldPlayerID, oldGameID);
+            }
+            if (newPlayerID != NONE) {
+                addLocked(newPlayerID, newGameID);
+            }
+            if (journal != null) {
+                journal.add(new long[] { rowID, oldPlayerID, oldGameID, newPlayerID, newGameID });
+                if (rowID != NONE) {
+                    journaled.add(rowID);
+                }
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the journal to the loaded index. Each row goes from the pair
+     * the scan left in the loaded maps to its latest pair: the pair the scan
+     * read if the row was journaled by then, the pair before its first write
+     * if the scan read it earlier, or none.
+     */
+    private void replay(OwnershipIndex loaded, RoaringBitmap scanned, Map<Long, long[]> read)
+    {
+        // By row ID: the starting pair and the latest one, null for none.
+        Map<Long, long[][]> rows = new LinkedHashMap<Long, long[][]>();
+        for (long[] op : journal) {
+            if (op[0] == NONE) {
+                loaded.write(NONE, op[1], op[2], op[3], op[4]);
+                continue;
+            }
+            long[][] row = rows.get(op[0]);
+            if (row == null) {
+                long[] start = read.get(op[0]);
+                if (start == null && scanned.contains(op[0])) {
+                    // Read before the row's first write was journaled; a create
+                    // read that early had committed before its listener ran.
+                    start = op[1] != NONE ? new long[] { op[1], op[2] } : new long[] { op[3], op[4] };
+                }
+                row = new long[][] { start, null };
+                rows.put(op[0], row);
+            }
+            row[1] = op[3] == NONE ? null : new long[] { op[3], op[4] };
+        }
+        for (long[][] row : rows.values()) {
+            if (!Arrays.equals(row[0], row[1])) {
+                loaded.write(NONE, row[0] == null ? NONE : row[0][0], row[0] == null ? NONE : row[0][1],
+                        row[1] == null ? NONE : row[1][0], row[1] == null ? NONE : row[1][1]);
+            }
+        }
+    }
+
+    private static long rowID(GamesOwned entity)
+    {
+        return entity.getId() == null ? NONE : entity.getId();
+    }
+
+    private void removeLocked(long playerID, long gameID)
+    {
+        Map<Long, Integer> extra = duplicates.get(gameID);
+        Integer count = extra == null ? null : extra.get(playerID);
+        if (count != null) {
+            if (count == 1) {
+                extra.remove(playerID);
+                if (extra.isEmpty()) {
+                    duplicates.remove(gameID);
+                }
+            }
+            else {
+                extra.put(playerID, count - 1);
+            }
+            return;
+        }
+        RoaringBitmap players = owners.get(gameID);
+        if (players != null && players.remove(playerID)) {
+            ownerships--;
+            if (players.isEmpty()) {
+                owners.remove(gameID);
+            }
+        }
+    }
+
+    private void addLocked(long playerID, long gameID)
+    {
+        RoaringBitmap players = owners.computeIfAbsent(gameID, id -> new RoaringBitmap());
+        if (players.add(playerID)) {
+            ownerships++;
+        }
+        else {
+            duplicates.computeIfAbsent(gameID, id -> new HashMap<Long, Integer>()).merge(playerID, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * The owner sets of the games, smallest first, or null if a game has no
+     * owners or no games were given.
+     */
+    private RoaringBitmap[] sortedSets(long[] gameIDs)
+    {
+        if (gameIDs.length == 0) {
+            return null;
+        }
+        RoaringBitmap[] sets = new RoaringBitmap[gameIDs.length];
+        for (int idx = 0; idx < gameIDs.length; idx++) {
+            sets[idx] = owners.get(gameIDs[idx]);
+            if (sets[idx] == null) {
+                return null;
+            }
+        }
+        Arrays.sort(sets, (a, b) -> Long.compare(a.cardinality(), b.cardinality()));
+        return sets;
+    }
+}
@@ -0,0 +1,371 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.index;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.services.WriteListener;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Bloom filter over the (playerID, gameID) pairs of a GAMES_OWNED or
+ * GAMES_PLAYED table. mightContain() false means the pair is not in the
+ * table, so a service can skip the query; true means it probably is.
+ * 
+ * Pairs are added from the listener on committed creates and updates. Bits
+ * are never cleared, so deleted pairs stay "maybe" until the next rebuild,
+ * which counts the table's rows, reads it with one streaming scan into a new
+ * filter sized for that count and then swaps it in. Writes made during a rebuild
+ * go to both filters. Lookups and adds take no lock.
+ * 
+ * getExpectedFalsePositiveRate() estimates the rate from the bits set, and
+ * getObservedFalsePositiveRate() measures it from the misses the services
+ * report with recordFalsePositive().
+ */
+public class PairBloomFilter
+{
+    private final long expectedPairs;
+    private final double falsePositiveRate;
+    private volatile Bits current;
+    private volatile Bits next;
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong rebuildFailures = new AtomicLong();
+
+    /**
+     * A filter that holds expectedPairs pairs at the given false positive
+     * rate, e.g. 0.01. Rebuilds grow it when the table has grown.
+     */
+    public PairBloomFilter(long expectedPairs, double falsePositiveRate)
+    {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        this.expectedPairs = Math.max(1, expectedPairs);
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = new Bits(this.expectedPairs, falsePositiveRate);
+    }
+
+    public void add(long playerID, long gameID)
+    {
+        long hash = hash(playerID, gameID);
+        // next before current: a rebuild installs current before clearing
+        // next, so the new filter gets the pair either way.
+        Bits building = next;
+        Bits bits = current;
+        bits.add(hash);
+        if (building != null && building != bits) {
+            building.add(hash);
+        }
+    }
+
+    /**
+     * False if the pair is certainly absent. Counts the negatives for the
+     * observed false positive rate.
+     */
+    public boolean mightContain(long playerID, long gameID)
+    {
+        boolean maybe = current.mightContain(hash(playerID, gameID));
+        if (!maybe) {
+            negatives.increment();
+        }
+        return maybe;
+    }
+
+    /**
+     * Reports that a pair the filter passed was not in the table.
+     */
+    public void recordFalsePositive()
+    {
+        falsePositives.increment();
+    }
+
+    /**
+     * Replaces the filter with one built from a scan of GAMES_OWNED.
+     */
+    public synchronized void rebuild(Connection connection, GamesOwnedDAO gamesOwnedDAO)
+            throws SQLException, DAOException
+    {
+        Bits building = startRebuild(gamesOwnedDAO.count(connection));
+        try {
+            gamesOwnedDAO.scanAll(connection, row -> building.add(hash(row.getPlayerID(), row.getGameID())));
+            finishRebuild(building);
+        }
+        finally {
+            next = null;
+        }
+    }
+
+    /**
+     * Replaces the filter with one built from a scan of GAMES_PLAYED.
+     */
+    public synchronized void rebuild(Connection connection, GamesPlayedDAO gamesPlayedDAO)
+            throws SQLException, DAOException
+    {
+        Bits building = startRebuild(gamesPlayedDAO.count(connection));
+        try {
+            gamesPlayedDAO.scanAll(connection, row -> building.add(hash(row.getPlayerID(), row.getGameID())));
+            finishRebuild(building);
+        }
+        finally {
+            next = null;
+        }
+    }
+
+    /**
+     * Rebuilds from GAMES_OWNED now and then every period. A failed rebuild
+     * keeps the old filter and is counted in getRebuildFailures().
+     */
+    public ScheduledFuture<?> scheduleRebuild(ScheduledExecutorService scheduler, DataSource dataSource,
+            GamesOwnedDAO gamesOwnedDAO, long period, TimeUnit unit)
+    {
+        return scheduler.scheduleWithFixedDelay(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                rebuild(connection, gamesOwnedDAO);
+            }
+            catch (Exception ex) {
+                rebuildFailures.incrementAndGet();
+            }
+        }, 0, period, unit);
+    }
+
+    /**
+     * Rebuilds from GAMES_PLAYED now and then every period.
+     */
+    public ScheduledFuture<?> scheduleRebuild(ScheduledExecutorService scheduler, DataSource dataSource,
+            GamesPlayedDAO gamesPlayedDAO, long period, TimeUnit unit)
+    {
+        return scheduler.scheduleWithFixedDelay(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                rebuild(connection, gamesPlayedDAO);
+            }
+            catch (Exception ex) {
+                rebuildFailures.incrementAndGet();
+            }
+        }, 0, period, unit);
+    }
+
+    /**
+     * Adds the pairs of created and updated GAMES_OWNED rows.
+     */
+    public WriteListener<GamesOwned> ownedListener()
+    {
+        return new WriteListener<GamesOwned>()
+        {
+            @Override
+            public void created(GamesOwned entity)
+            {
+                add(entity.getPlayerID(), entity.getGameID());
+            }
+
+            @Override
+            public void updated(GamesOwned before, GamesOwned after)
+            {
+                add(after.getPlayerID(), after.getGameID());
+            }
+
+            @Override
+            public void deleted(GamesOwned entity)
+            {
+            }
+        };
+    }
+
+    /**
+     * Adds the pairs of created and updated GAMES_PLAYED rows.
+     */
+    public WriteListener<GamesPlayed> playedListener()
+    {
+        return new WriteListener<GamesPlayed>()
+        {
+            @Override
+            public void created(GamesPlayed entity)
+            {
+                add(entity.getPlayerID(), entity.getGameID());
+            }
+
+            @Override
+            public void updated(GamesPlayed before, GamesPlayed after)
+            {
+                add(after.getPlayerID(), after.getGameID());
+            }
+
+            @Override
+            public void deleted(GamesPlayed entity)
+            {
+            }
+        };
+    }
+
+    /**
+     * The false positive rate implied by the fraction of bits set.
+     */
+    public double getExpectedFalsePositiveRate()
+    {
+        Bits bits = current;
+        return Math.pow((double) bits.countSetBits() / bits.size, bits.hashes);
+    }
+
+    /**
+     * Reported false positives over all lookups of absent pairs, or 0
+     * before there were any.
+     */
+    public double getObservedFalsePositiveRate()
+    {
+        long fp = falsePositives.sum();
+        long absent = fp + negatives.sum();
+        return absent == 0 ? 0 : (double) fp / absent;
+    }
+
+    public long getNegatives()
+    {
+        return negatives.sum();
+    }
+
+    public long getFalsePositives()
+    {
+        return falsePositives.sum();
+    }
+
+    /**
+     * Pairs added since the filter was last built, counting repeats.
+     */
+    public long getInsertions()
+    {
+        return current.insertions.get();
+    }
+
+    public long getSizeInBits()
+    {
+        return current.size;
+    }
+
+    public long getRebuilds()
+    {
+        return rebuilds.get();
+    }
+
+    public long getRebuildFailures()
+    {
+        return rebuildFailures.get();
+    }
+
+    /**
+     * Publishes the new filter, sized for the rows the table holds, before
+     * the scan starts, so that a row committed after the scan passed it is
+     * still added by its listener. The old filter's insertions are no guide:
+     * they include re-added pairs and pairs deleted since.
+     */
+    private Bits startRebuild(long rows)
+    {
+        Bits building = new Bits(Math.max(expectedPairs, rows), falsePositiveRate);
+        next = building;
+        return building;
+    }
+
+    private void finishRebuild(Bits building)
+    {
+        current = building;
+        rebuilds.incrementAndGet();
+        negatives.reset();
+        falsePositives.reset();
+    }
+
+    private static long hash(long playerID, long gameID)
+    {
+        return mix(playerID * 0x9E3779B97F4A7C15L + mix(gameID));
+    }
+
+    // The 64-bit finalizer of MurmurHash3.
+    private static long mix(long h)
+    {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * The bit array, sized for n pairs at rate p with m = -n ln p / (ln 2)^2
+     * bits and k = m/n ln 2 hash functions, derived from one 64-bit hash by
+     * double hashing.
+     */
+    private static final class Bits
+    {
+        final AtomicLongArray words;
+        final long size;
+        final int hashes;
+        final AtomicLong insertions = new AtomicLong();
+
+        Bits(long pairs, double p)
+        {
+            long bits = (long) Math.ceil(-pairs * Math.log(p) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) >>> 6));
+            words = new AtomicLongArray(wordCount);
+            size = 64L * wordCount;
+            hashes = Math.max(1, (int) Math.round((double) size / pairs * Math.log(2)));
+        }
+
+        void add(long hash)
+        {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int idx = 0; idx < hashes; idx++) {
+                long bit = ((h1 + (long) idx * h2) & Long.MAX_VALUE) % size;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long old = words.get(word);
+                while ((old & mask) == 0 && !words.compareAndSet(word, old, old | mask)) {
+                    old = words.get(word);
+                }
+            }
+            insertions.incrementAndGet();
+        }
+
+        boolean mightContain(long hash)
+        {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int idx = 0; idx < hashes; idx++) {
+                long bit = ((h1 + (long) idx * h2) & Long.MAX_VALUE) % size;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long countSetBits()
+        {
+            long count = 0;
+            for (int idx = 0; idx < words.length(); idx++) {
+                count += Long.bitCount(words.get(idx));
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.index;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cs4347.jdbcGame.dao.PlayerDAO;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * In-memory copy of the PLAYER rows with a join date index, kept current by
+ * a PlayerServiceImpl that was given it, so that retrieveByJoinDate() no
+ * longer reaches the database. Like PlayerDAO.retrieveByJoinDate(), it
+ * holds the player columns only, without credit cards.
+ * 
+ * Only writes made through that service are seen. Players with a NULL join
+ * date are not loaded, which does not change any BETWEEN result.
+ */
+public class PlayerCatalog
+{
+    // The range of the DATE type, so that loading matches every dated player.
+    private static final Date FIRST_DAY = java.sql.Date.valueOf("1000-01-01");
+    private static final Date LAST_DAY = java.sql.Date.valueOf("9999-12-31");
+
+    private final ConcurrentHashMap<Long, Player> players = new ConcurrentHashMap<Long, Player>();
+    private final DateRangeIndex joinDates = new DateRangeIndex();
+
+    public void load(Connection connection, PlayerDAO playerDAO) throws SQLException, DAOException
+    {
+        for (Player player : playerDAO.retrieveByJoinDate(connection, FIRST_DAY, LAST_DAY)) {
+            saved(player);
+        }
+    }
+
+    /**
+     * Called after a player was created or updated.
+     */
+    public void saved(Player player)
+    {
+        Player copy = copy(player);
+        players.put(copy.getId(), copy);
+        joinDates.put(copy.getId(), copy.getJoinDate());
+    }
+
+    /**
+     * Called after a player was deleted.
+     */
+    public void deleted(long playerID)
+    {
+        joinDates.remove(playerID);
+        players.remove(playerID);
+    }
+
+    public int size()
+    {
+        return players.size();
+    }
+
+    /**
+     * Same result as PlayerDAO.retrieveByJoinDate(), by join date and then
+     * ID. Both bounds must be non-null.
+     */
+    public List<Player> retrieveByJoinDate(Date start, Date end)
+    {
+        List<Player> result = new ArrayList<Player>();
+        for (long id : joinDates.range(start, end)) {
+            Player player = players.get(id);
+            if (player != null) {
+                result.add(copy(player));
+            }
+        }
+        return result;
+    }
+
+    static Player copy(Player player)
+    {
+        Player copy = new Player();
+        copy.setId(player.getId());
+        copy.setFirstName(player.getFirstName());
+        copy.setLastName(player.getLastName());
+        Date joinDate = player.getJoinDate();
+        copy.setJoinDate(joinDate == null ? null : new java.sql.Date(joinDate.getTime()));
+        copy.setEmail(player.getEmail());
+        return copy;
+    }
+}
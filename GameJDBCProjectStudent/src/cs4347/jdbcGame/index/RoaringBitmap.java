@@ -0,0 +1,490 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.index;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of non-negative long IDs in the style of Roaring bitmaps.
+ * IDs are grouped by their high bits into chunks of 65536; a chunk holds its
+ * low 16 bits either as a sorted char[] (up to 4096 values, two bytes each)
+ * or, once denser, as a 65536-bit bitmap (8 KB). Intersections work chunk by
+ * chunk and never expand a sorted chunk into a bitmap. Not thread-safe.
+ */
+public final class RoaringBitmap
+{
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+    // Size ratio beyond which an array intersection binary searches the
+    // larger array rather than merging the two.
+    private static final int GALLOP_RATIO = 32;
+
+    private long[] keys = new long[0];
+    private Container[] containers = new Container[0];
+    private int chunks;
+    private long cardinality;
+
+    /**
+     * Adds an ID. Returns false if it was already present.
+     */
+    public boolean add(long id)
+    {
+        long key = id >>> 16;
+        int pos = find(key);
+        if (pos < 0) {
+            pos = -pos - 1;
+            insertChunk(pos, key, new ArrayContainer());
+        }
+        Container container = containers[pos];
+        int before = container.cardinality();
+        containers[pos] = container.add((char) id);
+        if (containers[pos].cardinality() == before) {
+            return false;
+        }
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * Removes an ID. Returns false if it was not present.
+     */
+    public boolean remove(long id)
+    {
+        int pos = find(id >>> 16);
+        if (pos < 0) {
+            return false;
+        }
+        Container container = containers[pos];
+        int before = container.cardinality();
+        containers[pos] = container.remove((char) id);
+        if (containers[pos].cardinality() == before) {
+            return false;
+        }
+        cardinality--;
+        if (containers[pos].cardinality() == 0) {
+            System.arraycopy(keys, pos + 1, keys, pos, chunks - pos - 1);
+            System.arraycopy(containers, pos + 1, containers, pos, chunks - pos - 1);
+            containers[--chunks] = null;
+        }
+        return true;
+    }
+
+    public boolean contains(long id)
+    {
+        int pos = find(id >>> 16);
+        return pos >= 0 && containers[pos].contains((char) id);
+    }
+
+    public long cardinality()
+    {
+        return cardinality;
+    }
+
+    public boolean isEmpty()
+    {
+        return cardinality == 0;
+    }
+
+    /**
+     * The IDs in both sets, as a new set.
+     */
+    public RoaringBitmap and(RoaringBitmap other)
+    {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < chunks && j < other.chunks) {
+            int c = Long.compare(keys[i], other.keys[j]);
+            if (c < 0) {
+                i++;
+            }
+            else if (c > 0) {
+                j++;
+            }
+            else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.insertChunk(result.chunks, keys[i], container);
+                    result.cardinality += container.cardinality();
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The size of and(other), without building it.
+     */
+    public long andCardinality(RoaringBitmap other)
+    {
+        long count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < chunks && j < other.chunks) {
+            int c = Long.compare(keys[i], other.keys[j]);
+            if (c < 0) {
+                i++;
+            }
+            else if (c > 0) {
+                j++;
+            }
+            else {
+                count += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The IDs in ascending order.
+     */
+    public long[] toArray()
+    {
+        long[] result = new long[(int) cardinality];
+        int out = 0;
+        for (int idx = 0; idx < chunks; idx++) {
+            out = containers[idx].copyTo(keys[idx] << 16, result, out);
+        }
+        return result;
+    }
+
+    /**
+     * Approximate heap size of the set, in bytes.
+     */
+    public long sizeInBytes()
+    {
+        long bytes = 48 + 8L * keys.length + 4L * containers.length;
+        for (int idx = 0; idx < chunks; idx++) {
+            bytes += containers[idx].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private int find(long key)
+    {
+        return Arrays.binarySearch(keys, 0, chunks, key);
+    }
+
+    private void insertChunk(int pos, long key, Container container)
+    {
+        if (chunks == keys.length) {
+            int capacity = Math.max(4, chunks * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, chunks - pos);
+        System.arraycopy(containers, pos, containers, pos + 1, chunks - pos);
+        keys[pos] = key;
+        containers[pos] = container;
+        chunks++;
+    }
+
+    /**
+     * The low 16 bits of the IDs in one chunk. add() and remove() return
+     * the container to use from then on, which changes representation at
+     * ARRAY_MAX.
+     */
+    private abstract static class Container
+    {
+        abstract int cardinality();
+
+        abstract boolean contains(char low);
+
+        abstract Container add(char low);
+
+        abstract Container remove(char low);
+
+        abstract Container and(Container other);
+
+        abstract int andCardinality(Container other);
+
+        abstract int copyTo(long high, long[] out, int pos);
+
+        abstract long sizeInBytes();
+    }
+
+    private static final class ArrayContainer extends Container
+    {
+        char[] values;
+        int size;
+
+        ArrayContainer()
+        {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int size)
+        {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        int cardinality()
+        {
+            return size;
+        }
+
+        @Override
+        boolean contains(char low)
+        {
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        @Override
+        Container add(char low)
+        {
+            int pos = Arrays.binarySearch(values, 0, size, low);
+            if (pos >= 0) {
+                return this;
+            }
+            if (size == ARRAY_MAX) {
+                return new BitmapContainer(this).add(low);
+            }
+            pos = -pos - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, size + (size >> 1) + 1));
+            }
+            System.arraycopy(values, pos, values, pos + 1, size - pos);
+            values[pos] = low;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low)
+        {
+            int pos = Arrays.binarySearch(values, 0, size, low);
+            if (pos >= 0) {
+                System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        Container and(Container other)
+        {
+            char[] result = new char[Math.min(size, other.cardinality())];
+            int count = 0;
+            if (other instanceof BitmapContainer) {
+                for (int idx = 0; idx < size; idx++) {
+                    if (other.contains(values[idx])) {
+                        result[count++] = values[idx];
+                    }
+                }
+            }
+            else {
+                ArrayContainer array = (ArrayContainer) other;
+                int i = 0;
+                int j = 0;
+                while (i < size && j < array.size) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    }
+                    else if (values[i] > array.values[j]) {
+                        j++;
+                    }
+                    else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        int andCardinality(Container other)
+        {
+            int count = 0;
+            if (other instanceof BitmapContainer) {
+                for (int idx = 0; idx < size; idx++) {
+                    if (other.contains(values[idx])) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            ArrayContainer small = size <= array.size ? this : array;
+            ArrayContainer large = small == this ? array : this;
+            if (large.size >= GALLOP_RATIO * small.size) {
+                // Binary search each value of the small array in the rest of
+                // the large one, instead of walking every large value.
+                int from = 0;
+                for (int idx = 0; idx < small.size && from < large.size; idx++) {
+                    int pos = Arrays.binarySearch(large.values, from, large.size, small.values[idx]);
+                    if (pos >= 0) {
+                        count++;
+                        from = pos + 1;
+                    }
+                    else {
+                        from = -pos - 1;
+                    }
+                }
+                return count;
+            }
+            int i = 0;
+            int j = 0;
+            while (i < size && j < array.size) {
+                if (values[i] < array.values[j]) {
+                    i++;
+                }
+                else if (values[i] > array.values[j]) {
+                    j++;
+                }
+                else {
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        int copyTo(long high, long[] out, int pos)
+        {
+            for (int idx = 0; idx < size; idx++) {
+                out[pos++] = high | values[idx];
+            }
+            return pos;
+        }
+
+        @Override
+        long sizeInBytes()
+        {
+            return 32 + 2L * values.length;
+        }
+    }
+
+    private static final class BitmapContainer extends Container
+    {
+        final long[] words = new long[BITMAP_WORDS];
+        int cardinality;
+
+        BitmapContainer(ArrayContainer array)
+        {
+            for (int idx = 0; idx < array.size; idx++) {
+                char low = array.values[idx];
+                words[low >>> 6] |= 1L << low;
+            }
+            cardinality = array.size;
+        }
+
+        BitmapContainer()
+        {
+        }
+
+        @Override
+        int cardinality()
+        {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char low)
+        {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(char low)
+        {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                words[low >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char low)
+        {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                return this;
+            }
+            words[low >>> 6] &= ~bit;
+            cardinality--;
+            return cardinality <= ARRAY_MAX ? toArrayContainer() : this;
+        }
+
+        @Override
+        Container and(Container other)
+        {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            BitmapContainer bitmap = (BitmapContainer) other;
+            BitmapContainer result = new BitmapContainer();
+            for (int idx = 0; idx < BITMAP_WORDS; idx++) {
+                result.words[idx] = words[idx] & bitmap.words[idx];
+                result.cardinality += Long.bitCount(result.words[idx]);
+            }
+            return result.cardinality <= ARRAY_MAX ? result.toArrayContainer() : result;
+        }
+
+        @Override
+        int andCardinality(Container other)
+        {
+            if (other instanceof ArrayContainer) {
+                return other.andCardinality(this);
+            }
+            BitmapContainer bitmap = (BitmapContainer) other;
+            int count = 0;
+            for (int idx = 0; idx < BITMAP_WORDS; idx++) {
+                count += Long.bitCount(words[idx] & bitmap.words[idx]);
+            }
+            return count;
+        }
+
+        @Override
+        int copyTo(long high, long[] out, int pos)
+        {
+            for (int idx = 0; idx < BITMAP_WORDS; idx++) {
+                long word = words[idx];
+                while (word != 0) {
+                    out[pos++] = high | (idx << 6) | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return pos;
+        }
+
+        @Override
+        long sizeInBytes()
+        {
+            return 32 + 8L * BITMAP_WORDS;
+        }
+
+        private ArrayContainer toArrayContainer()
+        {
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int idx = 0; idx < BITMAP_WORDS; idx++) {
+                long word = words[idx];
+                while (word != 0) {
+                    values[count++] = (char) ((idx << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
@@ -0,0 +1,487 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.index;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Keyword index over game titles and descriptions. Text is split into runs
+ * of letters and digits and case-folded; every term maps to the sorted IDs
+ * of the games that contain it, stored as variable-length deltas, which
+ * takes one or two bytes per posting for dense IDs. New games have the
+ * largest ID and are appended in place; other changes re-encode the lists
+ * of the terms involved.
+ * 
+ * A query is a list of words, all of which must occur, optionally joined
+ * with OR: "cat scientist OR dog" finds games with both cat and scientist,
+ * or with dog.
+ * 
+ * save() writes the index to a checksummed file and read() loads it back.
+ * Each game keeps its sorted terms, so a loaded index can be brought up to
+ * date with put() by re-indexing only the games whose terms changed, see
+ * GameCatalog.load().
+ */
+public class TextIndex
+{
+    private static final int MAGIC = 0x4A475458;
+    private static final int VERSION = 2;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<String, Postings>();
+    private final Map<Long, Doc> docs = new HashMap<Long, Doc>();
+
+    /**
+     * Indexes or re-indexes a game. Returns false if the game was already
+     * indexed with the same terms, in which case nothing is done.
+     */
+    public boolean put(long id, String title, String description)
+    {
+        Set<String> terms = new TreeSet<String>();
+        terms.addAll(tokenize(title));
+        terms.addAll(tokenize(description));
+        String[] sorted = terms.toArray(new String[terms.size()]);
+        lock.writeLock().lock();
+        try {
+            Doc doc = docs.get(id);
+            if (doc != null && Arrays.equals(doc.terms, sorted)) {
+                return false;
+            }
+            removeLocked(id);
+            for (String term : sorted) {
+                postings.computeIfAbsent(term, t -> new Postings()).add(id);
+            }
+            docs.put(id, new Doc(sorted));
+            return true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id)
+    {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every game not in the given set, e.g. the IDs still in the
+     * database after loading a saved index.
+     */
+    public void retainAll(Set<Long> ids)
+    {
+        lock.writeLock().lock();
+        try {
+            for (Long id : new ArrayList<Long>(docs.keySet())) {
+                if (!ids.contains(id)) {
+                    removeLocked(id);
+                }
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs of the games that satisfy the query, in ascending order.
+     */
+    public List<Long> search(String query)
+    {
+        List<List<String>> clauses = parse(query);
+        TreeSet<Long> result = new TreeSet<Long>();
+        lock.readLock().lock();
+        try {
+            for (List<String> clause : clauses) {
+                for (long id : all(clause)) {
+                    result.add(id);
+                }
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<Long>(result);
+    }
+
+    public int size()
+    {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTermCount()
+    {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Encoded size of all posting lists, in bytes.
+     */
+    public long getPostingBytes()
+    {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Postings list : postings.values()) {
+                bytes += list.length;
+            }
+            return bytes;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the index to the file, replacing it atomically.
+     */
+    public void save(File file) throws IOException
+    {
+        File temp = new File(file.getPath() + ".tmp");
+        lock.readLock().lock();
+        try (FileOutputStream fileOut = new FileOutputStream(temp)) {
+            CheckedOutputStream checked = new CheckedOutputStream(fileOut, new CRC32());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(docs.size());
+            for (Long id : docs.keySet()) {
+                out.writeLong(id);
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                byte[] term = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                Postings list = entry.getValue();
+                out.writeInt(term.length);
+                out.write(term);
+                out.writeInt(list.count);
+                out.writeLong(list.last);
+                out.writeInt(list.length);
+                out.write(list.bytes, 0, list.length);
+            }
+            out.flush();
+            new DataOutputStream(fileOut).writeLong(checked.getChecksum().getValue());
+            fileOut.getFD().sync();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads an index written by save(). Returns null if the file is missing,
+     * incomplete or fails its checksum.
+     */
+    public static TextIndex read(File file) throws IOException
+    {
+        if (!file.isFile()) {
+            return null;
+        }
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < 24 || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int bodyLength = in.limit() - 8;
+        CRC32 check = new CRC32();
+        ByteBuffer body = in.duplicate();
+        body.limit(bodyLength);
+        check.update(body);
+        if (in.getLong(bodyLength) != check.getValue()) {
+            return null;
+        }
+        in.limit(bodyLength);
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            return null;
+        }
+        TextIndex index = new TextIndex();
+        int docCount = in.getInt();
+        Map<Long, List<String>> terms = new HashMap<Long, List<String>>(docCount * 2);
+        for (int idx = 0; idx < docCount; idx++) {
+            terms.put(in.getLong(), new ArrayList<String>());
+        }
+        int termCount = in.getInt();
+        for (int idx = 0; idx < termCount; idx++) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            String term = new String(bytes, StandardCharsets.UTF_8);
+            Postings list = new Postings();
+            list.count = in.getInt();
+            list.last = in.getLong();
+            list.length = in.getInt();
+            list.bytes = new byte[list.length];
+            in.get(list.bytes);
+            index.postings.put(term, list);
+            for (long id : list.decode()) {
+                terms.get(id).add(term);
+            }
+        }
+        for (Map.Entry<Long, List<String>> entry : terms.entrySet()) {
+            String[] docTerms = entry.getValue().toArray(new String[entry.getValue().size()]);
+            Arrays.sort(docTerms);
+            index.docs.put(entry.getKey(), new Doc(docTerms));
+        }
+        return index;
+    }
+
+    /**
+     * The folded terms of a text, in order, with repeats.
+     */
+    public static List<String> tokenize(String text)
+    {
+        List<String> terms = new ArrayList<String>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int idx = 0; idx <= text.length(); idx++) {
+            boolean inWord = idx < text.length() && Character.isLetterOrDigit(text.charAt(idx));
+            if (inWord && start < 0) {
+                start = idx;
+            }
+            else if (!inWord && start >= 0) {
+                terms.add(text.substring(start, idx).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * The query's OR clauses, each a list of folded terms that must all occur.
+     */
+    public static List<List<String>> parse(String query)
+    {
+        List<List<String>> clauses = new ArrayList<List<String>>();
+        List<String> clause = new ArrayList<String>();
+        for (String word : (query == null ? "" : query.trim()).split("\\s+")) {
+            if (word.equals("OR")) {
+                if (!clause.isEmpty()) {
+                    clauses.add(clause);
+                }
+                clause = new ArrayList<String>();
+            }
+            else {
+                clause.addAll(tokenize(word));
+            }
+        }
+        if (!clause.isEmpty()) {
+            clauses.add(clause);
+        }
+        return clauses;
+    }
+
+    /**
+     * IDs containing every term, found by intersecting from the shortest list.
+     */
+    private long[] all(List<String> terms)
+    {
+        Postings[] lists = new Postings[terms.size()];
+        for (int idx = 0; idx < lists.length; idx++) {
+            lists[idx] = postings.get(terms.get(idx));
+            if (lists[idx] == null) {
+                return new long[0];
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.count, b.count));
+        long[] result = lists[0].decode();
+        for (int idx = 1; idx < lists.length && result.length > 0; idx++) {
+            result = lists[idx].intersect(result);
+        }
+        return result;
+    }
+
+    private void removeLocked(long id)
+    {
+        Doc doc = docs.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (String term : doc.terms) {
+            Postings list = postings.get(term);
+            list.remove(id);
+            if (list.count == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static final class Doc
+    {
+        // Distinct and sorted.
+        final String[] terms;
+
+        Doc(String[] terms)
+        {
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * Ascending IDs as unsigned LEB128 deltas from the previous ID.
+     */
+    private static final class Postings
+    {
+        byte[] bytes = new byte[4];
+        int length;
+        int count;
+        long last;
+
+        void add(long id)
+        {
+            if (id > last) {
+                append(id);
+                return;
+            }
+            long[] ids = decode();
+            int pos = Arrays.binarySearch(ids, id);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            long[] next = new long[ids.length + 1];
+            System.arraycopy(ids, 0, next, 0, pos);
+            next[pos] = id;
+            System.arraycopy(ids, pos, next, pos + 1, ids.length - pos);
+            encode(next, next.length);
+        }
+
+        void remove(long id)
+        {
+            long[] ids = decode();
+            int pos = Arrays.binarySearch(ids, id);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, ids.length - pos - 1);
+            encode(ids, ids.length - 1);
+        }
+
+        long[] decode()
+        {
+            long[] ids = new long[count];
+            long id = 0;
+            int pos = 0;
+            for (int idx = 0; idx < count; idx++) {
+                long delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[pos++];
+                    delta |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                id += delta;
+                ids[idx] = id;
+            }
+            return ids;
+        }
+
+        /**
+         * The given sorted IDs that are also in this list, decoding only as
+         * far as needed.
+         */
+        long[] intersect(long[] sorted)
+        {
+            long[] result = new long[sorted.length];
+            int found = 0;
+            int next = 0;
+            long id = 0;
+            int pos = 0;
+            for (int idx = 0; idx < count && next < sorted.length; idx++) {
+                long delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[pos++];
+                    delta |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                id += delta;
+                while (next < sorted.length && sorted[next] < id) {
+                    next++;
+                }
+                if (next < sorted.length && sorted[next] == id) {
+                    result[found++] = id;
+                    next++;
+                }
+            }
+            return Arrays.copyOf(result, found);
+        }
+
+        private void append(long id)
+        {
+            if (bytes.length - length < 10) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 10));
+            }
+            long delta = id - last;
+            while ((delta & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            bytes[length++] = (byte) delta;
+            last = id;
+            count++;
+        }
+
+        private void encode(long[] ids, int n)
+        {
+            bytes = new byte[Math.max(4, n * 2)];
+            length = 0;
+            count = 0;
+            last = 0;
+            for (int idx = 0; idx < n; idx++) {
+                append(ids[idx]);
+            }
+        }
+    }
+}
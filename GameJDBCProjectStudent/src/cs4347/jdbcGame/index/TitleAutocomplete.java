@@ -0,0 +1,531 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.index;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.services.WriteListener;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Title suggestions ranked by popularity, the number of plays plus the
+ * number of owners of a game. Titles are kept case-folded in a trie in which
+ * every node holds its top k game IDs, so a lookup is a walk down the prefix
+ * and a copy of at most k entries. A node's top k is the best k of its own
+ * games and its children's top k, so a change to one game only recomputes
+ * the nodes on that game's path, bottom up.
+ * 
+ * Popularity is loaded with loadPopularity() and then kept current by the
+ * listeners from playsListener() and ownershipListener(), registered with
+ * GamesPlayedServiceImpl and GamesOwnedServiceImpl.
+ */
+public class TitleAutocomplete
+{
+    public static final int DEFAULT_TOP_K = 10;
+
+    private static final long[] NONE = new long[0];
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    private final int topK;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<Long, String> titles = new HashMap<Long, String>();
+    private final Map<Long, String> folded = new HashMap<Long, String>();
+    private final Map<Long, Long> popularity = new HashMap<Long, Long>();
+    // Most popular first, then by title and ID.
+    private final Comparator<Long> ranking = Comparator.comparingLong((Long id) -> -popularityOf(id))
+            .thenComparing(id -> folded.get(id)).thenComparingLong(id -> id);
+    // While loadPopularity() scans: the listener writes to each table, and
+    // the plain addPopularity() deltas.
+    private Journal playsJournal;
+    private Journal ownersJournal;
+    private Map<Long, Long> added;
+
+    public TitleAutocomplete()
+    {
+        this(DEFAULT_TOP_K);
+    }
+
+    /**
+     * Keeps the best topK games per prefix. Larger requests are answered by
+     * walking the subtree.
+     */
+    public TitleAutocomplete(int topK)
+    {
+        this.topK = topK;
+    }
+
+    /**
+     * Up to k titles starting with the prefix, ignoring case, most popular
+     * first.
+     */
+    public List<String> suggest(String prefix, int k)
+    {
+        lock.readLock().lock();
+        try {
+            List<String> result = new ArrayList<String>();
+            for (long id : top(prefix, k)) {
+                result.add(titles.get(id));
+            }
+            return result;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The game IDs behind suggest().
+     */
+    public long[] suggestIDs(String prefix, int k)
+    {
+        lock.readLock().lock();
+        try {
+            return top(prefix, k);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void putTitle(long gameID, String title)
+    {
+        lock.writeLock().lock();
+        try {
+            removeTitleLocked(gameID);
+            if (title == null) {
+                return;
+            }
+            String key = title.toLowerCase(Locale.ROOT);
+            titles.put(gameID, title);
+            folded.put(gameID, key);
+            Node[] path = path(key, true);
+            Node leaf = path[path.length - 1];
+            leaf.ids = Arrays.copyOf(leaf.ids, leaf.ids.length + 1);
+            leaf.ids[leaf.ids.length - 1] = gameID;
+            recompute(path);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeTitle(long gameID)
+    {
+        lock.writeLock().lock();
+        try {
+            removeTitleLocked(gameID);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds to (or, with a negative delta, takes from) the popularity of a
+     * game. Games without a title yet keep their count until they get one.
+     */
+    public void addPopularity(long gameID, long delta)
+    {
+        lock.writeLock().lock();
+        try {
+            addLocked(gameID, delta);
+            if (added != null) {
+                added.merge(gameID, delta, Long::sum);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getPopularity(long gameID)
+    {
+        lock.readLock().lock();
+        try {
+            return popularityOf(gameID);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces all popularity counts with the plays and owners in the
+     * tables, read with one streaming scan of each. Listener writes committed
+     * during the scans are journaled by row and replayed on the new counts at
+     * the swap, as OwnershipIndex.load() does, so each counts once whether or
+     * not the scan saw it.
+     */
+    public synchronized void loadPopularity(Connection connection, GamesPlayedDAO gamesPlayedDAO,
+            GamesOwnedDAO gamesOwnedDAO) throws SQLException, DAOException
+    {
+        Map<Long, Long> counts = new HashMap<Long, Long>();
+        Journal plays = new Journal();
+        Journal owners = new Journal();
+        Map<Long, Long> deltas = new HashMap<Long, Long>();
+        lock.writeLock().lock();
+        playsJournal = plays;
+        ownersJournal = owners;
+        added = deltas;
+        lock.writeLock().unlock();
+        boolean installed = false;
+        try {
+            gamesPlayedDAO.scanAll(connection, row -> {
+                counts.merge(row.getGameID(), 1L, Long::sum);
+                plays.scanned(row.getId(), row.getGameID());
+            });
+            gamesOwnedDAO.scanAll(connection, row -> {
+                counts.merge(row.getGameID(), 1L, Long::sum);
+                owners.scanned(row.getId(), row.getGameID());
+            });
+            lock.writeLock().lock();
+            try {
+                plays.replay(counts);
+                owners.replay(counts);
+                deltas.forEach((gameID, delta) -> counts.merge(gameID, delta, Long::sum));
+                popularity.clear();
+                popularity.putAll(counts);
+                rebuild(root);
+                playsJournal = null;
+                ownersJournal = null;
+                added = null;
+                installed = true;
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+        }
+        finally {
+            if (!installed) {
+                // The scan failed and the old counts, which got every write, stay in use.
+                lock.writeLock().lock();
+                playsJournal = null;
+                ownersJournal = null;
+                added = null;
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Counts each play toward the game's popularity.
+     */
+    public WriteListener<GamesPlayed> playsListener()
+    {
+        return new WriteListener<GamesPlayed>()
+        {
+            @Override
+            public void created(GamesPlayed entity)
+            {
+                move(true, rowID(entity.getId()), ABSENT, entity.getGameID());
+            }
+
+            @Override
+            public void updated(GamesPlayed before, GamesPlayed after)
+            {
+                if (!before.getGameID().equals(after.getGameID())) {
+                    move(true, rowID(after.getId()), before.getGameID(), after.getGameID());
+                }
+            }
+
+            @Override
+            public void deleted(GamesPlayed entity)
+            {
+                move(true, rowID(entity.getId()), entity.getGameID(), ABSENT);
+            }
+        };
+    }
+
+    /**
+     * Counts each owner toward the game's popularity.
+     */
+    public WriteListener<GamesOwned> ownershipListener()
+    {
+        return new WriteListener<GamesOwned>()
+        {
+            @Override
+            public void created(GamesOwned entity)
+            {
+                move(false, rowID(entity.getId()), ABSENT, entity.getGameID());
+            }
+
+            @Override
+            public void updated(GamesOwned before, GamesOwned after)
+            {
+                if (!before.getGameID().equals(after.getGameID())) {
+                    move(false, rowID(after.getId()), before.getGameID(), after.getGameID());
+                }
+            }
+
+            @Override
+            public void deleted(GamesOwned entity)
+            {
+                move(false, rowID(entity.getId()), entity.getGameID(), ABSENT);
+            }
+        };
+    }
+
+    /**
+     * Moves one play or ownership row from its old game to its new one,
+     * either of which may be ABSENT, and journals the move while a load runs.
+     */
+    private void move(boolean played, long rowID, long oldGameID, long newGameID)
+    {
+        lock.writeLock().lock();
+        try {
+            if (oldGameID != ABSENT) {
+                addLocked(oldGameID, -1);
+            }
+            if (newGameID != ABSENT) {
+                addLocked(newGameID, 1);
+            }
+            Journal journal = played ? playsJournal : ownersJournal;
+            if (journal != null) {
+                journal.add(rowID, oldGameID, newGameID);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLocked(long gameID, long delta)
+    {
+        popularity.merge(gameID, delta, Long::sum);
+        String key = folded.get(gameID);
+        if (key != null) {
+            recompute(path(key, false));
+        }
+    }
+
+    private static long rowID(Long id)
+    {
+        return id == null ? ABSENT : id;
+    }
+
+    private long[] top(String prefix, int k)
+    {
+        Node node = root;
+        String key = prefix == null ? "" : prefix.toLowerCase(Locale.ROOT);
+        for (int idx = 0; idx < key.length() && node != null; idx++) {
+            node = node.children.get(key.charAt(idx));
+        }
+        if (node == null || k <= 0) {
+            return NONE;
+        }
+        if (k <= topK) {
+            return Arrays.copyOf(node.top, Math.min(k, node.top.length));
+        }
+        List<Long> all = new ArrayList<Long>();
+        collect(node, all);
+        all.sort(ranking);
+        long[] result = new long[Math.min(k, all.size())];
+        for (int idx = 0; idx < result.length; idx++) {
+            result[idx] = all.get(idx);
+        }
+        return result;
+    }
+
+    private void removeTitleLocked(long gameID)
+    {
+        String key = folded.get(gameID);
+        if (key == null) {
+            return;
+        }
+        Node[] path = path(key, false);
+        Node leaf = path[path.length - 1];
+        long[] ids = new long[leaf.ids.length - 1];
+        int out = 0;
+        for (long id : leaf.ids) {
+            if (id != gameID) {
+                ids[out++] = id;
+            }
+        }
+        leaf.ids = ids;
+        titles.remove(gameID);
+        folded.remove(gameID);
+        // Prune empty nodes from the leaf up, then recompute what remains.
+        for (int depth = path.length - 1; depth > 0; depth--) {
+            Node node = path[depth];
+            if (node.ids.length == 0 && node.children.isEmpty()) {
+                path[depth - 1].children.remove(key.charAt(depth - 1));
+            }
+        }
+        recompute(path);
+    }
+
+    /**
+     * The nodes from the root to the node for the key, created on the way
+     * if asked to.
+     */
+    private Node[] path(String key, boolean create)
+    {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int idx = 0; idx < key.length(); idx++) {
+            Node child = path[idx].children.get(key.charAt(idx));
+            if (child == null && create) {
+                child = new Node();
+                path[idx].children.put(key.charAt(idx), child);
+            }
+            path[idx + 1] = child;
+        }
+        return path;
+    }
+
+    private void recompute(Node[] path)
+    {
+        for (int depth = path.length - 1; depth >= 0; depth--) {
+            recompute(path[depth]);
+        }
+    }
+
+    private void recompute(Node node)
+    {
+        List<Long> candidates = new ArrayList<Long>();
+        for (long id : node.ids) {
+            candidates.add(id);
+        }
+        for (Node child : node.children.values()) {
+            for (long id : child.top) {
+                candidates.add(id);
+            }
+        }
+        candidates.sort(ranking);
+        long[] top = new long[Math.min(topK, candidates.size())];
+        for (int idx = 0; idx < top.length; idx++) {
+            top[idx] = candidates.get(idx);
+        }
+        node.top = top;
+    }
+
+    private void rebuild(Node node)
+    {
+        for (Node child : node.children.values()) {
+            rebuild(child);
+        }
+        recompute(node);
+    }
+
+    private static void collect(Node node, List<Long> out)
+    {
+        for (long id : node.ids) {
+            out.add(id);
+        }
+        for (Node child : node.children.values()) {
+            collect(child, out);
+        }
+    }
+
+    private long popularityOf(long gameID)
+    {
+        Long count = popularity.get(gameID);
+        return count == null ? 0L : count;
+    }
+
+    /**
+     * The writes to one table made while loadPopularity() scans it, as { row
+     * ID, old game, new game }, and what the scan read of the rows among them.
+     */
+    private static final class Journal
+    {
+        final List<long[]> ops = new ArrayList<long[]>();
+        final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        final RoaringBitmap scanned = new RoaringBitmap();
+        // The game read for each row that was journaled before the scan got to it.
+        final Map<Long, Long> read = new HashMap<Long, Long>();
+
+        void add(long rowID, long oldGameID, long newGameID)
+        {
+            ops.add(new long[] { rowID, oldGameID, newGameID });
+            if (rowID != ABSENT) {
+                ids.add(rowID);
+            }
+        }
+
+        void scanned(long rowID, long gameID)
+        {
+            scanned.add(rowID);
+            if (ids.contains(rowID)) {
+                read.put(rowID, gameID);
+            }
+        }
+
+        /**
+         * Applies the journal to the scanned counts. Each row goes from the
+         * game the scan counted it for to its latest game: the game the scan
+         * read if the row was journaled by then, the game before its first
+         * write if the scan read it earlier, or none.
+         */
+        void replay(Map<Long, Long> counts)
+        {
+            // By row ID: the starting game and the latest one, ABSENT for none.
+            Map<Long, long[]> rows = new LinkedHashMap<Long, long[]>();
+            for (long[] op : ops) {
+                if (op[0] == ABSENT) {
+                    move(counts, op[1], op[2]);
+                    continue;
+                }
+                long[] row = rows.get(op[0]);
+                if (row == null) {
+                    Long start = read.get(op[0]);
+                    if (start == null) {
+                        // Read before the row's first write was journaled; a create
+                        // read that early had committed before its listener ran.
+                        start = !scanned.contains(op[0]) ? ABSENT : op[1] != ABSENT ? op[1] : op[2];
+                    }
+                    row = new long[] { start, ABSENT };
+                    rows.put(op[0], row);
+                }
+                row[1] = op[2];
+            }
+            for (long[] row : rows.values()) {
+                if (row[0] != row[1]) {
+                    move(counts, row[0], row[1]);
+                }
+            }
+        }
+
+        private static void move(Map<Long, Long> counts, long oldGameID, long newGameID)
+        {
+            if (oldGameID != ABSENT) {
+                counts.merge(oldGameID, -1L, Long::sum);
+            }
+            if (newGameID != ABSENT) {
+                counts.merge(newGameID, 1L, Long::sum);
+            }
+        }
+    }
+
+    private static final class Node
+    {
+        final Map<Character, Node> children = new HashMap<Character, Node>(4);
+        long[] ids = NONE;
+        long[] top = NONE;
+    }
+}
@@ -0,0 +1,261 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import cs4347.jdbcGame.dao.memory.SqlLike;
+
+/**
+ * Case-folded title index that answers SQL LIKE patterns without a table
+ * scan. A trie over the titles serves patterns with a literal prefix
+ * ('moon%'), and a trigram index serves the literal runs between wildcards
+ * ('%moon%', '%of_the%'). Both only narrow the candidates; every candidate is
+ * checked with SqlLike, so the result is exactly what LIKE would return.
+ */
+public class TitleIndex
+{
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<Long, Set<Long>> trigrams = new HashMap<Long, Set<Long>>();
+    private final Map<Long, String> titles = new HashMap<Long, String>();
+
+    /**
+     * Adds or replaces the title of a game. A NULL title is never matched by
+     * LIKE, so it is not indexed.
+     */
+    public void put(long id, String title)
+    {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (title == null) {
+                return;
+            }
+            String folded = title.toLowerCase(Locale.ROOT);
+            titles.put(id, folded);
+            Node node = root;
+            for (int idx = 0; idx < folded.length(); idx++) {
+                node = node.children.computeIfAbsent(folded.charAt(idx), ch -> new Node());
+            }
+            node.ids.add(id);
+            for (long key : trigramsOf(folded)) {
+                trigrams.computeIfAbsent(key, k -> new TreeSet<Long>()).add(id);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id)
+    {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs of the titles that match the pattern, in ID order.
+     */
+    public List<Long> match(String pattern)
+    {
+        if (pattern == null) {
+            return new ArrayList<Long>();
+        }
+        lock.readLock().lock();
+        try {
+            List<Long> result = new ArrayList<Long>();
+            for (Long id : candidates(pattern)) {
+                if (SqlLike.matches(titles.get(id), pattern)) {
+                    result.add(id);
+                }
+            }
+            Collections.sort(result);
+            return result;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size()
+    {
+        lock.readLock().lock();
+        try {
+            return titles.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A superset of the matches: the trie subtree under the literal prefix,
+     * intersected with the postings of every trigram in the literal runs.
+     */
+    private Collection<Long> candidates(String pattern)
+    {
+        String prefix = SqlLike.literalPrefix(pattern);
+        Collection<Long> fromTrie = null;
+        if (!prefix.isEmpty() || SqlLike.isLiteral(pattern)) {
+            Node node = find(prefix);
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            fromTrie = new ArrayList<Long>();
+            if (SqlLike.isLiteral(pattern)) {
+                fromTrie.addAll(node.ids);
+            }
+            else {
+                collect(node, fromTrie);
+            }
+        }
+
+        List<Set<Long>> postings = new ArrayList<Set<Long>>();
+        for (String run : literalRuns(pattern)) {
+            for (long key : trigramsOf(run)) {
+                Set<Long> posting = trigrams.get(key);
+                if (posting == null) {
+                    return Collections.emptyList();
+                }
+                postings.add(posting);
+            }
+        }
+        if (postings.isEmpty()) {
+            return fromTrie != null ? fromTrie : titles.keySet();
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<Long>(postings.get(0));
+        for (int idx = 1; idx < postings.size() && !result.isEmpty(); idx++) {
+            result.retainAll(postings.get(idx));
+        }
+        if (fromTrie != null) {
+            result.retainAll(new HashSet<Long>(fromTrie));
+        }
+        return result;
+    }
+
+    private Node find(String prefix)
+    {
+        Node node = root;
+        for (int idx = 0; idx < prefix.length() && node != null; idx++) {
+            node = node.children.get(prefix.charAt(idx));
+        }
+        return node;
+    }
+
+    private static void collect(Node node, Collection<Long> out)
+    {
+        out.addAll(node.ids);
+        for (Node child : node.children.values()) {
+            collect(child, out);
+        }
+    }
+
+    private void removeLocked(long id)
+    {
+        String folded = titles.remove(id);
+        if (folded == null) {
+            return;
+        }
+        remove(root, folded, 0, id);
+        for (long key : trigramsOf(folded)) {
+            Set<Long> posting = trigrams.get(key);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    trigrams.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the ID under the title and prunes nodes left empty. Returns
+     * true if the node itself is now empty.
+     */
+    private static boolean remove(Node node, String folded, int depth, long id)
+    {
+        if (depth == folded.length()) {
+            node.ids.remove(id);
+        }
+        else {
+            char ch = folded.charAt(depth);
+            Node child = node.children.get(ch);
+            if (child != null && remove(child, folded, depth + 1, id)) {
+                node.children.remove(ch);
+            }
+        }
+        return node.ids.isEmpty() && node.children.isEmpty();
+    }
+
+    /**
+     * The folded literal text between wildcards, e.g. "moon" and "sea" for
+     * "%Moon_Sea%".
+     */
+    static List<String> literalRuns(String pattern)
+    {
+        List<String> runs = new ArrayList<String>();
+        StringBuilder run = new StringBuilder();
+        for (int idx = 0; idx < pattern.length(); idx++) {
+            char ch = pattern.charAt(idx);
+            if (ch == '%' || ch == '_') {
+                runs.add(run.toString());
+                run.setLength(0);
+                continue;
+            }
+            if (ch == '\\' && idx + 1 < pattern.length()) {
+                ch = pattern.charAt(++idx);
+            }
+            run.append(ch);
+        }
+        runs.add(run.toString());
+        List<String> folded = new ArrayList<String>();
+        for (String text : runs) {
+            if (text.length() >= 3) {
+                folded.add(text.toLowerCase(Locale.ROOT));
+            }
+        }
+        return folded;
+    }
+
+    private static Set<Long> trigramsOf(String folded)
+    {
+        Set<Long> keys = new HashSet<Long>();
+        for (int idx = 0; idx + 3 <= folded.length(); idx++) {
+            keys.add(((long) folded.charAt(idx) << 32) | ((long) folded.charAt(idx + 1) << 16)
+                    | folded.charAt(idx + 2));
+        }
+        return keys;
+    }
+
+    private static final class Node
+    {
+        final Map<Character, Node> children = new HashMap<Character, Node>(4);
+        final Set<Long> ids = new TreeSet<Long>();
+    }
+}
@@ -0,0 +1,165 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.index;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedRow;
+import cs4347.jdbcGame.services.WriteListener;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Approximate number of distinct players per game, from HyperLogLog
+ * sketches of the player IDs in GAMES_PLAYED. Each game has an all-time
+ * sketch and one per day and per week (Monday to Sunday) of timeFinished,
+ * kept for retentionDays after the latest day seen. Counts are within
+ * getRelativeError() of the truth, one standard error; the all-time, daily
+ * and weekly counts are constant time and other ranges merge daily sketches.
+ * 
+ * Sketches only grow: an update adds the new row, and neither updates nor
+ * deletes remove anything. rebuild() recomputes every sketch from one scan,
+ * and exactUniquePlayers() counts one game exactly.
+ */
+public class UniquePlayersIndex extends DailySketches<HyperLogLog>
+{
+    public static final int DEFAULT_PRECISION = 12;
+    public static final int DEFAULT_RETENTION_DAYS = 56;
+
+    private final int precision;
+
+    public UniquePlayersIndex()
+    {
+        this(DEFAULT_PRECISION, DEFAULT_RETENTION_DAYS);
+    }
+
+    /**
+     * Each sketch takes 2^precision bytes, see HyperLogLog.
+     */
+    public UniquePlayersIndex(int precision, int retentionDays)
+    {
+        super(retentionDays, true);
+        this.precision = precision;
+        // Rejects a bad precision now rather than on the first play.
+        new HyperLogLog(precision);
+    }
+
+    /**
+     * Counts a play. A NULL timeFinished counts toward the all-time total only.
+     */
+    public void add(long gameID, long playerID, Date timeFinished)
+    {
+        record(NO_ROW, gameID, playerID, timeFinished);
+    }
+
+    public long uniquePlayers(long gameID)
+    {
+        return readAll(gameID, HyperLogLog::estimate, 0L);
+    }
+
+    public long uniquePlayersOnDay(long gameID, Date day)
+    {
+        return readBucket(gameID, day, false, HyperLogLog::estimate, 0L);
+    }
+
+    /**
+     * Distinct players in the Monday to Sunday week holding the given day.
+     */
+    public long uniquePlayersInWeek(long gameID, Date day)
+    {
+        return readBucket(gameID, day, true, HyperLogLog::estimate, 0L);
+    }
+
+    /**
+     * Distinct players from one day to another, inclusive, by merging the
+     * daily sketches. Days older than the retention are not counted.
+     */
+    public long uniquePlayers(long gameID, Date from, Date to)
+    {
+        return mergeDays(gameID, from, to).estimate();
+    }
+
+    /**
+     * One relative standard error of every count.
+     */
+    public double getRelativeError()
+    {
+        return new HyperLogLog(precision).relativeError();
+    }
+
+    /**
+     * The exact number of distinct players of a game, from a scan of its
+     * plays.
+     */
+    public static long exactUniquePlayers(Connection connection, GamesPlayedDAO gamesPlayedDAO, long gameID)
+            throws SQLException, DAOException
+    {
+        Set<Long> players = new HashSet<Long>();
+        gamesPlayedDAO.scanByGame(connection, gameID, row -> players.add(row.getPlayerID()));
+        return players.size();
+    }
+
+    /**
+     * Counts the plays of created and updated GAMES_PLAYED rows.
+     */
+    public WriteListener<GamesPlayed> listener()
+    {
+        return new WriteListener<GamesPlayed>()
+        {
+            @Override
+            public void created(GamesPlayed entity)
+            {
+                record(entity.getId() == null ? NO_ROW : entity.getId(), entity.getGameID(), entity.getPlayerID(),
+                        entity.getTimeFinished());
+            }
+
+            @Override
+            public void updated(GamesPlayed before, GamesPlayed after)
+            {
+                add(after.getGameID(), after.getPlayerID(), after.getTimeFinished());
+            }
+
+            @Override
+            public void deleted(GamesPlayed entity)
+            {
+            }
+        };
+    }
+
+    @Override
+    protected HyperLogLog newSketch()
+    {
+        return new HyperLogLog(precision);
+    }
+
+    @Override
+    protected void addTo(HyperLogLog sketch, long playerID)
+    {
+        sketch.add(playerID);
+    }
+
+    @Override
+    protected void mergeInto(HyperLogLog target, HyperLogLog source)
+    {
+        target.merge(source);
+    }
+
+    @Override
+    protected long valueOf(GamesPlayedRow row)
+    {
+        return row.getPlayerID();
+    }
+}
@@ -0,0 +1,195 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Wraps a DAO or service in a dynamic proxy that times every interface call.
+ * 
+ * <pre>
+ * PlayerDAO playerDAO = Instrumentation.instrument(PlayerDAO.class, new PlayerDAOImpl());
+ * GameService gameService = Instrumentation.instrument(GameService.class, new GameServiceImpl(ds));
+ * </pre>
+ * 
+ * Proxies created with the same name share one InstrumentedComponent, which is
+ * also registered with the platform MBeanServer. The recording path is
+ * lock-free and allocates nothing beyond the argument array the proxy itself
+ * builds. Each call is also emitted as a JfrEvents ServiceCall event when a
+ * flight recording is running.
+ */
+public final class Instrumentation
+{
+    static final String JMX_DOMAIN = "cs4347.jdbcGame";
+
+    private static final ConcurrentMap<String, InstrumentedComponent> components = new ConcurrentHashMap<String, InstrumentedComponent>();
+
+    private Instrumentation()
+    {
+    }
+
+    /**
+     * Instruments the target under the interface's simple name, e.g.
+     * "PlayerDAO".
+     */
+    public static <T> T instrument(Class<T> iface, T target)
+    {
+        return instrument(iface, target, iface.getSimpleName());
+    }
+
+    public static <T> T instrument(Class<T> iface, T target, String name)
+    {
+        if (!iface.isInterface()) {
+            throw new IllegalArgumentException(iface.getName() + " is not an interface");
+        }
+        InstrumentedComponent component = component(name, iface);
+        Object proxy = Proxy.newProxyInstance(iface.getClassLoader(), new Class<?>[] { iface },
+                new TimingHandler(target, component));
+        return iface.cast(proxy);
+    }
+
+    /**
+     * Returns the component with the given name, or null.
+     */
+    public static InstrumentedComponent getComponent(String name)
+    {
+        return components.get(name);
+    }
+
+    /**
+     * Snapshots every method of every component.
+     */
+    public static List<MethodStatsSnapshot> snapshot()
+    {
+        List<MethodStatsSnapshot> result = new ArrayList<MethodStatsSnapshot>();
+        for (InstrumentedComponent component : components.values()) {
+            result.addAll(component.getMethodStats());
+        }
+        return result;
+    }
+
+    public static void reset()
+    {
+        for (InstrumentedComponent component : components.values()) {
+            component.reset();
+        }
+    }
+
+    private static InstrumentedComponent component(String name, Class<?> iface)
+    {
+        InstrumentedComponent component = components.get(name);
+        if (component != null) {
+            return component;
+        }
+        InstrumentedComponent created = new InstrumentedComponent(name, iface);
+        component = components.putIfAbsent(name, created);
+        if (component != null) {
+            return component;
+        }
+        register(created);
+        return created;
+    }
+
+    private static void register(InstrumentedComponent component)
+    {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(
+                    JMX_DOMAIN + ":type=Instrumentation,name=" + ObjectName.quote(component.getName()));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(component, objectName);
+            }
+        } catch (JMException ex) {
+            // JMX is optional; the stats are still available through snapshot().
+        }
+    }
+
+    private static class TimingHandler implements InvocationHandler
+    {
+        private final Object target;
+        private final InstrumentedComponent component;
+
+        TimingHandler(Object target, InstrumentedComponent component)
+        {
+            this.target = target;
+            this.component = component;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            MethodStats stats = component.statsFor(method);
+            if (stats == null) {
+                return invokeTarget(method, args);
+            }
+            Object event = JfrEvents.beginServiceCall();
+            long waitBefore = event != null ? JfrEvents.connectionWaitNanos() : 0;
+            Object result = null;
+            boolean failed = true;
+            long start = System.nanoTime();
+            try {
+                result = invokeTarget(method, args);
+                failed = false;
+                return result;
+            }
+            finally {
+                stats.record(System.nanoTime() - start, failed);
+                if (event != null) {
+                    JfrEvents.commitServiceCall(event, component.getName(), method.getName(), rowsOf(result),
+                            JfrEvents.connectionWaitNanos() - waitBefore, failed);
+                }
+            }
+        }
+
+        /**
+         * Rows returned by a call: the size of a collection, an update count, or
+         * one for a single entity.
+         */
+        private static long rowsOf(Object result)
+        {
+            if (result == null) {
+                return 0;
+            }
+            if (result instanceof Collection) {
+                return ((Collection<?>) result).size();
+            }
+            if (result instanceof Integer || result instanceof Long) {
+                return ((Number) result).longValue();
+            }
+            if (result instanceof Boolean) {
+                return 0;
+            }
+            return 1;
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable
+        {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
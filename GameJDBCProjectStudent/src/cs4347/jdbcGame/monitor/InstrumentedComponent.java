@@ -0,0 +1,128 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The MethodStats of every method of one instrumented interface. The method
+ * table is filled once when the component is created and is read-only
+ * afterwards, so lookups on the call path need no locking.
+ */
+public class InstrumentedComponent implements InstrumentedComponentMXBean
+{
+    private final String name;
+    private final Map<Method, MethodStats> statsByMethod;
+    private final List<MethodStats> stats;
+
+    InstrumentedComponent(String name, Class<?> iface)
+    {
+        this.name = name;
+        Map<Method, MethodStats> byMethod = new HashMap<Method, MethodStats>();
+        List<MethodStats> all = new ArrayList<MethodStats>();
+        Map<String, MethodStats> bySignature = new HashMap<String, MethodStats>();
+        for (Method method : iface.getMethods()) {
+            // Keyed by signature, so overloads are timed apart while a method
+            // redeclared by a subinterface still has one entry.
+            String signature = signature(method);
+            MethodStats methodStats = bySignature.get(signature);
+            if (methodStats == null) {
+                methodStats = new MethodStats(name + "." + signature);
+                bySignature.put(signature, methodStats);
+                all.add(methodStats);
+            }
+            byMethod.put(method, methodStats);
+        }
+        this.statsByMethod = byMethod;
+        this.stats = Collections.unmodifiableList(all);
+    }
+
+    /**
+     * The method name and simple parameter type names, e.g.
+     * "retrieveByTitle(String, boolean)".
+     */
+    public static String signature(Method method)
+    {
+        StringBuilder sb = new StringBuilder(method.getName()).append('(');
+        Class<?>[] types = method.getParameterTypes();
+        for (int idx = 0; idx < types.length; idx++) {
+            if (idx > 0) {
+                sb.append(", ");
+            }
+            sb.append(types[idx].getSimpleName());
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * Returns the stats for the given interface method, or null for methods
+     * that are not instrumented (those declared by Object).
+     */
+    MethodStats statsFor(Method method)
+    {
+        return statsByMethod.get(method);
+    }
+
+    /**
+     * Returns the stats for the given signature, e.g. "find(long)", or for the
+     * method with the given name if it is not overloaded. Returns null if there
+     * is no such method.
+     * 
+     * @throws IllegalArgumentException if a bare name matches several overloads
+     */
+    public MethodStats getStats(String signatureOrName)
+    {
+        String qualified = name + "." + signatureOrName;
+        MethodStats found = null;
+        for (MethodStats methodStats : stats) {
+            String statsName = methodStats.getName();
+            if (statsName.equals(qualified)) {
+                return methodStats;
+            }
+            if (statsName.startsWith(qualified + "(")) {
+                if (found != null) {
+                    throw new IllegalArgumentException(signatureOrName + " is overloaded, give its signature");
+                }
+                found = methodStats;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public List<MethodStatsSnapshot> getMethodStats()
+    {
+        List<MethodStatsSnapshot> result = new ArrayList<MethodStatsSnapshot>();
+        for (MethodStats methodStats : stats) {
+            result.add(methodStats.snapshot());
+        }
+        return result;
+    }
+
+    @Override
+    public void reset()
+    {
+        for (MethodStats methodStats : stats) {
+            methodStats.reset();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+import java.util.List;
+
+/**
+ * JMX view of one instrumented DAO or service, registered as
+ * cs4347.jdbcGame:type=Instrumentation,name=&lt;component&gt;.
+ */
+public interface InstrumentedComponentMXBean
+{
+    String getName();
+
+    List<MethodStatsSnapshot> getMethodStats();
+
+    void reset();
+}
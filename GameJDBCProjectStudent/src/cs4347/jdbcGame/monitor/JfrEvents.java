@@ -0,0 +1,231 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Java Flight Recorder events for service calls and JDBC statements:
+ * 
+ * <ul>
+ * <li>cs4347.jdbcGame.ServiceCall - component, method, rows returned,
+ * connection wait time, failed. Emitted by Instrumentation proxies.</li>
+ * <li>cs4347.jdbcGame.JdbcStatement - SQL id, SQL text, rows, round trips,
+ * execute and fetch time, failed. Emitted by SqlTracer.</li>
+ * </ul>
+ * 
+ * The project is compiled for Java 10, where jdk.jfr is not part of the
+ * platform, so the event types are defined at runtime through
+ * jdk.jfr.EventFactory. On a JVM without jdk.jfr every method is a no-op.
+ * When no recording has the events enabled, begin() returns null after one
+ * isEnabled() check and nothing is allocated. See jdbcGame.jfc in the project
+ * root for a recording profile.
+ */
+public final class JfrEvents
+{
+    public static final String SERVICE_CALL = "cs4347.jdbcGame.ServiceCall";
+    public static final String JDBC_STATEMENT = "cs4347.jdbcGame.JdbcStatement";
+
+    private static final EventKind serviceCall = EventKind.create(SERVICE_CALL, "Service Call",
+            "Call to a DAO or service interface", new String[] { "component", "method", "rows", "connectionWait", "failed" },
+            new Class<?>[] { String.class, String.class, long.class, long.class, boolean.class },
+            new String[] { "Component", "Method", "Rows", "Connection Wait (ns)", "Failed" });
+
+    private static final EventKind jdbcStatement = EventKind.create(JDBC_STATEMENT, "JDBC Statement",
+            "Execution of one JDBC statement including its fetch phase",
+            new String[] { "sqlId", "sql", "rows", "roundTrips", "executeTime", "fetchTime", "failed" },
+            new Class<?>[] { String.class, String.class, long.class, int.class, long.class, long.class, boolean.class },
+            new String[] { "SQL Id", "SQL", "Rows", "Round Trips", "Execute Time (ns)", "Fetch Time (ns)", "Failed" });
+
+    private static final ThreadLocal<long[]> connectionWait = ThreadLocal.withInitial(() -> new long[1]);
+
+    private JfrEvents()
+    {
+    }
+
+    /**
+     * Starts a ServiceCall event, or returns null when it is not being recorded.
+     */
+    public static Object beginServiceCall()
+    {
+        return serviceCall.begin();
+    }
+
+    public static void commitServiceCall(Object event, String component, String method, long rows,
+            long connectionWaitNanos, boolean failed)
+    {
+        if (event != null) {
+            serviceCall.commit(event, component, method, rows, connectionWaitNanos, failed);
+        }
+    }
+
+    /**
+     * Starts a JdbcStatement event, or returns null when it is not being
+     * recorded.
+     */
+    public static Object beginJdbcStatement()
+    {
+        return jdbcStatement.begin();
+    }
+
+    public static void commitJdbcStatement(Object event, String sql, long rows, int roundTrips, long executeNanos,
+            long fetchNanos, boolean failed)
+    {
+        if (event != null) {
+            jdbcStatement.commit(event, sqlId(sql), sql, rows, roundTrips, executeNanos, fetchNanos, failed);
+        }
+    }
+
+    /**
+     * Adds time spent waiting in DataSource.getConnection() on this thread. The
+     * ServiceCall event reports the difference across the call.
+     */
+    public static void connectionWaited(long nanos)
+    {
+        connectionWait.get()[0] += nanos;
+    }
+
+    /**
+     * Total connection wait recorded on this thread so far.
+     */
+    public static long connectionWaitNanos()
+    {
+        return connectionWait.get()[0];
+    }
+
+    /**
+     * Short stable id for a SQL text, used to group statements in a recording.
+     */
+    public static String sqlId(String sql)
+    {
+        return String.format("%08x", sql.hashCode());
+    }
+
+    /**
+     * One event type created through jdk.jfr.EventFactory, with method handles
+     * for the Event methods used on the hot path.
+     */
+    private static class EventKind
+    {
+        private final Object eventType;
+        private final MethodHandle isEnabled;
+        private final MethodHandle newEvent;
+        private final Object factory;
+        private final MethodHandle begin;
+        private final MethodHandle end;
+        private final MethodHandle set;
+        private final MethodHandle commit;
+
+        private EventKind(Object factory, Object eventType, MethodHandle isEnabled, MethodHandle newEvent,
+                MethodHandle begin, MethodHandle end, MethodHandle set, MethodHandle commit)
+        {
+            this.factory = factory;
+            this.eventType = eventType;
+            this.isEnabled = isEnabled;
+            this.newEvent = newEvent;
+            this.begin = begin;
+            this.end = end;
+            this.set = set;
+            this.commit = commit;
+        }
+
+        static EventKind create(String name, String label, String description, String[] fieldNames,
+                Class<?>[] fieldTypes, String[] fieldLabels)
+        {
+            try {
+                Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+                Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+                Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory");
+                Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType");
+                Class<?> eventClass = Class.forName("jdk.jfr.Event");
+                Constructor<?> annotation = annotationElementClass.getConstructor(Class.class, Object.class);
+                Constructor<?> field = valueDescriptorClass.getConstructor(Class.class, String.class, List.class);
+
+                List<Object> eventAnnotations = new ArrayList<Object>();
+                eventAnnotations.add(annotation.newInstance(annotationClass("jdk.jfr.Name"), name));
+                eventAnnotations.add(annotation.newInstance(annotationClass("jdk.jfr.Label"), label));
+                eventAnnotations.add(annotation.newInstance(annotationClass("jdk.jfr.Description"), description));
+                eventAnnotations.add(annotation.newInstance(annotationClass("jdk.jfr.Category"),
+                        new String[] { "cs4347", "jdbcGame" }));
+
+                List<Object> fields = new ArrayList<Object>();
+                for (int idx = 0; idx < fieldNames.length; idx++) {
+                    Object fieldLabel = annotation.newInstance(annotationClass("jdk.jfr.Label"), fieldLabels[idx]);
+                    fields.add(field.newInstance(fieldTypes[idx], fieldNames[idx], Arrays.asList(fieldLabel)));
+                }
+
+                Method create = eventFactoryClass.getMethod("create", List.class, List.class);
+                Object factory = create.invoke(null, eventAnnotations, fields);
+                Object eventType = eventFactoryClass.getMethod("getEventType").invoke(factory);
+
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                MethodType objectToVoid = MethodType.methodType(void.class, Object.class);
+                return new EventKind(factory, eventType,
+                        lookup.findVirtual(eventTypeClass, "isEnabled", MethodType.methodType(boolean.class))
+                                .asType(MethodType.methodType(boolean.class, Object.class)),
+                        lookup.findVirtual(eventFactoryClass, "newEvent", MethodType.methodType(eventClass))
+                                .asType(MethodType.methodType(Object.class, Object.class)),
+                        lookup.findVirtual(eventClass, "begin", MethodType.methodType(void.class)).asType(objectToVoid),
+                        lookup.findVirtual(eventClass, "end", MethodType.methodType(void.class)).asType(objectToVoid),
+                        lookup.findVirtual(eventClass, "set", MethodType.methodType(void.class, int.class, Object.class))
+                                .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class)),
+                        lookup.findVirtual(eventClass, "commit", MethodType.methodType(void.class)).asType(objectToVoid));
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+                // No jdk.jfr on this JVM.
+                return new EventKind(null, null, null, null, null, null, null, null);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Class<? extends Annotation> annotationClass(String name) throws ClassNotFoundException
+        {
+            return (Class<? extends Annotation>) Class.forName(name);
+        }
+
+        Object begin()
+        {
+            if (eventType == null) {
+                return null;
+            }
+            try {
+                if (!(boolean) isEnabled.invokeExact(eventType)) {
+                    return null;
+                }
+                Object event = (Object) newEvent.invokeExact(factory);
+                begin.invokeExact(event);
+                return event;
+            } catch (Throwable ex) {
+                return null;
+            }
+        }
+
+        void commit(Object event, Object... values)
+        {
+            try {
+                end.invokeExact(event);
+                for (int idx = 0; idx < values.length; idx++) {
+                    set.invokeExact(event, idx, values[idx]);
+                }
+                commit.invokeExact(event);
+            } catch (Throwable ex) {
+                // Never let a recording problem fail the call being recorded.
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with HDR-style log-linear buckets: values below
+ * 32 ns get their own bucket and every power of two above that is split into
+ * 16 buckets, so a recorded value is off by at most 1/16 (about 6%) wherever
+ * it falls. Recording is a handful of atomic increments and never allocates.
+ */
+public class LatencyHistogram
+{
+    private static final int LINEAR_BUCKETS = 32;
+    private static final int SUB_BUCKETS = 16;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + 59 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one value in nanoseconds. Negative values are recorded as 0.
+     */
+    public void record(long nanos)
+    {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucketOf(nanos));
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos)) {
+            current = max.get();
+        }
+    }
+
+    public void reset()
+    {
+        for (int idx = 0; idx < BUCKET_COUNT; idx++) {
+            counts.set(idx, 0);
+        }
+        max.set(0);
+    }
+
+    /**
+     * Copies the bucket counts. Concurrent recording may be partially included.
+     */
+    public long[] snapshotCounts()
+    {
+        long[] result = new long[BUCKET_COUNT];
+        for (int idx = 0; idx < BUCKET_COUNT; idx++) {
+            result[idx] = counts.get(idx);
+        }
+        return result;
+    }
+
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * Returns the value at the given percentile (0-100) of the given bucket
+     * counts, as the midpoint of the bucket that holds it.
+     */
+    public static long valueAtPercentile(long[] bucketCounts, double percentile)
+    {
+        long total = 0;
+        for (long count : bucketCounts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 100) / 100.0);
+        rank = Math.max(rank, 1);
+        long seen = 0;
+        for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+            seen += bucketCounts[bucket];
+            if (seen >= rank) {
+                return midpointOf(bucket);
+            }
+        }
+        return midpointOf(bucketCounts.length - 1);
+    }
+
+    static int bucketOf(long value)
+    {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        // shift >= 1, and value >>> shift keeps the top five bits: 16..31
+        int shift = 59 - Long.numberOfLeadingZeros(value);
+        int top = (int) (value >>> shift);
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    static long lowerBoundOf(int bucket)
+    {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long top = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return top << shift;
+    }
+
+    static long midpointOf(int bucket)
+    {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        return lowerBoundOf(bucket) + (1L << (shift - 1));
+    }
+}
@@ -0,0 +1,66 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call, error and latency counters for one instrumented method.
+ */
+public class MethodStats
+{
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public MethodStats(String name)
+    {
+        this.name = name;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Records one completed call.
+     */
+    public void record(long elapsedNanos, boolean failed)
+    {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(elapsedNanos);
+        latency.record(elapsedNanos);
+    }
+
+    public void reset()
+    {
+        calls.reset();
+        errors.reset();
+        totalNanos.reset();
+        latency.reset();
+    }
+
+    public MethodStatsSnapshot snapshot()
+    {
+        long[] buckets = latency.snapshotCounts();
+        long callCount = calls.sum();
+        long meanNanos = callCount == 0 ? 0 : totalNanos.sum() / callCount;
+        return new MethodStatsSnapshot(name, callCount, errors.sum(), meanNanos,
+                LatencyHistogram.valueAtPercentile(buckets, 50), LatencyHistogram.valueAtPercentile(buckets, 99),
+                LatencyHistogram.valueAtPercentile(buckets, 99.9), latency.getMax());
+    }
+}
@@ -0,0 +1,86 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+/**
+ * Point-in-time copy of a MethodStats. All latencies are in nanoseconds.
+ */
+public class MethodStatsSnapshot
+{
+    private final String name;
+    private final long calls;
+    private final long errors;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    public MethodStatsSnapshot(String name, long calls, long errors, long meanNanos, long p50Nanos, long p99Nanos,
+            long p999Nanos, long maxNanos)
+    {
+        this.name = name;
+        this.calls = calls;
+        this.errors = errors;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public long getCalls()
+    {
+        return calls;
+    }
+
+    public long getErrors()
+    {
+        return errors;
+    }
+
+    public long getMeanNanos()
+    {
+        return meanNanos;
+    }
+
+    public long getP50Nanos()
+    {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos()
+    {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos()
+    {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos()
+    {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s calls=%d errors=%d mean=%dus p50=%dus p99=%dus p999=%dus max=%dus", name, calls,
+                errors, meanNanos / 1000, p50Nanos / 1000, p99Nanos / 1000, p999Nanos / 1000, maxNanos / 1000);
+    }
+}
@@ -0,0 +1,74 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+import java.lang.reflect.Method;
+
+/**
+ * One service call read back from a workload log.
+ */
+public class RecordedCall
+{
+    private final Method method;
+    private final Object[] arguments;
+    private final long startMicros;
+    private final long durationMicros;
+    private final boolean failed;
+    private final long threadID;
+
+    RecordedCall(Method method, Object[] arguments, long startMicros, long durationMicros, boolean failed,
+            long threadID)
+    {
+        this.method = method;
+        this.arguments = arguments;
+        this.startMicros = startMicros;
+        this.durationMicros = durationMicros;
+        this.failed = failed;
+        this.threadID = threadID;
+    }
+
+    public Method getMethod()
+    {
+        return method;
+    }
+
+    /**
+     * The arguments as they were before the call; create() arguments still have
+     * a null ID.
+     */
+    public Object[] getArguments()
+    {
+        return arguments;
+    }
+
+    /**
+     * Start of the call relative to the start of the recording.
+     */
+    public long getStartMicros()
+    {
+        return startMicros;
+    }
+
+    public long getDurationMicros()
+    {
+        return durationMicros;
+    }
+
+    public boolean isFailed()
+    {
+        return failed;
+    }
+
+    public long getThreadID()
+    {
+        return threadID;
+    }
+}
@@ -0,0 +1,102 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution counters for one SQL statement text.
+ */
+public class SqlStats
+{
+    private final String sql;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder roundTrips = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+    private final LatencyHistogram executeLatency = new LatencyHistogram();
+    private final LatencyHistogram fetchLatency = new LatencyHistogram();
+
+    public SqlStats(String sql)
+    {
+        this.sql = sql;
+    }
+
+    public String getSql()
+    {
+        return sql;
+    }
+
+    void record(StatementTrace trace, boolean wasSlow)
+    {
+        executions.increment();
+        if (trace.isFailed()) {
+            errors.increment();
+        }
+        rows.add(trace.getRows());
+        roundTrips.add(trace.getRoundTrips());
+        executeLatency.record(trace.getExecuteNanos());
+        fetchLatency.record(trace.getFetchNanos());
+        if (wasSlow) {
+            slow.increment();
+        }
+    }
+
+    public long getExecutions()
+    {
+        return executions.sum();
+    }
+
+    public long getErrors()
+    {
+        return errors.sum();
+    }
+
+    public long getRows()
+    {
+        return rows.sum();
+    }
+
+    public long getRoundTrips()
+    {
+        return roundTrips.sum();
+    }
+
+    public long getSlowExecutions()
+    {
+        return slow.sum();
+    }
+
+    /**
+     * Execute-phase latency at the given percentile, in nanoseconds.
+     */
+    public long getExecuteNanos(double percentile)
+    {
+        return LatencyHistogram.valueAtPercentile(executeLatency.snapshotCounts(), percentile);
+    }
+
+    /**
+     * Fetch-phase latency at the given percentile, in nanoseconds.
+     */
+    public long getFetchNanos(double percentile)
+    {
+        return LatencyHistogram.valueAtPercentile(fetchLatency.snapshotCounts(), percentile);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("executions=%d errors=%d rows=%d roundTrips=%d slow=%d executeP99=%dus fetchP99=%dus %s",
+                getExecutions(), getErrors(), getRows(), getRoundTrips(), getSlowExecutions(),
+                getExecuteNanos(99) / 1000, getFetchNanos(99) / 1000, sql);
+    }
+}
@@ -0,0 +1,432 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * JDBC tracing layer. Connections obtained through a traced DataSource hand
+ * out statements that time their execute and fetch phases, count rows and
+ * round trips, and aggregate them per SQL text in SqlStats. Executions slower
+ * than the threshold are written as one JSON line to the
+ * "cs4347.jdbcGame.slowQuery" logger, with bound parameters; credit card
+ * values are masked.
+ * 
+ * <pre>
+ * SqlTracer tracer = new SqlTracer(100);
+ * GameService gameService = new GameServiceImpl(tracer.trace(dataSource));
+ * </pre>
+ * 
+ * The default threshold is 200 ms and can be set with the system property
+ * cs4347.jdbcGame.slowQueryMillis. Fast executions only update counters; the
+ * log line is built for slow ones only. Each execution is also emitted as a
+ * JfrEvents JdbcStatement event when a flight recording is running.
+ */
+public class SqlTracer
+{
+    public static final String SLOW_QUERY_LOGGER = "cs4347.jdbcGame.slowQuery";
+
+    private static final Logger slowQueryLog = Logger.getLogger(SLOW_QUERY_LOGGER);
+
+    private final ConcurrentMap<String, SqlStats> statsBySql = new ConcurrentHashMap<String, SqlStats>();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder roundTrips = new LongAdder();
+    private volatile long slowThresholdNanos;
+
+    public SqlTracer()
+    {
+        this(Long.getLong("cs4347.jdbcGame.slowQueryMillis", 200));
+    }
+
+    public SqlTracer(long slowThresholdMillis)
+    {
+        setSlowThresholdMillis(slowThresholdMillis);
+    }
+
+    public void setSlowThresholdMillis(long slowThresholdMillis)
+    {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+    }
+
+    public long getSlowThresholdMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    /**
+     * Returns a DataSource whose connections are traced.
+     */
+    public DataSource trace(DataSource dataSource)
+    {
+        return proxy(DataSource.class, new DataSourceHandler(dataSource));
+    }
+
+    public Connection trace(Connection connection)
+    {
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    /**
+     * Number of statement executions traced so far.
+     */
+    public long getStatementCount()
+    {
+        return statements.sum();
+    }
+
+    /**
+     * Number of database round trips traced so far: statement executions plus
+     * commit, rollback and setAutoCommit calls.
+     */
+    public long getRoundTrips()
+    {
+        return roundTrips.sum();
+    }
+
+    /**
+     * Returns the stats for the given SQL text, or null if it has not run.
+     */
+    public SqlStats getStats(String sql)
+    {
+        return statsBySql.get(sql);
+    }
+
+    public List<SqlStats> getStats()
+    {
+        return new ArrayList<SqlStats>(statsBySql.values());
+    }
+
+    public void reset()
+    {
+        statsBySql.clear();
+        statements.reset();
+        roundTrips.reset();
+    }
+
+    void completed(StatementTrace trace)
+    {
+        if (!trace.isActive()) {
+            return;
+        }
+        boolean slow = trace.getTotalNanos() >= slowThresholdNanos;
+        SqlStats stats = statsBySql.get(trace.getSql());
+        if (stats == null) {
+            SqlStats created = new SqlStats(trace.getSql());
+            stats = statsBySql.putIfAbsent(trace.getSql(), created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        stats.record(trace, slow);
+        JfrEvents.commitJdbcStatement(trace.jfrEvent, trace.getSql(), trace.getRows(), trace.getRoundTrips(),
+                trace.getExecuteNanos(), trace.getFetchNanos(), trace.isFailed());
+        if (slow && slowQueryLog.isLoggable(Level.WARNING)) {
+            slowQueryLog.warning(formatSlowQuery(trace));
+        }
+        trace.reset();
+    }
+
+    /**
+     * Formats a trace as the JSON line written to the slow-query log.
+     */
+    static String formatSlowQuery(StatementTrace trace)
+    {
+        boolean sensitive = trace.getSql().toLowerCase(Locale.ROOT).contains("creditcard");
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"sql\":");
+        appendJSONString(sb, trace.getSql());
+        sb.append(",\"totalMs\":").append(millis(trace.getTotalNanos()));
+        sb.append(",\"executeMs\":").append(millis(trace.getExecuteNanos()));
+        sb.append(",\"fetchMs\":").append(millis(trace.getFetchNanos()));
+        sb.append(",\"rows\":").append(trace.getRows());
+        sb.append(",\"roundTrips\":").append(trace.getRoundTrips());
+        sb.append(",\"failed\":").append(trace.isFailed());
+        sb.append(",\"params\":[");
+        for (int idx = 1; idx <= trace.getParameterCount(); idx++) {
+            if (idx > 1) {
+                sb.append(',');
+            }
+            Object value = maskParameter(trace.getParameter(idx), sensitive);
+            if (value == null) {
+                sb.append("null");
+            }
+            else if (value instanceof Number || value instanceof Boolean) {
+                sb.append(value);
+            }
+            else {
+                appendJSONString(sb, value.toString());
+            }
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    /**
+     * Card-number-like strings (12 to 19 digits) are always masked to their last
+     * four digits. In statements on the creditcard table every value other than
+     * a Long ID is masked.
+     */
+    static Object maskParameter(Object value, boolean sensitiveStatement)
+    {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String && isCardNumber((String) value)) {
+            String number = (String) value;
+            return "****" + number.substring(number.length() - 4);
+        }
+        if (sensitiveStatement && !(value instanceof Long)) {
+            return "****";
+        }
+        return value;
+    }
+
+    private static boolean isCardNumber(String value)
+    {
+        int digits = 0;
+        for (int idx = 0; idx < value.length(); idx++) {
+            char ch = value.charAt(idx);
+            if (ch >= '0' && ch <= '9') {
+                digits++;
+            }
+            else if (ch != ' ' && ch != '-') {
+                return false;
+            }
+        }
+        return digits >= 12 && digits <= 19;
+    }
+
+    private static String millis(long nanos)
+    {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static void appendJSONString(StringBuilder sb, String value)
+    {
+        sb.append('"');
+        for (int idx = 0; idx < value.length(); idx++) {
+            char ch = value.charAt(idx);
+            if (ch == '"' || ch == '\\') {
+                sb.append('\\').append(ch);
+            }
+            else if (ch < 0x20) {
+                sb.append(String.format("\\u%04x", (int) ch));
+            }
+            else {
+                sb.append(ch);
+            }
+        }
+        sb.append('"');
+    }
+
+    private static <T> T proxy(Class<T> iface, InvocationHandler handler)
+    {
+        return iface.cast(Proxy.newProxyInstance(SqlTracer.class.getClassLoader(), new Class<?>[] { iface }, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable
+    {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private class DataSourceHandler implements InvocationHandler
+    {
+        private final DataSource target;
+
+        DataSourceHandler(DataSource target)
+        {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            if (!method.getName().equals("getConnection")) {
+                return SqlTracer.invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return trace((Connection) SqlTracer.invoke(target, method, args));
+            }
+            finally {
+                JfrEvents.connectionWaited(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler
+    {
+        private final Connection target;
+
+        ConnectionHandler(Connection target)
+        {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            String name = method.getName();
+            if (name.equals("commit") || name.equals("rollback") || name.equals("setAutoCommit")) {
+                roundTrips.increment();
+            }
+            Object result = SqlTracer.invoke(target, method, args);
+            if (name.equals("prepareStatement")) {
+                return proxy(PreparedStatement.class,
+                        new StatementHandler(result, new StatementTrace((String) args[0])));
+            }
+            if (name.equals("createStatement")) {
+                return proxy(Statement.class, new StatementHandler(result, null));
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler
+    {
+        private final Object target;
+        private StatementTrace trace;
+
+        /**
+         * A PreparedStatement has one trace for its SQL. A plain Statement gets a
+         * new trace for each SQL string it executes.
+         */
+        StatementHandler(Object target, StatementTrace trace)
+        {
+            this.target = target;
+            this.trace = trace;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (trace != null && name.startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer) {
+                trace.bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            }
+            else if (trace != null && name.equals("clearParameters")) {
+                trace.clearParameters();
+            }
+            else if (name.equals("close") && trace != null) {
+                completed(trace);
+            }
+
+            Object result = SqlTracer.invoke(target, method, args);
+            // Generated keys are not counted as fetched rows.
+            if (name.equals("getResultSet") && result != null && trace != null) {
+                return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, trace));
+            }
+            return result;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable
+        {
+            if (trace != null) {
+                completed(trace);
+            }
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                trace = new StatementTrace((String) args[0]);
+            }
+            statements.increment();
+            roundTrips.increment();
+            if (trace != null && trace.jfrEvent == null) {
+                trace.jfrEvent = JfrEvents.beginJdbcStatement();
+            }
+
+            Object result = null;
+            boolean failed = true;
+            long start = System.nanoTime();
+            try {
+                result = SqlTracer.invoke(target, method, args);
+                failed = false;
+            }
+            finally {
+                long elapsed = System.nanoTime() - start;
+                if (trace != null) {
+                    trace.executed(elapsed, updateCount(result), failed);
+                }
+            }
+            if (result instanceof ResultSet && trace != null) {
+                return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, trace));
+            }
+            return result;
+        }
+
+        private long updateCount(Object result)
+        {
+            if (result instanceof Integer || result instanceof Long) {
+                return ((Number) result).longValue();
+            }
+            long total = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    total += Math.max(count, 0);
+                }
+            }
+            else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    total += Math.max(count, 0);
+                }
+            }
+            return total;
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler
+    {
+        private final ResultSet target;
+        private final StatementTrace trace;
+
+        ResultSetHandler(ResultSet target, StatementTrace trace)
+        {
+            this.target = target;
+            this.trace = trace;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            if (!method.getName().equals("next")) {
+                return SqlTracer.invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            boolean hasRow = target.next();
+            trace.fetched(System.nanoTime() - start, hasRow);
+            return hasRow;
+        }
+    }
+}
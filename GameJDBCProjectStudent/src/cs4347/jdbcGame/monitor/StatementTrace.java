@@ -0,0 +1,136 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+import java.util.Arrays;
+
+/**
+ * Timing of one execution of a traced PreparedStatement: the execute phase
+ * (the executeXxx() call), the fetch phase (time spent in ResultSet.next()),
+ * rows read or updated, round trips, and the bound parameters. One instance
+ * belongs to one statement and is reused for each execution.
+ */
+public class StatementTrace
+{
+    private final String sql;
+    private Object[] parameters = new Object[8];
+    private int parameterCount;
+    private long executeNanos;
+    private long fetchNanos;
+    private long rows;
+    private int roundTrips;
+    private boolean failed;
+    private boolean active;
+    Object jfrEvent;
+
+    StatementTrace(String sql)
+    {
+        this.sql = sql;
+    }
+
+    public String getSql()
+    {
+        return sql;
+    }
+
+    void bind(int index, Object value)
+    {
+        if (index < 1) {
+            return;
+        }
+        if (index > parameters.length) {
+            parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+        }
+        parameters[index - 1] = value;
+        parameterCount = Math.max(parameterCount, index);
+    }
+
+    void clearParameters()
+    {
+        Arrays.fill(parameters, 0, parameterCount, null);
+        parameterCount = 0;
+    }
+
+    void executed(long nanos, long updateCount, boolean executeFailed)
+    {
+        active = true;
+        executeNanos += nanos;
+        roundTrips++;
+        if (updateCount > 0) {
+            rows += updateCount;
+        }
+        failed |= executeFailed;
+    }
+
+    void fetched(long nanos, boolean gotRow)
+    {
+        fetchNanos += nanos;
+        if (gotRow) {
+            rows++;
+        }
+    }
+
+    boolean isActive()
+    {
+        return active;
+    }
+
+    void reset()
+    {
+        executeNanos = 0;
+        fetchNanos = 0;
+        rows = 0;
+        roundTrips = 0;
+        failed = false;
+        active = false;
+        jfrEvent = null;
+    }
+
+    public int getParameterCount()
+    {
+        return parameterCount;
+    }
+
+    public Object getParameter(int index)
+    {
+        return parameters[index - 1];
+    }
+
+    public long getExecuteNanos()
+    {
+        return executeNanos;
+    }
+
+    public long getFetchNanos()
+    {
+        return fetchNanos;
+    }
+
+    public long getTotalNanos()
+    {
+        return executeNanos + fetchNanos;
+    }
+
+    public long getRows()
+    {
+        return rows;
+    }
+
+    public int getRoundTrips()
+    {
+        return roundTrips;
+    }
+
+    public boolean isFailed()
+    {
+        return failed;
+    }
+}
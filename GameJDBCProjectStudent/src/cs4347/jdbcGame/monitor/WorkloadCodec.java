@@ -0,0 +1,268 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import cs4347.jdbcGame.entity.CreditCard;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.Player;
+
+/**
+ * Binary encoding of the workload log. Integers are zig-zag varints, strings
+ * are modified UTF-8, and every value starts with a one-byte type tag.
+ */
+final class WorkloadCodec
+{
+    static final int MAGIC = 0x4A47574C; // "JGWL"
+    static final int VERSION = 2;
+
+    static final int RECORD_METHOD = 1;
+    static final int RECORD_CALL = 2;
+
+    private static final int NULL = 0;
+    private static final int LONG = 1;
+    private static final int INT = 2;
+    private static final int FLOAT = 3;
+    private static final int BOOLEAN = 4;
+    private static final int STRING = 5;
+    private static final int DATE = 6;
+    private static final int LIST = 7;
+    private static final int PLAYER = 8;
+    private static final int CREDIT_CARD = 9;
+    private static final int GAME = 10;
+    private static final int GAMES_OWNED = 11;
+    private static final int GAMES_PLAYED = 12;
+
+    private WorkloadCodec()
+    {
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException
+    {
+        long bits = (value << 1) ^ (value >> 63);
+        while ((bits & ~0x7FL) != 0) {
+            out.writeByte((int) ((bits & 0x7F) | 0x80));
+            bits >>>= 7;
+        }
+        out.writeByte((int) bits);
+    }
+
+    static long readVarLong(DataInput in) throws IOException
+    {
+        long bits = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            bits |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (bits >>> 1) ^ -(bits & 1);
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static void writeValue(DataOutput out, Object value) throws IOException
+    {
+        if (value == null) {
+            out.writeByte(NULL);
+        }
+        else if (value instanceof Long) {
+            out.writeByte(LONG);
+            writeVarLong(out, (Long) value);
+        }
+        else if (value instanceof Integer) {
+            out.writeByte(INT);
+            writeVarLong(out, (Integer) value);
+        }
+        else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        }
+        else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        }
+        else if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeUTF((String) value);
+        }
+        else if (value instanceof Date) {
+            out.writeByte(DATE);
+            writeVarLong(out, ((Date) value).getTime());
+        }
+        else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            writeVarLong(out, list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        }
+        else if (value instanceof Player) {
+            Player player = (Player) value;
+            out.writeByte(PLAYER);
+            writeValue(out, player.getId());
+            writeValue(out, player.getFirstName());
+            writeValue(out, player.getLastName());
+            writeValue(out, player.getJoinDate());
+            writeValue(out, player.getEmail());
+            writeValue(out, player.getCreditCards());
+        }
+        else if (value instanceof CreditCard) {
+            CreditCard creditCard = (CreditCard) value;
+            out.writeByte(CREDIT_CARD);
+            writeValue(out, creditCard.getId());
+            writeValue(out, creditCard.getPlayerID());
+            writeValue(out, creditCard.getCcName());
+            writeValue(out, maskCardNumber(creditCard.getCcNumber()));
+            writeValue(out, creditCard.getExpDate());
+        }
+        else if (value instanceof Game) {
+            Game game = (Game) value;
+            out.writeByte(GAME);
+            writeValue(out, game.getId());
+            writeValue(out, game.getTitle());
+            writeValue(out, game.getDescription());
+            writeValue(out, game.getReleaseDate());
+            writeValue(out, game.getVersion());
+        }
+        else if (value instanceof GamesOwned) {
+            GamesOwned gamesOwned = (GamesOwned) value;
+            out.writeByte(GAMES_OWNED);
+            writeValue(out, gamesOwned.getId());
+            writeValue(out, gamesOwned.getPlayerID());
+            writeValue(out, gamesOwned.getGameID());
+            writeValue(out, gamesOwned.getPurchaseDate());
+            out.writeFloat(gamesOwned.getPurchasePrice());
+        }
+        else if (value instanceof GamesPlayed) {
+            GamesPlayed gamesPlayed = (GamesPlayed) value;
+            out.writeByte(GAMES_PLAYED);
+            writeValue(out, gamesPlayed.getId());
+            writeValue(out, gamesPlayed.getPlayerID());
+            writeValue(out, gamesPlayed.getGameID());
+            writeValue(out, gamesPlayed.getTimeFinished());
+            writeVarLong(out, gamesPlayed.getScore());
+        }
+        else {
+            throw new IOException("Cannot record argument of type " + value.getClass().getName());
+        }
+    }
+
+    static Object readValue(DataInput in) throws IOException
+    {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+        case NULL:
+            return null;
+        case LONG:
+            return readVarLong(in);
+        case INT:
+            return (int) readVarLong(in);
+        case FLOAT:
+            return in.readFloat();
+        case BOOLEAN:
+            return in.readBoolean();
+        case STRING:
+            return in.readUTF();
+        case DATE:
+            return new Date(readVarLong(in));
+        case LIST: {
+            int size = (int) readVarLong(in);
+            List<Object> list = new ArrayList<Object>(size);
+            for (int idx = 0; idx < size; idx++) {
+                list.add(readValue(in));
+            }
+            return list;
+        }
+        case PLAYER: {
+            Player player = new Player();
+            player.setId((Long) readValue(in));
+            player.setFirstName((String) readValue(in));
+            player.setLastName((String) readValue(in));
+            player.setJoinDate((Date) readValue(in));
+            player.setEmail((String) readValue(in));
+            player.setCreditCards(castList(readValue(in)));
+            return player;
+        }
+        case CREDIT_CARD: {
+            CreditCard creditCard = new CreditCard();
+            creditCard.setId((Long) readValue(in));
+            creditCard.setPlayerID((Long) readValue(in));
+            creditCard.setCcName((String) readValue(in));
+            creditCard.setCcNumber((String) readValue(in));
+            creditCard.setExpDate((String) readValue(in));
+            return creditCard;
+        }
+        case GAME: {
+            Game game = new Game();
+            game.setId((Long) readValue(in));
+            game.setTitle((String) readValue(in));
+            game.setDescription((String) readValue(in));
+            game.setReleaseDate((Date) readValue(in));
+            game.setVersion((String) readValue(in));
+            return game;
+        }
+        case GAMES_OWNED: {
+            GamesOwned gamesOwned = new GamesOwned();
+            gamesOwned.setId((Long) readValue(in));
+            gamesOwned.setPlayerID((Long) readValue(in));
+            gamesOwned.setGameID((Long) readValue(in));
+            gamesOwned.setPurchaseDate((Date) readValue(in));
+            gamesOwned.setPurchasePrice(in.readFloat());
+            return gamesOwned;
+        }
+        case GAMES_PLAYED: {
+            GamesPlayed gamesPlayed = new GamesPlayed();
+            gamesPlayed.setId((Long) readValue(in));
+            gamesPlayed.setPlayerID((Long) readValue(in));
+            gamesPlayed.setGameID((Long) readValue(in));
+            gamesPlayed.setTimeFinished((Date) readValue(in));
+            gamesPlayed.setScore((int) readVarLong(in));
+            return gamesPlayed;
+        }
+        default:
+            throw new IOException("Unknown value tag " + tag);
+        }
+    }
+
+    /**
+     * Card numbers are never written to the log. The last four digits are kept
+     * and the rest replaced with zeros, so replayed inserts keep the length.
+     * The security code is not recorded at all.
+     */
+    static String maskCardNumber(String number)
+    {
+        if (number == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(number.length());
+        int keepFrom = number.length() - 4;
+        for (int idx = 0; idx < number.length(); idx++) {
+            char ch = number.charAt(idx);
+            sb.append(idx < keepFrom && ch >= '0' && ch <= '9' ? '0' : ch);
+        }
+        return sb.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> castList(Object value)
+    {
+        return (List<T>) value;
+    }
+}
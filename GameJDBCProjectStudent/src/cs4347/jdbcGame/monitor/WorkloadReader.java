@@ -0,0 +1,143 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a log written by WorkloadRecorder. Methods are resolved by interface,
+ * name and parameter type names, so overloads are told apart exactly.
+ */
+public class WorkloadReader implements Closeable
+{
+    private final DataInputStream in;
+    private final List<Method> methods = new ArrayList<Method>();
+
+    public WorkloadReader(InputStream in) throws IOException
+    {
+        this.in = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+        if (this.in.readInt() != WorkloadCodec.MAGIC) {
+            throw new IOException("Not a workload log");
+        }
+        int version = this.in.readUnsignedShort();
+        if (version != WorkloadCodec.VERSION) {
+            throw new IOException("Unsupported workload log version " + version);
+        }
+    }
+
+    /**
+     * Returns the next call, or null at the end of the log.
+     */
+    public RecordedCall next() throws IOException
+    {
+        while (true) {
+            int type;
+            try {
+                type = in.readUnsignedByte();
+            } catch (EOFException ex) {
+                return null;
+            }
+            if (type == WorkloadCodec.RECORD_METHOD) {
+                readMethod();
+            }
+            else if (type == WorkloadCodec.RECORD_CALL) {
+                return readCall();
+            }
+            else {
+                throw new IOException("Unknown record type " + type);
+            }
+        }
+    }
+
+    /**
+     * Reads every remaining call.
+     */
+    public List<RecordedCall> readAll() throws IOException
+    {
+        List<RecordedCall> result = new ArrayList<RecordedCall>();
+        RecordedCall call;
+        while ((call = next()) != null) {
+            result.add(call);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        in.close();
+    }
+
+    private void readMethod() throws IOException
+    {
+        int methodID = (int) WorkloadCodec.readVarLong(in);
+        String ifaceName = in.readUTF();
+        String name = in.readUTF();
+        String[] parameterTypes = new String[(int) WorkloadCodec.readVarLong(in)];
+        for (int idx = 0; idx < parameterTypes.length; idx++) {
+            parameterTypes[idx] = in.readUTF();
+        }
+        if (methodID != methods.size()) {
+            throw new IOException("Out of order method id " + methodID);
+        }
+        Class<?> iface;
+        try {
+            iface = Class.forName(ifaceName);
+        } catch (ClassNotFoundException ex) {
+            throw new IOException("Unknown interface " + ifaceName);
+        }
+        for (Method method : iface.getMethods()) {
+            if (method.getName().equals(name) && Arrays.equals(typeNames(method), parameterTypes)) {
+                methods.add(method);
+                return;
+            }
+        }
+        throw new IOException("Unknown method " + ifaceName + "." + name + "(" + String.join(", ", parameterTypes)
+                + ")");
+    }
+
+    private static String[] typeNames(Method method)
+    {
+        Class<?>[] types = method.getParameterTypes();
+        String[] names = new String[types.length];
+        for (int idx = 0; idx < types.length; idx++) {
+            names[idx] = types[idx].getName();
+        }
+        return names;
+    }
+
+    private RecordedCall readCall() throws IOException
+    {
+        int methodID = (int) WorkloadCodec.readVarLong(in);
+        if (methodID < 0 || methodID >= methods.size()) {
+            throw new IOException("Undefined method id " + methodID);
+        }
+        Method method = methods.get(methodID);
+        long startMicros = WorkloadCodec.readVarLong(in);
+        long durationMicros = WorkloadCodec.readVarLong(in);
+        boolean failed = in.readBoolean();
+        long threadID = WorkloadCodec.readVarLong(in);
+        Object[] arguments = new Object[method.getParameterCount()];
+        for (int idx = 0; idx < arguments.length; idx++) {
+            arguments[idx] = WorkloadCodec.readValue(in);
+        }
+        return new RecordedCall(method, arguments, startMicros, durationMicros, failed, threadID);
+    }
+}
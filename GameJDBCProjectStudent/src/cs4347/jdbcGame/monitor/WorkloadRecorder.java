@@ -0,0 +1,296 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.monitor;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records calls made through service proxies to a compact binary log that
+ * WorkloadReader reads back for replay.
+ * 
+ * <pre>
+ * WorkloadRecorder recorder = new WorkloadRecorder(new FileOutputStream("workload.log"));
+ * GameService gameService = recorder.record(GameService.class, new GameServiceImpl(ds));
+ * ...
+ * recorder.close();
+ * </pre>
+ * 
+ * Each call stores its method, arguments (encoded before the call runs), start
+ * offset and duration in microseconds, failure flag and thread. Credit card
+ * numbers are masked to their last four digits and security codes are not
+ * recorded. A call whose arguments cannot be encoded is counted as dropped;
+ * an I/O error stops the recording. Neither fails the call itself.
+ * 
+ * Calls are encoded into a buffer of the calling thread and written out when
+ * it fills, on flush() and on close(), so threads do not wait on each other
+ * to record. Calls of different threads are therefore not in start order in
+ * the log. A call counts as recorded once it is written out.
+ */
+public class WorkloadRecorder implements Closeable
+{
+    private static final int BUFFER_BYTES = 8 * 1024;
+
+    // Written and closed holding this recorder's lock.
+    private final DataOutputStream out;
+    private final long startNanos = System.nanoTime();
+    private final Map<Method, Integer> methodIDs = new ConcurrentHashMap<Method, Integer>();
+    private final List<Buffer> buffers = new CopyOnWriteArrayList<Buffer>();
+    private final ThreadLocal<Buffer> buffer = ThreadLocal.withInitial(() -> {
+        Buffer created = new Buffer();
+        buffers.add(created);
+        return created;
+    });
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean closed;
+    // Set when out is closed or has failed.
+    private boolean ended;
+
+    public WorkloadRecorder(OutputStream out) throws IOException
+    {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        this.out.writeInt(WorkloadCodec.MAGIC);
+        this.out.writeShort(WorkloadCodec.VERSION);
+    }
+
+    /**
+     * Returns a proxy for the target that records every call.
+     */
+    public <T> T record(Class<T> iface, T target)
+    {
+        Object proxy = Proxy.newProxyInstance(iface.getClassLoader(), new Class<?>[] { iface },
+                new RecordingHandler(target));
+        return iface.cast(proxy);
+    }
+
+    public long getRecordedCount()
+    {
+        return recorded.sum();
+    }
+
+    public long getDroppedCount()
+    {
+        return dropped.sum();
+    }
+
+    /**
+     * Writes out the calls buffered by every thread.
+     */
+    public void flush() throws IOException
+    {
+        drainAll();
+        synchronized (this) {
+            if (!ended) {
+                out.flush();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        drainAll();
+        synchronized (this) {
+            if (!ended) {
+                ended = true;
+                out.close();
+            }
+        }
+    }
+
+    private void write(Method method, byte[] arguments, long startNanos, long elapsedNanos, boolean failed)
+    {
+        int methodID = methodID(method);
+        Buffer buffer = this.buffer.get();
+        synchronized (buffer) {
+            // Checked under the buffer lock so that close() drains every call it lets in.
+            if (closed || methodID < 0) {
+                dropped.increment();
+                return;
+            }
+            try {
+                DataOutputStream data = buffer.data;
+                data.writeByte(WorkloadCodec.RECORD_CALL);
+                WorkloadCodec.writeVarLong(data, methodID);
+                WorkloadCodec.writeVarLong(data, TimeUnit.NANOSECONDS.toMicros(startNanos - this.startNanos));
+                WorkloadCodec.writeVarLong(data, TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+                data.writeBoolean(failed);
+                WorkloadCodec.writeVarLong(data, Thread.currentThread().getId());
+                data.write(arguments);
+                buffer.calls++;
+            } catch (IOException ex) {
+                // A ByteArrayOutputStream does not throw.
+                throw new IllegalStateException(ex);
+            }
+            if (buffer.bytes.size() >= BUFFER_BYTES) {
+                drain(buffer);
+            }
+        }
+    }
+
+    /**
+     * The ID of the method, writing its definition straight to the log the
+     * first time so that it comes before any buffered call using it. Returns
+     * -1 once the log has ended.
+     */
+    private int methodID(Method method)
+    {
+        Integer methodID = methodIDs.get(method);
+        if (methodID != null) {
+            return methodID;
+        }
+        synchronized (this) {
+            methodID = methodIDs.get(method);
+            if (methodID != null) {
+                return methodID;
+            }
+            if (ended) {
+                return -1;
+            }
+            try {
+                methodID = methodIDs.size();
+                out.writeByte(WorkloadCodec.RECORD_METHOD);
+                WorkloadCodec.writeVarLong(out, methodID);
+                out.writeUTF(method.getDeclaringClass().getName());
+                out.writeUTF(method.getName());
+                WorkloadCodec.writeVarLong(out, method.getParameterCount());
+                for (Class<?> type : method.getParameterTypes()) {
+                    out.writeUTF(type.getName());
+                }
+                methodIDs.put(method, methodID);
+                return methodID;
+            } catch (IOException ex) {
+                ended = true;
+                return -1;
+            }
+        }
+    }
+
+    private void drainAll()
+    {
+        for (Buffer each : buffers) {
+            synchronized (each) {
+                drain(each);
+            }
+        }
+    }
+
+    /**
+     * Writes the buffer to the log and empties it. The caller holds the
+     * buffer's lock.
+     */
+    private void drain(Buffer buffer)
+    {
+        if (buffer.calls == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (ended) {
+                dropped.add(buffer.calls);
+            }
+            else {
+                try {
+                    buffer.bytes.writeTo(out);
+                    recorded.add(buffer.calls);
+                } catch (IOException ex) {
+                    ended = true;
+                    dropped.add(buffer.calls);
+                }
+            }
+        }
+        buffer.bytes.reset();
+        buffer.calls = 0;
+    }
+
+    /**
+     * Calls encoded by one thread and not yet written out.
+     */
+    private static final class Buffer
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_BYTES + 1024);
+        final DataOutputStream data = new DataOutputStream(bytes);
+        int calls;
+    }
+
+    private class RecordingHandler implements InvocationHandler
+    {
+        private final Object target;
+
+        RecordingHandler(Object target)
+        {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeTarget(method, args);
+            }
+            byte[] arguments = encode(args);
+            boolean failed = true;
+            long start = System.nanoTime();
+            try {
+                Object result = invokeTarget(method, args);
+                failed = false;
+                return result;
+            }
+            finally {
+                long elapsed = System.nanoTime() - start;
+                if (arguments != null) {
+                    write(method, arguments, start, elapsed, failed);
+                }
+            }
+        }
+
+        private byte[] encode(Object[] args)
+        {
+            try {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+                DataOutputStream data = new DataOutputStream(buffer);
+                if (args != null) {
+                    for (Object arg : args) {
+                        WorkloadCodec.writeValue(data, arg);
+                    }
+                }
+                return buffer.toByteArray();
+            } catch (IOException ex) {
+                dropped.increment();
+                return null;
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable
+        {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
@@ -31,6 +31,25 @@ public interface GameService
 
     List<Game> retrieveByTitle(String titlePattern) throws DAOException, SQLException;
 
+    /**
+     * With fromDatabase false the title index is used when the service has one.
+     */
+    List<Game> retrieveByTitle(String titlePattern, boolean fromDatabase) throws DAOException, SQLException;
+
     List<Game> retrieveByReleaseDate(Date start, Date end) throws DAOException, SQLException;
 
+    /**
+     * Up to k titles starting with the prefix, ignoring case. With a title
+     * index they are the most played and owned first, otherwise in title order.
+     */
+    List<String> autocomplete(String prefix, int k) throws DAOException, SQLException;
+
+    /**
+     * Games whose title or description contains all the query's words,
+     * ignoring case and punctuation. Groups of words can be joined with OR.
+     * A service without a full-text index may return at most a fixed number
+     * of games for each group.
+     */
+    List<Game> search(String query) throws DAOException, SQLException;
+
 }
@@ -24,6 +24,17 @@ public interface GamesOwnedService
 
     GamesOwned retrievePlayerGameID(long playerID, long gameID) throws DAOException, SQLException;
 
+    /**
+     * True if the player owns the game. Answered in memory when the service
+     * has an ownership index.
+     */
+    boolean owns(long playerID, long gameID) throws DAOException, SQLException;
+
+    /**
+     * Number of distinct players owning the game.
+     */
+    int countOwners(long gameID) throws DAOException, SQLException;
+
     List<GamesOwned> retrieveByGame(long gameID) throws DAOException, SQLException;
 
     List<GamesOwned> retrieveByPlayer(long playerID) throws DAOException, SQLException;
@@ -33,4 +33,21 @@ public interface GamesPlayedService
     int delete(long gamePlayedID) throws DAOException, SQLException;
 
     int count() throws DAOException, SQLException;
+
+    /**
+     * Number of distinct players of the game, estimated when the service has
+     * a UniquePlayersIndex.
+     */
+    long countUniquePlayers(long gameID) throws DAOException, SQLException;
+
+    /**
+     * With exact true the count always comes from the database.
+     */
+    long countUniquePlayers(long gameID, boolean exact) throws DAOException, SQLException;
+
+    /**
+     * The given quantiles of the game's scores, e.g. 0.5, 0.9 and 0.99;
+     * estimated when the service has ScorePercentiles, exact otherwise.
+     */
+    double[] scorePercentiles(long gameID, double... quantiles) throws DAOException, SQLException;
 }
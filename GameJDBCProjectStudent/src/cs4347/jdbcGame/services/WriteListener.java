@@ -0,0 +1,28 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+/**
+ * Told about each write a service has committed, e.g. to keep an in-memory
+ * index current. Called on the writing thread after the commit, so it must
+ * be quick, thread-safe, and must not throw.
+ */
+public interface WriteListener<E>
+{
+    void created(E entity);
+
+    /**
+     * The row as it was before the update, and the entity it was updated to.
+     */
+    void updated(E before, E after);
+
+    void deleted(E entity);
+}
@@ -12,38 +12,79 @@ package cs4347.jdbcGame.services.impl;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
 
 import javax.sql.DataSource;
 
 import cs4347.jdbcGame.dao.GameDAO;
 import cs4347.jdbcGame.dao.impl.GameDAOImpl;
+import cs4347.jdbcGame.dao.memory.SqlLike;
 import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.index.GameCatalog;
+import cs4347.jdbcGame.index.TextIndex;
 import cs4347.jdbcGame.services.GameService;
 import cs4347.jdbcGame.util.DAOException;
 
 public class GameServiceImpl implements GameService
 {
+    /**
+     * Most games search() returns per OR clause when there is no catalog.
+     */
+    public static final int SEARCH_LIMIT = 1000;
 
-    private DataSource dataSource;
+    /**
+     * Games read per query while search() pages through substring matches.
+     */
+    public static final int SEARCH_PAGE = 1000;
+
+    private final DataSource dataSource;
+    private final GameDAO gameDAO;
+    private final GameCatalog catalog;
 
     public GameServiceImpl(DataSource dataSource)
+    {
+        this(dataSource, new GameDAOImpl());
+    }
+
+    /**
+     * Uses the given DAO instead of the JDBC implementation, e.g. an instrumented
+     * or in-memory one. The DAO is shared by all calls and must be thread-safe.
+     */
+    public GameServiceImpl(DataSource dataSource, GameDAO gameDAO)
+    {
+        this(dataSource, gameDAO, null);
+    }
+
+    /**
+     * Also keeps the given catalog current after each committed write and
+     * answers retrieveByTitle() and retrieveByReleaseDate() from it. The
+     * catalog must already be loaded.
+     */
+    public GameServiceImpl(DataSource dataSource, GameDAO gameDAO, GameCatalog catalog)
     {
         this.dataSource = dataSource;
+        this.gameDAO = gameDAO;
+        this.catalog = catalog;
     }
 
     @Override
     public Game create(Game game) throws DAOException, SQLException
     {
-        GameDAO gameDAO = new GameDAOImpl();
-        
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
         	Game gameService = gameDAO.create(connection, game);
         	
         	connection.commit();
+        	if (catalog != null) {
+        		catalog.saved(gameService);
+        	}
         	return gameService;
         } 
         catch (Exception ex) {
@@ -64,8 +105,6 @@ public class GameServiceImpl implements GameService
     @Override
     public Game retrieve(long gameID) throws DAOException, SQLException
     {
-        GameDAO gameDAO = new GameDAOImpl();
-        
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
@@ -91,14 +130,15 @@ public class GameServiceImpl implements GameService
     @Override
     public int update(Game game) throws DAOException, SQLException
     {
-        GameDAO gameDAO = new GameDAOImpl();
-        
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
         	int updateRes = gameDAO.update(connection, game);
         	
         	connection.commit();
+        	if (catalog != null && updateRes > 0) {
+        		catalog.saved(game);
+        	}
         	return updateRes;
         }
         catch (Exception ex) {
@@ -118,14 +158,15 @@ public class GameServiceImpl implements GameService
     @Override
     public int delete(long gameID) throws DAOException, SQLException
     {
-GameDAO gameDAO = new GameDAOImpl();
-        
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
         	int deleteRes = gameDAO.delete(connection, gameID);
         	
         	connection.commit();
+        	if (catalog != null && deleteRes > 0) {
+        		catalog.deleted(gameID);
+        	}
         	return deleteRes;
         }
         catch (Exception ex) {
@@ -145,8 +186,6 @@ GameDAO gameDAO = new GameDAOImpl();
     @Override
     public int count() throws DAOException, SQLException
     {
-    	GameDAO gameDAO = new GameDAOImpl();
-    	
         Connection connection = dataSource.getConnection();
         try{
 			connection.setAutoCommit(false);
@@ -172,8 +211,15 @@ GameDAO gameDAO = new GameDAOImpl();
     @Override
     public List<Game> retrieveByTitle(String titlePattern) throws DAOException, SQLException
     {
-        GameDAO gameDAO = new GameDAOImpl();
-        
+        return retrieveByTitle(titlePattern, false);
+    }
+
+    @Override
+    public List<Game> retrieveByTitle(String titlePattern, boolean fromDatabase) throws DAOException, SQLException
+    {
+        if (catalog != null && !fromDatabase) {
+            return catalog.retrieveByTitle(titlePattern);
+        }
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
@@ -199,8 +245,9 @@ GameDAO gameDAO = new GameDAOImpl();
     @Override
     public List<Game> retrieveByReleaseDate(Date start, Date end) throws DAOException, SQLException
     {
-    	GameDAO gameDAO = new GameDAOImpl();
-        
+        if (catalog != null) {
+            return catalog.retrieveByReleaseDate(start, end);
+        }
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
@@ -223,6 +270,74 @@ GameDAO gameDAO = new GameDAOImpl();
 		}
     }
 
-}
+    @Override
+    public List<String> autocomplete(String prefix, int k) throws DAOException, SQLException
+    {
+        if (catalog != null) {
+            return catalog.getAutocomplete().suggest(prefix, k);
+        }
+        List<Game> games = retrieveByTitle(SqlLike.escape(prefix) + "%", true);
+        games.sort(Comparator.comparing(Game::getTitle, String.CASE_INSENSITIVE_ORDER));
+        List<String> result = new ArrayList<String>();
+        for (int idx = 0; idx < games.size() && idx < k; idx++) {
+            result.add(games.get(idx).getTitle());
+        }
+        return result;
+    }
 
+    @Override
+    public List<Game> search(String query) throws DAOException, SQLException
+    {
+        if (catalog != null) {
+            return catalog.search(query);
+        }
+        List<List<String>> clauses = TextIndex.parse(query);
+        if (clauses.isEmpty()) {
+            return new ArrayList<Game>();
+        }
+        // Without a catalog each OR clause is read as LIKE matches in pages,
+        // keeping the whole-word matches until SEARCH_LIMIT are found.
+        TreeMap<Long, Game> games = new TreeMap<Long, Game>();
+        Connection connection = dataSource.getConnection();
+        try {
+        	connection.setAutoCommit(false);
+        	for (List<String> clause : clauses) {
+        		int found = 0;
+        		long afterID = 0;
+        		List<Game> page;
+        		do {
+        			page = gameDAO.retrieveByWords(connection, clause, afterID, SEARCH_PAGE);
+        			for (Game game : page) {
+        				afterID = game.getId();
+        				if (found < SEARCH_LIMIT && hasAllWords(game, clause)) {
+        					games.put(game.getId(), game);
+        					found++;
+        				}
+        			}
+        		} while (page.size() == SEARCH_PAGE && found < SEARCH_LIMIT);
+        	}
+        	connection.commit();
+        }
+        catch (Exception ex){
+			connection.rollback();
+			throw ex;
+		}
+		finally{
+			if (connection != null) {
+                connection.setAutoCommit(true);
+            }
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
+            }
+		}
+        return new ArrayList<Game>(games.values());
+    }
+
+    private static boolean hasAllWords(Game game, List<String> terms)
+    {
+        Set<String> words = new HashSet<String>(TextIndex.tokenize(game.getTitle()));
+        words.addAll(TextIndex.tokenize(game.getDescription()));
+        return words.containsAll(terms);
+    }
 
+}
@@ -12,36 +12,86 @@ package cs4347.jdbcGame.services.impl;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.sql.DataSource;
 
 import cs4347.jdbcGame.dao.GamesOwnedDAO;
 import cs4347.jdbcGame.dao.impl.GamesOwnedDAOImpl;
 import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.index.OwnershipIndex;
+import cs4347.jdbcGame.index.PairBloomFilter;
 import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.WriteListener;
 import cs4347.jdbcGame.util.DAOException;
 
 public class GamesOwnedServiceImpl implements GamesOwnedService
 {
-	private DataSource dataSource;
+	private final DataSource dataSource;
+	private final GamesOwnedDAO gamesOwnedDAO;
+	private final OwnershipIndex ownership;
+	private final PairBloomFilter pairFilter;
+	private final List<WriteListener<GamesOwned>> listeners = new CopyOnWriteArrayList<WriteListener<GamesOwned>>();
 
 	public GamesOwnedServiceImpl(DataSource dataSource)
+	{
+		this(dataSource, new GamesOwnedDAOImpl());
+	}
+
+	/**
+	 * Uses the given DAO instead of the JDBC implementation, e.g. an instrumented
+	 * or in-memory one. The DAO is shared by all calls and must be thread-safe.
+	 */
+	public GamesOwnedServiceImpl(DataSource dataSource, GamesOwnedDAO gamesOwnedDAO)
+	{
+		this(dataSource, gamesOwnedDAO, null, null);
+	}
+
+	/**
+	 * Also keeps the given indexes current after each committed write. Either
+	 * may be null. The ownership index answers owns() and countOwners(), and
+	 * retrievePlayerGameID() skips the database for pairs that the index or
+	 * the filter rules out. Both must already be loaded.
+	 */
+	public GamesOwnedServiceImpl(DataSource dataSource, GamesOwnedDAO gamesOwnedDAO, OwnershipIndex ownership,
+			PairBloomFilter pairFilter)
 	{
 		this.dataSource = dataSource;
+		this.gamesOwnedDAO = gamesOwnedDAO;
+		this.ownership = ownership;
+		this.pairFilter = pairFilter;
+		if (ownership != null) {
+			listeners.add(ownership.listener());
+		}
+		if (pairFilter != null) {
+			listeners.add(pairFilter.ownedListener());
+		}
+	}
+
+	/**
+	 * Registers a listener for committed writes. While any listener is registered,
+	 * update and delete first read the row so that the listener gets it.
+	 */
+	public void addListener(WriteListener<GamesOwned> listener)
+	{
+		listeners.add(listener);
 	}
 
 	@Override
 	public GamesOwned create(GamesOwned gamesOwned) throws DAOException, SQLException
 	{      
-		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-
 		Connection connection = dataSource.getConnection();
 		try {
 			connection.setAutoCommit(false);
 			GamesOwned gamesOwnedService = gamesOwnedDAO.create(connection, gamesOwned);
 
 			connection.commit();
+			for (WriteListener<GamesOwned> listener : listeners) {
+				listener.created(gamesOwnedService);
+			}
 			return gamesOwnedService;
 		} catch (Exception ex) {
 			connection.rollback();
@@ -59,8 +109,6 @@ public class GamesOwnedServiceImpl implements GamesOwnedService
 	@Override
 	public GamesOwned retrieveByID(long gamesOwnedID) throws DAOException, SQLException
 	{
-		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-
 		Connection connection = dataSource.getConnection();
 		try {
 			connection.setAutoCommit(false);
@@ -84,14 +132,21 @@ public class GamesOwnedServiceImpl implements GamesOwnedService
 	@Override
 	public GamesOwned retrievePlayerGameID(long playerID, long gameID) throws DAOException, SQLException
 	{
-		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-
+		if (ownership != null && !ownership.owns(playerID, gameID)) {
+			return null;
+		}
+		if (pairFilter != null && !pairFilter.mightContain(playerID, gameID)) {
+			return null;
+		}
 		Connection connection = dataSource.getConnection();
 		try {
 			connection.setAutoCommit(false);
 			GamesOwned gamesOwnedService = gamesOwnedDAO.retrievePlayerGameID(connection, playerID, gameID);
 
 			connection.commit();
+			if (pairFilter != null && gamesOwnedService == null) {
+				pairFilter.recordFalsePositive();
+			}
 			return gamesOwnedService;
 		} catch (Exception ex) {
 			connection.rollback();
@@ -109,8 +164,6 @@ public class GamesOwnedServiceImpl implements GamesOwnedService
 	@Override
 	public List<GamesOwned> retrieveByGame(long gameID) throws DAOException, SQLException
 	{
-		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-
 		Connection connection = dataSource.getConnection();
 		try {
 			connection.setAutoCommit(false);
@@ -134,8 +187,6 @@ public class GamesOwnedServiceImpl implements GamesOwnedService
 	@Override
 	public List<GamesOwned> retrieveByPlayer(long playerID) throws DAOException, SQLException
 	{
-		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-
 		Connection connection = dataSource.getConnection();
 		try {
 			connection.setAutoCommit(false);
@@ -159,14 +210,19 @@ public class GamesOwnedServiceImpl implements GamesOwnedService
 	@Override
 	public int update(GamesOwned gamesOwned) throws DAOException, SQLException
 	{
-		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-
 		Connection connection = dataSource.getConnection();
 		try {
 			connection.setAutoCommit(false);
+			GamesOwned before = listeners.isEmpty() || gamesOwned.getId() == null ? null
+					: gamesOwnedDAO.retrieveID(connection, gamesOwned.getId());
 			int updateRes = gamesOwnedDAO.update(connection, gamesOwned);
 
 			connection.commit();
+			if (before != null && updateRes > 0) {
+				for (WriteListener<GamesOwned> listener : listeners) {
+					listener.updated(before, gamesOwned);
+				}
+			}
 			return updateRes;
 		} catch (Exception ex) {
 			connection.rollback();
@@ -184,14 +240,18 @@ public class GamesOwnedServiceImpl implements GamesOwnedService
 	@Override
 	public int delete(long gameOwnedID) throws DAOException, SQLException
 	{
-		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-
 		Connection connection = dataSource.getConnection();
 		try {
 			connection.setAutoCommit(false);
+			GamesOwned before = listeners.isEmpty() ? null : gamesOwnedDAO.retrieveID(connection, gameOwnedID);
 			int deleteRes = gamesOwnedDAO.delete(connection, gameOwnedID);
 
 			connection.commit();
+			if (before != null && deleteRes > 0) {
+				for (WriteListener<GamesOwned> listener : listeners) {
+					listener.deleted(before);
+				}
+			}
 			return deleteRes;
 		} catch (Exception ex) {
 			connection.rollback();
@@ -209,8 +269,6 @@ public class GamesOwnedServiceImpl implements GamesOwnedService
 	@Override
 	public int count() throws DAOException, SQLException
 	{
-		GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-
 		Connection connection = dataSource.getConnection();
 		try {
 			connection.setAutoCommit(false);
@@ -231,4 +289,26 @@ public class GamesOwnedServiceImpl implements GamesOwnedService
 		}
 	}
 
+	@Override
+	public boolean owns(long playerID, long gameID) throws DAOException, SQLException
+	{
+		if (ownership != null) {
+			return ownership.owns(playerID, gameID);
+		}
+		return retrievePlayerGameID(playerID, gameID) != null;
+	}
+
+	@Override
+	public int countOwners(long gameID) throws DAOException, SQLException
+	{
+		if (ownership != null) {
+			return ownership.countOwners(gameID);
+		}
+		Set<Long> players = new HashSet<Long>();
+		for (GamesOwned gamesOwned : retrieveByGame(gameID)) {
+			players.add(gamesOwned.getPlayerID());
+		}
+		return players.size();
+	}
+
 }
@@ -12,36 +12,92 @@ package cs4347.jdbcGame.services.impl;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.sql.DataSource;
 
+import cs4347.jdbcGame.analytics.ScorePercentiles;
 import cs4347.jdbcGame.dao.GamesPlayedDAO;
 import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.index.PairBloomFilter;
+import cs4347.jdbcGame.index.UniquePlayersIndex;
 import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.WriteListener;
 import cs4347.jdbcGame.util.DAOException;
 
 public class GamesPlayedServiceImpl implements GamesPlayedService
 {
-    private DataSource dataSource;
+    private final DataSource dataSource;
+    private final GamesPlayedDAO gamesPlayedDAO;
+    private final PairBloomFilter pairFilter;
+    private final UniquePlayersIndex uniquePlayers;
+    private final ScorePercentiles scorePercentiles;
+    private final List<WriteListener<GamesPlayed>> listeners = new CopyOnWriteArrayList<WriteListener<GamesPlayed>>();
 
     public GamesPlayedServiceImpl(DataSource dataSource)
+    {
+        this(dataSource, new GamesPlayedDAOImpl());
+    }
+
+    /**
+     * Uses the given DAO instead of the JDBC implementation, e.g. an instrumented
+     * or in-memory one. The DAO is shared by all calls and must be thread-safe.
+     */
+    public GamesPlayedServiceImpl(DataSource dataSource, GamesPlayedDAO gamesPlayedDAO)
+    {
+        this(dataSource, gamesPlayedDAO, null, null, null);
+    }
+
+    /**
+     * Also keeps the given indexes current after each committed write. Any
+     * of them may be null. retrieveByPlayerGameID() skips the database for
+     * pairs the filter rules out, countUniquePlayers() is answered from the
+     * sketches and scorePercentiles() from the digests. All must already be
+     * built.
+     */
+    public GamesPlayedServiceImpl(DataSource dataSource, GamesPlayedDAO gamesPlayedDAO, PairBloomFilter pairFilter,
+            UniquePlayersIndex uniquePlayers, ScorePercentiles scorePercentiles)
     {
         this.dataSource = dataSource;
+        this.gamesPlayedDAO = gamesPlayedDAO;
+        this.pairFilter = pairFilter;
+        this.uniquePlayers = uniquePlayers;
+        this.scorePercentiles = scorePercentiles;
+        if (pairFilter != null) {
+            listeners.add(pairFilter.playedListener());
+        }
+        if (uniquePlayers != null) {
+            listeners.add(uniquePlayers.listener());
+        }
+        if (scorePercentiles != null) {
+            listeners.add(scorePercentiles.listener());
+        }
+    }
+
+    /**
+     * Registers a listener for committed writes. While any listener is registered,
+     * update and delete first read the row so that the listener gets it.
+     */
+    public void addListener(WriteListener<GamesPlayed> listener)
+    {
+        listeners.add(listener);
     }
 
     @Override	
     public GamesPlayed create(GamesPlayed gamesPlayed) throws DAOException, SQLException
     {
-    	GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
-        
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
         	GamesPlayed gamesPlayedService = gamesPlayedDAO.create(connection, gamesPlayed);
         	
         	connection.commit();
+        	for (WriteListener<GamesPlayed> listener : listeners) {
+        	    listener.created(gamesPlayedService);
+        	}
         	return gamesPlayedService;
         } 
         catch (Exception ex) {
@@ -61,8 +117,6 @@ public class GamesPlayedServiceImpl implements GamesPlayedService
     @Override
     public GamesPlayed retrieveByID(long gamePlayedID) throws DAOException, SQLException
     {
-    	GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
-        
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
@@ -88,14 +142,18 @@ public class GamesPlayedServiceImpl implements GamesPlayedService
     @Override
     public List<GamesPlayed> retrieveByPlayerGameID(long playerID, long gameID) throws DAOException, SQLException
     {
-    	GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
-        
+        if (pairFilter != null && !pairFilter.mightContain(playerID, gameID)) {
+            return new ArrayList<GamesPlayed>();
+        }
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
         	List<GamesPlayed> gamesPlayedList = gamesPlayedDAO.retrieveByPlayerGameID(connection, playerID, gameID);
         	
         	connection.commit();
+        	if (pairFilter != null && gamesPlayedList.isEmpty()) {
+        		pairFilter.recordFalsePositive();
+        	}
         	return gamesPlayedList;
         }
         catch (Exception ex){
@@ -115,8 +173,6 @@ public class GamesPlayedServiceImpl implements GamesPlayedService
     @Override
     public List<GamesPlayed> retrieveByGame(long gameID) throws DAOException, SQLException
     {
-    	GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
-        
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
@@ -142,8 +198,6 @@ public class GamesPlayedServiceImpl implements GamesPlayedService
     @Override
     public List<GamesPlayed> retrieveByPlayer(long playerID) throws DAOException, SQLException
     {
-    	GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
-        
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
@@ -169,14 +223,19 @@ public class GamesPlayedServiceImpl implements GamesPlayedService
     @Override
     public int update(GamesPlayed gamesPlayed) throws DAOException, SQLException
     {
-    	GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
-        
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
+        	GamesPlayed before = listeners.isEmpty() || gamesPlayed.getId() == null ? null
+        	        : gamesPlayedDAO.retrieveID(connection, gamesPlayed.getId());
         	int updateRes = gamesPlayedDAO.update(connection, gamesPlayed);
         	
         	connection.commit();
+        	if (before != null && updateRes > 0) {
+        	    for (WriteListener<GamesPlayed> listener : listeners) {
+        	        listener.updated(before, gamesPlayed);
+        	    }
+        	}
         	return updateRes;
         }
         catch (Exception ex) {
@@ -196,14 +255,18 @@ public class GamesPlayedServiceImpl implements GamesPlayedService
     @Override
     public int delete(long gamePlayedID) throws DAOException, SQLException
     {
-    	GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
-        
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
+        	GamesPlayed before = listeners.isEmpty() ? null : gamesPlayedDAO.retrieveID(connection, gamePlayedID);
         	int deleteRes = gamesPlayedDAO.delete(connection, gamePlayedID);
         	
         	connection.commit();
+        	if (before != null && deleteRes > 0) {
+        	    for (WriteListener<GamesPlayed> listener : listeners) {
+        	        listener.deleted(before);
+        	    }
+        	}
         	return deleteRes;
         }
         catch (Exception ex) {
@@ -223,8 +286,6 @@ public class GamesPlayedServiceImpl implements GamesPlayedService
     @Override
     public int count() throws DAOException, SQLException
     {
-    	GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
-    	
         Connection connection = dataSource.getConnection();
         try{
 			connection.setAutoCommit(false);
@@ -246,4 +307,66 @@ public class GamesPlayedServiceImpl implements GamesPlayedService
             }
 		}
     }
+
+    @Override
+    public long countUniquePlayers(long gameID) throws DAOException, SQLException
+    {
+        return countUniquePlayers(gameID, false);
+    }
+
+    @Override
+    public long countUniquePlayers(long gameID, boolean exact) throws DAOException, SQLException
+    {
+        if (uniquePlayers != null && !exact) {
+            return uniquePlayers.uniquePlayers(gameID);
+        }
+        Connection connection = dataSource.getConnection();
+        try {
+        	connection.setAutoCommit(false);
+        	long count = UniquePlayersIndex.exactUniquePlayers(connection, gamesPlayedDAO, gameID);
+
+        	connection.commit();
+        	return count;
+        }
+        catch (Exception ex){
+			connection.rollback();
+			throw ex;
+		}
+		finally{
+			if (connection != null) {
+                connection.setAutoCommit(true);
+            }
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
+            }
+		}
+    }
+
+    @Override
+    public double[] scorePercentiles(long gameID, double... quantiles) throws DAOException, SQLException
+    {
+        if (scorePercentiles != null) {
+            return scorePercentiles.quantiles(gameID, quantiles);
+        }
+        Connection connection = dataSource.getConnection();
+        try {
+        	connection.setAutoCommit(false);
+        	double[] result = ScorePercentiles.exactQuantiles(connection, gamesPlayedDAO, gameID, quantiles);
+
+        	connection.commit();
+        	return result;
+        }
+        catch (Exception ex){
+			connection.rollback();
+			throw ex;
+		}
+		finally{
+			if (connection != null) {
+                connection.setAutoCommit(true);
+            }
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
+            }
+		}
+    }
 }
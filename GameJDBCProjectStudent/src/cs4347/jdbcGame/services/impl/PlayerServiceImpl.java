@@ -24,16 +24,41 @@ import cs4347.jdbcGame.dao.impl.CreditCardDAOImpl;
 import cs4347.jdbcGame.dao.impl.PlayerDAOImpl;
 import cs4347.jdbcGame.entity.CreditCard;
 import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.index.PlayerCatalog;
 import cs4347.jdbcGame.services.PlayerService;
 import cs4347.jdbcGame.util.DAOException;
 
 public class PlayerServiceImpl implements PlayerService
 {
-    private DataSource dataSource;
+    private final DataSource dataSource;
+    private final PlayerDAO playerDAO;
+    private final CreditCardDAO ccDAO;
+    private final PlayerCatalog catalog;
 
     public PlayerServiceImpl(DataSource dataSource)
+    {
+        this(dataSource, new PlayerDAOImpl(), new CreditCardDAOImpl());
+    }
+
+    /**
+     * Uses the given DAOs instead of the JDBC implementations, e.g. instrumented
+     * or in-memory ones. The DAOs are shared by all calls and must be thread-safe.
+     */
+    public PlayerServiceImpl(DataSource dataSource, PlayerDAO playerDAO, CreditCardDAO ccDAO)
+    {
+        this(dataSource, playerDAO, ccDAO, null);
+    }
+
+    /**
+     * Also keeps the given catalog current after each committed write and
+     * answers retrieveByJoinDate() from it. The catalog must already be loaded.
+     */
+    public PlayerServiceImpl(DataSource dataSource, PlayerDAO playerDAO, CreditCardDAO ccDAO, PlayerCatalog catalog)
     {
         this.dataSource = dataSource;
+        this.playerDAO = playerDAO;
+        this.ccDAO = ccDAO;
+        this.catalog = catalog;
     }
 
     @Override
@@ -43,9 +68,6 @@ public class PlayerServiceImpl implements PlayerService
             throw new DAOException("Player must have at lease one CreditCard");
         }
 
-        PlayerDAO playerDAO = new PlayerDAOImpl();
-        CreditCardDAO ccDAO = new CreditCardDAOImpl();
-
         Connection connection = dataSource.getConnection();
         try {
             connection.setAutoCommit(false);
@@ -56,6 +78,9 @@ public class PlayerServiceImpl implements PlayerService
                 ccDAO.create(connection, creditCard, playerID);
             }
             connection.commit();
+            if (catalog != null) {
+                catalog.saved(playa);
+            }
             return playa;
         } catch (Exception ex) {
             connection.rollback();
@@ -75,9 +100,6 @@ public class PlayerServiceImpl implements PlayerService
     public Player retrieve(Long playerID) throws DAOException, SQLException
     {    	
     	
-    	PlayerDAO playerDAO = new PlayerDAOImpl();
-        CreditCardDAO ccDAO = new CreditCardDAOImpl();
-        
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
@@ -108,9 +130,6 @@ public class PlayerServiceImpl implements PlayerService
     @Override
     public int update(Player player) throws DAOException, SQLException
     {
-    	PlayerDAO playerDAO = new PlayerDAOImpl();
-        CreditCardDAO ccDAO = new CreditCardDAOImpl();
-        
         Connection connection = dataSource.getConnection();
         try {
         	connection.setAutoCommit(false);
@@ -128,6 +147,9 @@ public class PlayerServiceImpl implements PlayerService
             }
         	
             connection.commit();
+            if (catalog != null && updateRes > 0) {
+                catalog.saved(player);
+            }
 			return updateRes;	
         } catch (Exception ex) {
         	connection.rollback();
@@ -146,9 +168,6 @@ public class PlayerServiceImpl implements PlayerService
     @Override
     public int delete(Long playerID) throws DAOException, SQLException
     {
-    	PlayerDAO playerDAO = new PlayerDAOImpl();
-        CreditCardDAO ccDAO = new CreditCardDAOImpl();
-        
         Connection connection = dataSource.getConnection();
         try{
 			connection.setAutoCommit(false);
@@ -156,6 +175,9 @@ public class PlayerServiceImpl implements PlayerService
         	int delRes = playerDAO.delete(connection, playerID);
         	
         	connection.commit();
+        	if (catalog != null && delRes > 0) {
+        		catalog.deleted(playerID);
+        	}
 			return delRes;			
 		}
 		catch (Exception ex){
@@ -175,8 +197,6 @@ public class PlayerServiceImpl implements PlayerService
     @Override
     public int count() throws DAOException, SQLException
     {
-    	PlayerDAO playerDAO = new PlayerDAOImpl();
-    	
         Connection connection = dataSource.getConnection();
         try{
 			connection.setAutoCommit(false);
@@ -202,8 +222,12 @@ public class PlayerServiceImpl implements PlayerService
     @Override
     public List<Player> retrieveByJoinDate(Date start, Date end) throws DAOException, SQLException
     {
-    	PlayerDAO playerDAO = new PlayerDAOImpl();
-
+		if (catalog != null) {
+			if (start == null || end == null) {
+				throw new DAOException("Trying to retrieve players with NULL dob");
+			}
+			return catalog.retrieveByJoinDate(start, end);
+		}
 		Connection connection = dataSource.getConnection();
 		try{
 			connection.setAutoCommit(false);
@@ -231,8 +255,6 @@ public class PlayerServiceImpl implements PlayerService
     @Override
     public int countCreditCardsForPlayer(Long playerID) throws DAOException, SQLException
     {
-        CreditCardDAO ccDAO = new CreditCardDAOImpl();
-
         Connection connection = dataSource.getConnection();
         try{
 			connection.setAutoCommit(false);       	      	
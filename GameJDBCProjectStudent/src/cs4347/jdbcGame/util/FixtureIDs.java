@@ -0,0 +1,174 @@
+/* NOTICE: All materials provided by this project, and materials derived
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+/**
+ * Reference player and game IDs for tests, loaded once per DataSource with the
+ * bounded TestingUtil queries (the lowest MAX_CACHED IDs of each table) and kept in
+ * primitive arrays. Hands out sequential, round-robin or random IDs without
+ * touching the database again, so test setup does not grow with table size.
+ * 
+ * The cached IDs are the populated reference rows; tests must not delete them.
+ */
+public class FixtureIDs
+{
+    public static final int MAX_CACHED = 1000;
+
+    private static final ConcurrentMap<DataSource, FixtureIDs> cache = new ConcurrentHashMap<DataSource, FixtureIDs>();
+
+    private final long[] playerIDs;
+    private final long[] gameIDs;
+    private final AtomicInteger nextPlayer = new AtomicInteger();
+    private final AtomicInteger nextGame = new AtomicInteger();
+
+    private FixtureIDs(long[] playerIDs, long[] gameIDs)
+    {
+        this.playerIDs = playerIDs;
+        this.gameIDs = gameIDs;
+    }
+
+    /**
+     * Returns the fixture IDs of the given DataSource, loading them on first use.
+     */
+    public static FixtureIDs forDataSource(DataSource ds) throws Exception
+    {
+        FixtureIDs fixtures = cache.get(ds);
+        if (fixtures != null) {
+            return fixtures;
+        }
+        synchronized (cache) {
+            fixtures = cache.get(ds);
+            if (fixtures == null) {
+                Connection connection = ds.getConnection();
+                try {
+                    fixtures = new FixtureIDs(selectIDs(connection, TestingUtil.selectPlayerIDs, MAX_CACHED),
+                            selectIDs(connection, TestingUtil.selectGameIDs, MAX_CACHED));
+                }
+                finally {
+                    connection.close();
+                }
+                cache.put(ds, fixtures);
+            }
+            return fixtures;
+        }
+    }
+
+    /**
+     * Drops the cached IDs of the given DataSource, e.g. after reloading it.
+     */
+    public static void invalidate(DataSource ds)
+    {
+        cache.remove(ds);
+    }
+
+    /**
+     * Runs one of the ID queries with the given row limit.
+     */
+    static long[] selectIDs(Connection connection, String sql, int limit) throws Exception
+    {
+        PreparedStatement ps = null;
+        try {
+            ps = connection.prepareStatement(sql);
+            ps.setInt(1, limit);
+            ResultSet rs = ps.executeQuery();
+            long[] ids = new long[Math.min(limit, 64)];
+            int count = 0;
+            while (rs.next()) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, Math.min(limit, count * 2));
+                }
+                ids[count++] = rs.getLong(1);
+            }
+            return count == ids.length ? ids : Arrays.copyOf(ids, count);
+        }
+        finally {
+            if (ps != null && !ps.isClosed()) {
+                ps.close();
+            }
+        }
+    }
+
+    public int playerCount()
+    {
+        return playerIDs.length;
+    }
+
+    public int gameCount()
+    {
+        return gameIDs.length;
+    }
+
+    /**
+     * The idx-th lowest player ID.
+     */
+    public long playerID(int idx)
+    {
+        if (idx < 0 || idx >= playerIDs.length) {
+            throw new IndexOutOfBoundsException("No fixture player " + idx + " of " + playerIDs.length);
+        }
+        return playerIDs[idx];
+    }
+
+    public long gameID(int idx)
+    {
+        if (idx < 0 || idx >= gameIDs.length) {
+            throw new IndexOutOfBoundsException("No fixture game " + idx + " of " + gameIDs.length);
+        }
+        return gameIDs[idx];
+    }
+
+    /**
+     * Player IDs in round-robin order, so repeated calls spread over the fixtures.
+     */
+    public long nextPlayerID()
+    {
+        return playerID(Math.floorMod(nextPlayer.getAndIncrement(), playerIDs.length));
+    }
+
+    public long nextGameID()
+    {
+        return gameID(Math.floorMod(nextGame.getAndIncrement(), gameIDs.length));
+    }
+
+    public long randomPlayerID()
+    {
+        return playerID(ThreadLocalRandom.current().nextInt(playerIDs.length));
+    }
+
+    public long randomGameID()
+    {
+        return gameID(ThreadLocalRandom.current().nextInt(gameIDs.length));
+    }
+
+    /**
+     * The first count player IDs, or null when fewer are cached.
+     */
+    long[] firstPlayerIDs(int count)
+    {
+        return count <= playerIDs.length ? Arrays.copyOf(playerIDs, count) : null;
+    }
+
+    long[] firstGameIDs(int count)
+    {
+        return count <= gameIDs.length ? Arrays.copyOf(gameIDs, count) : null;
+    }
+}
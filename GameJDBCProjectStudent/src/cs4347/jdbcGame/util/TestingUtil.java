@@ -13,7 +13,6 @@ package cs4347.jdbcGame.util;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -38,31 +37,21 @@ public class TestingUtil
         return ids.get(0);
     }
 
-    // This query retrieves all player IDs in the result set
-    // e.g. "select id from player"
-    static String selectPlayerIDs = "SELECT id FROM player;";
+    // This query retrieves the lowest player IDs, at most the given number
+    // e.g. "select id from player order by id limit ?"
+    static String selectPlayerIDs = "SELECT id FROM player ORDER BY id LIMIT ?";
 
     /**
-     * Return N current Player IDs for testing purposes.
+     * Return N current Player IDs for testing purposes. The IDs come from the
+     * FixtureIDs cache; only a count beyond it runs a query.
      */
     static public List<Long> getPlayerIDs(DataSource ds, int count) throws Exception
     {
-        Connection connection = ds.getConnection();
-        try {
-            Statement statement = connection.createStatement();
-            ResultSet rs = statement.executeQuery(selectPlayerIDs);
-            List<Long> result = new ArrayList<Long>();
-            for (int idx = 0; idx < count; idx++) {
-                rs.next();
-                Long id = rs.getLong(1);
-                result.add(id);
-            }
-            statement.close();
-            return result;
-        }
-        finally {
-            connection.close();
+        long[] ids = FixtureIDs.forDataSource(ds).firstPlayerIDs(count);
+        if (ids == null) {
+            ids = selectIDs(ds, selectPlayerIDs, count);
         }
+        return toList(ids, count, "players");
     }
 
     /**
@@ -74,33 +63,47 @@ public class TestingUtil
         return ids.get(0);
     }
 
-    // This query retrieves all game IDs in the result set
-    // e.g. "select id from game"
-    static String selectGameIDs = "SELECT id FROM game";
+    // This query retrieves the lowest game IDs, at most the given number
+    // e.g. "select id from game order by id limit ?"
+    static String selectGameIDs = "SELECT id FROM game ORDER BY id LIMIT ?";
 
     /**
-     * Return N current Game IDs for testing purposes.
+     * Return N current Game IDs for testing purposes. The IDs come from the
+     * FixtureIDs cache; only a count beyond it runs a query.
      */
     static public List<Long> getGameIDs(DataSource ds, int count) throws Exception
+    {
+        long[] ids = FixtureIDs.forDataSource(ds).firstGameIDs(count);
+        if (ids == null) {
+            ids = selectIDs(ds, selectGameIDs, count);
+        }
+        return toList(ids, count, "games");
+    }
+
+    private static long[] selectIDs(DataSource ds, String sql, int count) throws Exception
     {
         Connection connection = ds.getConnection();
         try {
-            Statement statement = connection.createStatement();
-            ResultSet rs = statement.executeQuery(selectGameIDs);
-            List<Long> result = new ArrayList<Long>();
-            for (int idx = 0; idx < count; idx++) {
-                rs.next();
-                Long id = rs.getLong(1);
-                result.add(id);
-            }
-            statement.close();
-            return result;
+            return FixtureIDs.selectIDs(connection, sql, count);
         }
         finally {
             connection.close();
         }
     }
 
+    private static List<Long> toList(long[] ids, int count, String table) throws DAOException
+    {
+        if (ids.length < count) {
+            throw new DAOException(
+                    "Only " + ids.length + " " + table + " available for testing, " + count + " requested");
+        }
+        List<Long> result = new ArrayList<Long>(count);
+        for (int idx = 0; idx < count; idx++) {
+            result.add(ids[idx]);
+        }
+        return result;
+    }
+
     // This query will return the distinct game IDs being played by the given player ID. 
     // e.g. "select distinct game_id from games_played where player_id = ?"
     static String selectDistinctPlayedGameIDs = "SELECT DISTINCT gameID from GamesPlayed WHERE playerID = ?;";
@@ -12,6 +12,8 @@
 
 package cs4347.jdbcGame.testing;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
@@ -19,6 +21,8 @@ import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.Date;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.sql.DataSource;
 
@@ -31,17 +35,101 @@ import org.apache.commons.dbcp2.BasicDataSource;
  * property file 'dbconfig.properties'. The property file must be located on the
  * application's CLASSPATH. See the configuration property file is loaded by the
  * method getPropertiesFromClasspath().
+ * 
+ * The system property cs4347.jdbcGame.dbconfig names another property file
+ * (a path or a classpath resource), and cs4347.jdbcGame.url, .id and .passwd
+ * override single values, e.g. to point the tests at a local database. With
+ * isolate=class (in the file or as cs4347.jdbcGame.isolate) every test class
+ * gets its own database built by TestSchema, so classes can run in parallel.
  */
 public class DataSourceManager
 {
 
     private static BasicDataSource singletonDS = null;
+    private static final ConcurrentMap<Class<?>, BasicDataSource> classDataSources =
+            new ConcurrentHashMap<Class<?>, BasicDataSource>();
+
+    /**
+     * Returns the shared DataSource, or with isolate=class the calling class's
+     * own DataSource.
+     */
+    public static DataSource getDataSource() throws IOException
+    {
+        if (isIsolatedPerClass()) {
+            return getDataSource(StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).getCallerClass());
+        }
+        return getSharedDataSource();
+    }
+
+    /**
+     * Returns the isolated DataSource of the given test class, creating and
+     * populating its database on first use.
+     */
+    public static DataSource getDataSource(Class<?> testClass) throws IOException
+    {
+        BasicDataSource ds = classDataSources.get(testClass);
+        if (ds != null) {
+            return ds;
+        }
+        synchronized (testClass) {
+            ds = classDataSources.get(testClass);
+            if (ds == null) {
+                Properties props = getProperties();
+                try {
+                    ds = TestSchema.create(props.getProperty("url"), props.getProperty("id"),
+                            props.getProperty("passwd"), testClass.getName());
+                } catch (Exception ex) {
+                    throw new IOException("Could not create test database for " + testClass.getName(), ex);
+                }
+                classDataSources.put(testClass, ds);
+            }
+            return ds;
+        }
+    }
 
-    public synchronized static DataSource getDataSource() throws IOException
+    private synchronized static DataSource getSharedDataSource() throws IOException
     {
         if (singletonDS == null) {
             System.out.println("Creating Datasource " + new Date());
+            Properties props = getProperties();
+
+            singletonDS = new BasicDataSource();
+            String url = props.getProperty("url");
+            if (url.startsWith(LatencyDriver.URL_PREFIX)) {
+                singletonDS.setDriverClassName(LatencyDriver.class.getName());
+            }
+            singletonDS.setUrl(url);
+            singletonDS.setUsername(props.getProperty("id"));
+            singletonDS.setPassword(props.getProperty("passwd"));
+        }
+        return singletonDS;
+    }
+
+    private static boolean isIsolatedPerClass() throws IOException
+    {
+        String isolate = System.getProperty("cs4347.jdbcGame.isolate");
+        if (isolate == null) {
+            isolate = getProperties().getProperty("isolate");
+        }
+        return "class".equals(isolate);
+    }
+
+    private static Properties config = null;
+
+    /**
+     * The validated connection parameters with system property overrides
+     * applied. An empty passwd is allowed for local databases.
+     */
+    private synchronized static Properties getProperties() throws IOException
+    {
+        if (config == null) {
             Properties props = getPropertiesFromClasspath();
+            for (String key : new String[] { "url", "id", "passwd", "isolate" }) {
+                String override = System.getProperty("cs4347.jdbcGame." + key);
+                if (override != null) {
+                    props.setProperty(key, override);
+                }
+            }
 
             String url = props.getProperty("url");
             if (url == null || url.isEmpty()) {
@@ -54,31 +142,36 @@ public class DataSourceManager
             }
 
             String passwd = props.getProperty("passwd");
-            if (passwd == null || passwd.isEmpty()) {
+            if (passwd == null) {
                 throw new RuntimeException("property 'passwd' not found in configuration file");
             }
-
-            singletonDS = new BasicDataSource();
-            singletonDS.setUrl(url);
-            singletonDS.setUsername(id);
-            singletonDS.setPassword(passwd);
+            config = props;
         }
-        return singletonDS;
+        return config;
     }
 
     private static final String propFileName = "dbconfig.properties";
 
     public static Properties getPropertiesFromClasspath() throws IOException
     {
-        // Load dbconfig.properties from the classpath
+        // Load dbconfig.properties, or the file named by cs4347.jdbcGame.dbconfig, from the classpath
+        String fileName = System.getProperty("cs4347.jdbcGame.dbconfig", propFileName);
         Properties props = new Properties();
-        InputStream inputStream = DataSourceManager.class.getClassLoader().getResourceAsStream(propFileName);
+        InputStream inputStream = DataSourceManager.class.getClassLoader().getResourceAsStream(fileName);
+        if (inputStream == null && new File(fileName).isFile()) {
+            inputStream = new FileInputStream(fileName);
+        }
 
         if (inputStream == null) {
-            throw new RuntimeException("property file '" + propFileName + "' not found in the classpath");
+            throw new RuntimeException("property file '" + fileName + "' not found in the classpath");
         }
 
-        props.load(inputStream);
+        try {
+            props.load(inputStream);
+        }
+        finally {
+            inputStream.close();
+        }
 
         return props;
     }
@@ -0,0 +1,226 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+package cs4347.jdbcGame.testing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * JDBC driver that wraps another driver and adds a simulated network round
+ * trip to every statement execute, commit, rollback and setAutoCommit. Used
+ * to benchmark against a local database with the round-trip cost of the
+ * remote production server.
+ * 
+ * URL format: jdbc:latency:&lt;latencyMicros&gt;[/&lt;jitterMicros&gt;]:&lt;delegate URL&gt;
+ * 
+ * <pre>
+ * jdbc:latency:800/200:jdbc:mysql://localhost:3306/cs4347_game
+ * </pre>
+ * 
+ * adds 800 +/- 200 microseconds per round trip (uniform jitter). The driver
+ * registers itself with DriverManager when the class is loaded; DataSourceManager
+ * loads it for urls with this prefix.
+ */
+public class LatencyDriver implements Driver
+{
+    public static final String URL_PREFIX = "jdbc:latency:";
+
+    private static final LongAdder roundTrips = new LongAdder();
+    private static final LongAdder injectedNanos = new LongAdder();
+
+    static {
+        try {
+            DriverManager.registerDriver(new LatencyDriver());
+        } catch (SQLException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    @Override
+    public boolean acceptsURL(String url)
+    {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException
+    {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        int split = url.indexOf(':', URL_PREFIX.length());
+        if (split < 0) {
+            throw new SQLException("Missing delegate URL: " + url);
+        }
+        String latencySpec = url.substring(URL_PREFIX.length(), split);
+        String delegateURL = url.substring(split + 1);
+        long latencyNanos;
+        long jitterNanos = 0;
+        try {
+            int slash = latencySpec.indexOf('/');
+            if (slash < 0) {
+                latencyNanos = TimeUnit.MICROSECONDS.toNanos(Long.parseLong(latencySpec));
+            }
+            else {
+                latencyNanos = TimeUnit.MICROSECONDS.toNanos(Long.parseLong(latencySpec.substring(0, slash)));
+                jitterNanos = TimeUnit.MICROSECONDS.toNanos(Long.parseLong(latencySpec.substring(slash + 1)));
+            }
+        } catch (NumberFormatException ex) {
+            throw new SQLException("Invalid latency in URL: " + url);
+        }
+        if (latencyNanos < 0 || jitterNanos < 0) {
+            throw new SQLException("Invalid latency in URL: " + url);
+        }
+
+        Connection delegate = DriverManager.getConnection(delegateURL, info);
+        return (Connection) proxy(Connection.class, new Handler(delegate, latencyNanos, jitterNanos));
+    }
+
+    /**
+     * Number of round trips delayed by all LatencyDriver connections.
+     */
+    public static long getRoundTrips()
+    {
+        return roundTrips.sum();
+    }
+
+    /**
+     * Total delay added by all LatencyDriver connections.
+     */
+    public static long getInjectedNanos()
+    {
+        return injectedNanos.sum();
+    }
+
+    public static void reset()
+    {
+        roundTrips.reset();
+        injectedNanos.reset();
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info)
+    {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion()
+    {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion()
+    {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant()
+    {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException
+    {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    private static Object proxy(Class<?> iface, InvocationHandler handler)
+    {
+        return Proxy.newProxyInstance(LatencyDriver.class.getClassLoader(), new Class<?>[] { iface }, handler);
+    }
+
+    /**
+     * Wraps a Connection and the statements it creates. Statements share the
+     * connection's latency settings.
+     */
+    private static class Handler implements InvocationHandler
+    {
+        private final Object target;
+        private final long latencyNanos;
+        private final long jitterNanos;
+
+        Handler(Object target, long latencyNanos, long jitterNanos)
+        {
+            this.target = target;
+            this.latencyNanos = latencyNanos;
+            this.jitterNanos = jitterNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            String name = method.getName();
+            if (name.startsWith("execute") || name.equals("commit") || name.equals("rollback")
+                    || name.equals("setAutoCommit")) {
+                delay();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+            if (result instanceof Statement) {
+                Class<?> iface = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return proxy(iface, new Handler(result, latencyNanos, jitterNanos));
+            }
+            return result;
+        }
+
+        /**
+         * Parks until the deadline. Thread.sleep() rounds to milliseconds,
+         * which is far coarser than a LAN round trip.
+         */
+        private void delay()
+        {
+            long nanos = latencyNanos;
+            if (jitterNanos > 0) {
+                nanos += ThreadLocalRandom.current().nextLong(-jitterNanos, jitterNanos + 1);
+            }
+            if (nanos <= 0) {
+                roundTrips.increment();
+                return;
+            }
+            long start = System.nanoTime();
+            long deadline = start + nanos;
+            long remaining = nanos;
+            while (remaining > 0) {
+                LockSupport.parkNanos(remaining);
+                remaining = deadline - System.nanoTime();
+            }
+            roundTrips.increment();
+            injectedNanos.add(System.nanoTime() - start);
+        }
+    }
+}
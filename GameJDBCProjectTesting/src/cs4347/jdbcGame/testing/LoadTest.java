@@ -0,0 +1,393 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+package cs4347.jdbcGame.testing;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.monitor.LatencyHistogram;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.PlayerService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+import cs4347.jdbcGame.services.impl.PlayerServiceImpl;
+
+/**
+ * Drives a weighted mix of service operations against the database configured
+ * in dbconfig.properties. Arguments are key=value pairs:
+ * 
+ * <pre>
+ * model=open|closed   open: calls arrive at a fixed rate whatever the response
+ *                     time; closed: each thread issues its next call when the
+ *                     previous one returns (default open)
+ * rate=200[,400,...]  open model arrivals per second; a list runs one step per
+ *                     rate, to find the saturation point
+ * pacing=0            closed model: milliseconds between a thread's calls
+ * threads=64          worker threads
+ * duration=30         seconds measured per step
+ * warmup=10           seconds run before the first step and not reported
+ * poisson=true        open model: exponential inter-arrival times
+ * mix=retrieve:50,title:10,range:10,player:10,played:10,create:5,delete:5
+ * </pre>
+ * 
+ * Latency is measured from each call's intended start (its arrival time, or
+ * its pacing slot), so calls queued behind a stalled database are charged the
+ * wait and the percentiles are corrected for coordinated omission. Service
+ * time is measured from when a thread starts the call. Games created by the
+ * test are deleted at the end.
+ * 
+ * The project targets Java 10, so calls run on a fixed pool of platform
+ * threads; the connection pool, not the thread count, is normally the limit.
+ */
+public class LoadTest
+{
+    private static final String DEFAULT_MIX = "retrieve:50,title:10,range:10,player:10,played:10,create:5,delete:5";
+
+    public static void main(String args[])
+    {
+        try {
+            Map<String, String> options = new HashMap<String, String>();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) {
+                    System.out.println("usage: LoadTest [key=value ...]; see the class comment");
+                    return;
+                }
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+            DataSource ds = DataSourceManager.getDataSource();
+            LoadTest test = new LoadTest(ds, options.getOrDefault("mix", DEFAULT_MIX));
+            test.run(options);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private final DataSource ds;
+    private final GameService gameService;
+    private final PlayerService playerService;
+    private final GamesPlayedService gamesPlayedService;
+    private final GamesOwnedService gamesOwnedService;
+    private final ConcurrentLinkedQueue<Long> createdGames = new ConcurrentLinkedQueue<Long>();
+    private final List<Operation> operations = new ArrayList<Operation>();
+    private final int[] cumulativeWeights;
+    private long maxGameID;
+    private long maxPlayerID;
+
+    public LoadTest(DataSource ds, String mix) throws Exception
+    {
+        this.ds = ds;
+        this.gameService = new GameServiceImpl(ds);
+        this.playerService = new PlayerServiceImpl(ds);
+        this.gamesPlayedService = new GamesPlayedServiceImpl(ds);
+        this.gamesOwnedService = new GamesOwnedServiceImpl(ds);
+
+        List<Integer> weights = new ArrayList<Integer>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            operations.add(new Operation(parts[0].trim()));
+            weights.add(parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+        cumulativeWeights = new int[weights.size()];
+        int total = 0;
+        for (int idx = 0; idx < weights.size(); idx++) {
+            total += weights.get(idx);
+            cumulativeWeights[idx] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Operation mix has no weight: " + mix);
+        }
+    }
+
+    public void run(Map<String, String> options) throws Exception
+    {
+        boolean open = !options.getOrDefault("model", "open").equals("closed");
+        int threads = Integer.parseInt(options.getOrDefault("threads", "64"));
+        long duration = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "30")));
+        long warmup = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup", "10")));
+        boolean poisson = Boolean.parseBoolean(options.getOrDefault("poisson", "true"));
+        long pacing = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(options.getOrDefault("pacing", "0")));
+        String[] rates = options.getOrDefault("rate", "200").split(",");
+
+        maxGameID = maxID("game");
+        maxPlayerID = maxID("player");
+        System.out.println("Games: " + maxGameID + ", players: " + maxPlayerID + ", threads: " + threads
+                + ", model: " + (open ? "open" : "closed"));
+        if (ds instanceof BasicDataSource) {
+            System.out.println("Connection pool maxTotal: " + ((BasicDataSource) ds).getMaxTotal());
+        }
+
+        try {
+            if (open) {
+                openModel(Double.parseDouble(rates[0]), threads, warmup, poisson);
+                for (String rate : rates) {
+                    resetStats();
+                    double achieved = openModel(Double.parseDouble(rate), threads, duration, poisson);
+                    report("rate " + rate + "/s", achieved);
+                }
+            }
+            else {
+                closedModel(threads, warmup, pacing);
+                resetStats();
+                report("closed, pacing " + TimeUnit.NANOSECONDS.toMillis(pacing) + " ms",
+                        closedModel(threads, duration, pacing));
+            }
+        }
+        finally {
+            Long id;
+            while ((id = createdGames.poll()) != null) {
+                gameService.delete(id);
+            }
+        }
+    }
+
+    /**
+     * Calls arrive at the given rate for the given time and wait in the pool's
+     * queue when every thread is busy. Returns the completed calls per second.
+     */
+    double openModel(double rate, int threads, long durationNanos, boolean poisson) throws InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        double meanInterval = 1e9 / rate;
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        long intended = start;
+        try {
+            while (intended < end) {
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long scheduled = intended;
+                Operation operation = pick();
+                pool.execute(() -> operation.call(scheduled));
+                double interval = poisson ? -Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanInterval
+                        : meanInterval;
+                intended += (long) Math.max(interval, 1);
+            }
+        }
+        finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        return completed() * 1e9 / (System.nanoTime() - start);
+    }
+
+    /**
+     * Each thread issues calls back to back, or one per pacing slot. Returns
+     * the completed calls per second.
+     */
+    double closedModel(int threads, long durationNanos, long pacingNanos) throws InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        for (int idx = 0; idx < threads; idx++) {
+            pool.execute(() -> {
+                long intended = System.nanoTime();
+                while (intended < end) {
+                    pick().call(intended);
+                    if (pacingNanos > 0) {
+                        intended += pacingNanos;
+                        long wait;
+                        while ((wait = intended - System.nanoTime()) > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                    }
+                    else {
+                        intended = System.nanoTime();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        return completed() * 1e9 / (System.nanoTime() - start);
+    }
+
+    private Operation pick()
+    {
+        int ticket = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int idx = 0;
+        while (cumulativeWeights[idx] <= ticket) {
+            idx++;
+        }
+        return operations.get(idx);
+    }
+
+    private long completed()
+    {
+        long total = 0;
+        for (Operation operation : operations) {
+            total += operation.calls.sum();
+        }
+        return total;
+    }
+
+    private void resetStats()
+    {
+        for (Operation operation : operations) {
+            operation.reset();
+        }
+    }
+
+    private void report(String step, double throughput)
+    {
+        System.out.println(String.format(Locale.ROOT, "%s: %.1f calls/s", step, throughput));
+        System.out.println(String.format(Locale.ROOT, "  %-9s %8s %6s %10s %10s %10s %10s %10s", "operation", "calls",
+                "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99"));
+        for (Operation operation : operations) {
+            long[] latency = operation.latency.snapshotCounts();
+            long[] service = operation.serviceTime.snapshotCounts();
+            System.out.println(String.format(Locale.ROOT, "  %-9s %8d %6d %10.3f %10.3f %10.3f %10.3f %10.3f",
+                    operation.name, operation.calls.sum(), operation.errors.sum(),
+                    millis(LatencyHistogram.valueAtPercentile(latency, 50)),
+                    millis(LatencyHistogram.valueAtPercentile(latency, 99)),
+                    millis(LatencyHistogram.valueAtPercentile(latency, 99.9)), millis(operation.latency.getMax()),
+                    millis(LatencyHistogram.valueAtPercentile(service, 99))));
+        }
+    }
+
+    private static double millis(long nanos)
+    {
+        return nanos / 1_000_000.0;
+    }
+
+    private long maxID(String table) throws Exception
+    {
+        Connection connection = ds.getConnection();
+        try {
+            Statement stmt = connection.createStatement();
+            ResultSet rs = stmt.executeQuery("select max(id) from " + table);
+            long max = rs.next() ? rs.getLong(1) : 0;
+            stmt.close();
+            return Math.max(max, 1);
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    private Long createGame() throws Exception
+    {
+        Game game = new Game();
+        game.setTitle("LoadTest " + ThreadLocalRandom.current().nextInt(1_000_000));
+        game.setDescription("Created by LoadTest");
+        game.setReleaseDate(new Date());
+        game.setVersion("1.0");
+        return gameService.create(game).getId();
+    }
+
+    /**
+     * One entry of the operation mix with its own latency, service time and
+     * error counts.
+     */
+    private class Operation
+    {
+        final String name;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LatencyHistogram serviceTime = new LatencyHistogram();
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        Operation(String name)
+        {
+            this.name = name;
+            if (!name.matches("retrieve|title|range|player|played|owned|count|create|delete")) {
+                throw new IllegalArgumentException("Unknown operation: " + name);
+            }
+        }
+
+        void call(long intendedNanos)
+        {
+            long begin = System.nanoTime();
+            try {
+                execute(ThreadLocalRandom.current());
+            } catch (Exception ex) {
+                errors.increment();
+            }
+            long end = System.nanoTime();
+            serviceTime.record(end - begin);
+            latency.record(end - intendedNanos);
+            calls.increment();
+        }
+
+        void reset()
+        {
+            latency.reset();
+            serviceTime.reset();
+            calls.reset();
+            errors.reset();
+        }
+
+        private void execute(ThreadLocalRandom rnGen) throws Exception
+        {
+            switch (name) {
+            case "retrieve":
+                gameService.retrieve(1 + rnGen.nextLong(maxGameID));
+                break;
+            case "title":
+                gameService.retrieveByTitle((char) ('A' + rnGen.nextInt(26)) + "%");
+                break;
+            case "range": {
+                long start = System.currentTimeMillis() - rnGen.nextLong(3650) * 86_400_000L;
+                gameService.retrieveByReleaseDate(new Date(start), new Date(start + 30 * 86_400_000L));
+                break;
+            }
+            case "player":
+                playerService.retrieve(1 + rnGen.nextLong(maxPlayerID));
+                break;
+            case "played":
+                gamesPlayedService.retrieveByPlayer(1 + rnGen.nextLong(maxPlayerID));
+                break;
+            case "owned":
+                gamesOwnedService.retrieveByPlayer(1 + rnGen.nextLong(maxPlayerID));
+                break;
+            case "count":
+                gameService.count();
+                break;
+            case "create":
+                createdGames.add(createGame());
+                break;
+            case "delete": {
+                Long id = createdGames.poll();
+                gameService.delete(id != null ? id : createGame());
+                break;
+            }
+            default:
+                throw new IllegalStateException(name);
+            }
+        }
+    }
+}
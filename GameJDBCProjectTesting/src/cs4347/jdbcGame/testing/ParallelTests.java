@@ -0,0 +1,94 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+package cs4347.jdbcGame.testing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.experimental.ParallelComputer;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+
+/**
+ * Runs test classes in parallel, one class per thread, each against its own
+ * database (isolate=class is turned on unless set otherwise).
+ * 
+ * java -Dcs4347.jdbcGame.dbconfig=dbconfig-local.properties
+ * cs4347.jdbcGame.testing.ParallelTests [test class ...]
+ * 
+ * Without arguments every *TestCase class in the classpath directories is
+ * run.
+ */
+public class ParallelTests
+{
+    public static void main(String args[])
+    {
+        try {
+            if (System.getProperty("cs4347.jdbcGame.isolate") == null) {
+                System.setProperty("cs4347.jdbcGame.isolate", "class");
+            }
+            List<Class<?>> classes = new ArrayList<Class<?>>();
+            if (args.length > 0) {
+                for (String name : args) {
+                    classes.add(Class.forName(name));
+                }
+            }
+            else {
+                for (String name : findTestClasses()) {
+                    classes.add(Class.forName(name));
+                }
+            }
+            System.out.println("Running " + classes.size() + " test classes in parallel");
+
+            Result result = JUnitCore.runClasses(ParallelComputer.classes(), classes.toArray(new Class<?>[0]));
+            for (Failure failure : result.getFailures()) {
+                System.out.println(failure.getTestHeader() + ": " + failure.getMessage());
+            }
+            System.out.println("Tests: " + result.getRunCount() + ", failures: " + result.getFailureCount()
+                    + ", ignored: " + result.getIgnoreCount() + ", time: " + result.getRunTime() + " ms");
+            System.exit(result.wasSuccessful() ? 0 : 1);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Names of the *TestCase classes in the directories of the class path.
+     */
+    static List<String> findTestClasses() throws IOException
+    {
+        List<String> names = new ArrayList<String>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            Path root = Paths.get(entry);
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(root)) {
+                files.filter(path -> path.getFileName().toString().endsWith("TestCase.class")).forEach(path -> {
+                    String relative = root.relativize(path).toString();
+                    names.add(relative.substring(0, relative.length() - ".class".length())
+                            .replace(File.separatorChar, '.'));
+                });
+            }
+        }
+        names.sort(null);
+        return names;
+    }
+}
@@ -61,11 +61,25 @@ public class PopulateTables
     {
         try {
             DataSource dataSource = DataSourceManager.getDataSource();
-            Connection connection = dataSource.getConnection();
+            populate(dataSource, new Random());
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the csvData files into the given database in one transaction.
+     * GamesOwned and GamesPlayed rows are generated with the given Random.
+     */
+    public static void populate(DataSource dataSource, Random rnGen) throws Exception
+    {
+        Connection connection = dataSource.getConnection();
+        try {
             connection.setAutoCommit(false);
 
             PopulateTables app = new PopulateTables();
             app.initialize();
+            app.rnGen = rnGen;
 
             Map<Long, Player> playersMap = app.buildPlayers();
             app.addCreditCards(playersMap);
@@ -92,7 +106,11 @@ public class PopulateTables
             connection.commit();
             System.out.println("Finished Initializing Database");
         } catch (Exception ex) {
-            ex.printStackTrace();
+            connection.rollback();
+            throw ex;
+        }
+        finally {
+            connection.close();
         }
     }
 
@@ -0,0 +1,123 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+package cs4347.jdbcGame.testing;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.monitor.SqlStats;
+import cs4347.jdbcGame.monitor.SqlTracer;
+
+/**
+ * Counts the JDBC statements and round trips a block of code issues, so tests
+ * can fail when a service method starts issuing more queries than its budget.
+ * 
+ * <pre>
+ * QueryBudget budget = new QueryBudget(DataSourceManager.getDataSource());
+ * PlayerService playerService = new PlayerServiceImpl(budget.getDataSource());
+ * budget.assertAtMost(2, 5, () -&gt; playerService.retrieve(playerID));
+ * </pre>
+ * 
+ * Round trips are statement executions plus commit, rollback and
+ * setAutoCommit calls. Only work done through getDataSource() is counted.
+ */
+public class QueryBudget
+{
+    public interface Block
+    {
+        void run() throws Exception;
+    }
+
+    private final SqlTracer tracer = new SqlTracer(Long.MAX_VALUE / 1_000_000);
+    private final DataSource dataSource;
+
+    public QueryBudget(DataSource dataSource)
+    {
+        this.dataSource = tracer.trace(dataSource);
+    }
+
+    /**
+     * The counted DataSource to build the services under test with.
+     */
+    public DataSource getDataSource()
+    {
+        return dataSource;
+    }
+
+    /**
+     * Runs the block and returns the statements and round trips it issued.
+     */
+    public Usage measure(Block block) throws Exception
+    {
+        tracer.reset();
+        block.run();
+        return new Usage(tracer.getStatementCount(), tracer.getRoundTrips(), tracer.getStats());
+    }
+
+    /**
+     * Runs the block and throws an AssertionError listing every statement when
+     * it issued more statements or round trips than allowed.
+     */
+    public Usage assertAtMost(int maxStatements, int maxRoundTrips, Block block) throws Exception
+    {
+        Usage usage = measure(block);
+        if (usage.getStatements() > maxStatements || usage.getRoundTrips() > maxRoundTrips) {
+            throw new AssertionError("Query budget exceeded: expected at most " + maxStatements + " statements and "
+                    + maxRoundTrips + " round trips but was " + usage);
+        }
+        return usage;
+    }
+
+    public static class Usage
+    {
+        private final long statements;
+        private final long roundTrips;
+        private final List<SqlStats> bySql;
+
+        Usage(long statements, long roundTrips, List<SqlStats> bySql)
+        {
+            this.statements = statements;
+            this.roundTrips = roundTrips;
+            this.bySql = bySql;
+        }
+
+        public long getStatements()
+        {
+            return statements;
+        }
+
+        public long getRoundTrips()
+        {
+            return roundTrips;
+        }
+
+        /**
+         * Executions per SQL text.
+         */
+        public List<SqlStats> getStatsBySql()
+        {
+            return bySql;
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append(statements).append(" statements and ").append(roundTrips).append(" round trips");
+            for (SqlStats stats : bySql) {
+                sb.append("\n  ").append(stats.getExecutions()).append(" x ").append(stats.getSql());
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+
+package cs4347.jdbcGame.testing;
+
+import java.sql.Connection;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.analytics.GamesPlayedColumns;
+import cs4347.jdbcGame.analytics.ScoreKernels;
+import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
+
+/**
+ * Compares the ScoreKernels aggregations with straightforward single
+ * accumulator loops. By default the columns are synthetic; pass "db" to load
+ * GAMES_PLAYED through GamesPlayedDAO.scanAll() instead, or a row count to
+ * change the size of the synthetic data.
+ * 
+ * Run with a fixed heap and no other load on the box, e.g.
+ * java -Xms2g -Xmx2g cs4347.jdbcGame.testing.ScoreKernelsBenchmark 20000000
+ */
+public class ScoreKernelsBenchmark
+{
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 20;
+
+    public static void main(String args[])
+    {
+        try {
+            int[] scores;
+            long[] finished;
+            if (args.length > 0 && args[0].equals("db")) {
+                DataSource ds = DataSourceManager.getDataSource();
+                GamesPlayedColumns columns = new GamesPlayedColumns();
+                Connection connection = ds.getConnection();
+                try {
+                    new GamesPlayedDAOImpl().scanAll(connection, columns);
+                }
+                finally {
+                    connection.close();
+                }
+                scores = columns.scores();
+                finished = columns.finishedEpochMillis();
+            }
+            else {
+                int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+                Random rnGen = new Random(4347);
+                scores = new int[rows];
+                finished = new long[rows];
+                long now = System.currentTimeMillis();
+                for (int idx = 0; idx < rows; idx++) {
+                    scores[idx] = rnGen.nextInt(100);
+                    finished[idx] = now - rnGen.nextInt(365) * 86_400_000L;
+                }
+            }
+            System.out.println("Rows: " + scores.length);
+
+            long start = finished.length > 0 ? finished[0] - 30 * 86_400_000L : 0;
+            long end = start + 90 * 86_400_000L;
+            int n = scores.length;
+
+            report("sum", () -> naiveSum(scores), () -> ScoreKernels.sum(scores, 0, n), n);
+            report("min", () -> naiveMin(scores), () -> ScoreKernels.min(scores, 0, n), n);
+            report("max", () -> naiveMax(scores), () -> ScoreKernels.max(scores, 0, n), n);
+            report("countAtLeast", () -> naiveCountAtLeast(scores, 90),
+                    () -> ScoreKernels.countAtLeast(scores, 0, n, 90), n);
+            report("countBetween", () -> naiveCountBetween(finished, start, end),
+                    () -> ScoreKernels.countBetween(finished, 0, n, start, end), n);
+            report("histogram", () -> naiveHistogram(scores, 10)[0],
+                    () -> ScoreKernels.histogram(scores, 0, n, 0, 10, 10)[0], n);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    interface Kernel
+    {
+        long run();
+    }
+
+    private static void report(String name, Kernel baseline, Kernel kernel, int rows)
+    {
+        if (baseline.run() != kernel.run()) {
+            throw new IllegalStateException(name + ": kernel result differs from baseline");
+        }
+        double baselineNs = time(baseline, rows);
+        double kernelNs = time(kernel, rows);
+        System.out.printf("%-14s baseline %7.3f ns/row   kernel %7.3f ns/row   speedup %5.2fx%n", name, baselineNs,
+                kernelNs, baselineNs / kernelNs);
+    }
+
+    // Keeps results live so the JIT cannot drop the loops.
+    static long sink;
+
+    private static double time(Kernel kernel, int rows)
+    {
+        for (int idx = 0; idx < WARMUP_ROUNDS; idx++) {
+            sink += kernel.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int idx = 0; idx < MEASURED_ROUNDS; idx++) {
+            long startTime = System.nanoTime();
+            sink += kernel.run();
+            best = Math.min(best, System.nanoTime() - startTime);
+        }
+        return (double) best / Math.max(rows, 1);
+    }
+
+    private static long naiveSum(int[] values)
+    {
+        long sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static long naiveMin(int[] values)
+    {
+        int min = Integer.MAX_VALUE;
+        for (int value : values) {
+            if (value < min) {
+                min = value;
+            }
+        }
+        return min;
+    }
+
+    private static long naiveMax(int[] values)
+    {
+        int max = Integer.MIN_VALUE;
+        for (int value : values) {
+            if (value > max) {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    private static long naiveCountAtLeast(int[] values, int threshold)
+    {
+        int count = 0;
+        for (int value : values) {
+            if (value >= threshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long naiveCountBetween(long[] values, long start, long end)
+    {
+        int count = 0;
+        for (long value : values) {
+            if (value >= start && value <= end) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int[] naiveHistogram(int[] values, int bucketWidth)
+    {
+        int[] histogram = new int[10];
+        for (int value : values) {
+            int bucket = value / bucketWidth;
+            if (bucket < 0) {
+                bucket = 0;
+            }
+            if (bucket > 9) {
+                bucket = 9;
+            }
+            histogram[bucket]++;
+        }
+        return histogram;
+    }
+}
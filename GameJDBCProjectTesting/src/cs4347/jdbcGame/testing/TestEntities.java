@@ -0,0 +1,96 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+package cs4347.jdbcGame.testing;
+
+import java.util.Date;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+
+/**
+ * Unsaved entities for tests that do not need rows from the fixture database.
+ * Unless given, the player is 1, the time is now, the score is 10 and the
+ * price is 9.99. Games are version 1.0, described as "A game" and released
+ * on 2020-02-02.
+ */
+public class TestEntities
+{
+    private TestEntities()
+    {
+    }
+
+    public static Game buildGame(String title)
+    {
+        return buildGame(title, "A game", java.sql.Date.valueOf("2020-02-02"));
+    }
+
+    public static Game buildGame(String title, String description)
+    {
+        return buildGame(title, description, java.sql.Date.valueOf("2020-02-02"));
+    }
+
+    public static Game buildGame(String title, Date releaseDate)
+    {
+        return buildGame(title, "A game", releaseDate);
+    }
+
+    public static Game buildGame(String title, String description, Date releaseDate)
+    {
+        Game game = new Game();
+        game.setTitle(title);
+        game.setDescription(description);
+        game.setVersion("1.0");
+        game.setReleaseDate(releaseDate);
+        return game;
+    }
+
+    public static GamesPlayed buildGamesPlayed(Long gameID)
+    {
+        return buildGamesPlayed(1L, gameID, 10, new Date());
+    }
+
+    public static GamesPlayed buildGamesPlayed(Long playerID, Long gameID)
+    {
+        return buildGamesPlayed(playerID, gameID, 10, new Date());
+    }
+
+    public static GamesPlayed buildGamesPlayed(Long playerID, Long gameID, int score)
+    {
+        return buildGamesPlayed(playerID, gameID, score, new Date());
+    }
+
+    public static GamesPlayed buildGamesPlayed(Long playerID, Long gameID, int score, Date timeFinished)
+    {
+        GamesPlayed gamesPlayed = new GamesPlayed();
+        gamesPlayed.setPlayerID(playerID);
+        gamesPlayed.setGameID(gameID);
+        gamesPlayed.setTimeFinished(timeFinished);
+        gamesPlayed.setScore(score);
+        return gamesPlayed;
+    }
+
+    public static GamesOwned buildGamesOwned(Long gameID)
+    {
+        return buildGamesOwned(1L, gameID);
+    }
+
+    public static GamesOwned buildGamesOwned(Long playerID, Long gameID)
+    {
+        GamesOwned gamesOwned = new GamesOwned();
+        gamesOwned.setPlayerID(playerID);
+        gamesOwned.setGameID(gameID);
+        gamesOwned.setPurchaseDate(new Date());
+        gamesOwned.setPurchasePrice(9.99f);
+        return gamesOwned;
+    }
+}
@@ -0,0 +1,191 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+package cs4347.jdbcGame.testing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+
+/**
+ * Builds an isolated database for one test class: a fresh schema created from
+ * schema.sql (on the classpath) and loaded from csvData with PopulateTables.
+ * 
+ * <ul>
+ * <li>jdbc:h2:mem:... - a separate in-memory database per name, in MySQL
+ * mode with case-insensitive strings. lib/ has the H2 jar.</li>
+ * <li>jdbc:mysql://host/db... - CREATE DATABASE db_name on the same server,
+ * dropped again when the JVM exits.</li>
+ * </ul>
+ * 
+ * Any other URL prefix, including jdbc:latency: around one of the above, is
+ * handled by its delegate URL.
+ */
+public class TestSchema
+{
+    private static final String schemaFileName = "schema.sql";
+    private static final AtomicInteger sequence = new AtomicInteger();
+    private static final List<String[]> createdMySQLDatabases = new ArrayList<String[]>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(TestSchema::dropCreated));
+    }
+
+    private TestSchema()
+    {
+    }
+
+    /**
+     * Creates and populates a database for the given name and returns a pooled
+     * DataSource for it.
+     */
+    public static BasicDataSource create(String url, String id, String passwd, String name) throws Exception
+    {
+        String schemaName = schemaName(name);
+        String isolatedURL = isolatedURL(url, id, passwd, schemaName);
+
+        BasicDataSource ds = new BasicDataSource();
+        if (isolatedURL.startsWith(LatencyDriver.URL_PREFIX)) {
+            ds.setDriverClassName(LatencyDriver.class.getName());
+        }
+        ds.setUrl(isolatedURL);
+        ds.setUsername(id);
+        ds.setPassword(passwd);
+
+        Connection connection = ds.getConnection();
+        try {
+            Statement stmt = connection.createStatement();
+            for (String ddl : readSchema()) {
+                stmt.execute(ddl);
+            }
+            stmt.close();
+        }
+        finally {
+            connection.close();
+        }
+        PopulateTables.populate(ds, new Random(4347));
+        return ds;
+    }
+
+    /**
+     * Database name derived from the test name: lower case letters, digits and
+     * underscores, unique within this JVM and across concurrent JVMs.
+     */
+    static String schemaName(String name)
+    {
+        String cleaned = name.toLowerCase().replaceAll("[^a-z0-9]+", "_");
+        if (cleaned.length() > 32) {
+            cleaned = cleaned.substring(cleaned.length() - 32);
+        }
+        return "test_" + ProcessHandle.current().pid() + "_" + sequence.incrementAndGet() + "_" + cleaned;
+    }
+
+    /**
+     * The URL of the isolated database. For MySQL the database is created here.
+     */
+    public static String isolatedURL(String url, String id, String passwd, String schemaName) throws SQLException
+    {
+        if (url.startsWith(LatencyDriver.URL_PREFIX)) {
+            int split = url.indexOf(':', LatencyDriver.URL_PREFIX.length());
+            return url.substring(0, split + 1) + isolatedURL(url.substring(split + 1), id, passwd, schemaName);
+        }
+        if (url.startsWith("jdbc:h2:mem:")) {
+            int options = url.indexOf(';');
+            String rest = options < 0 ? "" : url.substring(options);
+            if (!rest.toUpperCase().contains("MODE=")) {
+                rest += ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+            }
+            // MySQL's default collation compares strings case-insensitively,
+            // and the title searches rely on it.
+            if (!rest.toUpperCase().contains("IGNORECASE=")) {
+                rest += ";IGNORECASE=TRUE";
+            }
+            return "jdbc:h2:mem:" + schemaName + rest + ";DB_CLOSE_DELAY=-1";
+        }
+        if (url.startsWith("jdbc:mysql://")) {
+            int hostEnd = url.indexOf('/', "jdbc:mysql://".length());
+            if (hostEnd < 0) {
+                hostEnd = url.length();
+            }
+            int query = url.indexOf('?', hostEnd);
+            String serverURL = url.substring(0, hostEnd) + "/" + (query < 0 ? "" : url.substring(query));
+            Connection connection = DriverManager.getConnection(serverURL, id, passwd);
+            try {
+                Statement stmt = connection.createStatement();
+                stmt.execute("CREATE DATABASE " + schemaName);
+                stmt.close();
+            }
+            finally {
+                connection.close();
+            }
+            synchronized (createdMySQLDatabases) {
+                createdMySQLDatabases.add(new String[] { serverURL, id, passwd, schemaName });
+            }
+            return url.substring(0, hostEnd) + "/" + schemaName + (query < 0 ? "" : url.substring(query));
+        }
+        throw new SQLException("Schema isolation is not supported for " + url);
+    }
+
+    /**
+     * Statements of schema.sql, split on semicolons at the end of a line.
+     */
+    public static List<String> readSchema() throws IOException
+    {
+        InputStream in = TestSchema.class.getClassLoader().getResourceAsStream(schemaFileName);
+        if (in == null) {
+            throw new RuntimeException("schema file '" + schemaFileName + "' not found in the classpath");
+        }
+        List<String> statements = new ArrayList<String>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            StringBuilder sb = new StringBuilder();
+            String line;
+            while ((line = br.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                sb.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    statements.add(sb.substring(0, sb.lastIndexOf(";")).trim());
+                    sb.setLength(0);
+                }
+            }
+        }
+        return statements;
+    }
+
+    private static void dropCreated()
+    {
+        synchronized (createdMySQLDatabases) {
+            for (String[] db : createdMySQLDatabases) {
+                try (Connection connection = DriverManager.getConnection(db[0], db[1], db[2])) {
+                    Statement stmt = connection.createStatement();
+                    stmt.execute("DROP DATABASE IF EXISTS " + db[3]);
+                    stmt.close();
+                } catch (SQLException ex) {
+                    System.err.println("Could not drop test database " + db[3] + ": " + ex.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+package cs4347.jdbcGame.testing;
+
+import java.io.FileInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.monitor.LatencyHistogram;
+import cs4347.jdbcGame.monitor.RecordedCall;
+import cs4347.jdbcGame.monitor.WorkloadReader;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.PlayerService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+import cs4347.jdbcGame.services.impl.PlayerServiceImpl;
+
+/**
+ * Replays a log written by WorkloadRecorder against the database configured
+ * in dbconfig.properties.
+ * 
+ * java cs4347.jdbcGame.testing.WorkloadReplay workload.log [speed] [threads]
+ * 
+ * A speed of 1 keeps the recorded arrival times, 2 replays twice as fast, and
+ * 0 runs every call back to back as fast as the threads allow. At a fixed
+ * speed, latency is measured from the call's scheduled start, so time spent
+ * queued behind slow calls counts (no coordinated omission); service time is
+ * measured from when a thread picks the call up. Calls that change data are
+ * replayed as recorded, so use a test database.
+ */
+public class WorkloadReplay
+{
+    public static void main(String args[])
+    {
+        if (args.length < 1) {
+            System.out.println("usage: WorkloadReplay <log file> [speed] [threads]");
+            return;
+        }
+        try {
+            double speed = args.length > 1 ? Double.parseDouble(args[1]) : 1.0;
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+            List<RecordedCall> calls;
+            try (WorkloadReader reader = new WorkloadReader(new FileInputStream(args[0]))) {
+                calls = reader.readAll();
+            }
+            System.out.println("Calls: " + calls.size() + ", speed: " + (speed > 0 ? speed + "x" : "max")
+                    + ", threads: " + threads);
+
+            Result result = replay(calls, targets(DataSourceManager.getDataSource()), speed, threads);
+            result.print();
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * One service implementation per recorded interface.
+     */
+    public static Map<Class<?>, Object> targets(DataSource ds)
+    {
+        Map<Class<?>, Object> targets = new HashMap<Class<?>, Object>();
+        targets.put(PlayerService.class, new PlayerServiceImpl(ds));
+        targets.put(GameService.class, new GameServiceImpl(ds));
+        targets.put(GamesOwnedService.class, new GamesOwnedServiceImpl(ds));
+        targets.put(GamesPlayedService.class, new GamesPlayedServiceImpl(ds));
+        return targets;
+    }
+
+    public static Result replay(List<RecordedCall> recorded, Map<Class<?>, Object> targets, double speed,
+            int threads) throws InterruptedException
+    {
+        List<RecordedCall> calls = new ArrayList<RecordedCall>(recorded);
+        calls.sort(Comparator.comparingLong(RecordedCall::getStartMicros));
+        Result result = new Result();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long firstMicros = calls.isEmpty() ? 0 : calls.get(0).getStartMicros();
+        long start = System.nanoTime();
+        try {
+            for (RecordedCall call : calls) {
+                Object target = targets.get(call.getMethod().getDeclaringClass());
+                if (target == null) {
+                    result.skipped.increment();
+                    continue;
+                }
+                long scheduled;
+                if (speed > 0) {
+                    scheduled = start + (long) ((call.getStartMicros() - firstMicros) * 1000 / speed);
+                    long wait;
+                    while ((wait = scheduled - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                else {
+                    scheduled = -1;
+                }
+                pool.execute(() -> result.run(call, target, scheduled));
+            }
+        }
+        finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    public static class Result
+    {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private long elapsedNanos;
+
+        void run(RecordedCall call, Object target, long scheduled)
+        {
+            long begin = System.nanoTime();
+            try {
+                call.getMethod().invoke(target, call.getArguments());
+            } catch (InvocationTargetException | IllegalAccessException | IllegalArgumentException ex) {
+                errors.increment();
+            }
+            long end = System.nanoTime();
+            serviceTime.record(end - begin);
+            latency.record(end - (scheduled < 0 ? begin : scheduled));
+            completed.increment();
+        }
+
+        public long getCompleted()
+        {
+            return completed.sum();
+        }
+
+        public long getErrors()
+        {
+            return errors.sum();
+        }
+
+        /**
+         * Calls whose interface had no target.
+         */
+        public long getSkipped()
+        {
+            return skipped.sum();
+        }
+
+        public long getElapsedNanos()
+        {
+            return elapsedNanos;
+        }
+
+        public double getThroughput()
+        {
+            return elapsedNanos == 0 ? 0 : completed.sum() * 1e9 / elapsedNanos;
+        }
+
+        public long latencyAtPercentile(double percentile)
+        {
+            return LatencyHistogram.valueAtPercentile(latency.snapshotCounts(), percentile);
+        }
+
+        public long serviceTimeAtPercentile(double percentile)
+        {
+            return LatencyHistogram.valueAtPercentile(serviceTime.snapshotCounts(), percentile);
+        }
+
+        public void print()
+        {
+            System.out.println(String.format(Locale.ROOT,
+                    "Completed %d calls (%d errors, %d skipped) in %.2f s: %.1f calls/s", getCompleted(), getErrors(),
+                    getSkipped(), elapsedNanos / 1e9, getThroughput()));
+            print("latency", latency);
+            print("service time", serviceTime);
+        }
+
+        private static void print(String label, LatencyHistogram histogram)
+        {
+            long[] counts = histogram.snapshotCounts();
+            System.out.println(String.format(Locale.ROOT,
+                    "%-13s p50 %8.3f ms  p90 %8.3f ms  p99 %8.3f ms  p99.9 %8.3f ms  max %8.3f ms", label,
+                    millis(LatencyHistogram.valueAtPercentile(counts, 50)),
+                    millis(LatencyHistogram.valueAtPercentile(counts, 90)),
+                    millis(LatencyHistogram.valueAtPercentile(counts, 99)),
+                    millis(LatencyHistogram.valueAtPercentile(counts, 99.9)), millis(histogram.getMax())));
+        }
+
+        private static double millis(long nanos)
+        {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
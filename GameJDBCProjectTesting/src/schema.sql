@@ -0,0 +1,60 @@
+-- Schema for the jdbcGame tables, used by TestSchema to build isolated test
+-- databases. Runs on MySQL and on H2 in MySQL mode. No foreign keys, so test
+-- cleanup order does not matter.
+
+CREATE TABLE player (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    firstName VARCHAR(45),
+    lastName VARCHAR(45),
+    join_date DATE,
+    email VARCHAR(64),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE creditcard (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    ccName VARCHAR(45),
+    ccNumber VARCHAR(45),
+    expDate VARCHAR(45),
+    securityCode INT,
+    playerID BIGINT,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX creditcard_playerID ON creditcard (playerID);
+
+CREATE TABLE game (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(64),
+    description VARCHAR(255),
+    releaseDate DATE,
+    version VARCHAR(45),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX game_title ON game (title);
+CREATE INDEX game_releaseDate ON game (releaseDate);
+
+CREATE TABLE gamesOwned (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    playerID BIGINT,
+    gameID BIGINT,
+    purchaseDate DATE,
+    purchasePrice FLOAT,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX gamesOwned_playerID ON gamesOwned (playerID);
+CREATE INDEX gamesOwned_gameID ON gamesOwned (gameID);
+
+CREATE TABLE GamesPlayed (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    playerID BIGINT,
+    gameID BIGINT,
+    timeFinished DATETIME,
+    score INT,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX GamesPlayed_playerID ON GamesPlayed (playerID);
+CREATE INDEX GamesPlayed_gameID ON GamesPlayed (gameID);
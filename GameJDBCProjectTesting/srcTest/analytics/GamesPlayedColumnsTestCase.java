@@ -0,0 +1,90 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package analytics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.analytics.GamesPlayedColumns;
+import cs4347.jdbcGame.analytics.GroupCounts;
+import cs4347.jdbcGame.entity.GamesPlayed;
+
+public class GamesPlayedColumnsTestCase
+{
+
+    @Test
+    public void testAddAndGrow() throws Exception
+    {
+        GamesPlayedColumns columns = new GamesPlayedColumns(2);
+        for (int idx = 0; idx < 10; idx++) {
+            columns.add(idx, 100 + idx, 200 + (idx % 3), 1000L * idx, idx * 10);
+        }
+        assertEquals(10, columns.size());
+        assertEquals(9L, columns.getId(9));
+        assertEquals(202L, columns.getGameID(5));
+
+        GamesPlayed gp = columns.toGamesPlayed(4);
+        assertEquals(Long.valueOf(4), gp.getId());
+        assertEquals(Long.valueOf(104), gp.getPlayerID());
+        assertEquals(4000L, gp.getTimeFinished().getTime());
+        assertEquals(40, gp.getScore());
+    }
+
+    @Test
+    public void testFilters() throws Exception
+    {
+        GamesPlayedColumns columns = buildColumns();
+
+        GamesPlayedColumns byGame = columns.filterByGame(201);
+        assertEquals(3, byGame.size());
+        for (int idx = 0; idx < byGame.size(); idx++) {
+            assertEquals(201L, byGame.getGameID(idx));
+        }
+
+        GamesPlayedColumns byScore = columns.filterByScore(20, 50);
+        assertArrayEquals(new int[] { 20, 30, 40, 50 }, byScore.scores());
+
+        GamesPlayedColumns byTime = columns.filterByTimeFinished(3000L, 4000L);
+        assertEquals(2, byTime.size());
+        assertEquals(3L, byTime.getId(0));
+    }
+
+    @Test
+    public void testCountByGame() throws Exception
+    {
+        GroupCounts counts = buildColumns().countByGame();
+        assertEquals(3, counts.size());
+        assertEquals(200L, counts.getKey(0));
+        assertEquals(4, counts.countFor(200));
+        assertEquals(3, counts.countFor(201));
+        assertEquals(3, counts.countFor(202));
+        assertEquals(0, counts.countFor(999));
+    }
+
+    @Test
+    public void testScoreHistogram() throws Exception
+    {
+        int[] histogram = buildColumns().scoreHistogram(0, 25, 4);
+        // Scores are 0, 10, ... 90
+        assertArrayEquals(new int[] { 3, 2, 3, 2 }, histogram);
+    }
+
+    private GamesPlayedColumns buildColumns()
+    {
+        GamesPlayedColumns columns = new GamesPlayedColumns();
+        for (int idx = 0; idx < 10; idx++) {
+            columns.add(idx, 100 + idx, 200 + (idx % 3), 1000L * idx, idx * 10);
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,90 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package analytics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.analytics.ScoreKernels;
+
+public class ScoreKernelsTestCase
+{
+
+    @Test
+    public void testAggregates() throws Exception
+    {
+        int[] scores = { 5, -3, 17, 0, 99, 42, 7 };
+        assertEquals(167L, ScoreKernels.sum(scores, 0, scores.length));
+        assertEquals(-3, ScoreKernels.min(scores, 0, scores.length));
+        assertEquals(99, ScoreKernels.max(scores, 0, scores.length));
+        assertEquals(17L, ScoreKernels.sum(scores, 2, 4));
+        assertEquals(Integer.MAX_VALUE, ScoreKernels.min(scores, 3, 3));
+    }
+
+    @Test
+    public void testCountAtLeastMatchesScalar() throws Exception
+    {
+        int[] values = randomInts(1001);
+        int[] thresholds = { Integer.MIN_VALUE, -1, 0, 1, 50, Integer.MAX_VALUE };
+        for (int threshold : thresholds) {
+            int expected = 0;
+            for (int value : values) {
+                expected += value >= threshold ? 1 : 0;
+            }
+            assertEquals(expected, ScoreKernels.countAtLeast(values, 0, values.length, threshold));
+        }
+    }
+
+    @Test
+    public void testCountBetweenMatchesScalar() throws Exception
+    {
+        Random rnGen = new Random(7);
+        long[] values = new long[1001];
+        for (int idx = 0; idx < values.length; idx++) {
+            values[idx] = rnGen.nextLong();
+        }
+        values[0] = Long.MIN_VALUE;
+        values[1] = Long.MAX_VALUE;
+        long[][] ranges = { { Long.MIN_VALUE, Long.MAX_VALUE }, { 0, Long.MAX_VALUE }, { Long.MIN_VALUE, 0 },
+                { -1000, 1000 }, { 10, 5 } };
+        for (long[] range : ranges) {
+            int expected = 0;
+            for (long value : values) {
+                expected += (value >= range[0] && value <= range[1]) ? 1 : 0;
+            }
+            assertEquals(expected, ScoreKernels.countBetween(values, 0, values.length, range[0], range[1]));
+        }
+    }
+
+    @Test
+    public void testHistogram() throws Exception
+    {
+        int[] scores = { 0, 9, 10, 19, 20, 55, -4, 1000 };
+        assertArrayEquals(new int[] { 3, 2, 3 }, ScoreKernels.histogram(scores, 0, scores.length, 0, 10, 3));
+        assertArrayEquals(new int[] { 2, 2, 2, 2 }, ScoreKernels.histogram(scores, 0, scores.length, -5, 10, 4));
+    }
+
+    private int[] randomInts(int count)
+    {
+        Random rnGen = new Random(4347);
+        int[] values = new int[count];
+        for (int idx = 0; idx < count; idx++) {
+            values[idx] = rnGen.nextInt();
+        }
+        values[0] = Integer.MIN_VALUE;
+        values[1] = Integer.MAX_VALUE;
+        return values;
+    }
+}
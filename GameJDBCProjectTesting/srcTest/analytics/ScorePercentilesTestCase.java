@@ -0,0 +1,179 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package analytics;
+
+import static cs4347.jdbcGame.testing.TestEntities.buildGamesPlayed;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Random;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.analytics.ScorePercentiles;
+import cs4347.jdbcGame.analytics.TDigest;
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.RowVisitor;
+import cs4347.jdbcGame.dao.memory.MemoryStore;
+import cs4347.jdbcGame.entity.GamesPlayedRow;
+import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+
+public class ScorePercentilesTestCase
+{
+    private static final double[] QUANTILES = { 0.01, 0.5, 0.9, 0.99, 0.999 };
+
+    @Test
+    public void testDigestRankError()
+    {
+        Random random = new Random(17);
+        double[] values = new double[1000000];
+        TDigest digest = new TDigest();
+        TDigest[] parts = new TDigest[10];
+        for (int idx = 0; idx < parts.length; idx++) {
+            parts[idx] = new TDigest();
+        }
+        for (int idx = 0; idx < values.length; idx++) {
+            // Skewed, like scores: most low, a long tail.
+            values[idx] = Math.exp(random.nextGaussian());
+            digest.add(values[idx]);
+            parts[idx % parts.length].add(values[idx]);
+        }
+        TDigest merged = new TDigest();
+        for (TDigest part : parts) {
+            merged.merge(part);
+        }
+        TDigest restored = TDigest.fromBytes(digest.toBytes());
+        Arrays.sort(values);
+
+        for (double q : QUANTILES) {
+            // Error in rank, which t-digest keeps smallest at the tails.
+            double bound = Math.max(0.0005, 0.02 * Math.sqrt(q * (1 - q)));
+            assertEquals("q=" + q, q, rank(values, digest.quantile(q)), bound);
+            assertEquals("merged q=" + q, q, rank(values, merged.quantile(q)), 2 * bound);
+            assertEquals(digest.quantile(q), restored.quantile(q), 1e-9);
+        }
+        assertEquals(values[0], digest.quantile(0), 0);
+        assertEquals(values[values.length - 1], digest.quantile(1), 0);
+        assertTrue("centroids: " + digest.getCentroidCount(), digest.getCentroidCount() < 2 * 100);
+        assertEquals(values.length, merged.getTotalWeight(), 0);
+    }
+
+    @Test
+    public void testServiceAgainstExact() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        ScorePercentiles percentiles = new ScorePercentiles();
+        percentiles.rebuild(null, store.getGamesPlayedDAO());
+        GamesPlayedServiceImpl service = new GamesPlayedServiceImpl(store.getDataSource(),
+                store.getGamesPlayedDAO(), null, null, percentiles);
+        Random random = new Random(4);
+        for (int idx = 0; idx < 5000; idx++) {
+            service.create(buildGamesPlayed(1L, idx % 2 + 1L, random.nextInt(1000), date(idx % 10)));
+        }
+        GamesPlayedService exact = store.gamesPlayedService();
+        double[] estimated = service.scorePercentiles(1, 0.5, 0.9, 0.99);
+        double[] expected = exact.scorePercentiles(1, 0.5, 0.9, 0.99);
+        for (int idx = 0; idx < expected.length; idx++) {
+            assertEquals(expected[idx], estimated[idx], 15);
+        }
+        assertTrue(Double.isNaN(service.scorePercentiles(3, 0.5)[0]));
+
+        // Game 1 is only played on even days, 500 times a day.
+        double[] day = percentiles.quantiles(1, date(2), date(2), 0.0, 1.0);
+        assertTrue(day[0] >= 0 && day[1] < 1000);
+        assertTrue(Double.isNaN(percentiles.quantiles(1, date(1), date(1), 0.5)[0]));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        percentiles.writeTo(new DataOutputStream(bytes));
+        ScorePercentiles loaded = new ScorePercentiles();
+        loaded.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertArrayEquals(estimated, loaded.quantiles(1, 0.5, 0.9, 0.99), 1e-9);
+        assertArrayEquals(percentiles.quantiles(2, date(0), date(9), 0.5),
+                loaded.quantiles(2, date(0), date(9), 0.5), 1e-9);
+    }
+
+    @Test
+    public void testPlaysDuringRebuildCountedOnce() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        ScorePercentiles percentiles = new ScorePercentiles();
+        GamesPlayedServiceImpl service = new GamesPlayedServiceImpl(store.getDataSource(),
+                store.getGamesPlayedDAO(), null, null, percentiles);
+        long split = 0;
+        for (int idx = 0; idx < 10; idx++) {
+            long id = service.create(buildGamesPlayed(1L, 1L, 100 + idx, date(0))).getId();
+            if (idx == 4) {
+                split = id;
+            }
+        }
+
+        // Half the rows are read, then two plays commit and one score is added
+        // by hand, then the scan reads the rest: the first new play, but not the
+        // second, as if it had committed behind the scan.
+        GamesPlayedDAO dao = store.getGamesPlayedDAO();
+        long lastRead = split;
+        GamesPlayedDAO scanning = (GamesPlayedDAO) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { GamesPlayedDAO.class }, (proxy, method, args) -> {
+                    if (!method.getName().equals("scanAll")) {
+                        return method.invoke(dao, args);
+                    }
+                    @SuppressWarnings("unchecked")
+                    RowVisitor<GamesPlayedRow> visitor = (RowVisitor<GamesPlayedRow>) args[1];
+                    int[] count = new int[1];
+                    dao.scanAll((Connection) args[0], row -> {
+                        if (row.getId() <= lastRead) {
+                            visitor.visit(row);
+                            count[0]++;
+                        }
+                    });
+                    service.create(buildGamesPlayed(1L, 1L, 900, date(0)));
+                    long missed = service.create(buildGamesPlayed(1L, 1L, 950, date(0))).getId();
+                    percentiles.add(1L, 999, null);
+                    dao.scanAll((Connection) args[0], row -> {
+                        if (row.getId() > lastRead && row.getId() != missed) {
+                            visitor.visit(row);
+                            count[0]++;
+                        }
+                    });
+                    return count[0];
+                });
+        percentiles.rebuild(null, scanning);
+
+        assertEquals(13, percentiles.getDigest(1L).getTotalWeight(), 0);
+        assertEquals(999, percentiles.quantiles(1L, 1.0)[0], 0);
+
+        // Plays after the rebuild are not journaled.
+        service.create(buildGamesPlayed(1L, 1L, 100, date(0)));
+        assertEquals(14, percentiles.getDigest(1L).getTotalWeight(), 0);
+    }
+
+    private static double rank(double[] sorted, double value)
+    {
+        int pos = Arrays.binarySearch(sorted, value);
+        return (pos >= 0 ? pos : -pos - 1) / (double) sorted.length;
+    }
+
+    private static Date date(int day)
+    {
+        return java.sql.Date.valueOf(LocalDate.of(2024, 3, 1).plusDays(day));
+    }
+}
@@ -0,0 +1,140 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package analytics;
+
+import static cs4347.jdbcGame.testing.TestEntities.buildGamesOwned;
+import static cs4347.jdbcGame.testing.TestEntities.buildGamesPlayed;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.analytics.TrendingGames;
+import cs4347.jdbcGame.analytics.TrendingGames.Trend;
+import cs4347.jdbcGame.dao.memory.MemoryStore;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+
+public class TrendingGamesTestCase
+{
+    private static final long HOUR = 3600000L;
+
+    @Test
+    public void testTopMatchesExactCounts()
+    {
+        AtomicLong now = new AtomicLong(HOUR * 1000);
+        TrendingGames trending = new TrendingGames(HOUR, 12, 1024, 4, 50, 1, 5, now::get);
+        Random random = new Random(3);
+        long[] exact = new long[2000];
+        for (int idx = 0; idx < 100000; idx++) {
+            // Zipf-like: a few games get most of the plays.
+            int gameID = (int) Math.min(exact.length - 1, Math.abs(random.nextGaussian()) * random.nextInt(100));
+            exact[gameID]++;
+            trending.record(gameID, 1);
+        }
+        List<Trend> top = trending.top(10);
+        assertEquals(10, top.size());
+        for (int idx = 0; idx < top.size(); idx++) {
+            Trend trend = top.get(idx);
+            long count = exact[(int) trend.getGameID()];
+            assertTrue(trend.getScore() >= count);
+            assertTrue(trend + " vs " + count, trend.getScore() - count <= 100000 / 200);
+            if (idx > 0) {
+                assertTrue(top.get(idx - 1).getScore() >= trend.getScore());
+            }
+        }
+        assertEquals(0, top.get(0).getGameID());
+        assertTrue(trending.getCandidateCount() < 2 * 50);
+    }
+
+    @Test
+    public void testWindowSlides()
+    {
+        AtomicLong now = new AtomicLong(HOUR * 1000);
+        TrendingGames trending = new TrendingGames(HOUR, 4, 256, 4, 10, 1, 5, now::get);
+        trending.record(1, 10);
+        now.addAndGet(HOUR / 2);
+        trending.record(2, 4);
+        assertEquals(10, trending.score(1));
+        assertEquals(1, trending.top(1).get(0).getGameID());
+
+        // Game 1's slot has left the window, game 2's has not.
+        now.addAndGet(HOUR * 3 / 4);
+        assertEquals(0, trending.score(1));
+        assertEquals(4, trending.score(2));
+        trending.record(3, 1);
+        assertEquals(2, trending.top(5).size());
+        assertEquals(2, trending.top(5).get(0).getGameID());
+
+        now.addAndGet(HOUR * 2);
+        assertTrue(trending.top(5).isEmpty());
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception
+    {
+        TrendingGames trending = new TrendingGames(HOUR, 12);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int idx = 0; idx < 25000; idx++) {
+                    trending.record(idx % 5, 1);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // Only five keys, so the sketch has no collisions to inflate counts.
+        for (int gameID = 0; gameID < 5; gameID++) {
+            assertEquals(20000, trending.score(gameID));
+        }
+        assertEquals(5, trending.top(10).size());
+    }
+
+    @Test
+    public void testServiceListeners() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        TrendingGames trending = new TrendingGames(HOUR, 12);
+        GamesPlayedServiceImpl playedService = new GamesPlayedServiceImpl(store.getDataSource(),
+                store.getGamesPlayedDAO());
+        GamesOwnedServiceImpl ownedService = new GamesOwnedServiceImpl(store.getDataSource(),
+                store.getGamesOwnedDAO());
+        playedService.addListener(trending.playsListener());
+        ownedService.addListener(trending.purchasesListener());
+
+        for (int idx = 0; idx < 7; idx++) {
+            playedService.create(buildGamesPlayed(1L + idx, 1L));
+        }
+        ownedService.create(buildGamesOwned(1L, 2L));
+        ownedService.create(buildGamesOwned(2L, 2L));
+        GamesPlayed played = playedService.create(buildGamesPlayed(3L, 3L));
+        playedService.delete(played.getId());
+
+        List<Trend> top = trending.top(3);
+        assertEquals(3, top.size());
+        assertEquals(2, top.get(0).getGameID());
+        assertEquals(10, top.get(0).getScore());
+        assertEquals(1, top.get(1).getGameID());
+        assertEquals(7, top.get(1).getScore());
+        assertEquals(3, top.get(2).getGameID());
+    }
+}
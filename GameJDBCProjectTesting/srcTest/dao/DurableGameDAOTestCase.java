@@ -0,0 +1,170 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package dao;
+
+import static cs4347.jdbcGame.testing.TestEntities.buildGame;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cs4347.jdbcGame.dao.memory.DurableGameDAO;
+import cs4347.jdbcGame.dao.memory.MemoryGameDAO;
+import cs4347.jdbcGame.dao.memory.MemoryStore;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+
+public class DurableGameDAOTestCase
+{
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("gameStore").toFile();
+    }
+
+    @After
+    public void tearDown()
+    {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testReplayLog() throws Exception
+    {
+        try (DurableGameDAO dao = new DurableGameDAO(directory)) {
+            for (int idx = 0; idx < 50; idx++) {
+                dao.create(null, buildGame("Title " + idx));
+            }
+            Game game = dao.retrieve(null, 7L);
+            game.setTitle("Renamed");
+            dao.update(null, game);
+            dao.delete(null, 50L);
+        }
+        try (DurableGameDAO dao = new DurableGameDAO(directory)) {
+            assertEquals(52, dao.getReplayedRecords());
+            assertEquals(49, dao.count(null));
+            assertEquals("Renamed", dao.retrieve(null, 7L).getTitle());
+            assertNull(dao.retrieve(null, 50L));
+            assertEquals(11, dao.retrieveByTitle(null, "Title 1%").size());
+            // The deleted ID is not handed out again.
+            assertEquals(51L, (long) dao.create(null, buildGame("Next")).getId());
+        }
+    }
+
+    @Test
+    public void testSnapshot() throws Exception
+    {
+        try (DurableGameDAO dao = new DurableGameDAO(directory, 100, false)) {
+            for (int idx = 0; idx < 250; idx++) {
+                dao.create(null, buildGame("Title " + idx));
+            }
+            assertEquals(50, dao.getWalRecords());
+        }
+        // One snapshot and the log written since.
+        assertEquals(2, directory.listFiles().length);
+        try (DurableGameDAO dao = new DurableGameDAO(directory, 100, false)) {
+            assertEquals(50, dao.getReplayedRecords());
+            assertEquals(250, dao.count(null));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptSnapshotFailsOpen() throws Exception
+    {
+        File snapshot = writeSnapshotAndLog();
+        try (RandomAccessFile raf = new RandomAccessFile(snapshot, "rw")) {
+            raf.seek(40);
+            raf.write(raf.read() ^ 1);
+        }
+        // Only the log written since the snapshot survives; opening with it
+        // alone would lose the first 200 games.
+        new DurableGameDAO(directory, 100, false).close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingSnapshotFailsOpen() throws Exception
+    {
+        assertTrue(writeSnapshotAndLog().delete());
+        new DurableGameDAO(directory, 100, false).close();
+    }
+
+    @Test
+    public void testTornTail() throws Exception
+    {
+        try (DurableGameDAO dao = new DurableGameDAO(directory)) {
+            dao.create(null, buildGame("First"));
+            dao.create(null, buildGame("Second"));
+        }
+        File wal = directory.listFiles()[0];
+        try (RandomAccessFile raf = new RandomAccessFile(wal, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        try (DurableGameDAO dao = new DurableGameDAO(directory)) {
+            assertEquals(1, dao.count(null));
+            dao.create(null, buildGame("Again"));
+        }
+        try (DurableGameDAO dao = new DurableGameDAO(directory)) {
+            assertEquals(2, dao.count(null));
+            assertEquals("Again", dao.retrieve(null, 2L).getTitle());
+        }
+    }
+
+    @Test
+    public void testImportAndService() throws Exception
+    {
+        MemoryGameDAO source = new MemoryGameDAO();
+        for (int idx = 0; idx < 20; idx++) {
+            source.create(null, buildGame("Imported " + idx));
+        }
+        source.delete(null, 3L);
+        try (DurableGameDAO dao = new DurableGameDAO(directory)) {
+            dao.importFrom(null, source);
+            assertEquals(19, dao.count(null));
+        }
+        try (DurableGameDAO dao = new DurableGameDAO(directory)) {
+            assertEquals(0, dao.getReplayedRecords());
+            GameService service = new GameServiceImpl(new MemoryStore().getDataSource(), dao);
+            assertEquals("Imported 4", service.retrieve(5L).getTitle());
+            Game created = service.create(buildGame("Created"));
+            assertTrue(created.getId() > 20);
+        }
+    }
+
+    /**
+     * Writes 250 games with a snapshot every 100 and returns the snapshot
+     * left, which the log of the last 50 follows.
+     */
+    private File writeSnapshotAndLog() throws Exception
+    {
+        try (DurableGameDAO dao = new DurableGameDAO(directory, 100, false)) {
+            for (int idx = 0; idx < 250; idx++) {
+                dao.create(null, buildGame("Title " + idx));
+            }
+        }
+        File[] snapshots = directory.listFiles((dir, name) -> name.endsWith(".snapshot"));
+        assertEquals(1, snapshots.length);
+        return snapshots[0];
+    }
+}
@@ -13,9 +13,12 @@ package dao;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.sql.Connection;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -238,6 +241,71 @@ public class GameDAOImplTestCase
         }
     }
 
+    @Test
+    public void testRetrieveByWords() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GameDAO dao = new GameDAOImpl();
+
+            assertEquals(9, dao.retrieveByWords(connection, Arrays.asList("MAD", "scientist"), 0, 100).size());
+            assertEquals(1, dao.retrieveByWords(connection, Arrays.asList("vision", "torque"), 0, 100).size());
+
+            List<Game> gameList = dao.retrieveByWords(connection, Arrays.asList("scientist"), 0, 3);
+            assertEquals(3, gameList.size());
+            assertTrue(gameList.get(0).getId() < gameList.get(1).getId());
+
+            // The next page starts after the last ID returned.
+            long afterID = gameList.get(2).getId();
+            List<Game> nextPage = dao.retrieveByWords(connection, Arrays.asList("scientist"), afterID, 3);
+            assertEquals(3, nextPage.size());
+            assertTrue(afterID < nextPage.get(0).getId());
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testScanAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GameDAO dao = new GameDAOImpl();
+            Game untitled = new Game();
+            untitled.setDescription("No title yet");
+            untitled.setVersion("0.1");
+            dao.create(connection, untitled);
+
+            List<Game> gameList = new ArrayList<Game>();
+            assertEquals(dao.count(connection), dao.scanAll(connection, gameList::add));
+            assertEquals(dao.count(connection), gameList.size());
+            Game scanned = null;
+            for (Game game : gameList) {
+                if (game.getId().equals(untitled.getId())) {
+                    scanned = game;
+                }
+            }
+            assertNotNull(scanned);
+            assertNull(scanned.getTitle());
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
 
     @Test
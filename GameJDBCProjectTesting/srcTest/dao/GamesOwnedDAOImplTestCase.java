@@ -13,9 +13,11 @@ package dao;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -26,6 +28,7 @@ import org.junit.Test;
 import cs4347.jdbcGame.dao.GamesOwnedDAO;
 import cs4347.jdbcGame.dao.impl.GamesOwnedDAOImpl;
 import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesOwnedRow;
 import cs4347.jdbcGame.testing.DataSourceManager;
 import cs4347.jdbcGame.util.DAOException;
 import cs4347.jdbcGame.util.TestingUtil;
@@ -275,6 +278,37 @@ public class GamesOwnedDAOImplTestCase
         }
     }
 
+    @Test
+    public void testScanByGame() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl();
+            Long playerID = TestingUtil.getPlayerID(ds);
+            Long gameID = TestingUtil.retrieveGamesOwnedForPlayer(ds, playerID).get(0);
+
+            List<GamesOwned> gamesOwned = dao.retrieveByGame(connection, gameID);
+            List<GamesOwnedRow> visited = new ArrayList<GamesOwnedRow>();
+            int rows = dao.scanByGame(connection, gameID, row -> {
+                assertEquals(gameID.longValue(), row.getGameID());
+                visited.add(row);
+            });
+            assertEquals(gamesOwned.size(), rows);
+            assertEquals(gamesOwned.size(), visited.size());
+            // The same row instance is handed to the visitor for every row.
+            assertSame(visited.get(0), visited.get(visited.size() - 1));
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testUpdate() throws Exception
     {
@@ -0,0 +1,294 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package dao;
+
+import static cs4347.jdbcGame.testing.TestEntities.buildGame;
+import static cs4347.jdbcGame.testing.TestEntities.buildGamesPlayed;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.dao.memory.MemoryGameDAO;
+import cs4347.jdbcGame.dao.memory.MemoryGamesPlayedDAO;
+import cs4347.jdbcGame.dao.memory.MemoryPlayerDAO;
+import cs4347.jdbcGame.dao.memory.MemoryStore;
+import cs4347.jdbcGame.entity.CreditCard;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.services.PlayerService;
+import cs4347.jdbcGame.util.DAOException;
+
+public class MemoryDAOTestCase
+{
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Test
+    public void testPlayerContract() throws Exception
+    {
+        MemoryPlayerDAO dao = new MemoryPlayerDAO();
+        Player player = player(new Date());
+        Player created = dao.create(null, player);
+        assertTrue(created == player);
+        assertNotNull(player.getId());
+        try {
+            dao.create(null, player);
+            fail();
+        }
+        catch (DAOException ex) {
+            assertEquals("Trying to insert Player with NON-NULL ID", ex.getMessage());
+        }
+
+        // Stored rows are copies.
+        player.setFirstName("Changed");
+        Player retrieved = dao.retrieve(null, player.getId());
+        assertEquals("Ann", retrieved.getFirstName());
+        assertTrue(retrieved.getJoinDate() instanceof java.sql.Date);
+        retrieved.setFirstName("Bea");
+        assertEquals(1, dao.update(null, retrieved));
+        assertEquals("Bea", dao.retrieve(null, player.getId()).getFirstName());
+
+        assertEquals(1, dao.count(null));
+        assertEquals(1, dao.delete(null, player.getId()));
+        assertEquals(0, dao.delete(null, player.getId()));
+        assertNull(dao.retrieve(null, player.getId()));
+        assertEquals(0, dao.update(null, retrieved));
+        try {
+            dao.retrieve(null, null);
+            fail();
+        }
+        catch (DAOException ex) {
+            assertEquals("Trying to retrieve Player with NULL ID", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testJoinDateIndex() throws Exception
+    {
+        MemoryPlayerDAO dao = new MemoryPlayerDAO();
+        long base = java.sql.Date.valueOf("2020-01-01").getTime();
+        for (int idx = 0; idx < 30; idx++) {
+            // A time of day is dropped, as with a DATE column.
+            dao.create(null, player(new Date(base + idx * DAY + 3600000L)));
+        }
+        List<Player> players = dao.retrieveByJoinDate(null, java.sql.Date.valueOf("2020-01-10"),
+                java.sql.Date.valueOf("2020-01-19"));
+        assertEquals(10, players.size());
+
+        Player moved = players.get(0);
+        moved.setJoinDate(java.sql.Date.valueOf("2021-06-01"));
+        dao.update(null, moved);
+        assertEquals(9, dao.retrieveByJoinDate(null, java.sql.Date.valueOf("2020-01-10"),
+                java.sql.Date.valueOf("2020-01-19")).size());
+        assertEquals(1, dao.retrieveByJoinDate(null, java.sql.Date.valueOf("2021-01-01"),
+                java.sql.Date.valueOf("2021-12-31")).size());
+        try {
+            dao.retrieveByJoinDate(null, null, new Date());
+            fail();
+        }
+        catch (DAOException ex) {
+            assertEquals("Trying to retrieve players with NULL dob", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testTitleLike() throws Exception
+    {
+        MemoryGameDAO dao = new MemoryGameDAO();
+        dao.create(null, buildGame("Space Raiders", java.sql.Date.valueOf("2019-05-01")));
+        dao.create(null, buildGame("Space Raiders 2", java.sql.Date.valueOf("2020-05-01")));
+        dao.create(null, buildGame("Dungeon Raid", java.sql.Date.valueOf("2021-05-01")));
+        dao.create(null, buildGame("Racing", java.sql.Date.valueOf("2022-05-01")));
+
+        assertEquals(2, dao.retrieveByTitle(null, "space%").size());
+        assertEquals(3, dao.retrieveByTitle(null, "%Raid%").size());
+        assertEquals(1, dao.retrieveByTitle(null, "SPACE RAIDERS").size());
+        assertEquals(1, dao.retrieveByTitle(null, "R_cing").size());
+        assertEquals(0, dao.retrieveByTitle(null, "Space").size());
+        assertEquals(4, dao.retrieveByTitle(null, "%").size());
+        assertEquals(2, dao.retrieveByReleaseDate(null, java.sql.Date.valueOf("2020-01-01"),
+                java.sql.Date.valueOf("2021-05-01")).size());
+
+        Game renamed = dao.retrieveByTitle(null, "Racing").get(0);
+        renamed.setTitle("Spacing");
+        dao.update(null, renamed);
+        assertEquals(3, dao.retrieveByTitle(null, "Spac%").size());
+        assertEquals(0, dao.retrieveByTitle(null, "Rac%").size());
+    }
+
+    @Test
+    public void testGamesPlayedIndexes() throws Exception
+    {
+        MemoryGamesPlayedDAO dao = new MemoryGamesPlayedDAO();
+        for (int idx = 0; idx < 20; idx++) {
+            dao.create(null, buildGamesPlayed(idx % 4 + 1L, idx % 5 + 1L, idx));
+        }
+        assertEquals(5, dao.retrieveByPlayer(null, 1L).size());
+        assertEquals(4, dao.retrieveByGame(null, 2L).size());
+        assertEquals(1, dao.retrieveByPlayerGameID(null, 1L, 1L).size());
+        List<Long> rowIDs = new ArrayList<Long>();
+        assertEquals(5, dao.scanByPlayer(null, 1L, row -> rowIDs.add(row.getId())));
+        assertEquals(20, dao.scanAll(null, row -> {}));
+        try {
+            dao.create(null, buildGamesPlayed(null, 1L, 0));
+            fail();
+        }
+        catch (DAOException ex) {
+            assertEquals("Trying to insert GamesPlayed with NULL Player ID", ex.getMessage());
+        }
+        try {
+            dao.scanByGame(null, null, row -> {});
+            fail();
+        }
+        catch (DAOException ex) {
+            assertEquals("Trying to scan GamesPlayed with NULL Game ID", ex.getMessage());
+        }
+
+        GamesPlayed gp = dao.retrieveID(null, rowIDs.get(0));
+        gp.setPlayerID(99L);
+        dao.update(null, gp);
+        assertEquals(4, dao.retrieveByPlayer(null, 1L).size());
+        assertEquals(1, dao.retrieveByPlayer(null, 99L).size());
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception
+    {
+        MemoryGamesPlayedDAO dao = new MemoryGamesPlayedDAO();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int thread = 0; thread < 4; thread++) {
+                long playerID = thread + 1;
+                futures.add(pool.submit(() -> {
+                    for (int idx = 0; idx < 500; idx++) {
+                        GamesPlayed gp = dao.create(null, buildGamesPlayed(playerID, idx % 10 + 1L, idx));
+                        if (idx % 5 == 0) {
+                            dao.delete(null, gp.getId());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+        assertEquals(1600, dao.count(null));
+        assertEquals(400, dao.retrieveByPlayer(null, 3L).size());
+        assertEquals(200, dao.retrieveByGame(null, 2L).size());
+    }
+
+    @Test
+    public void testServicesOverStore() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        Connection connection = store.getDataSource().getConnection();
+        connection.close();
+        assertTrue(connection.isClosed());
+
+        PlayerService service = store.playerService();
+        Player player = player(new Date());
+        player.getCreditCards().add(card());
+        service.create(player);
+
+        Player retrieved = service.retrieve(player.getId());
+        assertEquals(1, retrieved.getCreditCards().size());
+        assertEquals(player.getId(), retrieved.getCreditCards().get(0).getPlayerID());
+        service.delete(player.getId());
+        assertEquals(0, store.getCreditCardDAO().count(null));
+        assertEquals(0, store.getPlayerDAO().count(null));
+    }
+
+    @Test
+    public void testRollbackUndoesWrites() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        PlayerService service = store.playerService();
+        Player player = player(new Date());
+        player.getCreditCards().add(card());
+        CreditCard stored = card();
+        stored.setId(99L);
+        player.getCreditCards().add(stored);
+        try {
+            service.create(player);
+            fail();
+        }
+        catch (DAOException ex) {
+            assertEquals("Trying to insert CreditCard with NON-NULL ID", ex.getMessage());
+        }
+        // As with JDBC, neither the player nor the first card is left behind.
+        assertEquals(0, store.getPlayerDAO().count(null));
+        assertEquals(0, store.getCreditCardDAO().count(null));
+
+        MemoryGameDAO games = store.getGameDAO();
+        Game kept = games.create(null, buildGame("Kept", java.sql.Date.valueOf("2020-01-01")));
+        Game dropped = games.create(null, buildGame("Dropped", java.sql.Date.valueOf("2020-01-01")));
+        Connection connection = store.getDataSource().getConnection();
+        connection.setAutoCommit(false);
+        kept.setTitle("Renamed");
+        games.update(connection, kept);
+        games.delete(connection, dropped.getId());
+        Game added = games.create(connection, buildGame("Added", java.sql.Date.valueOf("2020-01-02")));
+        connection.rollback();
+        connection.setAutoCommit(true);
+        connection.close();
+        assertEquals("Kept", games.retrieve(null, kept.getId()).getTitle());
+        assertEquals(1, games.retrieveByTitle(null, "Dropped").size());
+        assertNull(games.retrieve(null, added.getId()));
+        assertEquals(2, games.count(null));
+
+        // Committed writes stay.
+        connection = store.getDataSource().getConnection();
+        connection.setAutoCommit(false);
+        games.delete(connection, dropped.getId());
+        connection.commit();
+        connection.rollback();
+        connection.close();
+        assertEquals(1, games.count(null));
+    }
+
+    private static CreditCard card()
+    {
+        CreditCard card = new CreditCard();
+        card.setCcName("Ann Lee");
+        card.setCcNumber("4111111111111111");
+        card.setExpDate("01/30");
+        card.setSecurityCode(123);
+        return card;
+    }
+
+    private static Player player(Date joinDate)
+    {
+        Player player = new Player();
+        player.setFirstName("Ann");
+        player.setLastName("Lee");
+        player.setEmail("ann@example.com");
+        player.setJoinDate(joinDate);
+        return player;
+    }
+}
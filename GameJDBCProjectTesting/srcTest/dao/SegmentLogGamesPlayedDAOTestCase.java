@@ -0,0 +1,162 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package dao;
+
+import static cs4347.jdbcGame.testing.TestEntities.buildGamesPlayed;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cs4347.jdbcGame.dao.memory.SegmentLogGamesPlayedDAO;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.util.DAOException;
+
+public class SegmentLogGamesPlayedDAOTestCase
+{
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("gamesPlayedLog").toFile();
+    }
+
+    @After
+    public void tearDown()
+    {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testContract() throws Exception
+    {
+        try (SegmentLogGamesPlayedDAO dao = new SegmentLogGamesPlayedDAO(directory, 16)) {
+            GamesPlayed gp = dao.create(null, buildGamesPlayed(1L, 2L, 50));
+            assertNotNull(gp.getId());
+            GamesPlayed retrieved = dao.retrieveID(null, gp.getId());
+            assertEquals(50, retrieved.getScore());
+            assertEquals(2L, (long) retrieved.getGameID());
+            assertTrue(retrieved.getTimeFinished() instanceof java.sql.Date);
+
+            retrieved.setScore(75);
+            retrieved.setGameID(3L);
+            assertEquals(1, dao.update(null, retrieved));
+            assertEquals(75, dao.retrieveID(null, gp.getId()).getScore());
+            assertEquals(0, dao.retrieveByGame(null, 2L).size());
+            assertEquals(1, dao.retrieveByPlayerGameID(null, 1L, 3L).size());
+
+            assertEquals(1, dao.delete(null, gp.getId()));
+            assertEquals(0, dao.delete(null, gp.getId()));
+            assertEquals(0, dao.update(null, retrieved));
+            assertNull(dao.retrieveID(null, gp.getId()));
+            assertEquals(0, dao.count(null));
+            try {
+                dao.create(null, gp);
+                fail();
+            }
+            catch (DAOException ex) {
+                assertEquals("Trying to insert GamesPlayed with NON-NULL ID", ex.getMessage());
+            }
+            try {
+                dao.scanByPlayer(null, null, row -> {});
+                fail();
+            }
+            catch (DAOException ex) {
+                assertEquals("Trying to scan GamesPlayed with NULL Player ID", ex.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testRecovery() throws Exception
+    {
+        long lastID;
+        try (SegmentLogGamesPlayedDAO dao = new SegmentLogGamesPlayedDAO(directory, 16)) {
+            for (int idx = 0; idx < 100; idx++) {
+                dao.create(null, buildGamesPlayed(idx % 7 + 1L, idx % 3 + 1L, idx));
+            }
+            for (long id = 1; id <= 100; id += 10) {
+                dao.delete(null, id);
+            }
+            GamesPlayed gp = dao.retrieveID(null, 2L);
+            gp.setScore(1000);
+            dao.update(null, gp);
+            lastID = dao.create(null, buildGamesPlayed(9L, 9L, 1)).getId();
+            assertTrue(dao.getSegmentCount() > 1);
+        }
+        try (SegmentLogGamesPlayedDAO dao = new SegmentLogGamesPlayedDAO(directory, 16)) {
+            assertEquals(91, dao.count(null));
+            assertNull(dao.retrieveID(null, 11L));
+            assertEquals(1000, dao.retrieveID(null, 2L).getScore());
+            assertEquals(1, dao.retrieveByPlayer(null, 9L).size());
+            assertEquals(91, dao.scanAll(null, row -> {}));
+            assertEquals(lastID + 1, (long) dao.create(null, buildGamesPlayed(1L, 1L, 0)).getId());
+        }
+    }
+
+    @Test
+    public void testCompaction() throws Exception
+    {
+        try (SegmentLogGamesPlayedDAO dao = new SegmentLogGamesPlayedDAO(directory, 1000)) {
+            for (int idx = 0; idx < 200; idx++) {
+                dao.create(null, buildGamesPlayed(idx % 4 + 1L, 1L, idx));
+            }
+            for (long id = 101; id <= 200; id++) {
+                dao.delete(null, id);
+            }
+            assertEquals(200, dao.getDeadRecords());
+            dao.compact();
+            assertEquals(0, dao.getDeadRecords());
+            assertEquals(1, dao.getSegmentCount());
+            assertEquals(100, dao.count(null));
+            List<GamesPlayed> forPlayer = dao.retrieveByPlayer(null, 2L);
+            assertEquals(25, forPlayer.size());
+            assertEquals(100, dao.scanAll(null, row -> {}));
+        }
+        try (SegmentLogGamesPlayedDAO dao = new SegmentLogGamesPlayedDAO(directory, 1000)) {
+            assertEquals(100, dao.count(null));
+            // The deleted IDs are not handed out again.
+            assertEquals(201L, (long) dao.create(null, buildGamesPlayed(1L, 1L, 0)).getId());
+        }
+    }
+
+    @Test
+    public void testAutomaticCompaction() throws Exception
+    {
+        try (SegmentLogGamesPlayedDAO dao = new SegmentLogGamesPlayedDAO(directory, 64)) {
+            GamesPlayed gp = dao.create(null, buildGamesPlayed(1L, 1L, 0));
+            for (int idx = 1; idx <= 1000; idx++) {
+                gp.setScore(idx);
+                dao.update(null, gp);
+            }
+            assertTrue(dao.getSegmentCount() <= 2);
+            assertEquals(1000, dao.retrieveID(null, gp.getId()).getScore());
+        }
+    }
+}
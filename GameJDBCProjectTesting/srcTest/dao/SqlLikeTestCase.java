@@ -0,0 +1,58 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.dao.memory.SqlLike;
+
+public class SqlLikeTestCase
+{
+    @Test
+    public void testWildcards()
+    {
+        assertTrue(SqlLike.matches("Space Raiders", "%Raid%"));
+        assertTrue(SqlLike.matches("Space Raiders", "space%"));
+        assertTrue(SqlLike.matches("Space Raiders", "%"));
+        assertTrue(SqlLike.matches("Space Raiders", "Sp_ce Raiders"));
+        assertTrue(SqlLike.matches("abcabc", "%abc"));
+        assertTrue(SqlLike.matches("aXbXc", "a%b%c"));
+        assertFalse(SqlLike.matches("Space Raiders", "Raid%"));
+        assertFalse(SqlLike.matches("Space", "Space_"));
+        assertFalse(SqlLike.matches("Space", "Spac"));
+        assertTrue(SqlLike.matches("", "%"));
+        assertFalse(SqlLike.matches(null, "%"));
+    }
+
+    @Test
+    public void testEscapes()
+    {
+        assertTrue(SqlLike.matches("100%", "100\\%"));
+        assertFalse(SqlLike.matches("1000", "100\\%"));
+        assertTrue(SqlLike.matches("a_b", "a\\_b"));
+        assertFalse(SqlLike.matches("axb", "a\\_b"));
+    }
+
+    @Test
+    public void testPrefix()
+    {
+        assertEquals("ali", SqlLike.literalPrefix("Ali%n"));
+        assertEquals("", SqlLike.literalPrefix("%x"));
+        assertEquals("a%b", SqlLike.literalPrefix("a\\%b_"));
+        assertTrue(SqlLike.isLiteral("Title"));
+        assertTrue(SqlLike.isLiteral("100\\%"));
+        assertFalse(SqlLike.isLiteral("T_tle"));
+    }
+}
@@ -0,0 +1,184 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package index;
+
+import static cs4347.jdbcGame.testing.TestEntities.buildGame;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.dao.memory.MemoryStore;
+import cs4347.jdbcGame.entity.CreditCard;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.index.DateRangeIndex;
+import cs4347.jdbcGame.index.GameCatalog;
+import cs4347.jdbcGame.index.PlayerCatalog;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.PlayerService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.PlayerServiceImpl;
+import cs4347.jdbcGame.util.DAOException;
+
+public class DateRangeIndexTestCase
+{
+    private static final LocalDate BASE = LocalDate.of(2020, 1, 1);
+
+    @Test
+    public void testMatchesBruteForce()
+    {
+        // Merges are held back and run between later writes, so the
+        // journal replay is exercised as well.
+        List<Runnable> pending = new ArrayList<Runnable>();
+        DateRangeIndex index = new DateRangeIndex(16, pending::add);
+        Map<Long, Integer> days = new HashMap<Long, Integer>();
+        Random random = new Random(3);
+        for (int step = 0; step < 5000; step++) {
+            // Mostly small IDs, plus keys that probe the ID map's edge cases.
+            long id = random.nextInt(50) == 0 ? (random.nextBoolean() ? Long.MIN_VALUE : -random.nextInt(10))
+                    : 1 + random.nextInt(500);
+            if (random.nextInt(5) == 0) {
+                index.remove(id);
+                days.remove(id);
+            }
+            else {
+                int day = random.nextInt(200);
+                index.put(id, date(day));
+                days.put(id, day);
+            }
+            if (!pending.isEmpty() && random.nextInt(8) == 0) {
+                pending.remove(0).run();
+            }
+            if (step % 250 == 0) {
+                int from = random.nextInt(200);
+                int to = from + random.nextInt(60);
+                assertArrayEquals(bruteForce(days, from, to), index.range(date(from), date(to)));
+                assertEquals(days.size(), index.size());
+            }
+        }
+        for (Runnable merge : pending) {
+            merge.run();
+        }
+        index.merge();
+        assertEquals(0, index.getDeltaSize());
+        assertTrue(index.getMergeCount() > 10);
+        assertArrayEquals(bruteForce(days, 0, 199), index.range(date(0), date(199)));
+        assertArrayEquals(bruteForce(days, 17, 17), index.range(date(17), date(17)));
+        assertEquals(days.size(), index.size());
+        assertEquals(0, index.range(date(5), date(4)).length);
+        assertEquals(0, index.range(null, date(4)).length);
+    }
+
+    @Test
+    public void testServicesUseCatalogs() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        GameCatalog gameCatalog = new GameCatalog();
+        GameService gameService = new GameServiceImpl(store.getDataSource(), store.getGameDAO(), gameCatalog);
+        PlayerService plainPlayers = store.playerService();
+        plainPlayers.create(player(date(3)));
+        PlayerCatalog playerCatalog = new PlayerCatalog();
+        playerCatalog.load(null, store.getPlayerDAO());
+        PlayerService playerService = new PlayerServiceImpl(store.getDataSource(), store.getPlayerDAO(),
+                store.getCreditCardDAO(), playerCatalog);
+
+        Game early = gameService.create(buildGame("Game", date(1)));
+        gameService.create(buildGame("Game", date(10)));
+        Player late = playerService.create(player(date(20)));
+        assertEquals(1, gameService.retrieveByReleaseDate(date(0), date(5)).size());
+        assertEquals(2, playerService.retrieveByJoinDate(date(0), date(30)).size());
+
+        early.setReleaseDate(date(12));
+        gameService.update(early);
+        assertEquals(0, gameService.retrieveByReleaseDate(date(0), date(5)).size());
+        assertEquals(early.getId(), gameService.retrieveByReleaseDate(date(11), date(12)).get(0).getId());
+
+        // A time of day does not matter, as with a DATE column.
+        Date noon = new Date(date(20).getTime() + 12 * 3600 * 1000L);
+        assertEquals(late.getId(), playerService.retrieveByJoinDate(noon, noon).get(0).getId());
+        playerService.delete(late.getId());
+        assertEquals(1, playerService.retrieveByJoinDate(date(0), date(30)).size());
+        assertEquals(plainPlayers.retrieveByJoinDate(date(0), date(30)).size(),
+                playerService.retrieveByJoinDate(date(0), date(30)).size());
+        try {
+            playerService.retrieveByJoinDate(null, date(30));
+            fail();
+        }
+        catch (DAOException ex) {
+            assertEquals("Trying to retrieve players with NULL dob", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testCatalogLoadsUntitledGames() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        Game untitled = buildGame("Game", date(2));
+        untitled.setTitle(null);
+        store.getGameDAO().create(null, untitled);
+        store.getGameDAO().create(null, buildGame("Game", date(3)));
+        GameCatalog catalog = new GameCatalog();
+        catalog.load(null, store.getGameDAO());
+
+        assertEquals(2, catalog.size());
+        assertEquals(store.getGameDAO().retrieveByReleaseDate(null, date(0), date(5)).size(),
+                catalog.retrieveByReleaseDate(date(0), date(5)).size());
+        assertEquals(1, catalog.retrieveByTitle("%").size());
+    }
+
+    private static long[] bruteForce(Map<Long, Integer> days, int from, int to)
+    {
+        List<long[]> entries = new ArrayList<long[]>();
+        for (Map.Entry<Long, Integer> entry : days.entrySet()) {
+            if (entry.getValue() >= from && entry.getValue() <= to) {
+                entries.add(new long[] { entry.getValue(), entry.getKey() });
+            }
+        }
+        entries.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        long[] ids = new long[entries.size()];
+        for (int idx = 0; idx < ids.length; idx++) {
+            ids[idx] = entries.get(idx)[1];
+        }
+        return ids;
+    }
+
+    private static Date date(int day)
+    {
+        return java.sql.Date.valueOf(BASE.plusDays(day));
+    }
+
+    private static Player player(Date joinDate)
+    {
+        Player player = new Player();
+        player.setFirstName("Ann");
+        player.setLastName("Lee");
+        player.setEmail("ann@example.com");
+        player.setJoinDate(joinDate);
+        CreditCard card = new CreditCard();
+        card.setCcName("Ann Lee");
+        card.setCcNumber("4111111111111111");
+        card.setExpDate("01/30");
+        card.setSecurityCode(123);
+        player.getCreditCards().add(card);
+        return player;
+    }
+}
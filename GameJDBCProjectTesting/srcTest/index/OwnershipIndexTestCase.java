@@ -0,0 +1,280 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package index;
+
+import static cs4347.jdbcGame.testing.TestEntities.buildGamesOwned;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.RowVisitor;
+import cs4347.jdbcGame.dao.memory.MemoryStore;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesOwnedRow;
+import cs4347.jdbcGame.index.OwnershipIndex;
+import cs4347.jdbcGame.index.RoaringBitmap;
+import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+
+public class OwnershipIndexTestCase
+{
+    @Test
+    public void testBitmapMatchesTreeSet()
+    {
+        Random random = new Random(9);
+        RoaringBitmap a = new RoaringBitmap();
+        RoaringBitmap b = new RoaringBitmap();
+        TreeSet<Long> setA = new TreeSet<Long>();
+        TreeSet<Long> setB = new TreeSet<Long>();
+        // Chunk 0 turns dense and back, chunk 3 stays sparse.
+        for (int step = 0; step < 40000; step++) {
+            long id = random.nextInt(4) == 0 ? (3L << 16) + random.nextInt(60000) : random.nextInt(9000);
+            boolean remove = step > 20000 && random.nextInt(3) > 0;
+            assertEquals(remove ? setA.remove(id) : setA.add(id), remove ? a.remove(id) : a.add(id));
+            long other = random.nextInt(12000);
+            setB.add(other);
+            b.add(other);
+        }
+        assertEquals(setA.size(), a.cardinality());
+        assertArrayEquals(toArray(setA), a.toArray());
+        for (long id = 0; id < 9000; id += 7) {
+            assertEquals(setA.contains(id), a.contains(id));
+        }
+        TreeSet<Long> both = new TreeSet<Long>(setA);
+        both.retainAll(setB);
+        assertArrayEquals(toArray(both), a.and(b).toArray());
+        assertArrayEquals(toArray(both), b.and(a).toArray());
+        assertEquals(both.size(), a.andCardinality(b));
+        assertEquals(both.size(), b.andCardinality(a));
+
+        // Array chunks of similar and of very different sizes.
+        for (int smallSize : new int[] { 40, 3000 }) {
+            RoaringBitmap small = new RoaringBitmap();
+            RoaringBitmap large = new RoaringBitmap();
+            TreeSet<Long> expected = new TreeSet<Long>();
+            TreeSet<Long> largeSet = new TreeSet<Long>();
+            for (int idx = 0; idx < 4000; idx++) {
+                long id = (5L << 16) + random.nextInt(65536);
+                large.add(id);
+                largeSet.add(id);
+            }
+            for (int idx = 0; idx < smallSize; idx++) {
+                long id = (5L << 16) + random.nextInt(65536);
+                small.add(id);
+                if (largeSet.contains(id)) {
+                    expected.add(id);
+                }
+            }
+            assertEquals(expected.size(), small.andCardinality(large));
+            assertEquals(expected.size(), large.andCardinality(small));
+            assertArrayEquals(toArray(expected), small.and(large).toArray());
+        }
+    }
+
+    @Test
+    public void testMemoryPerOwnership()
+    {
+        OwnershipIndex index = new OwnershipIndex();
+        Random random = new Random(1);
+        for (long gameID = 1; gameID <= 100; gameID++) {
+            for (int idx = 0; idx < 10000; idx++) {
+                index.add(1 + random.nextInt(100000), gameID);
+            }
+        }
+        double perOwnership = (double) index.getMemoryBytes() / index.getOwnershipCount();
+        assertTrue("bytes per ownership: " + perOwnership, perOwnership < 4);
+    }
+
+    @Test
+    public void testServiceKeepsIndexCurrent() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        GamesOwnedService plain = store.gamesOwnedService();
+        plain.create(buildGamesOwned(1L, 10L));
+        plain.create(buildGamesOwned(2L, 10L));
+        plain.create(buildGamesOwned(2L, 20L));
+
+        OwnershipIndex index = new OwnershipIndex();
+        index.load(null, store.getGamesOwnedDAO());
+        GamesOwnedServiceImpl service = new GamesOwnedServiceImpl(store.getDataSource(), store.getGamesOwnedDAO(),
+                index, null);
+        assertTrue(service.owns(1, 10));
+        assertFalse(service.owns(1, 20));
+        assertNull(service.retrievePlayerGameID(1, 20));
+        assertEquals(2, service.countOwners(10));
+        assertArrayEquals(new long[] { 2 }, index.ownersOfAll(10, 20));
+
+        // A second row for the same ownership keeps it alive when one goes.
+        GamesOwned extra = service.create(buildGamesOwned(1L, 10L));
+        assertEquals(2, service.countOwners(10));
+        service.delete(extra.getId());
+        assertTrue(service.owns(1, 10));
+
+        GamesOwned moved = service.retrievePlayerGameID(1, 10);
+        moved.setGameID(20L);
+        service.update(moved);
+        assertFalse(service.owns(1, 10));
+        assertTrue(index.ownsAll(2, 10, 20));
+        assertEquals(2, index.countOwnersOfAll(20));
+        assertEquals(1, index.countOwnersOfAll(10, 20));
+        assertEquals(0, index.countOwnersOfAll(10, 30));
+
+        // The database path gives the same answers.
+        assertEquals(service.countOwners(20), plain.countOwners(20));
+        assertEquals(service.owns(1, 20), plain.owns(1, 20));
+        assertEquals(service.owns(1, 10), plain.owns(1, 10));
+    }
+
+    @Test
+    public void testWriteDuringLoadIsKept() throws Exception
+    {
+        MemoryStore store = ownersOfGame10();
+        OwnershipIndex index = new OwnershipIndex();
+        GamesOwnedServiceImpl service = new GamesOwnedServiceImpl(store.getDataSource(), store.getGamesOwnedDAO(),
+                index, null);
+
+        index.load(null, scanning(store.getGamesOwnedDAO(), true, () -> service.create(buildGamesOwned(7L, 70L))));
+
+        assertTrue(index.owns(7, 70));
+        assertNotNull(service.retrievePlayerGameID(7, 70));
+        assertEquals(5, index.countOwners(10));
+    }
+
+    @Test
+    public void testCreateAndDeleteDuringLoad() throws Exception
+    {
+        MemoryStore store = ownersOfGame10();
+        OwnershipIndex index = new OwnershipIndex();
+        GamesOwnedServiceImpl service = new GamesOwnedServiceImpl(store.getDataSource(), store.getGamesOwnedDAO(),
+                index, null);
+
+        index.load(null, scanning(store.getGamesOwnedDAO(), true, () -> {
+            GamesOwned bought = service.create(buildGamesOwned(7L, 70L));
+            return service.delete(bought.getId());
+        }));
+
+        assertFalse(service.owns(7, 70));
+        assertEquals(0, service.countOwners(70));
+        assertEquals(5, index.getOwnershipCount());
+    }
+
+    @Test
+    public void testLiveScanAppliesWritesOnce() throws Exception
+    {
+        MemoryStore store = ownersOfGame10();
+        OwnershipIndex index = new OwnershipIndex();
+        GamesOwnedServiceImpl service = new GamesOwnedServiceImpl(store.getDataSource(), store.getGamesOwnedDAO(),
+                index, null);
+        long first = store.gamesOwnedService().retrievePlayerGameID(1, 10).getId();
+        long last = store.gamesOwnedService().retrievePlayerGameID(5, 10).getId();
+
+        // The scan sees the new purchase, and has read player 1's row but not
+        // player 5's when both are deleted.
+        List<GamesOwned> bought = new ArrayList<GamesOwned>();
+        index.load(null, scanning(store.getGamesOwnedDAO(), false, () -> {
+            bought.add(service.create(buildGamesOwned(7L, 70L)));
+            service.delete(first);
+            return service.delete(last);
+        }));
+        assertTrue(service.owns(7, 70));
+        assertFalse(service.owns(1, 10));
+        assertFalse(service.owns(5, 10));
+        assertEquals(3, service.countOwners(10));
+
+        // Counted once, so the only row really removes the ownership.
+        service.delete(bought.get(0).getId());
+        assertFalse(service.owns(7, 70));
+        assertEquals(3, index.getOwnershipCount());
+    }
+
+    private static MemoryStore ownersOfGame10() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        for (long playerID = 1; playerID <= 5; playerID++) {
+            store.gamesOwnedService().create(buildGamesOwned(playerID, 10L));
+        }
+        return store;
+    }
+
+    /**
+     * A DAO whose scanAll() visits the first half of the rows, runs the
+     * writes, and then visits the rest: those read before the writes when
+     * snapshot is set, like InnoDB, or else those present after them.
+     */
+    private static GamesOwnedDAO scanning(GamesOwnedDAO dao, boolean snapshot, Callable<?> writes)
+    {
+        return (GamesOwnedDAO) Proxy.newProxyInstance(OwnershipIndexTestCase.class.getClassLoader(),
+                new Class<?>[] { GamesOwnedDAO.class }, (proxy, method, args) -> {
+                    if (!method.getName().equals("scanAll")) {
+                        return method.invoke(dao, args);
+                    }
+                    @SuppressWarnings("unchecked")
+                    RowVisitor<GamesOwnedRow> visitor = (RowVisitor<GamesOwnedRow>) args[1];
+                    List<GamesOwned> before = rows(dao, (Connection) args[0]);
+                    int split = before.size() / 2;
+                    for (GamesOwned owned : before.subList(0, split)) {
+                        visitor.visit(toRow(owned));
+                    }
+                    writes.call();
+                    List<GamesOwned> rest = snapshot ? before : rows(dao, (Connection) args[0]);
+                    long lastID = split == 0 ? Long.MIN_VALUE : before.get(split - 1).getId();
+                    int count = split;
+                    for (GamesOwned owned : rest) {
+                        if (owned.getId() > lastID) {
+                            visitor.visit(toRow(owned));
+                            count++;
+                        }
+                    }
+                    return count;
+                });
+    }
+
+    private static List<GamesOwned> rows(GamesOwnedDAO dao, Connection connection) throws Exception
+    {
+        List<GamesOwned> rows = new ArrayList<GamesOwned>();
+        dao.scanAll(connection, row -> rows.add(row.toGamesOwned()));
+        rows.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        return rows;
+    }
+
+    private static GamesOwnedRow toRow(GamesOwned owned)
+    {
+        GamesOwnedRow row = new GamesOwnedRow();
+        row.setId(owned.getId());
+        row.setPlayerID(owned.getPlayerID());
+        row.setGameID(owned.getGameID());
+        return row;
+    }
+
+    private static long[] toArray(TreeSet<Long> set)
+    {
+        long[] result = new long[set.size()];
+        int idx = 0;
+        for (long id : set) {
+            result[idx++] = id;
+        }
+        return result;
+    }
+}
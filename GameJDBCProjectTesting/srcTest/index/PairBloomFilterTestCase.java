@@ -0,0 +1,180 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package index;
+
+import static cs4347.jdbcGame.testing.TestEntities.buildGamesOwned;
+import static cs4347.jdbcGame.testing.TestEntities.buildGamesPlayed;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.analytics.ScorePercentiles;
+import cs4347.jdbcGame.dao.RowVisitor;
+import cs4347.jdbcGame.dao.memory.MemoryGamesOwnedDAO;
+import cs4347.jdbcGame.dao.memory.MemoryStore;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesOwnedRow;
+import cs4347.jdbcGame.index.OwnershipIndex;
+import cs4347.jdbcGame.index.PairBloomFilter;
+import cs4347.jdbcGame.index.UniquePlayersIndex;
+import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+import cs4347.jdbcGame.util.DAOException;
+
+public class PairBloomFilterTestCase
+{
+    @Test
+    public void testFalsePositiveRate()
+    {
+        PairBloomFilter filter = new PairBloomFilter(100000, 0.01);
+        for (long playerID = 1; playerID <= 1000; playerID++) {
+            for (long gameID = 1; gameID <= 100; gameID++) {
+                filter.add(playerID, gameID);
+            }
+        }
+        for (long playerID = 1; playerID <= 1000; playerID++) {
+            for (long gameID = 1; gameID <= 100; gameID++) {
+                assertTrue(filter.mightContain(playerID, gameID));
+            }
+        }
+        int falsePositives = 0;
+        for (long playerID = 1; playerID <= 1000; playerID++) {
+            for (long gameID = 101; gameID <= 200; gameID++) {
+                if (filter.mightContain(playerID, gameID)) {
+                    falsePositives++;
+                    filter.recordFalsePositive();
+                }
+            }
+        }
+        assertTrue("false positives: " + falsePositives, falsePositives < 2000);
+        assertEquals(falsePositives / 100000.0, filter.getObservedFalsePositiveRate(), 1e-9);
+        assertEquals(0.01, filter.getExpectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    public void testRebuildDropsDeletesAndKeepsConcurrentWrites() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        GamesOwnedService plain = store.gamesOwnedService();
+        GamesOwned gone = plain.create(buildGamesOwned(1L, 10L));
+        plain.create(buildGamesOwned(2L, 10L));
+
+        PairBloomFilter filter = new PairBloomFilter(1000, 0.001);
+        // A row committed while the scan runs must survive the swap.
+        MemoryGamesOwnedDAO racingDAO = new MemoryGamesOwnedDAO()
+        {
+            @Override
+            public int scanAll(Connection connection, RowVisitor<GamesOwnedRow> visitor)
+                    throws SQLException, DAOException
+            {
+                filter.add(3, 30);
+                return store.getGamesOwnedDAO().scanAll(connection, visitor);
+            }
+        };
+        filter.rebuild(null, store.getGamesOwnedDAO());
+        assertTrue(filter.mightContain(1, 10));
+        plain.delete(gone.getId());
+        filter.rebuild(null, racingDAO);
+        assertFalse(filter.mightContain(1, 10));
+        assertTrue(filter.mightContain(2, 10));
+        assertTrue(filter.mightContain(3, 30));
+        assertEquals(2, filter.getRebuilds());
+    }
+
+    @Test
+    public void testRebuildSizedForTableRows() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        GamesOwnedService plain = store.gamesOwnedService();
+        for (long playerID = 1; playerID <= 2000; playerID++) {
+            plain.create(buildGamesOwned(playerID, 10L));
+        }
+        PairBloomFilter filter = new PairBloomFilter(10, 0.01);
+        filter.rebuild(null, store.getGamesOwnedDAO());
+        assertEquals(new PairBloomFilter(2000, 0.01).getSizeInBits(), filter.getSizeInBits());
+
+        // Re-adding pairs and deleting rows do not inflate the next filter.
+        for (int idx = 0; idx < 50000; idx++) {
+            filter.add(1, 10);
+        }
+        for (GamesOwned owned : plain.retrieveByGame(10L).subList(0, 1990)) {
+            plain.delete(owned.getId());
+        }
+        filter.rebuild(null, store.getGamesOwnedDAO());
+        assertEquals(new PairBloomFilter(10, 0.01).getSizeInBits(), filter.getSizeInBits());
+    }
+
+    @Test
+    public void testServicesSkipDefiniteMisses() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        PairBloomFilter ownedFilter = new PairBloomFilter(1000, 0.001);
+        PairBloomFilter playedFilter = new PairBloomFilter(1000, 0.001);
+        ownedFilter.rebuild(null, store.getGamesOwnedDAO());
+        playedFilter.rebuild(null, store.getGamesPlayedDAO());
+        GamesOwnedServiceImpl owned = new GamesOwnedServiceImpl(store.getDataSource(), store.getGamesOwnedDAO(),
+                null, ownedFilter);
+        GamesPlayedServiceImpl played = new GamesPlayedServiceImpl(store.getDataSource(),
+                store.getGamesPlayedDAO(), playedFilter, null, null);
+
+        owned.create(buildGamesOwned(1L, 10L));
+        played.create(buildGamesPlayed(1L, 10L));
+        assertEquals(Long.valueOf(10), owned.retrievePlayerGameID(1, 10).getGameID());
+        assertEquals(1, played.retrieveByPlayerGameID(1, 10).size());
+        for (long gameID = 11; gameID < 111; gameID++) {
+            assertNull(owned.retrievePlayerGameID(1, gameID));
+            assertTrue(played.retrieveByPlayerGameID(1, gameID).isEmpty());
+        }
+        assertEquals(100, ownedFilter.getNegatives() + ownedFilter.getFalsePositives());
+        assertTrue(ownedFilter.getObservedFalsePositiveRate() < 0.05);
+        assertTrue(playedFilter.getNegatives() > 90);
+    }
+
+    @Test
+    public void testCombinesWithOtherIndexes() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        PairBloomFilter ownedFilter = new PairBloomFilter(1000, 0.001);
+        PairBloomFilter playedFilter = new PairBloomFilter(1000, 0.001);
+        OwnershipIndex ownership = new OwnershipIndex();
+        UniquePlayersIndex uniquePlayers = new UniquePlayersIndex();
+        ScorePercentiles percentiles = new ScorePercentiles();
+        ownedFilter.rebuild(null, store.getGamesOwnedDAO());
+        playedFilter.rebuild(null, store.getGamesPlayedDAO());
+        ownership.load(null, store.getGamesOwnedDAO());
+        uniquePlayers.rebuild(null, store.getGamesPlayedDAO());
+        percentiles.rebuild(null, store.getGamesPlayedDAO());
+        GamesOwnedServiceImpl owned = new GamesOwnedServiceImpl(store.getDataSource(), store.getGamesOwnedDAO(),
+                ownership, ownedFilter);
+        GamesPlayedServiceImpl played = new GamesPlayedServiceImpl(store.getDataSource(),
+                store.getGamesPlayedDAO(), playedFilter, uniquePlayers, percentiles);
+
+        for (long playerID = 1; playerID <= 3; playerID++) {
+            owned.create(buildGamesOwned(playerID, 10L));
+            played.create(buildGamesPlayed(playerID, 10L, (int) playerID * 10));
+        }
+        assertTrue(ownedFilter.mightContain(3, 10));
+        assertTrue(owned.owns(3, 10));
+        assertEquals(3, owned.countOwners(10));
+        assertTrue(playedFilter.mightContain(3, 10));
+        assertEquals(3, played.countUniquePlayers(10));
+        assertEquals(20, played.scorePercentiles(10, 0.5)[0], 0);
+        assertNull(owned.retrievePlayerGameID(4, 10));
+    }
+
+}
@@ -0,0 +1,210 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package index;
+
+import static cs4347.jdbcGame.testing.TestEntities.buildGame;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.dao.memory.MemoryStore;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.index.GameCatalog;
+import cs4347.jdbcGame.index.TextIndex;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+
+public class TextIndexTestCase
+{
+    private static final String[] WORDS = { "Drama", "Cat", "Mad", "Scientist", "Cow", "Dentist", "Boy", "Japan",
+            "Battle", "MySQL", "Convention", "Fast-Paced" };
+
+    @Test
+    public void testMatchesBruteForce() throws Exception
+    {
+        Random random = new Random(5);
+        TextIndex index = new TextIndex();
+        Map<Long, String> texts = new HashMap<Long, String>();
+        // Out of order IDs, re-indexing and removal exercise every posting path.
+        for (int step = 0; step < 2000; step++) {
+            long id = 1 + random.nextInt(400);
+            if (random.nextInt(6) == 0) {
+                index.remove(id);
+                texts.remove(id);
+            }
+            else {
+                String title = randomText(random, 2);
+                String description = randomText(random, 8);
+                index.put(id, title, description);
+                texts.put(id, title + " " + description);
+            }
+        }
+
+        String[] queries = { "cat", "CAT mad", "mad cat scientist", "cow OR dentist", "japan boy OR mysql",
+                "fast", "fast-paced cow", "nothing", "cat nothing OR japan", "", "OR" };
+        for (String query : queries) {
+            assertEquals(query, bruteForce(texts, query), index.search(query));
+        }
+        assertEquals(texts.size(), index.size());
+
+        File file = File.createTempFile("games", ".idx");
+        try {
+            index.save(file);
+            TextIndex loaded = TextIndex.read(file);
+            for (String query : queries) {
+                assertEquals(query, index.search(query), loaded.search(query));
+            }
+            assertEquals(index.getPostingBytes(), loaded.getPostingBytes());
+
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.seek(20);
+                raf.write(raf.read() ^ 1);
+            }
+            assertNull(TextIndex.read(file));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testServiceSearchAndReload() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        GameService plain = store.gameService();
+        plain.create(buildGame("Alien Center", "A Brilliant Drama of a Cat And a Mad Scientist"));
+        Game moon = plain.create(buildGame("Iron Moon", "A Fast-Paced Documentary of a Mad Cow And a Boy"));
+
+        File directory = Files.createTempDirectory("textIndex").toFile();
+        File file = new File(directory, "games.idx");
+        try {
+            GameCatalog catalog = new GameCatalog();
+            catalog.load(null, store.getGameDAO(), file);
+            GameService gameService = new GameServiceImpl(store.getDataSource(), store.getGameDAO(), catalog);
+            assertEquals(2, gameService.search("mad").size());
+            assertEquals("Iron Moon", gameService.search("MAD cow").get(0).getTitle());
+
+            Game sub = gameService.create(buildGame("Ridgemont Submarine", "A Drama of a Waitress in Ancient Japan"));
+            assertEquals(2, gameService.search("drama").size());
+            assertEquals(2, gameService.search("waitress OR scientist").size());
+            catalog.saveTextIndex(file);
+
+            // Changes made while the service was down are picked up on load.
+            moon.setDescription("A Documentary of a Dentist");
+            plain.update(moon);
+            plain.delete(sub.getId());
+            GameCatalog reloaded = new GameCatalog();
+            reloaded.load(null, store.getGameDAO(), file);
+            assertEquals(0, reloaded.search("waitress").size());
+            assertEquals(1, reloaded.search("dentist").size());
+            assertFalse(reloaded.getTextIndex().put(moon.getId(), moon.getTitle(), moon.getDescription()));
+            assertEquals(Arrays.asList(1L, moon.getId()), reloaded.getTextIndex().search("a"));
+
+            // Without a catalog the same answer comes from the database.
+            assertEquals(1, plain.search("Brilliant cat").size());
+            assertTrue(plain.search("waitress").isEmpty());
+        }
+        finally {
+            for (File each : directory.listFiles()) {
+                each.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void testSearchWithoutCatalog() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        GameService plain = store.gameService();
+        Game cat = plain.create(buildGame("Alien Center", "A Drama of a Cat And a Mad Scientist"));
+        plain.create(buildGame("Scattered Moon", "A Documentary of a Mad Cow"));
+        Game dentist = plain.create(buildGame("Ridgemont Submarine", "A Drama of a Dentist"));
+
+        // LIKE also finds "Scattered"; only whole words are returned.
+        List<Game> found = plain.search("cat");
+        assertEquals(1, found.size());
+        assertEquals(cat.getId(), found.get(0).getId());
+        found = plain.search("drama cat OR dentist");
+        assertEquals(2, found.size());
+        assertEquals(dentist.getId(), found.get(1).getId());
+        assertTrue(plain.search("   ").isEmpty());
+        assertEquals(1, store.getGameDAO().retrieveByWords(null, Arrays.asList("mad"), 0, 1).size());
+    }
+
+    @Test
+    public void testWholeWordsPastFirstPage() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        GameService plain = store.gameService();
+        // Every one of these matches LIKE '%cat%' but not the word "cat".
+        for (int idx = 0; idx < 1200; idx++) {
+            plain.create(buildGame("Education " + idx, "A Documentary of a Scattered Boy"));
+        }
+        Game cat = plain.create(buildGame("Alien Center", "A Drama of a Cat"));
+
+        List<Game> found = plain.search("cat");
+        assertEquals(1, found.size());
+        assertEquals(cat.getId(), found.get(0).getId());
+    }
+
+    @Test
+    public void testPutComparesTerms()
+    {
+        // "Aa" and "BB" have the same String.hashCode().
+        TextIndex index = new TextIndex();
+        assertTrue(index.put(1, "Aa", "A Drama"));
+        assertTrue(index.put(1, "BB", "A Drama"));
+        assertFalse(index.put(1, "bb", "a drama"));
+        assertEquals(Arrays.asList(1L), index.search("bb"));
+        assertTrue(index.search("aa").isEmpty());
+    }
+
+    private static List<Long> bruteForce(Map<Long, String> texts, String query)
+    {
+        List<Long> result = new ArrayList<Long>();
+        for (Map.Entry<Long, String> entry : texts.entrySet()) {
+            List<String> terms = TextIndex.tokenize(entry.getValue());
+            boolean any = false;
+            for (String clause : query.split(" OR ")) {
+                List<String> words = TextIndex.tokenize(clause.equals("OR") ? "" : clause);
+                any |= !words.isEmpty() && terms.containsAll(words);
+            }
+            if (any) {
+                result.add(entry.getKey());
+            }
+        }
+        result.sort(null);
+        return result;
+    }
+
+    private static String randomText(Random random, int words)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int idx = 0; idx < words; idx++) {
+            sb.append(idx == 0 ? "A " : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
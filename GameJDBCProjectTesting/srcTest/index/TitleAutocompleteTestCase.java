@@ -0,0 +1,210 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package index;
+
+import static cs4347.jdbcGame.testing.TestEntities.buildGame;
+import static cs4347.jdbcGame.testing.TestEntities.buildGamesOwned;
+import static cs4347.jdbcGame.testing.TestEntities.buildGamesPlayed;
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.RowVisitor;
+import cs4347.jdbcGame.dao.memory.MemoryStore;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedRow;
+import cs4347.jdbcGame.index.GameCatalog;
+import cs4347.jdbcGame.index.TitleAutocomplete;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+
+public class TitleAutocompleteTestCase
+{
+    private static final String[] WORDS = { "Moon", "Mad", "Maze", "Sea", "Sun", "Dark", "Raid" };
+
+    @Test
+    public void testMatchesBruteForce()
+    {
+        Random random = new Random(11);
+        TitleAutocomplete autocomplete = new TitleAutocomplete(5);
+        Map<Long, String> titles = new HashMap<Long, String>();
+        Map<Long, Long> popularity = new HashMap<Long, Long>();
+        for (int step = 0; step < 3000; step++) {
+            long id = 1 + random.nextInt(300);
+            int op = random.nextInt(10);
+            if (op < 4) {
+                String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+                autocomplete.putTitle(id, title);
+                titles.put(id, title);
+            }
+            else if (op < 5) {
+                autocomplete.removeTitle(id);
+                titles.remove(id);
+            }
+            else {
+                long delta = random.nextInt(4) == 0 ? -1 : 1;
+                autocomplete.addPopularity(id, delta);
+                popularity.merge(id, delta, Long::sum);
+            }
+        }
+
+        String[] prefixes = { "", "m", "MA", "maz", "moon s", "Dark Raid", "x" };
+        for (String prefix : prefixes) {
+            for (int k : new int[] { 1, 3, 5, 20 }) {
+                assertEquals(prefix + "/" + k, bruteForce(titles, popularity, prefix, k),
+                        autocomplete.suggest(prefix, k));
+            }
+        }
+    }
+
+    @Test
+    public void testServiceRanksByPlaysAndOwners() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        GameCatalog catalog = new GameCatalog();
+        GameService gameService = new GameServiceImpl(store.getDataSource(), store.getGameDAO(), catalog);
+        Game maze = gameService.create(buildGame("Maze Runner"));
+        Game mad = gameService.create(buildGame("Mad Max"));
+        gameService.create(buildGame("Moon Base"));
+        gameService.create(buildGame("Sea Wolf"));
+
+        GamesPlayedServiceImpl playedService = new GamesPlayedServiceImpl(store.getDataSource(),
+                store.getGamesPlayedDAO());
+        GamesOwnedServiceImpl ownedService = new GamesOwnedServiceImpl(store.getDataSource(),
+                store.getGamesOwnedDAO());
+        playedService.addListener(catalog.getAutocomplete().playsListener());
+        ownedService.addListener(catalog.getAutocomplete().ownershipListener());
+
+        // Without popularity the titles come in alphabetical order.
+        assertEquals(Arrays.asList("Mad Max", "Maze Runner", "Moon Base"), gameService.autocomplete("m", 5));
+
+        playedService.create(buildGamesPlayed(maze.getId()));
+        playedService.create(buildGamesPlayed(maze.getId()));
+        GamesOwned owned = ownedService.create(buildGamesOwned(mad.getId()));
+        ownedService.create(buildGamesOwned(mad.getId()));
+        ownedService.create(buildGamesOwned(mad.getId()));
+        assertEquals(Arrays.asList("Mad Max", "Maze Runner"), gameService.autocomplete("MA", 2));
+
+        // Moving one owner from Mad Max to Maze Runner flips the order.
+        owned.setGameID(maze.getId());
+        ownedService.update(owned);
+        assertEquals(Arrays.asList("Maze Runner", "Mad Max"), gameService.autocomplete("ma", 2));
+        ownedService.delete(owned.getId());
+        assertEquals(Arrays.asList("Mad Max", "Maze Runner"), gameService.autocomplete("ma", 2));
+
+        // A fresh index loaded from the tables agrees.
+        TitleAutocomplete loaded = new TitleAutocomplete();
+        for (Game game : gameService.retrieveByTitle("%")) {
+            loaded.putTitle(game.getId(), game.getTitle());
+        }
+        loaded.loadPopularity(null, store.getGamesPlayedDAO(), store.getGamesOwnedDAO());
+        assertEquals(gameService.autocomplete("", 10), loaded.suggest("", 10));
+        assertEquals(2, loaded.getPopularity(maze.getId()));
+
+        // The database path returns the same titles in title order.
+        GameService plain = store.gameService();
+        assertEquals(Arrays.asList("Mad Max", "Maze Runner"), plain.autocomplete("Ma", 5));
+        assertEquals(0, plain.autocomplete("M%", 5).size());
+    }
+
+    @Test
+    public void testWritesDuringLoadAreKept() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        GamesPlayedServiceImpl playedService = new GamesPlayedServiceImpl(store.getDataSource(),
+                store.getGamesPlayedDAO());
+        GamesOwnedServiceImpl ownedService = new GamesOwnedServiceImpl(store.getDataSource(),
+                store.getGamesOwnedDAO());
+        List<GamesPlayed> plays = new ArrayList<GamesPlayed>();
+        for (int idx = 0; idx < 4; idx++) {
+            plays.add(playedService.create(buildGamesPlayed(1L)));
+        }
+        ownedService.create(buildGamesOwned(2L));
+
+        TitleAutocomplete autocomplete = new TitleAutocomplete();
+        playedService.addListener(autocomplete.playsListener());
+        ownedService.addListener(autocomplete.ownershipListener());
+        // The scan reads two plays, then the writes commit, then it reads the rest as they are now.
+        GamesPlayedDAO dao = store.getGamesPlayedDAO();
+        long lastRead = plays.get(1).getId();
+        GamesPlayedDAO scanning = (GamesPlayedDAO) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { GamesPlayedDAO.class }, (proxy, method, args) -> {
+                    if (!method.getName().equals("scanAll")) {
+                        return method.invoke(dao, args);
+                    }
+                    @SuppressWarnings("unchecked")
+                    RowVisitor<GamesPlayedRow> visitor = (RowVisitor<GamesPlayedRow>) args[1];
+                    int[] count = new int[1];
+                    dao.scanAll((Connection) args[0], row -> {
+                        if (row.getId() <= lastRead) {
+                            visitor.visit(row);
+                            count[0]++;
+                        }
+                    });
+                    playedService.create(buildGamesPlayed(2L));
+                    playedService.delete(plays.get(0).getId());
+                    GamesPlayed moved = plays.get(3);
+                    moved.setGameID(2L);
+                    playedService.update(moved);
+                    autocomplete.addPopularity(3L, 5);
+                    dao.scanAll((Connection) args[0], row -> {
+                        if (row.getId() > lastRead) {
+                            visitor.visit(row);
+                            count[0]++;
+                        }
+                    });
+                    return count[0];
+                });
+        autocomplete.loadPopularity(null, scanning, store.getGamesOwnedDAO());
+
+        assertEquals(2, autocomplete.getPopularity(1L));
+        assertEquals(3, autocomplete.getPopularity(2L));
+        assertEquals(5, autocomplete.getPopularity(3L));
+
+        // Writes after the load are no longer journaled.
+        playedService.delete(plays.get(1).getId());
+        assertEquals(1, autocomplete.getPopularity(1L));
+    }
+
+    private static List<String> bruteForce(Map<Long, String> titles, Map<Long, Long> popularity, String prefix,
+            int k)
+    {
+        List<Long> ids = new ArrayList<Long>();
+        for (Map.Entry<Long, String> entry : titles.entrySet()) {
+            if (entry.getValue().toLowerCase().startsWith(prefix.toLowerCase())) {
+                ids.add(entry.getKey());
+            }
+        }
+        ids.sort(Comparator.comparingLong((Long id) -> -popularity.getOrDefault(id, 0L))
+                .thenComparing(id -> titles.get(id).toLowerCase()).thenComparingLong(id -> id));
+        List<String> result = new ArrayList<String>();
+        for (int idx = 0; idx < ids.size() && idx < k; idx++) {
+            result.add(titles.get(ids.get(idx)));
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,118 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package index;
+
+import static cs4347.jdbcGame.testing.TestEntities.buildGame;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.dao.memory.MemoryStore;
+import cs4347.jdbcGame.dao.memory.SqlLike;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.index.GameCatalog;
+import cs4347.jdbcGame.index.TitleIndex;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+
+public class TitleIndexTestCase
+{
+    private static final String[] WORDS = { "Moon", "Sea", "Dark", "Raid", "of", "the", "Cat", "Mad", "100%" };
+
+    @Test
+    public void testMatchesLike()
+    {
+        Random random = new Random(7);
+        TitleIndex index = new TitleIndex();
+        Map<Long, String> titles = new HashMap<Long, String>();
+        for (long id = 1; id <= 500; id++) {
+            String title = randomTitle(random);
+            index.put(id, title);
+            titles.put(id, title);
+        }
+        // Renames and deletes must leave no stale entries behind.
+        for (long id = 1; id <= 500; id += 7) {
+            String title = randomTitle(random);
+            index.put(id, title);
+            titles.put(id, title);
+        }
+        for (long id = 3; id <= 500; id += 11) {
+            index.remove(id);
+            titles.remove(id);
+        }
+
+        String[] patterns = { "moon%", "%MOON%", "%of_the%", "Dark Sea", "D_rk%", "%", "%cat", "_a%",
+                "%100\\%%", "zzz%", "%sea%moon%", "m%n" };
+        for (String pattern : patterns) {
+            assertEquals(pattern, bruteForce(titles, pattern), index.match(pattern));
+        }
+        assertEquals(titles.size(), index.size());
+    }
+
+    @Test
+    public void testServiceKeepsCatalogCurrent() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        GameService plain = store.gameService();
+        plain.create(buildGame("Moon Raiders"));
+        plain.create(buildGame("Sea of Moons"));
+
+        GameCatalog catalog = new GameCatalog();
+        catalog.load(null, store.getGameDAO());
+        GameService gameService = new GameServiceImpl(store.getDataSource(), store.getGameDAO(), catalog);
+        assertEquals(2, gameService.retrieveByTitle("%moon%").size());
+
+        Game created = gameService.create(buildGame("Dark Moon"));
+        assertEquals(3, gameService.retrieveByTitle("%moon%").size());
+        created.setTitle("Dark Sun");
+        gameService.update(created);
+        assertEquals(2, gameService.retrieveByTitle("%moon%").size());
+        assertEquals("Dark Sun", gameService.retrieveByTitle("dark%").get(0).getTitle());
+        gameService.delete(created.getId());
+        assertEquals(0, gameService.retrieveByTitle("dark%").size());
+
+        // Writes that bypass the service are only seen by the database path.
+        plain.create(buildGame("Moon Walk"));
+        assertEquals(2, gameService.retrieveByTitle("%moon%").size());
+        assertEquals(3, gameService.retrieveByTitle("%moon%", true).size());
+    }
+
+    private static List<Long> bruteForce(Map<Long, String> titles, String pattern)
+    {
+        List<Long> result = new ArrayList<Long>();
+        for (Map.Entry<Long, String> entry : titles.entrySet()) {
+            if (SqlLike.matches(entry.getValue(), pattern)) {
+                result.add(entry.getKey());
+            }
+        }
+        result.sort(null);
+        return result;
+    }
+
+    private static String randomTitle(Random random)
+    {
+        StringBuilder sb = new StringBuilder();
+        int words = 1 + random.nextInt(4);
+        for (int idx = 0; idx < words; idx++) {
+            if (idx > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,126 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package index;
+
+import static cs4347.jdbcGame.testing.TestEntities.buildGamesPlayed;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.dao.memory.MemoryStore;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.index.HyperLogLog;
+import cs4347.jdbcGame.index.UniquePlayersIndex;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+
+public class UniquePlayersIndexTestCase
+{
+    // Monday.
+    private static final LocalDate BASE = LocalDate.of(2024, 1, 1);
+
+    @Test
+    public void testEstimateWithinErrorBound()
+    {
+        HyperLogLog sketch = new HyperLogLog(12);
+        HyperLogLog odd = new HyperLogLog(12);
+        HyperLogLog even = new HyperLogLog(12);
+        long added = 0;
+        for (long count : new long[] { 10, 1000, 100000, 1000000 }) {
+            for (; added < count; added++) {
+                // Each value twice: repeats must not count.
+                sketch.add(added * 7919);
+                sketch.add(added * 7919);
+                (added % 2 == 0 ? even : odd).add(added * 7919);
+            }
+            double error = Math.abs(sketch.estimate() - count) / (double) count;
+            assertTrue(count + ": " + sketch.estimate(), error < 4 * sketch.relativeError());
+        }
+        // Small counts come from linear counting and are exact here.
+        HyperLogLog small = new HyperLogLog(12);
+        for (long value = 0; value < 10; value++) {
+            small.add(value);
+        }
+        assertEquals(10, small.estimate());
+
+        HyperLogLog union = odd.copy();
+        union.merge(even);
+        assertEquals(sketch, union);
+        assertEquals(sketch.estimate(), union.estimate());
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+        assertEquals(sketch, restored);
+        assertEquals(sketch.estimate(), restored.estimate());
+    }
+
+    @Test
+    public void testDailyAndWeeklyBuckets()
+    {
+        UniquePlayersIndex index = new UniquePlayersIndex(12, 14);
+        // Players 1..100 on Monday, 51..150 on Tuesday, 1..10 the next Monday.
+        // At these sizes linear counting is within a player or two.
+        for (long playerID = 1; playerID <= 100; playerID++) {
+            index.add(7, playerID, date(0));
+            index.add(7, playerID + 50, date(1));
+        }
+        for (long playerID = 1; playerID <= 10; playerID++) {
+            index.add(7, playerID, date(7));
+        }
+        index.add(7, 999, null);
+        assertEquals(151, index.uniquePlayers(7), 2);
+        assertEquals(100, index.uniquePlayersOnDay(7, date(1)), 2);
+        assertEquals(150, index.uniquePlayersInWeek(7, date(6)), 2);
+        assertEquals(10, index.uniquePlayersInWeek(7, date(8)), 2);
+        assertEquals(150, index.uniquePlayers(7, date(0), date(7)), 2);
+        assertEquals(0, index.uniquePlayers(8));
+
+        // Buckets older than the retention are dropped.
+        index.add(7, 1, date(30));
+        assertEquals(0, index.uniquePlayersOnDay(7, date(0)));
+        assertEquals(0, index.uniquePlayersInWeek(7, date(0)));
+        assertEquals(1, index.uniquePlayersOnDay(7, date(30)));
+        assertEquals(151, index.uniquePlayers(7), 2);
+    }
+
+    @Test
+    public void testServiceEstimateAndExactPath() throws Exception
+    {
+        MemoryStore store = new MemoryStore();
+        UniquePlayersIndex index = new UniquePlayersIndex();
+        index.rebuild(null, store.getGamesPlayedDAO());
+        GamesPlayedServiceImpl service = new GamesPlayedServiceImpl(store.getDataSource(),
+                store.getGamesPlayedDAO(), null, index, null);
+        for (long playerID = 1; playerID <= 300; playerID++) {
+            service.create(buildGamesPlayed(playerID % 200 + 1, 5L, 10, date((int) (playerID % 3))));
+        }
+        assertEquals(200, service.countUniquePlayers(5, true));
+        assertEquals(200, service.countUniquePlayers(5), 200 * 2 * index.getRelativeError());
+        assertEquals(service.countUniquePlayers(5, true), store.gamesPlayedService().countUniquePlayers(5));
+
+        // Deletes only leave the sketch through a rebuild.
+        for (GamesPlayed gamesPlayed : service.retrieveByGame(5)) {
+            if (gamesPlayed.getPlayerID() > 100) {
+                service.delete(gamesPlayed.getId());
+            }
+        }
+        assertEquals(100, service.countUniquePlayers(5, true));
+        assertTrue(service.countUniquePlayers(5) > 150);
+        index.rebuild(null, store.getGamesPlayedDAO());
+        assertEquals(100, service.countUniquePlayers(5), 100 * 2 * index.getRelativeError());
+    }
+
+    private static Date date(int day)
+    {
+        return java.sql.Date.valueOf(BASE.plusDays(day));
+    }
+}
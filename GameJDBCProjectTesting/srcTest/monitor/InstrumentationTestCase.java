@@ -0,0 +1,136 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.monitor.Instrumentation;
+import cs4347.jdbcGame.monitor.InstrumentedComponent;
+import cs4347.jdbcGame.monitor.LatencyHistogram;
+import cs4347.jdbcGame.monitor.MethodStats;
+import cs4347.jdbcGame.monitor.MethodStatsSnapshot;
+
+public class InstrumentationTestCase
+{
+    public interface Lookup
+    {
+        String find(long id) throws SQLException;
+    }
+
+    public interface Catalog
+    {
+        String find(long id);
+
+        String find(String title, boolean exact);
+    }
+
+    @Test
+    public void testCountsCallsAndErrors() throws Exception
+    {
+        Lookup lookup = Instrumentation.instrument(Lookup.class, id -> {
+            if (id < 0) {
+                throw new SQLException("negative id");
+            }
+            return "id" + id;
+        }, "LookupTest");
+
+        assertEquals("id7", lookup.find(7));
+        assertEquals("id8", lookup.find(8));
+        try {
+            lookup.find(-1);
+        } catch (SQLException ex) {
+            // The original exception reaches the caller, not a proxy wrapper.
+            assertEquals("negative id", ex.getMessage());
+        }
+
+        MethodStats stats = Instrumentation.getComponent("LookupTest").getStats("find");
+        MethodStatsSnapshot snapshot = stats.snapshot();
+        assertEquals(3, snapshot.getCalls());
+        assertEquals(1, snapshot.getErrors());
+        assertTrue(snapshot.getMaxNanos() >= snapshot.getP50Nanos());
+    }
+
+    @Test
+    public void testOverloadsCountedApart() throws Exception
+    {
+        Catalog catalog = Instrumentation.instrument(Catalog.class, new Catalog()
+        {
+            @Override
+            public String find(long id)
+            {
+                return "id" + id;
+            }
+
+            @Override
+            public String find(String title, boolean exact)
+            {
+                return title;
+            }
+        }, "CatalogTest");
+
+        catalog.find(1);
+        catalog.find("a", true);
+        catalog.find("b", false);
+
+        InstrumentedComponent component = Instrumentation.getComponent("CatalogTest");
+        assertEquals(1, component.getStats("find(long)").snapshot().getCalls());
+        assertEquals(2, component.getStats("find(String, boolean)").snapshot().getCalls());
+        assertEquals("CatalogTest.find(long)", component.getStats("find(long)").getName());
+        try {
+            component.getStats("find");
+            fail("find is overloaded");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRegisteredWithJMX() throws Exception
+    {
+        Instrumentation.instrument(Lookup.class, id -> "x", "JmxLookupTest").find(1);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("cs4347.jdbcGame:type=Instrumentation,name=\"JmxLookupTest\"");
+        assertTrue(server.isRegistered(name));
+        assertNotNull(server.getAttribute(name, "MethodStats"));
+    }
+
+    @Test
+    public void testHistogramPercentiles() throws Exception
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int idx = 1; idx <= 1000; idx++) {
+            histogram.record(idx * 1000L);
+        }
+        long[] counts = histogram.snapshotCounts();
+        assertWithin(500_000, LatencyHistogram.valueAtPercentile(counts, 50));
+        assertWithin(990_000, LatencyHistogram.valueAtPercentile(counts, 99));
+        assertWithin(999_000, LatencyHistogram.valueAtPercentile(counts, 99.9));
+        assertEquals(1_000_000, histogram.getMax());
+    }
+
+    // Buckets are 1/16 of a power of two wide.
+    private void assertWithin(long expected, long actual)
+    {
+        assertTrue(expected + " vs " + actual, Math.abs(expected - actual) <= expected / 16);
+    }
+}
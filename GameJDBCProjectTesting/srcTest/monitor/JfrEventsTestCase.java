@@ -0,0 +1,81 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.sql.SQLException;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.monitor.Instrumentation;
+import cs4347.jdbcGame.monitor.JfrEvents;
+
+public class JfrEventsTestCase
+{
+    public interface Lookup
+    {
+        String find(Long id) throws SQLException;
+    }
+
+    @Test
+    public void testDisabledWithoutRecording() throws Exception
+    {
+        assertNull(JfrEvents.beginServiceCall());
+        assertNull(JfrEvents.beginJdbcStatement());
+        // Committing a null event is a no-op.
+        JfrEvents.commitServiceCall(null, "c", "m", 1, 0, false);
+        JfrEvents.commitJdbcStatement(null, "SELECT 1", 1, 1, 0, 0, false);
+    }
+
+    @Test
+    public void testEnabledDuringRecording() throws Exception
+    {
+        Object recording;
+        try {
+            recording = Class.forName("jdk.jfr.Recording").getConstructor().newInstance();
+        } catch (ClassNotFoundException ex) {
+            return; // JVM without Flight Recorder
+        }
+        recording.getClass().getMethod("enable", String.class).invoke(recording, JfrEvents.SERVICE_CALL);
+        recording.getClass().getMethod("start").invoke(recording);
+        try {
+            Object event = JfrEvents.beginServiceCall();
+            assertNotNull(event);
+            JfrEvents.commitServiceCall(event, "Lookup", "find", 1, 0, false);
+
+            Lookup lookup = Instrumentation.instrument(Lookup.class, id -> "game" + id, "JfrLookup");
+            assertEquals("game7", lookup.find(7L));
+        }
+        finally {
+            recording.getClass().getMethod("stop").invoke(recording);
+            recording.getClass().getMethod("close").invoke(recording);
+        }
+    }
+
+    @Test
+    public void testSqlId() throws Exception
+    {
+        String sql = "SELECT id FROM game WHERE id = ?";
+        assertEquals(8, JfrEvents.sqlId(sql).length());
+        assertEquals(JfrEvents.sqlId(sql), JfrEvents.sqlId(new String(sql)));
+    }
+
+    @Test
+    public void testConnectionWaitAccumulates() throws Exception
+    {
+        long before = JfrEvents.connectionWaitNanos();
+        JfrEvents.connectionWaited(250);
+        assertEquals(before + 250, JfrEvents.connectionWaitNanos());
+    }
+}
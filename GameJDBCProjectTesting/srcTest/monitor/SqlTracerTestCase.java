@@ -0,0 +1,158 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.monitor.SqlStats;
+import cs4347.jdbcGame.monitor.SqlTracer;
+
+public class SqlTracerTestCase
+{
+    private static final String selectSQL = "SELECT id FROM creditcard where playerID = ?";
+    private static final String insertSQL = "INSERT INTO creditcard(ccName, ccNumber, expDate, securityCode, playerID) VALUES(?,?,?,?,?)";
+
+    @Test
+    public void testCountsRowsAndRoundTrips() throws Exception
+    {
+        SqlTracer tracer = new SqlTracer(60_000);
+        Connection connection = tracer.trace(fakeConnection(3));
+
+        connection.setAutoCommit(false);
+        PreparedStatement ps = connection.prepareStatement(selectSQL);
+        ps.setLong(1, 42L);
+        ResultSet rs = ps.executeQuery();
+        int rows = 0;
+        while (rs.next()) {
+            rows++;
+        }
+        ps.close();
+        connection.commit();
+
+        assertEquals(3, rows);
+        SqlStats stats = tracer.getStats(selectSQL);
+        assertNotNull(stats);
+        assertEquals(1, stats.getExecutions());
+        assertEquals(3, stats.getRows());
+        assertEquals(1, stats.getRoundTrips());
+        assertEquals(0, stats.getSlowExecutions());
+        // setAutoCommit + executeQuery + commit
+        assertEquals(3, tracer.getRoundTrips());
+    }
+
+    @Test
+    public void testSlowQueryLogMasksCardValues() throws Exception
+    {
+        List<String> lines = new ArrayList<String>();
+        Handler handler = new Handler()
+        {
+            @Override
+            public void publish(LogRecord record)
+            {
+                lines.add(record.getMessage());
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+        Logger logger = Logger.getLogger(SqlTracer.SLOW_QUERY_LOGGER);
+        logger.addHandler(handler);
+        try {
+            SqlTracer tracer = new SqlTracer(0);
+            Connection connection = tracer.trace(fakeConnection(0));
+            PreparedStatement ps = connection.prepareStatement(insertSQL);
+            ps.setString(1, "Wasima Steinmetz");
+            ps.setString(2, "2322455832454530");
+            ps.setString(3, "16-Nov");
+            ps.setInt(4, 362);
+            ps.setLong(5, 1L);
+            ps.executeUpdate();
+            ps.close();
+
+            assertEquals(1, lines.size());
+            String line = lines.get(0);
+            assertTrue(line, line.contains("\"params\":[\"****\",\"****4530\",\"****\",\"****\",1]"));
+            assertFalse(line, line.contains("2322455832454530"));
+            assertFalse(line, line.contains("362"));
+            assertEquals(1, tracer.getStats(insertSQL).getRows());
+        }
+        finally {
+            logger.removeHandler(handler);
+        }
+    }
+
+    // A Connection whose statements return the given number of rows and report
+    // one updated row.
+    private Connection fakeConnection(int rowCount)
+    {
+        int[] remaining = { rowCount };
+        ResultSet rs = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("next")) {
+                        return remaining[0]-- > 0;
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+        PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("executeQuery")) {
+                        return rs;
+                    }
+                    if (method.getName().equals("executeUpdate")) {
+                        return 1;
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("prepareStatement")) {
+                        return ps;
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+    }
+
+    private static Object defaultValue(Class<?> type)
+    {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,202 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.CreditCard;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.monitor.RecordedCall;
+import cs4347.jdbcGame.monitor.WorkloadReader;
+import cs4347.jdbcGame.monitor.WorkloadRecorder;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.PlayerService;
+import cs4347.jdbcGame.util.DAOException;
+
+public class WorkloadRecorderTestCase
+{
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        WorkloadRecorder recorder = new WorkloadRecorder(log);
+        GameService gameService = recorder.record(GameService.class, stub(GameService.class));
+
+        Game game = new Game();
+        game.setTitle("Chess");
+        game.setDescription("Two player board game");
+        game.setReleaseDate(new Date(1_000_000_000L));
+        game.setVersion("1.0");
+        gameService.create(game);
+        gameService.retrieve(42L);
+        gameService.retrieveByTitle("Ch%");
+        try {
+            gameService.delete(-1L);
+        } catch (DAOException ex) {
+            // expected from the stub
+        }
+        recorder.close();
+        assertEquals(4, recorder.getRecordedCount());
+        assertEquals(0, recorder.getDroppedCount());
+
+        List<RecordedCall> calls = new WorkloadReader(new ByteArrayInputStream(log.toByteArray())).readAll();
+        assertEquals(4, calls.size());
+
+        RecordedCall create = calls.get(0);
+        assertEquals("create", create.getMethod().getName());
+        Game recordedGame = (Game) create.getArguments()[0];
+        // Arguments are captured before the call assigns the ID.
+        assertNull(recordedGame.getId());
+        assertEquals("Chess", recordedGame.getTitle());
+        assertEquals("Two player board game", recordedGame.getDescription());
+        assertEquals(1_000_000_000L, recordedGame.getReleaseDate().getTime());
+        assertEquals("1.0", recordedGame.getVersion());
+
+        assertEquals("retrieve", calls.get(1).getMethod().getName());
+        assertEquals(42L, calls.get(1).getArguments()[0]);
+        assertEquals("Ch%", calls.get(2).getArguments()[0]);
+        assertFalse(calls.get(2).isFailed());
+        assertTrue(calls.get(3).isFailed());
+        assertTrue(calls.get(3).getStartMicros() >= calls.get(0).getStartMicros());
+        assertEquals(Thread.currentThread().getId(), calls.get(0).getThreadID());
+    }
+
+    @Test
+    public void testCardNumbersMasked() throws Exception
+    {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        WorkloadRecorder recorder = new WorkloadRecorder(log);
+        PlayerService playerService = recorder.record(PlayerService.class, stub(PlayerService.class));
+
+        CreditCard creditCard = new CreditCard();
+        creditCard.setCcName("Ann Lee");
+        creditCard.setCcNumber("4111-1111-1111-4530");
+        creditCard.setSecurityCode(123);
+        creditCard.setExpDate("12/30");
+        List<CreditCard> creditCards = new ArrayList<CreditCard>();
+        creditCards.add(creditCard);
+        Player player = new Player();
+        player.setFirstName("Ann");
+        player.setCreditCards(creditCards);
+        playerService.create(player);
+        recorder.close();
+
+        byte[] bytes = log.toByteArray();
+        assertFalse(new String(bytes, "ISO-8859-1").contains("4111"));
+        RecordedCall call = new WorkloadReader(new ByteArrayInputStream(bytes)).next();
+        CreditCard recorded = ((Player) call.getArguments()[0]).getCreditCards().get(0);
+        assertEquals("0000-0000-0000-4530", recorded.getCcNumber());
+        assertEquals(0, recorded.getSecurityCode());
+        assertEquals("Ann Lee", recorded.getCcName());
+    }
+
+    @Test
+    public void testOverloadsWithSameParameterCount() throws Exception
+    {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        WorkloadRecorder recorder = new WorkloadRecorder(log);
+        Lookup lookup = recorder.record(Lookup.class, stub(Lookup.class));
+        lookup.find("Chess");
+        lookup.find(7L);
+        lookup.find(3);
+        recorder.close();
+
+        List<RecordedCall> calls = new WorkloadReader(new ByteArrayInputStream(log.toByteArray())).readAll();
+        assertEquals(3, calls.size());
+        assertEquals(String.class, calls.get(0).getMethod().getParameterTypes()[0]);
+        assertEquals(Long.class, calls.get(1).getMethod().getParameterTypes()[0]);
+        assertEquals(int.class, calls.get(2).getMethod().getParameterTypes()[0]);
+        assertEquals(3, calls.get(2).getArguments()[0]);
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception
+    {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        WorkloadRecorder recorder = new WorkloadRecorder(log);
+        GameService gameService = recorder.record(GameService.class, stub(GameService.class));
+        Thread[] threads = new Thread[4];
+        for (int idx = 0; idx < threads.length; idx++) {
+            threads[idx] = new Thread(() -> {
+                for (int call = 0; call < 2000; call++) {
+                    try {
+                        gameService.retrieve((long) call);
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            });
+            threads[idx].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        recorder.close();
+        assertEquals(8000, recorder.getRecordedCount());
+        assertEquals(0, recorder.getDroppedCount());
+
+        // Each thread's calls come back whole and in its own order.
+        Map<Long, Long> next = new HashMap<Long, Long>();
+        for (Thread thread : threads) {
+            next.put(thread.getId(), 0L);
+        }
+        for (RecordedCall call : new WorkloadReader(new ByteArrayInputStream(log.toByteArray())).readAll()) {
+            long expected = next.get(call.getThreadID());
+            assertEquals(expected, call.getArguments()[0]);
+            next.put(call.getThreadID(), expected + 1);
+        }
+        for (long count : next.values()) {
+            assertEquals(2000, count);
+        }
+    }
+
+    public interface Lookup
+    {
+        int find(Long id);
+
+        int find(String title);
+
+        int find(int rank);
+    }
+
+    /**
+     * Service stub: delete() of a negative ID fails, everything else returns a
+     * default value.
+     */
+    private static <T> T stub(Class<T> iface)
+    {
+        return iface.cast(Proxy.newProxyInstance(WorkloadRecorderTestCase.class.getClassLoader(),
+                new Class<?>[] { iface }, (proxy, method, args) -> {
+                    if (method.getName().equals("delete") && ((Number) args[0]).longValue() < 0) {
+                        throw new DAOException("Trying to delete with invalid ID");
+                    }
+                    if (method.getName().equals("create")) {
+                        return args[0];
+                    }
+                    return method.getReturnType() == int.class ? 0 : null;
+                }));
+    }
+}
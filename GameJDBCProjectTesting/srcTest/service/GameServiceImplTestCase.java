@@ -27,6 +27,7 @@ import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.services.GameService;
 import cs4347.jdbcGame.services.impl.GameServiceImpl;
 import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.testing.QueryBudget;
 import cs4347.jdbcGame.util.TestingUtil;
 
 public class GameServiceImplTestCase
@@ -158,6 +159,24 @@ public class GameServiceImplTestCase
         assertTrue(count > 0);
     }
 
+    /**
+     * Every GameService method is a single statement in one transaction.
+     */
+    @Test
+    public void testQueryBudget() throws Exception
+    {
+        QueryBudget budget = new QueryBudget(DataSourceManager.getDataSource());
+        GameService gameService = new GameServiceImpl(budget.getDataSource());
+
+        Game g1 = buildGame();
+        budget.assertAtMost(1, 4, () -> gameService.create(g1));
+        budget.assertAtMost(1, 4, () -> gameService.retrieve(g1.getId()));
+        budget.assertAtMost(1, 4, () -> gameService.retrieveByTitle("Test%"));
+        budget.assertAtMost(1, 4, () -> gameService.retrieveByReleaseDate(new Date(0), new Date()));
+        budget.assertAtMost(1, 4, () -> gameService.update(g1));
+        budget.assertAtMost(1, 4, () -> gameService.delete(g1.getId()));
+    }
+
     private Game buildGame()
     {
         Game result = new Game();
@@ -26,6 +26,7 @@ import cs4347.jdbcGame.entity.GamesOwned;
 import cs4347.jdbcGame.services.GamesOwnedService;
 import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
 import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.testing.QueryBudget;
 import cs4347.jdbcGame.util.TestingUtil;
 
 public class GamesOwnedServiceImplTestCase
@@ -173,6 +174,24 @@ public class GamesOwnedServiceImplTestCase
         assertTrue(count > 0);
     }
 
+    /**
+     * Every GamesOwnedService method is a single statement in one transaction.
+     */
+    @Test
+    public void testQueryBudget() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        QueryBudget budget = new QueryBudget(ds);
+        GamesOwnedService goService = new GamesOwnedServiceImpl(budget.getDataSource());
+
+        GamesOwned go1 = buildGamesOwned(ds);
+        budget.assertAtMost(1, 4, () -> goService.create(go1));
+        budget.assertAtMost(1, 4, () -> goService.retrieveByID(go1.getId()));
+        budget.assertAtMost(1, 4, () -> goService.retrieveByPlayer(go1.getPlayerID()));
+        budget.assertAtMost(1, 4, () -> goService.retrieveByGame(go1.getGameID()));
+        budget.assertAtMost(1, 4, () -> goService.delete(go1.getId()));
+    }
+
     // Initializes a new GameOwned include valid player and game ids.
     private GamesOwned buildGamesOwned(DataSource ds) throws Exception
     {
@@ -26,6 +26,7 @@ import cs4347.jdbcGame.entity.GamesPlayed;
 import cs4347.jdbcGame.services.GamesPlayedService;
 import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
 import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.testing.QueryBudget;
 import cs4347.jdbcGame.util.TestingUtil;
 
 public class GamesPlayedServiceImplTestCase
@@ -170,6 +171,25 @@ public class GamesPlayedServiceImplTestCase
         assertTrue(count > 0);
     }
 
+    /**
+     * Every GamesPlayedService method is a single statement in one transaction.
+     */
+    @Test
+    public void testQueryBudget() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        QueryBudget budget = new QueryBudget(ds);
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(budget.getDataSource());
+
+        GamesPlayed gp1 = buildGamesPlayed(ds);
+        budget.assertAtMost(1, 4, () -> gpService.create(gp1));
+        budget.assertAtMost(1, 4, () -> gpService.retrieveByID(gp1.getId()));
+        budget.assertAtMost(1, 4, () -> gpService.retrieveByPlayer(gp1.getPlayerID()));
+        budget.assertAtMost(1, 4, () -> gpService.retrieveByGame(gp1.getGameID()));
+        budget.assertAtMost(1, 4, () -> gpService.retrieveByPlayerGameID(gp1.getPlayerID(), gp1.getGameID()));
+        budget.assertAtMost(1, 4, () -> gpService.delete(gp1.getId()));
+    }
+
     // Initializes a new GamesPlayed include valid player and game ids. 
     private GamesPlayed buildGamesPlayed(DataSource ds) throws Exception
     {
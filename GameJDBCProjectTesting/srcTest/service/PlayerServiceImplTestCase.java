@@ -28,6 +28,7 @@ import cs4347.jdbcGame.entity.Player;
 import cs4347.jdbcGame.services.PlayerService;
 import cs4347.jdbcGame.services.impl.PlayerServiceImpl;
 import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.testing.QueryBudget;
 
 public class PlayerServiceImplTestCase
 {
@@ -173,6 +174,26 @@ public class PlayerServiceImplTestCase
         assertTrue(playerList.size() > 0);
     }
 
+    /**
+     * Creating a player is one insert for the player and one per credit card.
+     * Retrieving it is one query for the player and one for all of its cards,
+     * however many cards it has.
+     */
+    @Test
+    public void testQueryBudget() throws Exception
+    {
+        QueryBudget budget = new QueryBudget(DataSourceManager.getDataSource());
+        PlayerService playerService = new PlayerServiceImpl(budget.getDataSource());
+
+        Player p1 = buildPlayerWithCC();
+        int ccCount = p1.getCreditCards().size();
+        budget.assertAtMost(1 + ccCount, 4 + ccCount, () -> playerService.create(p1));
+        budget.assertAtMost(2, 5, () -> playerService.retrieve(p1.getId()));
+        budget.assertAtMost(1, 4, () -> playerService.countCreditCardsForPlayer(p1.getId()));
+        budget.assertAtMost(1, 4, () -> playerService.count());
+        budget.assertAtMost(2, 5, () -> playerService.delete(p1.getId()));
+    }
+
     private Player buildPlayerWithCC()
     {
         Player p = new Player();
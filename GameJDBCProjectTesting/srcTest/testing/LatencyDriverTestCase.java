@@ -0,0 +1,123 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package testing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.testing.LatencyDriver;
+
+public class LatencyDriverTestCase
+{
+    static {
+        try {
+            DriverManager.registerDriver(fakeDriver());
+            Class.forName(LatencyDriver.class.getName());
+        } catch (Exception ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    @Test
+    public void testRoundTripsAreDelayed() throws Exception
+    {
+        LatencyDriver.reset();
+        Connection connection = DriverManager.getConnection("jdbc:latency:2000:jdbc:fake:db");
+        long start = System.nanoTime();
+        connection.setAutoCommit(false);
+        PreparedStatement ps = connection.prepareStatement("UPDATE game SET title = ? WHERE id = ?");
+        assertEquals(1, ps.executeUpdate());
+        connection.commit();
+        connection.close();
+        long elapsed = System.nanoTime() - start;
+
+        // setAutoCommit, executeUpdate and commit; prepare and close are local.
+        assertEquals(3, LatencyDriver.getRoundTrips());
+        assertTrue(elapsed >= 6_000_000L);
+        assertTrue(LatencyDriver.getInjectedNanos() >= 6_000_000L);
+    }
+
+    @Test
+    public void testJitterStaysInRange() throws Exception
+    {
+        LatencyDriver.reset();
+        Connection connection = DriverManager.getConnection("jdbc:latency:1000/500:jdbc:fake:db");
+        for (int idx = 0; idx < 20; idx++) {
+            connection.commit();
+        }
+        assertEquals(20, LatencyDriver.getRoundTrips());
+        assertTrue(LatencyDriver.getInjectedNanos() >= 20 * 500_000L);
+    }
+
+    @Test
+    public void testOtherUrlsNotAccepted() throws Exception
+    {
+        assertNull(new LatencyDriver().connect("jdbc:fake:db", new Properties()));
+    }
+
+    @Test(expected = SQLException.class)
+    public void testInvalidLatency() throws Exception
+    {
+        DriverManager.getConnection("jdbc:latency:fast:jdbc:fake:db");
+    }
+
+    private static Driver fakeDriver()
+    {
+        return (Driver) Proxy.newProxyInstance(LatencyDriverTestCase.class.getClassLoader(),
+                new Class<?>[] { Driver.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "acceptsURL":
+                        return ((String) args[0]).startsWith("jdbc:fake:");
+                    case "connect":
+                        return ((String) args[0]).startsWith("jdbc:fake:") ? fakeConnection() : null;
+                    default:
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private static Connection fakeConnection()
+    {
+        PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(LatencyDriverTestCase.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                (proxy, method, args) -> method.getName().equals("executeUpdate") ? 1
+                        : defaultValue(method.getReturnType()));
+        return (Connection) Proxy.newProxyInstance(LatencyDriverTestCase.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> method.getName().equals("prepareStatement") ? ps
+                        : defaultValue(method.getReturnType()));
+    }
+
+    private static Object defaultValue(Class<?> type)
+    {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package testing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.testing.QueryBudget;
+
+public class QueryBudgetTestCase
+{
+    @Test
+    public void testWithinBudget() throws Exception
+    {
+        QueryBudget budget = new QueryBudget(fakeDataSource());
+        QueryBudget.Usage usage = budget.assertAtMost(2, 5, () -> transaction(budget.getDataSource(), 2));
+        assertEquals(2, usage.getStatements());
+        assertEquals(5, usage.getRoundTrips());
+        assertEquals(1, usage.getStatsBySql().size());
+    }
+
+    @Test
+    public void testOverBudget() throws Exception
+    {
+        QueryBudget budget = new QueryBudget(fakeDataSource());
+        try {
+            budget.assertAtMost(1, 4, () -> transaction(budget.getDataSource(), 10));
+        } catch (AssertionError ex) {
+            assertTrue(ex.getMessage().contains("10 statements"));
+            assertTrue(ex.getMessage().contains("10 x SELECT * FROM creditcard WHERE playerID = ?"));
+            return;
+        }
+        throw new AssertionError("budget not enforced");
+    }
+
+    /**
+     * The shape of a service method: one transaction issuing the given number
+     * of queries.
+     */
+    private static void transaction(DataSource ds, int queries) throws Exception
+    {
+        Connection connection = ds.getConnection();
+        connection.setAutoCommit(false);
+        for (int idx = 0; idx < queries; idx++) {
+            PreparedStatement ps = connection.prepareStatement("SELECT * FROM creditcard WHERE playerID = ?");
+            ps.setLong(1, idx);
+            ps.executeQuery();
+            ps.close();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        connection.close();
+    }
+
+    private static DataSource fakeDataSource()
+    {
+        ClassLoader loader = QueryBudgetTestCase.class.getClassLoader();
+        PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(loader,
+                new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> null);
+        Connection connection = (Connection) Proxy.newProxyInstance(loader, new Class<?>[] { Connection.class },
+                (proxy, method, args) -> method.getName().equals("prepareStatement") ? ps : null);
+        return (DataSource) Proxy.newProxyInstance(loader, new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> connection);
+    }
+}
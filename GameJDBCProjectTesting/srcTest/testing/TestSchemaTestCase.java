@@ -0,0 +1,57 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package testing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.testing.TestSchema;
+
+public class TestSchemaTestCase
+{
+    @Test
+    public void testReadSchema() throws Exception
+    {
+        List<String> ddl = TestSchema.readSchema();
+        assertEquals(12, ddl.size());
+        assertTrue(ddl.get(0).startsWith("CREATE TABLE player ("));
+        for (String statement : ddl) {
+            assertTrue(!statement.contains(";") && !statement.contains("--"));
+        }
+    }
+
+    @Test
+    public void testH2URL() throws Exception
+    {
+        assertEquals("jdbc:h2:mem:test_1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+                TestSchema.isolatedURL("jdbc:h2:mem:games", "sa", "", "test_1"));
+        assertEquals("jdbc:h2:mem:test_2;MODE=MySQL;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+                TestSchema.isolatedURL("jdbc:h2:mem:games;MODE=MySQL", "sa", "", "test_2"));
+    }
+
+    @Test
+    public void testLatencyWrappedURL() throws Exception
+    {
+        assertEquals("jdbc:latency:500:jdbc:h2:mem:test_3;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+                TestSchema.isolatedURL("jdbc:latency:500:jdbc:h2:mem:games", "sa", "", "test_3"));
+    }
+
+    @Test(expected = SQLException.class)
+    public void testUnsupportedURL() throws Exception
+    {
+        TestSchema.isolatedURL("jdbc:postgresql://localhost/games", "id", "", "test_4");
+    }
+}
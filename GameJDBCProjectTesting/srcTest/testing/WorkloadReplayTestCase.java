@@ -0,0 +1,69 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package testing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.monitor.RecordedCall;
+import cs4347.jdbcGame.monitor.WorkloadReader;
+import cs4347.jdbcGame.monitor.WorkloadRecorder;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.testing.WorkloadReplay;
+
+public class WorkloadReplayTestCase
+{
+    @Test
+    public void testReplay() throws Exception
+    {
+        AtomicInteger calls = new AtomicInteger();
+        GameService counting = (GameService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { GameService.class }, (proxy, method, args) -> {
+                    calls.incrementAndGet();
+                    return method.getReturnType() == int.class ? 0 : null;
+                });
+
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        WorkloadRecorder recorder = new WorkloadRecorder(log);
+        GameService recorded = recorder.record(GameService.class, counting);
+        for (long id = 1; id <= 50; id++) {
+            recorded.retrieve(id);
+        }
+        recorder.close();
+        List<RecordedCall> workload = new WorkloadReader(new ByteArrayInputStream(log.toByteArray())).readAll();
+
+        Map<Class<?>, Object> targets = new HashMap<Class<?>, Object>();
+        targets.put(GameService.class, counting);
+        calls.set(0);
+        WorkloadReplay.Result max = WorkloadReplay.replay(workload, targets, 0, 4);
+        assertEquals(50, calls.get());
+        assertEquals(50, max.getCompleted());
+        assertEquals(0, max.getErrors());
+        assertTrue(max.getThroughput() > 0);
+
+        WorkloadReplay.Result paced = WorkloadReplay.replay(workload, targets, 1, 2);
+        assertEquals(50, paced.getCompleted());
+        assertTrue(paced.latencyAtPercentile(99) >= paced.serviceTimeAtPercentile(50));
+
+        WorkloadReplay.Result none = WorkloadReplay.replay(workload, new HashMap<Class<?>, Object>(), 0, 1);
+        assertEquals(50, none.getSkipped());
+    }
+}
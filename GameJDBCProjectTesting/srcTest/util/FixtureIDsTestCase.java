@@ -0,0 +1,131 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.FixtureIDs;
+import cs4347.jdbcGame.util.TestingUtil;
+
+public class FixtureIDsTestCase
+{
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @Test
+    public void testLoadedOnce() throws Exception
+    {
+        DataSource ds = fakeDataSource(5000, 40);
+        assertEquals(101L, (long) TestingUtil.getPlayerID(ds));
+        assertEquals(1001L, (long) TestingUtil.getGameID(ds));
+        List<Long> players = TestingUtil.getPlayerIDs(ds, 10);
+        assertEquals(10, players.size());
+        assertEquals(110L, (long) players.get(9));
+        // One query per table, bounded by MAX_CACHED.
+        assertEquals(2, queries.get());
+
+        FixtureIDs fixtures = FixtureIDs.forDataSource(ds);
+        assertEquals(FixtureIDs.MAX_CACHED, fixtures.playerCount());
+        assertEquals(40, fixtures.gameCount());
+        assertEquals(1001L, fixtures.nextGameID());
+        assertEquals(1002L, fixtures.nextGameID());
+        Set<Long> seen = new HashSet<Long>();
+        for (int idx = 0; idx < 200; idx++) {
+            long id = fixtures.randomGameID();
+            assertTrue(id >= 1001 && id <= 1040);
+            seen.add(id);
+        }
+        assertTrue(seen.size() > 1);
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    public void testBoundedFallback() throws Exception
+    {
+        DataSource ds = fakeDataSource(5000, 40);
+        List<Long> players = TestingUtil.getPlayerIDs(ds, FixtureIDs.MAX_CACHED + 5);
+        assertEquals(FixtureIDs.MAX_CACHED + 5, players.size());
+        assertEquals(3, queries.get());
+    }
+
+    @Test(expected = DAOException.class)
+    public void testTooFewRows() throws Exception
+    {
+        TestingUtil.getGameIDs(fakeDataSource(5000, 40), 41);
+    }
+
+    /**
+     * Players are numbered from 101 and games from 1001; each query honors its
+     * LIMIT parameter.
+     */
+    private DataSource fakeDataSource(int players, int games)
+    {
+        ClassLoader loader = getClass().getClassLoader();
+        Connection connection = (Connection) Proxy.newProxyInstance(loader, new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("prepareStatement")) {
+                        return null;
+                    }
+                    queries.incrementAndGet();
+                    boolean player = ((String) args[0]).contains("player");
+                    long first = player ? 101 : 1001;
+                    int rows = player ? players : games;
+                    int[] limit = new int[1];
+                    int[] row = new int[1];
+                    ResultSet rs = (ResultSet) Proxy.newProxyInstance(loader, new Class<?>[] { ResultSet.class },
+                            (rsProxy, rsMethod, rsArgs) -> {
+                                if (rsMethod.getName().equals("next")) {
+                                    return ++row[0] <= Math.min(rows, limit[0]);
+                                }
+                                return first + row[0] - 1;
+                            });
+                    return Proxy.newProxyInstance(loader, new Class<?>[] { PreparedStatement.class },
+                            (psProxy, psMethod, psArgs) -> {
+                                switch (psMethod.getName()) {
+                                case "setInt":
+                                    limit[0] = (Integer) psArgs[1];
+                                    return null;
+                                case "executeQuery":
+                                    return rs;
+                                case "isClosed":
+                                    return false;
+                                default:
+                                    return null;
+                                }
+                            });
+                });
+        return (DataSource) Proxy.newProxyInstance(loader, new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return connection;
+                    }
+                });
+    }
+}